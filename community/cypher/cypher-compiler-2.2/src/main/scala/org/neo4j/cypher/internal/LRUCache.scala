@@ -19,33 +19,46 @@
  */
 package org.neo4j.cypher.internal
 
+import java.util.concurrent.{Callable, ConcurrentHashMap, ExecutionException, FutureTask}
+
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap
 
+/*
+A bounded cache, evicting the least recently used entries.
+
+Values are created at most once per key at a time: when several threads ask for a missing key at once, one of them
+creates the value and the others wait for it, rather than each creating their own. A thread that asks for the key it is
+creating the value of creates another one inline, since waiting for itself would never end.
+ */
 class LRUCache[K, V](cacheSize: Int) extends ((K, => V) => V) {
 
   val inner = new ConcurrentLinkedHashMap.Builder[K, V]
     .maximumWeightedCapacity(cacheSize)
     .build()
 
-  def getOrElseUpdate(key: K, f: => V): V = {
-    val value = inner.get(key)
+  private val inFlight = new ConcurrentHashMap[K, Creation]()
 
-    if (value == null) {
-      val createdValue = f
-      val previousValue = inner.putIfAbsent(key, createdValue)
-      if (previousValue == null) createdValue else previousValue
-    } else {
-      value
-    }
-  }
+  def getOrElseUpdate(key: K, f: => V): V = getOrElseUpdateByKey(key, _ => f)
 
   def getOrElseUpdateByKey(key: K, f: K => V): V = {
     val value = inner.get(key)
 
     if (value == null) {
-      val createdValue = f(key)
-      val previousValue = inner.putIfAbsent(key, createdValue)
-      if (previousValue == null) createdValue else previousValue
+      val task = new Creation(new Callable[V] {
+        def call(): V = create(key, f)
+      })
+      val running = inFlight.putIfAbsent(key, task)
+      if (running == null) {
+        try {
+          task.run()
+        } finally {
+          inFlight.remove(key, task)
+        }
+        await(task)
+      } else if (running.owner eq Thread.currentThread())
+        create(key, f)
+      else
+        await(running)
     } else {
       value
     }
@@ -60,4 +73,21 @@ class LRUCache[K, V](cacheSize: Int) extends ((K, => V) => V) {
   def containsKey(key: K) = inner.containsKey(key)
 
   def apply(key: K, value: => V): V = getOrElseUpdate(key, value)
+
+  private def create(key: K, f: K => V): V = {
+    val createdValue = f(key)
+    val previousValue = inner.putIfAbsent(key, createdValue)
+    if (previousValue == null) createdValue else previousValue
+  }
+
+  private def await(task: FutureTask[V]): V =
+    try {
+      task.get()
+    } catch {
+      case e: ExecutionException => throw e.getCause
+    }
+
+  private class Creation(callable: Callable[V]) extends FutureTask[V](callable) {
+    val owner = Thread.currentThread()
+  }
 }
@@ -24,7 +24,7 @@ import org.neo4j.cypher.internal.compiler.v2_2.ast.rewriters.{normalizeReturnCla
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan._
 import org.neo4j.cypher.internal.compiler.v2_2.parser.{CypherParser, ParserMonitor}
 import org.neo4j.cypher.internal.compiler.v2_2.planner._
-import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{CachedMetricsFactory, SimpleMetricsFactory}
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{CachedMetricsFactory, IDPQueryGraphSolver, SimpleMetricsFactory}
 import org.neo4j.cypher.internal.compiler.v2_2.spi.PlanContext
 import org.neo4j.cypher.internal.{LRUCache, PlanType}
 import org.neo4j.graphdb.GraphDatabaseService
@@ -62,7 +62,8 @@ object CypherCompilerFactory {
 
   def ronjaCompiler(graph: GraphDatabaseService, queryCacheSize: Int, statsDivergenceThreshold: Double,
                     queryPlanTTL: Long, clock: Clock, kernelMonitors: KernelMonitors,
-                    logger: StringLogger): CypherCompiler = {
+                    logger: StringLogger,
+                    idpBudgetInMillis: Long = IDPQueryGraphSolver.DEFAULT_BUDGET_IN_MILLIS): CypherCompiler = {
     val monitors = new Monitors(kernelMonitors)
     val parser = new CypherParser(monitors.newMonitor[ParserMonitor[Statement]](monitorTag))
     val checker = new SemanticChecker(monitors.newMonitor[SemanticCheckMonitor](monitorTag))
@@ -70,7 +71,8 @@ object CypherCompilerFactory {
     val planBuilderMonitor = monitors.newMonitor[NewLogicalPlanSuccessRateMonitor](monitorTag)
     val planningMonitor = monitors.newMonitor[PlanningMonitor](monitorTag)
     val metricsFactory = CachedMetricsFactory(SimpleMetricsFactory)
-    val planner = new Planner(monitors, metricsFactory, planningMonitor, clock)
+    val planner = new Planner(monitors, metricsFactory, planningMonitor, clock,
+      idpQueryGraphSolver = new IDPQueryGraphSolver(idpBudgetInMillis, clock))
     val pipeBuilder = new LegacyVsNewPipeBuilder(new LegacyPipeBuilder(monitors), planner, planBuilderMonitor)
     val execPlanBuilder = new ExecutionPlanBuilder(graph, statsDivergenceThreshold, queryPlanTTL, clock, pipeBuilder)
     val planCacheFactory = () => new LRUCache[PreparedQuery, ExecutionPlan](queryCacheSize)
@@ -115,7 +117,8 @@ case class CypherCompiler(parser: CypherParser,
   def planQuery(queryText: String, context: PlanContext, planType: PlanType): (ExecutionPlan, Map[String, Any]) =
     planPreparedQuery(prepareQuery(queryText, planType), context)
 
-  def prepareQuery(queryText: String, planType: PlanType): PreparedQuery = {
+  def prepareQuery(queryText: String, planType: PlanType, runtime: RuntimeName = InterpretedRuntime,
+                   planner: PlannerName = Ronja): PreparedQuery = {
     val parsedStatement = parser.parse(queryText)
 
     val cleanedStatement: Statement = parsedStatement.endoRewrite(inSequence(normalizeReturnClauses, normalizeWithClauses))
@@ -125,7 +128,7 @@ case class CypherCompiler(parser: CypherParser,
     val postRewriteSemanticState = semanticChecker.check(queryText, rewrittenStatement)
 
     val table = SemanticTable(types = postRewriteSemanticState.typeTable)
-    PreparedQuery(rewrittenStatement, queryText, extractedParams, planType)(table, postRewriteSemanticState.scopeTree)
+    PreparedQuery(rewrittenStatement, queryText, extractedParams, planType, runtime, planner)(table, postRewriteSemanticState.scopeTree)
   }
 
   def planPreparedQuery(parsedQuery: PreparedQuery, context: PlanContext): (ExecutionPlan, Map[String, Any]) = {
@@ -114,6 +114,10 @@ class LoadCsvStatusWrapCypherException(extraInfo: String, cause: CypherException
   def mapToPublic[T <: Throwable](mapper: MapToPublicExceptions[T]) = mapper.loadCsvStatusWrapCypherException(extraInfo, cause)
 }
 
+class MemoryLimitExceededException(message: String) extends CypherException(message, null) {
+  def mapToPublic[T <: Throwable](mapper: MapToPublicExceptions[T]) = mapper.memoryLimitExceededException(message)
+}
+
 class SyntaxException(message: String, val query: String, val offset: Option[Int]) extends CypherException {
   def this(message: String, query: String, offset: Int) = this(message, query, Some(offset))
 
@@ -65,7 +65,7 @@ case class ExecutionContext(m: MutableMap[String, Any] = MutableMaps.empty,
     createWithNewMap(m.clone() ++= newEntries)
 
   def newFrom(newEntries: Seq[(String, Any)]) =
-    createWithNewMap(MutableMaps.create(newEntries: _*))
+    createWithNewMap(m.empty ++= newEntries)
 
   def newFromMutableMap(newEntries: scala.collection.mutable.Map[String, Any]) =
     createWithNewMap(newEntries)
@@ -20,7 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_2
 
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{Cardinality, Selectivity}
-import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{GraphStatistics, PropertyHistogram}
 
 
 case object HardcodedGraphStatistics extends HardcodedGraphStatisticsValues
@@ -35,6 +35,9 @@ class HardcodedGraphStatisticsValues extends GraphStatistics {
   def indexSelectivity(label: LabelId, property: PropertyKeyId): Option[Selectivity] =
     Some(INDEX_SELECTIVITY)
 
+  def indexPropertyHistogram(label: LabelId, property: PropertyKeyId): Option[PropertyHistogram] =
+    None
+
   def nodesWithLabelCardinality(labelId: Option[LabelId]): Cardinality =
     labelId.map(_ => NODES_WITH_LABEL_CARDINALITY).getOrElse(NODES_CARDINALITY)
 
@@ -43,6 +43,19 @@ case class InternalQueryStatistics(nodesCreated: Int = 0,
       constraintsAdded > 0 ||
       constraintsRemoved > 0
 
+  def +(other: InternalQueryStatistics) = InternalQueryStatistics(
+    nodesCreated = nodesCreated + other.nodesCreated,
+    relationshipsCreated = relationshipsCreated + other.relationshipsCreated,
+    propertiesSet = propertiesSet + other.propertiesSet,
+    nodesDeleted = nodesDeleted + other.nodesDeleted,
+    relationshipsDeleted = relationshipsDeleted + other.relationshipsDeleted,
+    labelsAdded = labelsAdded + other.labelsAdded,
+    labelsRemoved = labelsRemoved + other.labelsRemoved,
+    indexesAdded = indexesAdded + other.indexesAdded,
+    indexesRemoved = indexesRemoved + other.indexesRemoved,
+    constraintsAdded = constraintsAdded + other.constraintsAdded,
+    constraintsRemoved = constraintsRemoved + other.constraintsRemoved)
+
   override def toString = {
     val builder = new StringBuilder
 
@@ -23,3 +23,4 @@ sealed trait PlannerName
 
 case object Legacy extends PlannerName
 case object Ronja extends PlannerName
+case object IDP extends PlannerName
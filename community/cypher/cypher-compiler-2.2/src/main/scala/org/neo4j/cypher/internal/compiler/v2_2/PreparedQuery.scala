@@ -23,13 +23,18 @@ import org.neo4j.cypher.internal.PlanType
 import org.neo4j.cypher.internal.compiler.v2_2.ast.Statement
 import org.neo4j.cypher.internal.compiler.v2_2.ast.convert.commands.StatementConverters
 import org.neo4j.cypher.internal.compiler.v2_2.commands.AbstractQuery
+import org.neo4j.cypher.internal.compiler.v2_2.helpers.{AggregationNameGenerator, FreshIdNameGenerator, UnNamedNameGenerator}
 import org.neo4j.cypher.internal.compiler.v2_2.planner.SemanticTable
 import StatementConverters._
 
+import scala.collection.mutable
+
 case class PreparedQuery(statement: Statement,
                          queryText: String,
                          extractedParams: Map[String, Any],
-                         planType: PlanType)(val semanticTable: SemanticTable, val scopeTree: Scope) {
+                         planType: PlanType,
+                         runtime: RuntimeName = InterpretedRuntime,
+                         planner: PlannerName = Ronja)(val semanticTable: SemanticTable, val scopeTree: Scope) {
 
   def abstractQuery: AbstractQuery = statement.asQuery.setQueryText(queryText)
 
@@ -39,4 +44,91 @@ case class PreparedQuery(statement: Statement,
   }
 
   def rewrite(rewriter: Rewriter): PreparedQuery = copy(statement = statement.endoRewrite(rewriter))(semanticTable, scopeTree)
+
+  /*
+  Prepared queries are the keys of the plan cache. Queries that only differ in the literals that were extracted into
+  parameters are planned the same way, so they are equal regardless of their text and of the extracted values. The
+  names given to anonymous pattern elements and projections are derived from their offset in the query text, which
+  shifts with the length of the literals, so they are numbered in order of appearance for the comparison.
+   */
+  override def equals(other: Any): Boolean = other match {
+    case that: PreparedQuery => (that canEqual this) && planCacheKey == that.planCacheKey
+    case _ => false
+  }
+
+  override def hashCode(): Int = planCacheKey.hashCode()
+
+  /*
+  The query text with the literals that were extracted into parameters written as those parameters, so that the query
+  can be kept without the values it was run with. Planning this text gives a query that is equal to this one. None if
+  the text of a literal could not be found.
+   */
+  def parameterizedQueryText: Option[String] = {
+    val offsets = statement.fold(Map.empty[Int, String]) {
+      case parameter: ast.Parameter if extractedParams.contains(parameter.name) =>
+        _ + (parameter.position.offset -> parameter.name)
+    }
+    val text = new StringBuilder
+    val end = offsets.toSeq.sortBy(_._1).foldLeft(Option(0)) {
+      case (Some(start), (offset, name)) if offset >= start =>
+        PreparedQuery.literalLength(queryText, offset, name).map { length =>
+          text.append(queryText.substring(start, offset)).append("{`").append(name).append("`}")
+          offset + length
+        }
+      case _ => None
+    }
+    end.map(start => text.append(queryText.substring(start)).toString())
+  }
+
+  private lazy val planCacheKey = (PreparedQuery.renumberGeneratedNames(statement), planType, runtime, planner)
+}
+
+object PreparedQuery {
+  private val generatedNames = Seq(UnNamedNameGenerator, FreshIdNameGenerator, AggregationNameGenerator)
+
+  /*
+  The length of the text of the literal that starts at offset and was extracted into the named parameter, following
+  the literal rules of the parser.
+   */
+  private def literalLength(text: String, offset: Int, parameterName: String): Option[Int] = {
+    def at(i: Int) = if (i < text.length) text.charAt(i) else '\u0000'
+    def wordLength(word: String) = if (text.regionMatches(true, offset, word, 0, word.length)) Some(word.length) else None
+
+    if (parameterName.contains("AUTOSTRING")) {
+      val quote = at(offset)
+      if (quote != '\'' && quote != '"')
+        return None
+      var i = offset + 1
+      while (i < text.length && at(i) != quote) i += (if (at(i) == '\\') 2 else 1)
+      if (i < text.length) Some(i + 1 - offset) else None
+    } else if (parameterName.contains("AUTOBOOL")) {
+      wordLength("true") orElse wordLength("false")
+    } else {
+      var i = if (at(offset) == '-') offset + 1 else offset
+      val digits = i
+      val hex = at(i) == '0' && (at(i + 1) == 'x' || at(i + 1) == 'X')
+      var done = false
+      while (!done) {
+        val c = at(i)
+        if (Character.isLetterOrDigit(c) || c == '_')
+          i += 1
+        else if (c == '.' && Character.isDigit(at(i + 1)))
+          i += 1
+        else if (c == '-' && !hex && (at(i - 1) == 'e' || at(i - 1) == 'E') && i - 1 > digits)
+          i += 1
+        else
+          done = true
+      }
+      if (i > digits) Some(i - offset) else None
+    }
+  }
+
+  private def renumberGeneratedNames(statement: Statement): Statement = {
+    val renamed = mutable.Map[String, String]()
+    statement.endoRewrite(bottomUp(Rewriter.lift {
+      case identifier: ast.Identifier if generatedNames.exists(_.notNamed(identifier.name)) =>
+        val name = renamed.getOrElseUpdate(identifier.name, UnNamedNameGenerator.name(renamed.size))
+        identifier.copy(name = name)(identifier.position)
+    }))
+  }
 }
@@ -110,7 +110,8 @@ object ClauseConverters {
 
   implicit class MatchConverter(val clause: Match) extends AnyVal {
     def addMatchToLogicalPlanInput(acc: PlannerQueryBuilder): PlannerQueryBuilder = {
-      val patternContent = clause.pattern.destructed
+      val patternContent = clause.pattern.destructed(
+        if (clause.optional) Set.empty else acc.currentlyAvailableIdentifiers)
 
       val selections = clause.where.asSelections
 
@@ -76,8 +76,13 @@ object PatternConverters {
   }
 
   implicit class PatternDestructor(val pattern: Pattern) extends AnyVal {
-    def destructed: DestructResult = {
-      pattern.patternParts.foldLeft(DestructResult.empty) {
+    /*
+    Var-length relationships are only taken when one is the only relationship of the pattern and both its ends are
+    among boundIds, i.e. bound before the pattern is matched. addUniquenessPredicates leaves var-length relationships
+    out, so this keeps the planner away from patterns that need uniqueness between them and other relationships.
+     */
+    def destructed(boundIds: Set[IdName]): DestructResult = {
+      val result = pattern.patternParts.foldLeft(DestructResult.empty) {
         case (acc, NamedPatternPart(ident, sps@ShortestPaths(element, single))) =>
           val desctructedElement: DestructResult = element.destructed
           val pathName = IdName(ident.name)
@@ -97,12 +102,20 @@ object PatternConverters {
           val destructedElement = everyPath.element.destructed
           acc.
             addNodeId(destructedElement.nodeIds:_*).
-            addRel(destructedElement.rels:_*)
+            copy(rels = acc.rels ++ destructedElement.rels)
 
         case _ =>
           throw new CantHandleQueryException
       }
 
+      result.rels.filter(_.length != SimplePatternLength) match {
+        case Seq() =>
+        case Seq(rel) if result.rels.size == 1 && result.shortestPaths.isEmpty &&
+                         boundIds(rel.left) && boundIds(rel.right) && !boundIds(rel.name) =>
+        case _ =>
+          throw new CantHandleQueryException("We don't want to handle var-length in Ronja yet, except between two bound nodes.")
+      }
+      result
     }
   }
 }
@@ -36,8 +36,11 @@ case class PlannerQueryBuilder(private val q: PlannerQuery)
     copy(q = q.updateTailOrSelf(_.withTail(newTail)))
   }
 
-  def currentlyAvailableIdentifiers: Set[IdName] =
-    currentQueryGraph.coveredIds
+  // Argument ids are only filled in by build(), so the symbols coming in over the last horizon are added here
+  def currentlyAvailableIdentifiers: Set[IdName] = {
+    val incoming = previousPlannerQuery.map(_.horizon.exposedSymbols).getOrElse(Set.empty)
+    incoming ++ currentQueryGraph.coveredIds
+  }
 
   def currentQueryGraph: QueryGraph = {
     var current = q
@@ -47,6 +50,16 @@ case class PlannerQueryBuilder(private val q: PlannerQuery)
     current.graph
   }
 
+  private def previousPlannerQuery: Option[PlannerQuery] = {
+    var previous: Option[PlannerQuery] = None
+    var current = q
+    while (current.tail.nonEmpty) {
+      previous = Some(current)
+      current = current.tail.get
+    }
+    previous
+  }
+
   def build(): PlannerQuery = {
 
     def fixArgumentIdsOnOptionalMatch(plannerQuery: PlannerQuery): PlannerQuery = {
@@ -39,6 +39,9 @@ object literalReplacement {
       (acc, children) => children(acc)
     case _: ast.Clause | _: ast.PeriodicCommitHint =>
       (acc, _) => acc
+    // SKIP and LIMIT values decide between plans, e.g. a top-n instead of a full sort, so they are kept in the plan
+    case _: ast.ASTSlicingPhrase =>
+      (acc, _) => acc
     case n: ast.NodePattern =>
       (acc, _) => n.properties.treeFold(acc)(literalMatcher)
     case r: ast.RelationshipPattern =>
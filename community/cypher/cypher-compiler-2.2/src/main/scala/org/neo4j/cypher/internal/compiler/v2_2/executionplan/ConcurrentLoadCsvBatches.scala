@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import java.net.URL
+import java.util.concurrent.Semaphore
+import java.util.concurrent.atomic.AtomicReference
+
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{ParallelWrites, QueryContext, UpdateCountingQueryContext}
+import org.neo4j.cypher.internal.compiler.v2_2.{CypherException, InternalQueryStatistics}
+import org.neo4j.cypher.internal.compiler.v2_2.LoadCsvStatusWrapCypherException
+
+import scala.collection.mutable.ArrayBuffer
+
+/*
+Runs the batches of a PERIODIC COMMIT LOAD CSV query concurrently. The calling thread reads the file and cuts it into
+batches of the periodic commit size, and worker threads each run the whole query over one batch at a time, in a write
+transaction of their own that is committed when the batch is done. The workers are threads of the job scheduler of the
+database, and a query never has more than the parallelism of its writes running at a time.
+
+This is only correct when every row of the file is streamed straight into updates, so that running the query over the
+batches one by one does the same as running it over the whole file. Whether the batches are independent of each other,
+e.g. whether they MERGE the same nodes, is up to the user, who opts in by allowing more than one concurrent batch.
+ */
+class ConcurrentLoadCsvBatches(pipe: Pipe, loadCsv: LoadCSVPipe, batchRowCount: Long, writes: ParallelWrites) {
+
+  def run(state: QueryState): InternalQueryStatistics = {
+    val url = loadCsv.url(state.newExecutionContext(), state)
+    val rows = state.resources.getCsvIterator(url, loadCsv.fieldTerminator)
+    val header = if (loadCsv.format == HasHeaders && rows.hasNext) Some(rows.next()) else None
+
+    val permits = new Semaphore(writes.parallelism)
+    val failure = new AtomicReference[Throwable]()
+    var statistics = InternalQueryStatistics()
+    var line = header.size.toLong
+    try {
+      while (rows.hasNext && failure.get() == null) {
+        val batch = new ArrayBuffer[Array[String]]
+        while (batch.size < batchRowCount && rows.hasNext)
+          batch += rows.next()
+        val firstLine = line + 1
+        line += batch.size
+
+        permits.acquire()
+        try {
+          writes.execute(new Runnable {
+            def run() {
+              try {
+                if (failure.get() == null) {
+                  val written = write(state, header, batch)
+                  permits.synchronized { statistics = statistics + written }
+                }
+              } catch {
+                case e: Throwable => failure.compareAndSet(null, wrap(e, url, firstLine, firstLine + batch.size - 1))
+              } finally {
+                permits.release()
+              }
+            }
+          })
+        } catch {
+          case e: Throwable =>
+            // the batch never started, so nothing gives its permit back
+            permits.release()
+            throw e
+        }
+      }
+    } finally {
+      // wait for the batches that are still being written, also when reading the file failed
+      permits.acquire(writes.parallelism)
+      permits.release(writes.parallelism)
+    }
+
+    Option(failure.get()).foreach(throw _)
+    statistics
+  }
+
+  private def write(state: QueryState, header: Option[Array[String]], batch: Seq[Array[String]]) =
+    writes.inWriteTransaction {
+      (query: QueryContext) =>
+        val counting = new UpdateCountingQueryContext(query)
+        val batchState = state.copy(query = counting, resources = new BatchResource(header, batch))
+        pipe.createResults(batchState).foreach(_ => ())
+        counting.getStatistics
+    }
+
+  private def wrap(e: Throwable, url: URL, firstLine: Long, lastLine: Long): Throwable = e match {
+    case cypher: CypherException =>
+      new LoadCsvStatusWrapCypherException(
+        s"Failure when processing URL '$url' in the batch of lines $firstLine to $lastLine. " +
+          "Other batches may have been committed concurrently, both before and after this one.", cypher)
+    case _ =>
+      e
+  }
+
+  private class BatchResource(header: Option[Array[String]], batch: Seq[Array[String]]) extends ExternalResource {
+    def getCsvIterator(url: URL, fieldTerminator: Option[String]): Iterator[Array[String]] =
+      header.iterator ++ batch.iterator
+  }
+}
+
+object ConcurrentLoadCsvBatches {
+  /*
+  Finds the LOAD CSV of a query that streams every row of the file straight into updates, i.e. a query that starts by
+  loading the file and that has no operator that would see rows of more than one batch, such as an aggregation or
+  ordering, or that needs all rows to be read before it produces any, such as an eager pipe.
+   */
+  def streamingLoadCsv(pipe: Pipe): Option[LoadCSVPipe] = {
+    val loads = ArrayBuffer[LoadCSVPipe]()
+    val streaming = !pipe.exists {
+      case load: LoadCSVPipe =>
+        loads += load
+        !load.source.isInstanceOf[SingleRowPipe]
+      case _: SingleRowPipe | _: ExecuteUpdateCommandsPipe | _: FilterPipe | _: ExtractPipe | _: ColumnFilterPipe |
+           _: EmptyResultPipe | _: UnwindPipe | _: NamedPathPipe | _: MatchPipe =>
+        false
+      case _ =>
+        true
+    }
+    if (streaming && loads.size == 1) loads.headOption else None
+  }
+}
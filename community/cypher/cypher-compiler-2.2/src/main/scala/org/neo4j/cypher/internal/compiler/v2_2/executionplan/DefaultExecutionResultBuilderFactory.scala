@@ -22,10 +22,11 @@ package org.neo4j.cypher.internal.compiler.v2_2.executionplan
 import org.neo4j.cypher.internal.compiler.v2_2._
 import org.neo4j.cypher.internal.compiler.v2_2.pipes._
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription
-import org.neo4j.cypher.internal.compiler.v2_2.spi.{CSVResources, QueryContext}
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{CSVResources, QueryContext, UpdateCountingQueryContext}
 import org.neo4j.cypher.internal.{Explained, PlanType}
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.graphdb.QueryExecutionType.QueryType
+import org.neo4j.kernel.impl.util.JobScheduler
 
 case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: List[String], planType: PlanType) extends ExecutionResultBuilderFactory {
   def create(): ExecutionResultBuilder =
@@ -33,7 +34,9 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: Lis
 
   case class ExecutionWorkflowBuilder() extends ExecutionResultBuilder {
     private val taskCloser = new TaskCloser
-    private var externalResource: ExternalResource = new CSVResources(taskCloser)
+    private val csvResources = new CSVResources(taskCloser, queryContext.runInBackground(JobScheduler.Group.loadCsv, _))
+    private var externalResource: ExternalResource = csvResources
+    private var periodicCommitBatchRowCount: Option[Long] = None
     private var maybeQueryContext: Option[QueryContext] = None
     private var pipeDecorator: PipeDecorator = NullPipeDecorator
     private var exceptionDecorator: CypherException => CypherException = identity
@@ -45,6 +48,7 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: Lis
     def setLoadCsvPeriodicCommitObserver(batchRowCount: Long) {
       val observer = new LoadCsvPeriodicCommitObserver(batchRowCount, externalResource, queryContext)
       externalResource = observer
+      periodicCommitBatchRowCount = Some(batchRowCount)
       setExceptionDecorator(observer)
     }
 
@@ -58,7 +62,12 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: Lis
 
     def build(graph: GraphDatabaseService, queryId: AnyRef, params: Map[String, Any]): InternalExecutionResult = {
       taskCloser.addTask(queryContext.close)
-      val state = new QueryState(graph, queryContext, externalResource, params, pipeDecorator, queryId = queryId)
+      val memory = new QueryMemoryTracker(queryContext.queryMemoryLimit, queryContext.globalQueryMemoryLimit)
+      taskCloser.addTask(_ => memory.close())
+      val spillFiles = new SpillFiles(queryContext.spillDirectory)
+      taskCloser.addTask(_ => spillFiles.close())
+      val state = new QueryState(graph, queryContext, externalResource, params, pipeDecorator, queryId = queryId,
+        rowLayout = pipeInfo.rowLayout, memory = memory, spillFiles = spillFiles)
       try {
         try {
           createResults(state)
@@ -89,7 +98,17 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: Lis
       if (planType == Explained) {
         new ExplainExecutionResult(columns, pipeInfo.pipe.planDescription, queryType)
       } else {
-        val results = pipeInfo.pipe.createResults(state)
+        val results = concurrentLoadCsvBatches(state) match {
+          case Some(batches) =>
+            val statistics = batches.run(state.copy(resources = csvResources))
+            queryContext match {
+              case counting: UpdateCountingQueryContext => counting.add(statistics)
+              case _ =>
+            }
+            Iterator.empty
+          case None =>
+            pipeInfo.pipe.createResults(state)
+        }
         val resultIterator = buildResultIterator(results, pipeInfo.updating)
         val descriptor = buildDescriptor(pipeInfo.pipe, resultIterator.wasMaterialized)
         new PipeExecutionResult(resultIterator, columns, state, descriptor, planType, queryType)
@@ -98,6 +117,13 @@ case class DefaultExecutionResultBuilderFactory(pipeInfo: PipeInfo, columns: Lis
 
     private def queryContext = maybeQueryContext.get
 
+    private def concurrentLoadCsvBatches(state: QueryState): Option[ConcurrentLoadCsvBatches] = for {
+      batchRowCount <- periodicCommitBatchRowCount
+      if columns.isEmpty && pipeDecorator == NullPipeDecorator && state.initialContext.isEmpty
+      writes <- queryContext.parallelWrites
+      loadCsv <- ConcurrentLoadCsvBatches.streamingLoadCsv(pipeInfo.pipe)
+    } yield new ConcurrentLoadCsvBatches(pipeInfo.pipe, loadCsv, batchRowCount, writes)
+
     private def buildResultIterator(results: Iterator[ExecutionContext], isUpdating: Boolean): ResultIterator = {
       val closingIterator = new ClosingIterator(results, taskCloser, exceptionDecorator)
       val resultIterator = if (isUpdating) closingIterator.toEager else closingIterator
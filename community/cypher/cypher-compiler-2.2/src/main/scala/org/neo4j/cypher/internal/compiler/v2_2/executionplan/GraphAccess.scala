@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import org.neo4j.cypher.internal.compiler.v2_2.commands._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions._
+import org.neo4j.cypher.internal.compiler.v2_2.mutation._
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.matching.PatternGraph
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.Argument
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments
+
+/*
+A finer grained view of what pipes read and write than Effects give: which labels, relationship types and property
+keys. Reading a label means finding nodes by it or checking for it, and writing one means creating nodes with it or
+adding or removing it.
+
+The analysis only knows the pipes, update actions and expressions that are matched on below. Anything else gives
+None, and callers then have to assume the worst.
+ */
+sealed trait GraphAccess
+
+object GraphAccess {
+  case object AnyNode extends GraphAccess
+  case object NewNode extends GraphAccess
+  case class Label(name: String) extends GraphAccess
+  case object AnyLabel extends GraphAccess
+  case class RelType(name: String) extends GraphAccess
+  case object AnyRelType extends GraphAccess
+  case class PropertyKey(name: String) extends GraphAccess
+  case object AnyPropertyKey extends GraphAccess
+  case object Deletion extends GraphAccess
+
+  type Footprint = Option[Set[GraphAccess]]
+
+  private val nothing: Footprint = Some(Set.empty)
+
+  /*
+  Whether the writes of toPipe could change what fromPipe, and the pipes it reads from, reads, or the other way around.
+  Reading and writing stops at pipes that consume all their input before producing any rows, as everything below them
+  is done before toPipe sees its first row.
+   */
+  def mayConflict(fromPipe: Pipe, toPipe: Pipe): Boolean = {
+    val disjoint = for {
+      fromReads <- upstream(fromPipe, reads)
+      fromWrites <- upstream(fromPipe, writes)
+      toReads <- reads(toPipe)
+      toWrites <- writes(toPipe)
+    } yield !conflicts(fromReads, toWrites) && !conflicts(toReads, fromWrites)
+
+    !disjoint.getOrElse(false)
+  }
+
+  def mayDelete(pipe: Pipe): Boolean =
+    writes(pipe).forall(_.contains(Deletion)) || pipe.sources.exists(mayDelete)
+
+  def conflicts(reads: Set[GraphAccess], writes: Set[GraphAccess]): Boolean =
+    (writes.contains(Deletion) && reads.nonEmpty) || reads.exists(read => writes.exists(conflict(read, _)))
+
+  private def conflict(read: GraphAccess, write: GraphAccess): Boolean = (read, write) match {
+    case (AnyNode, NewNode) => true
+    case (Label(a), Label(b)) => a == b
+    case (AnyLabel, Label(_)) => true
+    case (RelType(a), RelType(b)) => a == b
+    case (AnyRelType, RelType(_)) => true
+    case (PropertyKey(a), PropertyKey(b)) => a == b
+    case (PropertyKey(_) | AnyPropertyKey, AnyPropertyKey) => true
+    case (AnyPropertyKey, PropertyKey(_)) => true
+    case _ => false
+  }
+
+  private def upstream(pipe: Pipe, local: Pipe => Footprint): Footprint = pipe match {
+    case _: EagerPipe | _: EagerAggregationPipe | _: LegacySortPipe | _: SortPipe | _: TopPipe => nothing
+    case _ => union(local(pipe) +: pipe.sources.map(upstream(_, local)))
+  }
+
+  def reads(pipe: Pipe): Footprint = pipe match {
+    case p: NodeStartPipe => producerReads(p.createSource.arguments, AnyNode)
+    case p: RelationshipStartPipe => producerReads(p.createSource.arguments, AnyRelType)
+    case p: FilterPipe => astReads(p.predicate)
+    case p: ExtractPipe => union(p.expressions.values.map(astReads))
+    case p: ColumnFilterPipe => union(p.returnItems.map(item => astReads(item.expression)))
+    case p: UnwindPipe => astReads(p.collection)
+    case p: LoadCSVPipe => astReads(p.urlExpression)
+    case p: SlicePipe => union((p.skip ++ p.limit).map(astReads))
+    case p: DistinctPipe => union(p.expressions.values.map(astReads))
+    case p: MatchPipe => union(patternReads(p.patternGraph) +: p.predicates.map(astReads))
+    case p: ExecuteUpdateCommandsPipe => union(p.commands.map(astReads))
+    case _: SingleRowPipe | _: EmptyResultPipe | _: NamedPathPipe | _: EagerPipe => nothing
+    case _ => None
+  }
+
+  def writes(pipe: Pipe): Footprint = pipe match {
+    case p: ExecuteUpdateCommandsPipe => union(p.commands.map(actionWrites))
+    case _: NodeStartPipe | _: RelationshipStartPipe | _: FilterPipe | _: ExtractPipe | _: ColumnFilterPipe |
+         _: UnwindPipe | _: LoadCSVPipe | _: SlicePipe | _: DistinctPipe | _: MatchPipe | _: SingleRowPipe |
+         _: EmptyResultPipe | _: NamedPathPipe | _: EagerPipe | _: EagerAggregationPipe | _: LegacySortPipe |
+         _: SortPipe | _: TopPipe => nothing
+    case _ => None
+  }
+
+  private def astReads(node: AstNode[_]): Footprint = {
+    var footprint = nothing
+    def add(access: GraphAccess*) {
+      footprint = footprint.map(_ ++ access)
+    }
+
+    node.visit {
+      case Property(_, key) => add(PropertyKey(key.name))
+      case PropertyExists(_, key) => add(PropertyKey(key.name))
+      case HasLabel(_, label) => add(Label(label.name))
+      case _: LabelsFunction => add(AnyLabel)
+      case _: StrFunction => add(AnyPropertyKey)
+      case _: RelationshipTypeFunction | _: RelationshipEndPoints =>
+      case _: NestedPipe => footprint = None
+      case e: Expression if e.localEffects != Effects.NONE => footprint = None
+      case MergeNodeAction(_, props, labels, _, _, _, _) =>
+        add(props.keys.map(key => PropertyKey(key.name)).toSeq: _*)
+        if (labels.isEmpty) add(AnyNode) else add(labels.map(label => Label(label.name)): _*)
+      case SingleNode(_, labels, props) =>
+        add(props.keys.map(PropertyKey).toSeq: _*)
+        if (labels.isEmpty) add(AnyNode) else add(labels.map(label => Label(label.name)): _*)
+      case RelatedTo(_, _, _, types, _, props) =>
+        add(props.keys.map(PropertyKey).toSeq: _*)
+        if (types.isEmpty) add(AnyRelType) else add(types.map(RelType): _*)
+      case _: Pattern | _: CreateUniqueAction => footprint = None
+    }
+
+    footprint
+  }
+
+  private def actionWrites(action: UpdateAction): Footprint = {
+    var footprint = nothing
+    def add(access: GraphAccess*) {
+      footprint = footprint.map(_ ++ access)
+    }
+
+    action.visit {
+      case CreateNode(_, _, labels) => add(NewNode +: labels.map(label => Label(label.name)): _*)
+      case CreateRelationship(_, from, to, typ, _) =>
+        add(RelType(typ) +: (from.labels ++ to.labels).map(label => Label(label.name)): _*)
+        add((from.props.keys ++ to.props.keys).map(PropertyKey).toSeq: _*)
+      case LabelAction(_, _, labels) => add(labels.map(label => Label(label.name)): _*)
+      case PropertySetAction(prop, _) => add(PropertyKey(prop.propertyKey.name))
+      case DeletePropertyAction(_, key) => add(PropertyKey(key.name))
+      case _: MapPropertySetAction => add(AnyPropertyKey)
+      case _: DeleteEntityAction => add(Deletion)
+      case MergeNodeAction(_, _, labels, _, _, _, _) => add(NewNode +: labels.map(label => Label(label.name)): _*)
+      case _: ForeachAction | _: MergePatternAction =>
+      case _: UpdateAction => footprint = None
+    }
+
+    footprint
+  }
+
+  private def patternReads(patternGraph: PatternGraph): Footprint = {
+    val nodes = patternGraph.patternNodes.values.map { node =>
+      val labels = node.labels.map(label => Label(label.name))
+      val unconnected = if (node.relationships.isEmpty && labels.isEmpty) Seq(AnyNode) else Seq.empty
+      val keys = node.properties.keys.map(key => PropertyKey(key.name))
+      union(Some((labels ++ unconnected ++ keys).toSet[GraphAccess]) +:
+        node.properties.values.map(astReads).toSeq)
+    }
+    val relationships = patternGraph.patternRels.values.map { rel =>
+      val types = if (rel.relTypes.isEmpty) Seq(AnyRelType) else rel.relTypes.map(RelType)
+      val keys = rel.properties.keys.map(key => PropertyKey(key.name))
+      union(Some((types ++ keys).toSet[GraphAccess]) +:
+        rel.properties.values.map(astReads).toSeq)
+    }
+    union(nodes ++ relationships)
+  }
+
+  private def producerReads(arguments: Seq[Argument], scanned: GraphAccess): Footprint = {
+    val found: Seq[Footprint] = arguments.collect {
+      case Arguments.LabelName(label) => Some(Set[GraphAccess](Label(label)))
+      case Arguments.Index(label, property) => Some(Set[GraphAccess](Label(label), PropertyKey(property)))
+      case Arguments.LegacyExpression(expression) => astReads(expression)
+    }
+    val byLabel = arguments.exists {
+      case _: Arguments.LabelName | _: Arguments.Index => true
+      case _ => false
+    }
+    union((if (byLabel) nothing else Some(Set(scanned))) +: found)
+  }
+
+  private def union(footprints: Iterable[Footprint]): Footprint =
+    footprints.foldLeft(nothing) {
+      case (Some(a), Some(b)) => Some(a ++ b)
+      case _ => None
+    }
+}
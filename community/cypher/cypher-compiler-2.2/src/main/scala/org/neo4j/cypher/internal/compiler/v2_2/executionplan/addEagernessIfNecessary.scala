@@ -28,12 +28,19 @@ object addEagernessIfNecessary extends (Pipe => Pipe) {
     nodesInterfere || relsInterfere
   }
 
-  def apply(toPipe: Pipe): Pipe = {
-    val sources = toPipe.sources.map(apply).map { fromPipe =>
+  /*
+  Effects only tell that nodes or relationships are both read and written. Where the labels, relationship types and
+  property keys involved are known, eagerness is only added when they overlap. The eager buffers may spill to disk
+  unless the plan deletes, since rows read back from disk look their nodes and relationships up again.
+   */
+  def apply(toPipe: Pipe): Pipe = addEagerness(toPipe, spillToDisk = !GraphAccess.mayDelete(toPipe))
+
+  private def addEagerness(toPipe: Pipe, spillToDisk: Boolean): Pipe = {
+    val sources = toPipe.sources.map(addEagerness(_, spillToDisk)).map { fromPipe =>
       val from = fromPipe.effects
       val to = toPipe.effects
-      if (wouldInterfere(from, to)) {
-        new EagerPipe(fromPipe)(fromPipe.monitor)
+      if (wouldInterfere(from, to) && GraphAccess.mayConflict(fromPipe, toPipe)) {
+        new EagerPipe(fromPipe, spillToDisk)(fromPipe.monitor)
       } else {
         fromPipe
       }
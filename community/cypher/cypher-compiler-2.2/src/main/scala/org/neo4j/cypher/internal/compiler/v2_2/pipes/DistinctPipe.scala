@@ -48,18 +48,24 @@ case class DistinctPipe(source: Pipe, expressions: Map[String, Expression])(val
      * in a set.
      */
     var seen = mutable.Set[NiceHasher]()
+    var seenSize = 0L
+    val memory = state.memory.operator(this)
 
-    returnExpressions.filter {
+    val distinct = returnExpressions.filter {
        case ctx =>
          val values = new NiceHasher(keyNames.map(ctx).toSeq)
 
          if (seen.contains(values)) {
            false
          } else {
+           val size = SizeEstimator.ofAll(values.original) + SizeEstimator.MapEntryOverhead
+           memory.allocate(size)
+           seenSize += size
            seen += values
            true
          }
     }
+    memory.releaseWhenDone(distinct, seenSize)
   }
 
   def planDescription = source.planDescription.andThen(this, "Distinct", identifiers, KeyNames(expressions.keys.toSeq))
@@ -23,12 +23,9 @@ import org.neo4j.cypher.internal.compiler.v2_2._
 import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.{AggregationExpression, Expression}
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects._
-import org.neo4j.cypher.internal.compiler.v2_2.pipes.aggregation.AggregationFunction
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments
 import org.neo4j.cypher.internal.compiler.v2_2.symbols._
 
-import scala.collection.mutable.{Map => MutableMap}
-
 // Eager aggregation means that this pipe will eagerly load the whole resulting sub graphs before starting
 // to emit aggregated results.
 // Cypher is lazy until it can't - this pipe will eagerly load the full match
@@ -49,47 +46,52 @@ case class EagerAggregationPipe(source: Pipe, keyExpressions: Map[String, Expres
     SymbolTable(keyIdentifiers ++ aggrIdentifiers)
   }
 
+  private val keyNames: Seq[String] = keyExpressions.map(_._1).toSeq
+  private val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
+  private val aggregationExpressions: Seq[AggregationExpression] = aggregations.map(_._2).toSeq
+
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) = {
     // This is the temporary storage used while the aggregation is going on
-    val result = MutableMap[NiceHasher, (ExecutionContext, Seq[AggregationFunction])]()
-    val keyNames: Seq[String] = keyExpressions.map(_._1).toSeq
-    val aggregationNames: Seq[String] = aggregations.map(_._1).toSeq
+    val table = newTable(state.query.operatorMemory, state.memory.operator(this), state.spillFiles)
+
+    input.foreach(ctx => table.aggregate(ctx)(state))
+
+    createResults(table)(state)
+  }
+
+  def newTable(memoryLimit: Long, memory: OperatorMemory, spillFiles: SpillFiles) =
+    new GroupingTable(keyNames, aggregationExpressions, memoryLimit, memory, spillFiles)
+
+  def createResults(table: GroupingTable)(implicit state: QueryState): Iterator[ExecutionContext] = {
     val mapSize = keyNames.size + aggregationNames.size
 
-    def createResults(key: NiceHasher, aggregator: scala.Seq[AggregationFunction], ctx: ExecutionContext): ExecutionContext = {
+    def createResults(key: Seq[Any], results: Seq[Any]): ExecutionContext = {
       val newMap = MutableMaps.create(mapSize)
 
       //add key values
-      (keyNames zip key.original).foreach(newMap += _)
+      (keyNames zip key).foreach(newMap += _)
 
       //add aggregated values
-      (aggregationNames zip aggregator.map(_.result)).foreach(newMap += _)
+      (aggregationNames zip results).foreach(newMap += _)
 
-      ctx.newFromMutableMap( newMap )
+      ExecutionContext(newMap)
     }
 
-    def createEmptyResult(params:Map[String,Any]): Iterator[ExecutionContext] = {
+    def createEmptyResult(): Iterator[ExecutionContext] = {
       val newMap = MutableMaps.empty
-      val aggregationNamesAndFunctions = aggregationNames zip aggregations.map(_._2.createAggregationFunction.result)
+      val aggregationNamesAndFunctions = aggregationNames zip aggregationExpressions.map(_.createAggregationFunction.result)
 
       aggregationNamesAndFunctions.toMap
         .foreach { case (name, zeroValue) => newMap += name -> zeroValue  }
       Iterator.single(ExecutionContext(newMap))
     }
 
-    input.foreach(ctx => {
-      val groupValues: NiceHasher = new NiceHasher(keyNames.map(ctx))
-      val aggregateFunctions: Seq[AggregationFunction] = aggregations.map(_._2.createAggregationFunction).toSeq
-      val (_, functions) = result.getOrElseUpdate(groupValues, (ctx, aggregateFunctions))
-      functions.foreach(func => func(ctx)(state))
-    })
-
-    if (result.isEmpty && keyNames.isEmpty) {
-      createEmptyResult(state.params)
+    if (table.isEmpty && keyNames.isEmpty) {
+      createEmptyResult()
     } else {
-      result.map {
-        case (key, (ctx, aggregator)) => createResults(key, aggregator, ctx)
-      }.toIterator
+      table.results.map {
+        case (key, results) => createResults(key, results)
+      }
     }
   }
 
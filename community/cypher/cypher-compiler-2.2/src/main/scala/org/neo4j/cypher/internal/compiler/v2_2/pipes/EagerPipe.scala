@@ -23,13 +23,63 @@ import org.neo4j.cypher.internal.compiler.v2_2._
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
 import org.neo4j.cypher.internal.compiler.v2_2.symbols._
 
-case class EagerPipe(src: Pipe)(implicit pipeMonitor: PipeMonitor) extends PipeWithSource(src, pipeMonitor) {
+import scala.collection.mutable.ArrayBuffer
+
+/*
+Reads all of its input before producing any rows. With spillToDisk, rows that do not fit in the memory operators may
+use are written to a temporary file, and read back before the rows kept in memory so that the order of the input is
+kept. If some row can not be written to disk, the rest are kept in memory.
+ */
+case class EagerPipe(src: Pipe, spillToDisk: Boolean = false)(implicit pipeMonitor: PipeMonitor)
+  extends PipeWithSource(src, pipeMonitor) {
   def symbols: SymbolTable = src.symbols
 
   def planDescription = src.planDescription.andThen(this, "Eager", identifiers)
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
-    input.toList.toIterator
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    val memoryLimit = if (spillToDisk) state.query.operatorMemory else Long.MaxValue
+    val memory = state.memory.operator(this)
+    val buffer = ArrayBuffer[ExecutionContext]()
+    var spilled: Option[SpillFile] = None
+    var estimatedSize = 0L
+    var spillable = memoryLimit < Long.MaxValue
+
+    input.foreach {
+      row =>
+        val size = SizeEstimator.ofRow(row)
+        memory.allocate(size)
+        buffer += row
+        estimatedSize += size
+        if (spillable) {
+          spillable = SpillFile.canWriteRow(row)
+          if (spillable && estimatedSize > memoryLimit) {
+            val file = spilled.getOrElse(state.spillFiles.newFile())
+            buffer.foreach(file.writeRow)
+            spilled = Some(file)
+            buffer.clear()
+            memory.release(estimatedSize)
+            estimatedSize = 0
+          }
+        }
+    }
+
+    val inMemory = memory.releaseWhenDone(buffer.iterator, estimatedSize)
+    spilled match {
+      case Some(file) =>
+        val reader = file.reader(state)
+        val fromDisk = new Iterator[ExecutionContext] {
+          def hasNext = reader.hasNext || {
+            file.delete()
+            false
+          }
+
+          def next() = reader.nextRow()
+        }
+        fromDisk ++ inMemory
+      case None =>
+        inMemory
+    }
+  }
 
   override val effects = Effects.NONE
 
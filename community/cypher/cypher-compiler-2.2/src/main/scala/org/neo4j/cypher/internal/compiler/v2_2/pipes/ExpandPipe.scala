@@ -32,27 +32,55 @@ sealed abstract class ExpandPipe[T](source: Pipe,
                                  to: String,
                                  dir: Direction,
                                  types: Seq[T],
+                                 layout: SlotLayout,
                                  pipeMonitor: PipeMonitor)
-                    extends PipeWithSource(source, pipeMonitor) with RonjaPipe {
+                    extends PipeWithSource(source, pipeMonitor) with RonjaPipe with FusiblePipe {
+
+  private val fromSlot = layout.slotFor(from)
+  private val relSlot = layout.slotFor(relName)
+  private val toSlot = layout.slotFor(to)
+  private val slotted = fromSlot >= 0 && relSlot >= 0 && toSlot >= 0
 
   def getRelationships: (Node, QueryContext, Direction) => Iterator[Relationship]
 
-  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
-    input.flatMap {
-      row =>
-        getFromNode(row) match {
-          case n: Node =>
-            val relationships: Iterator[Relationship] = getRelationships(n, state.query, dir)
-            relationships.map {
-              case r =>
-                row.newWith2(relName, r, to, r.getOtherNode(n))
-            }
-
-          case null => None
-
-          case value => throw new InternalException(s"Expected to find a node at $from but found $value instead")
-        }
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] =
+    input.flatMap(row => expand(row, state))
+
+  def consume(row: ExecutionContext, state: QueryState): Iterator[ExecutionContext] =
+    expand(row, state)
+
+  private def expand(row: ExecutionContext, state: QueryState): Iterator[ExecutionContext] = {
+    val slots = slottedRow(row)
+    val fromNode = if (slots == null) getFromNode(row) else slots.getSlot(fromSlot) match {
+      case null => getFromNode(row) // tells a null node from a missing one
+      case value => value
     }
+    fromNode match {
+      case n: Node =>
+        val relationships: Iterator[Relationship] = getRelationships(n, state.query, dir)
+        if (slots == null)
+          relationships.map {
+            case r =>
+              row.newWith2(relName, r, to, r.getOtherNode(n))
+          }
+        else
+          relationships.map {
+            case r =>
+              val expanded = slots.clone()
+              expanded.setSlot(relSlot, r)
+              expanded.setSlot(toSlot, r.getOtherNode(n))
+              row.newFromMutableMap(expanded)
+          }
+
+      case null => Iterator.empty
+
+      case value => throw new InternalException(s"Expected to find a node at $from but found $value instead")
+    }
+  }
+
+  private def slottedRow(row: ExecutionContext): SlottedRow = row.m match {
+    case slots: SlottedRow if slotted && (slots.layout eq layout) => slots
+    case _ => null
   }
 
   def getFromNode(row: ExecutionContext): Any =
@@ -73,9 +101,10 @@ case class ExpandPipeForIntTypes(source: Pipe,
                                 to: String,
                                 dir: Direction,
                                 types: Seq[Int])
-                               (val estimatedCardinality: Option[Long] = None)
+                               (val estimatedCardinality: Option[Long] = None,
+                                val layout: SlotLayout = SlotLayout.empty)
                                (implicit pipeMonitor: PipeMonitor)
-  extends ExpandPipe[Int](source, from, relName, to, dir, types, pipeMonitor) {
+  extends ExpandPipe[Int](source, from, relName, to, dir, types, layout, pipeMonitor) {
 
   override def getRelationships: (Node, QueryContext, Direction) => Iterator[Relationship] =
     (n:Node, query: QueryContext, dir:Direction) => query.getRelationshipsForIds(n, dir, types)
@@ -83,10 +112,10 @@ case class ExpandPipeForIntTypes(source: Pipe,
 
   def dup(sources: List[Pipe]): Pipe = {
     val (source :: Nil) = sources
-    copy(source = source)(estimatedCardinality)
+    copy(source = source)(estimatedCardinality, layout)
   }
 
-  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
+  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated), layout)
 }
 
 case class ExpandPipeForStringTypes(source: Pipe,
@@ -95,9 +124,10 @@ case class ExpandPipeForStringTypes(source: Pipe,
                                     to: String,
                                     dir: Direction,
                                     types: Seq[String])
-                                   (val estimatedCardinality: Option[Long] = None)
+                                   (val estimatedCardinality: Option[Long] = None,
+                                    val layout: SlotLayout = SlotLayout.empty)
                                    (implicit pipeMonitor: PipeMonitor)
-  extends ExpandPipe[String](source, from, relName, to, dir, types, pipeMonitor) {
+  extends ExpandPipe[String](source, from, relName, to, dir, types, layout, pipeMonitor) {
 
   override def getRelationships: (Node, QueryContext, Direction) => Iterator[Relationship] =
     (n:Node, query: QueryContext, dir:Direction) => query.getRelationshipsFor(n, dir, types)
@@ -105,8 +135,8 @@ case class ExpandPipeForStringTypes(source: Pipe,
 
   def dup(sources: List[Pipe]): Pipe = {
     val (source :: Nil) = sources
-    copy(source = source)(estimatedCardinality)
+    copy(source = source)(estimatedCardinality, layout)
   }
 
-  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
+  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated), layout)
 }
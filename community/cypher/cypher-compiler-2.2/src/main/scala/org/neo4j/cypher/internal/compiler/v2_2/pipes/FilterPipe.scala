@@ -25,12 +25,33 @@ import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.LegacyExpression
 
 case class FilterPipe(source: Pipe, predicate: Predicate)(val estimatedCardinality: Option[Long] = None)
-                     (implicit pipeMonitor: PipeMonitor) extends PipeWithSource(source, pipeMonitor) with RonjaPipe {
+                     (implicit pipeMonitor: PipeMonitor) extends PipeWithSource(source, pipeMonitor) with RonjaPipe with FusiblePipe {
   val symbols = source.symbols
 
   protected def internalCreateResults(input: Iterator[ExecutionContext],state: QueryState) =
     input.filter(ctx => predicate.isTrue(ctx)(state))
 
+  def consume(row: ExecutionContext, state: QueryState): Iterator[ExecutionContext] =
+    if (predicate.isTrue(row)(state)) Iterator.single(row) else Iterator.empty
+
+  override def producesAtMostOneRowPerRow = true
+
+  override def process(input: Morsel, state: QueryState): Morsel = {
+    // compacts the matching rows to the front of the morsel
+    var kept = 0
+    var i = 0
+    while (i < input.size) {
+      val row = input(i)
+      if (predicate.isTrue(row)(state)) {
+        input(kept) = row
+        kept += 1
+      }
+      i += 1
+    }
+    input.truncate(kept)
+    input
+  }
+
   def planDescription = source.planDescription.andThen(this, "Filter", identifiers, LegacyExpression(predicate))
 
   def dup(sources: List[Pipe]): Pipe = {
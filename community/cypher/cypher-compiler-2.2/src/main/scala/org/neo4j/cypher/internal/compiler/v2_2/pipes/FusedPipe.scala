@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_2.symbols.SymbolTable
+
+/*
+A pipe that can do its work inside a fused pipeline. Pipelines hand operators a morsel of rows at a time; operators
+that may produce several rows for one input row give them out through consume, lazily, so that a pipeline can stop
+part way through a row that produces many.
+ */
+trait FusiblePipe {
+  self: Pipe =>
+
+  def source: Pipe
+
+  def consume(row: ExecutionContext, state: QueryState): Iterator[ExecutionContext]
+
+  /*
+  Operators that produce at most one row for every row they get can never outgrow their input, and process a whole
+  morsel at a time instead
+   */
+  def producesAtMostOneRowPerRow: Boolean = false
+
+  def process(input: Morsel, state: QueryState): Morsel = {
+    var kept = 0
+    var i = 0
+    while (i < input.size) {
+      val rows = consume(input(i), state)
+      if (rows.hasNext) {
+        input(kept) = rows.next()
+        kept += 1
+      }
+      i += 1
+    }
+    input.truncate(kept)
+    input
+  }
+}
+
+/*
+Runs a leaf pipe and a chain of fusible operators on top of it. Rows produced by the leaf are collected into morsels
+of up to morselSize rows, and every operator fills a whole morsel before the next operator sees it, so there are
+no intermediate iterators or per-operator decorator calls between them. No morsel grows past morselSize: an
+operator that produces more rows than that hands out what it has and carries on where it stopped the next time it
+is asked, and the leaf is only read when the operators have run out of rows. Towards the rest of the plan the
+pipeline is an ordinary pipe, which is the bridge to operators that are not fused.
+
+The plan description is the one of the interpreted pipes the pipeline replaces.
+ */
+case class FusedPipe(leaf: Pipe, operators: Seq[Pipe with FusiblePipe], top: Pipe with RonjaPipe,
+                     morselSize: Int = Morsel.DefaultSize)
+                    (implicit val monitor: PipeMonitor) extends Pipe with RonjaPipe {
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    morsels(leaf.createResults(state), state).flatMap(_.iterator)
+
+  /*
+  The morsels of rows the operators produce from the given input, computed one at a time as they are asked for
+   */
+  def morsels(input: Iterator[ExecutionContext], state: QueryState): Iterator[Morsel] = {
+    val read: () => Morsel = () => {
+      val morsel = new Morsel(morselSize)
+      while (morsel.size < morselSize && input.hasNext)
+        morsel += input.next()
+      morsel
+    }
+    val top = operators.foldLeft(read) {
+      (upstream, operator) =>
+        if (operator.producesAtMostOneRowPerRow) new InPlaceStage(operator, upstream, state)
+        else new ExpandingStage(operator, upstream, state)
+    }
+
+    new Iterator[Morsel] {
+      private var current: Morsel = null
+
+      def hasNext: Boolean = {
+        if (current == null)
+          current = top()
+        !current.isEmpty
+      }
+
+      def next(): Morsel =
+        if (hasNext) {
+          val morsel = current
+          current = null
+          morsel
+        } else Iterator.empty.next()
+    }
+  }
+
+  /*
+  The stages of a pipeline hand out the next morsel of their operator's output, which is only empty once the input
+  has run out
+   */
+  private class InPlaceStage(operator: FusiblePipe, upstream: () => Morsel, state: QueryState) extends (() => Morsel) {
+    def apply(): Morsel = {
+      var input = upstream()
+      while (!input.isEmpty) {
+        val output = operator.process(input, state)
+        if (!output.isEmpty)
+          return output
+        input = upstream()
+      }
+      input
+    }
+  }
+
+  private class ExpandingStage(operator: FusiblePipe, upstream: () => Morsel, state: QueryState) extends (() => Morsel) {
+    private var input = new Morsel(0)
+    private var position = 0
+    private var pending: Iterator[ExecutionContext] = Iterator.empty
+    private var exhausted = false
+
+    def apply(): Morsel = {
+      val output = new Morsel(morselSize)
+      while (output.size < morselSize && !exhausted) {
+        if (pending.hasNext) {
+          output += pending.next()
+        } else if (position < input.size) {
+          pending = operator.consume(input(position), state)
+          position += 1
+        } else {
+          input = upstream()
+          position = 0
+          exhausted = input.isEmpty
+        }
+      }
+      output
+    }
+  }
+
+  def exists(pred: Pipe => Boolean): Boolean = pred(this) || top.exists(pred)
+
+  def planDescription = top.planDescription
+
+  def symbols: SymbolTable = top.symbols
+
+  override def localEffects = top.effects
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+
+  def estimatedCardinality: Option[Long] = top.estimatedCardinality
+
+  def withEstimatedCardinality(estimated: Long) = copy(top = top.withEstimatedCardinality(estimated))
+}
+
+object FusedPipe {
+  /*
+  Folds the given pipe into the pipeline below it when it is a fusible operator sitting on a supported leaf or on
+  an existing pipeline. Anything else is returned as is and keeps running interpreted.
+   */
+  def fuse(pipe: Pipe with RonjaPipe)(implicit monitor: PipeMonitor): Pipe with RonjaPipe = pipe match {
+    case operator: FusiblePipe =>
+      operator.source match {
+        case pipeline: FusedPipe =>
+          FusedPipe(pipeline.leaf, pipeline.operators :+ operator, pipe, pipeline.morselSize)
+        case leaf if isSupportedLeaf(leaf) =>
+          FusedPipe(leaf, Seq(operator), pipe)
+        case _ =>
+          pipe
+      }
+
+    case _ =>
+      pipe
+  }
+
+  private def isSupportedLeaf(pipe: Pipe) = pipe match {
+    case _: AllNodesScanPipe | _: NodeByLabelScanPipe | _: NodeIndexSeekPipe => true
+    case _ => false
+  }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.AggregationExpression
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.aggregation.{AggregationFunction, MergeableAggregationFunction}
+
+import scala.collection.mutable
+
+/*
+The groups of an aggregation, keyed on the values of the grouping keys. A group holds its key values and its
+aggregation functions, not the row it was first seen on.
+
+When all aggregation functions can merge partial results, the table keeps its estimated size below memoryLimit by
+writing its groups out to temporary files, partitioned on the hash of their keys, and starting over empty. Once all
+rows have been seen, the partitions are read back one at a time and the partial results of each group merged, so a
+partition has to fit in memory on its own. The groups in memory are accounted for in memory, and the partitions are
+created in spillFiles.
+ */
+class GroupingTable(keyNames: Seq[String], aggregations: Seq[AggregationExpression], memoryLimit: Long,
+                    memory: OperatorMemory, spillFiles: SpillFiles) {
+  import GroupingTable._
+
+  private val groups = mutable.HashMap[NiceHasher, Array[AggregationFunction]]()
+  private var estimatedSize = 0L
+  private var spillable = memoryLimit < Long.MaxValue &&
+    aggregations.forall(_.createAggregationFunction.isInstanceOf[MergeableAggregationFunction])
+  private var partitions: Array[SpillFile] = null
+
+  def isEmpty: Boolean = groups.isEmpty && partitions == null
+
+  def aggregate(row: ExecutionContext)(implicit state: QueryState) {
+    val functions = group(new NiceHasher(keyNames.map(row)))
+    var i = 0
+    while (i < functions.length) {
+      functions(i)(row)
+      i += 1
+    }
+    spillIfFull()
+  }
+
+  /*
+  Merges the partial results of the groups of another table, aggregated over other rows, into this one.
+   */
+  def merge(other: GroupingTable)(implicit state: QueryState) {
+    if (other.partitions == null) {
+      other.groups.foreach {
+        case (key, functions) => mergeGroup(key, functions.map(_.result))
+      }
+      other.releaseGroups()
+    } else
+      other.spillPartitions().foreach {
+        partition =>
+          readPartition(partition).foreach {
+            case (key, partials) => mergeGroup(key, partials)
+          }
+          partition.delete()
+      }
+  }
+
+  /*
+  The key values and aggregated values of every group. The table can not be used once these have been read.
+   */
+  def results(implicit state: QueryState): Iterator[(Seq[Any], Seq[Any])] =
+    if (partitions == null)
+      memory.releaseWhenDone(groups.iterator.map {
+        case (key, functions) => (key.original, functions.map(_.result).toSeq)
+      }, estimatedSize)
+    else {
+      val spilled = spillPartitions()
+      spilled.iterator.flatMap {
+        partition =>
+          val merged = new GroupingTable(keyNames, aggregations, Long.MaxValue, memory, spillFiles)
+          readPartition(partition).foreach {
+            case (key, partials) => merged.mergeGroup(key, partials)
+          }
+          partition.delete()
+          merged.results
+      }
+    }
+
+  private def mergeGroup(key: NiceHasher, partials: Seq[Any])(implicit state: QueryState) {
+    val functions = group(key)
+    var i = 0
+    while (i < functions.length) {
+      functions(i).asInstanceOf[MergeableAggregationFunction].merge(partials(i))
+      i += 1
+    }
+    spillIfFull()
+  }
+
+  private def group(key: NiceHasher): Array[AggregationFunction] = {
+    groups.getOrElseUpdate(key, {
+      val size = GroupOverhead + SizeEstimator.ofAll(key.original) + aggregations.size * FunctionOverhead
+      memory.allocate(size)
+      estimatedSize += size
+      spillable = spillable && key.original.forall(SpillFile.canWrite)
+      aggregations.map(_.createAggregationFunction).toArray
+    })
+  }
+
+  private def spillIfFull() {
+    if (spillable && estimatedSize > memoryLimit) {
+      if (groups.values.forall(_.forall(f => SpillFile.canWrite(f.result))))
+        spill()
+      else
+        spillable = false
+    }
+  }
+
+  private def spill() {
+    if (partitions == null)
+      partitions = Array.fill(Partitions)(spillFiles.newFile())
+    groups.foreach {
+      case (key, functions) =>
+        val partition = partitions((key.hashCode & Int.MaxValue) % Partitions)
+        key.original.foreach(partition.write)
+        functions.foreach(f => partition.write(f.result))
+    }
+    releaseGroups()
+  }
+
+  private def releaseGroups() {
+    groups.clear()
+    memory.release(estimatedSize)
+    estimatedSize = 0
+  }
+
+  private def spillPartitions(): Array[SpillFile] = {
+    spill()
+    val spilled = partitions
+    partitions = null
+    spilled
+  }
+
+  private def readPartition(partition: SpillFile)(implicit state: QueryState): Iterator[(NiceHasher, Seq[Any])] = {
+    val reader = partition.reader(state)
+    new Iterator[(NiceHasher, Seq[Any])] {
+      def hasNext = reader.hasNext
+
+      def next() = {
+        val key = keyNames.map(_ => reader.next())
+        val partials = aggregations.map(_ => reader.next())
+        (new NiceHasher(key), partials)
+      }
+    }
+  }
+}
+
+object GroupingTable {
+  val Partitions = 64
+
+  private val GroupOverhead = 3 * SizeEstimator.MapEntryOverhead
+  private val FunctionOverhead = SizeEstimator.ObjectOverhead * 3
+}
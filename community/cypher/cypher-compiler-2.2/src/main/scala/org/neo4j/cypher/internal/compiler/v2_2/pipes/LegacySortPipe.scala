@@ -31,8 +31,8 @@ case class LegacySortPipe(source: Pipe, sortDescription: List[SortItem])
   def symbols = source.symbols
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
-    input.toList.
-      sortWith((a, b) => compareBy(a, b, sortDescription)(state)).iterator
+    new SpillingSorter((a, b) => compareBy(a, b, sortDescription)(state), state.query.operatorMemory,
+      state.memory.operator(this)).sort(input)(state)
 
   def planDescription =
     source.planDescription.andThen(this, "Sort", identifiers, sortDescription.map(item => LegacyExpression(item.expression)):_*)
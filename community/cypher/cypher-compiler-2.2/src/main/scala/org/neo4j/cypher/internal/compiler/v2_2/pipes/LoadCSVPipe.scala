@@ -58,12 +58,12 @@ case class LoadCSVPipe(source: Pipe,
     url
   }
 
+  def url(context: ExecutionContext, state: QueryState): URL =
+    checkURL(urlExpression(context)(state).asInstanceOf[String], state.query)
+
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
     input.flatMap(context => {
-      implicit val s = state
-      val url = checkURL(urlExpression(context).asInstanceOf[String], state.query)
-
-      val iterator: Iterator[Array[String]] = state.resources.getCsvIterator(url, fieldTerminator)
+      val iterator: Iterator[Array[String]] = state.resources.getCsvIterator(url(context, state), fieldTerminator)
 
       val nextRow: Array[String] => Iterable[Any] = format match {
         case HasHeaders =>
@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+
+/*
+A batch of rows passed between the operators of a fused pipeline. Operators work on a whole morsel at a time, and
+may reuse the morsel they were given for their output.
+ */
+final class Morsel(initialCapacity: Int) {
+  private var rows = new Array[ExecutionContext](initialCapacity max 1)
+  private var count = 0
+
+  def size: Int = count
+
+  def isEmpty: Boolean = count == 0
+
+  def apply(i: Int): ExecutionContext = rows(i)
+
+  def update(i: Int, row: ExecutionContext) {
+    rows(i) = row
+  }
+
+  def iterator: Iterator[ExecutionContext] = rows.iterator.take(count)
+
+  def +=(row: ExecutionContext): this.type = {
+    if (count == rows.length) {
+      val grown = new Array[ExecutionContext](rows.length * 2)
+      System.arraycopy(rows, 0, grown, 0, count)
+      rows = grown
+    }
+    rows(count) = row
+    count += 1
+    this
+  }
+
+  /*
+  Drops every row from position newSize onwards
+   */
+  def truncate(newSize: Int) {
+    java.util.Arrays.fill(rows.asInstanceOf[Array[AnyRef]], newSize, count, null)
+    count = newSize
+  }
+
+  def clear() {
+    truncate(0)
+  }
+}
+
+object Morsel {
+  val DefaultSize = 1024
+}
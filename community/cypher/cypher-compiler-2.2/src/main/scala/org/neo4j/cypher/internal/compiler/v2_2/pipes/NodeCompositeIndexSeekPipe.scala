@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.ast.{LabelToken, PropertyKeyToken}
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.Expression
+import org.neo4j.cypher.internal.compiler.v2_2.commands.{ManyQueryExpression, QueryExpression, SingleQueryExpression}
+import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_2.mutation.GraphElementPropertyFunctions
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.Index
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.{NoChildren, PlanDescriptionImpl}
+import org.neo4j.cypher.internal.compiler.v2_2.symbols.{CTNode, SymbolTable}
+import org.neo4j.cypher.internal.helpers.IsCollection
+import org.neo4j.kernel.api.index.IndexDescriptor
+
+case class NodeCompositeIndexSeekPipe(ident: String,
+                                      label: LabelToken,
+                                      propertyKeys: Seq[PropertyKeyToken],
+                                      valueExprs: Seq[QueryExpression[Expression]])
+                                     (val estimatedCardinality: Option[Long] = None)(implicit pipeMonitor: PipeMonitor)
+  extends Pipe with RonjaPipe with GraphElementPropertyFunctions {
+
+  val descriptor = new IndexDescriptor(label.nameId.id, propertyKeys.map(_.nameId.id).toArray)
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] = {
+    val valuesPerKey = propertyKeys.zip(valueExprs).map {
+      case (propertyKey, valueExpr) => lookupValues(propertyKey, valueExpr, state)
+    }
+    // every combination of the values of the keys is a tuple to look up
+    val tuples = valuesPerKey.foldLeft(Seq(Seq.empty[Any])) {
+      (prefixes, values) => for (prefix <- prefixes; value <- values) yield prefix :+ value
+    }
+    val baseContext = state.initialContext.getOrElse(state.newExecutionContext())
+    tuples.iterator.flatMap {
+      tuple => state.query.exactIndexSearch(descriptor, tuple.map(_.asInstanceOf[AnyRef]).toArray)
+    }.map(node => baseContext.newWith1(ident, node))
+  }
+
+  private def lookupValues(propertyKey: PropertyKeyToken, valueExpr: QueryExpression[Expression], state: QueryState): Seq[Any] =
+    valueExpr match {
+      case SingleQueryExpression(inner) =>
+        Option(inner(ExecutionContext.empty)(state)).map(makeValueNeoSafe).toSeq
+
+      case ManyQueryExpression(inner) =>
+        inner(ExecutionContext.empty)(state) match {
+          case IsCollection(coll) => coll.toSet.toSeq.map(makeValueNeoSafe)
+          case null => Seq.empty
+          case _ => throw new CypherTypeException(s"Expected the value for looking up :${label.name}(${propertyKey.name}) to be a collection but it was not.")
+        }
+    }
+
+  def exists(predicate: Pipe => Boolean): Boolean = predicate(this)
+
+  def planDescription =
+    new PlanDescriptionImpl(this, "NodeCompositeIndexSeek", NoChildren,
+      Seq(Index(label.name, propertyKeys.map(_.name).mkString(", "))), identifiers)
+
+  def symbols: SymbolTable = new SymbolTable(Map(ident -> CTNode))
+
+  override def monitor = pipeMonitor
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+
+  override def localEffects = Effects.READS_NODES
+
+  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
+}
@@ -26,8 +26,6 @@ import org.neo4j.cypher.internal.compiler.v2_2.planDescription.{InternalPlanDesc
 import org.neo4j.cypher.internal.compiler.v2_2.symbols._
 import org.neo4j.graphdb.Node
 
-import scala.collection.mutable
-
 case class NodeHashJoinPipe(nodeIdentifiers: Set[String], left: Pipe, right: Pipe)
                            (val estimatedCardinality: Option[Long] = None)(implicit pipeMonitor: PipeMonitor)
   extends PipeWithSource(left, pipeMonitor) with RonjaPipe {
@@ -41,19 +39,12 @@ case class NodeHashJoinPipe(nodeIdentifiers: Set[String], left: Pipe, right: Pip
     if (rhsIterator.isEmpty)
       return Iterator.empty
 
-    val table = buildProbeTable(input)
+    val table = buildProbeTable(input, state)
 
     if (table.isEmpty)
       return Iterator.empty
 
-    val result = for {context: ExecutionContext <- rhsIterator
-                      joinKey <- computeKey(context)}
-    yield {
-      val seq = table.getOrElse(joinKey, mutable.MutableList.empty)
-      seq.map(context ++ _)
-    }
-
-    result.flatten
+    table.join(rhsIterator, None)(state)
   }
 
   def planDescription: InternalPlanDescription =
@@ -78,30 +69,26 @@ case class NodeHashJoinPipe(nodeIdentifiers: Set[String], left: Pipe, right: Pip
 
   def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
 
-  private def buildProbeTable(input: Iterator[ExecutionContext]): mutable.HashMap[Vector[Long], mutable.MutableList[ExecutionContext]] = {
-    val table = new mutable.HashMap[Vector[Long], mutable.MutableList[ExecutionContext]]
-
-    for {context <- input
-         joinKey <- computeKey(context)} {
-      val seq = table.getOrElseUpdate(joinKey, mutable.MutableList.empty)
-      seq += context
-    }
-
+  private def buildProbeTable(input: Iterator[ExecutionContext], state: QueryState): NodeHashJoinTable = {
+    val table = new NodeHashJoinTable(cachedIdentifiers.length, computeKey, state.query.operatorMemory,
+      state.memory.operator(this), state.spillFiles)
+    input.foreach(table.add)
+    state.decorator.registerBuildSize(this, table.size)
     table
   }
 
   private val cachedIdentifiers = nodeIdentifiers.toIndexedSeq
 
-  private def computeKey(context: ExecutionContext): Option[Vector[Long]] = {
+  private def computeKey(context: ExecutionContext): Array[Long] = {
     val key = new Array[Long](cachedIdentifiers.length)
 
     for (idx <- 0 until cachedIdentifiers.length) {
       key(idx) = context(cachedIdentifiers(idx)) match {
         case n: Node => n.getId
-        case null => return None
+        case null => return null
         case _ => throw new CypherTypeException("Created a plan that uses non-nodes when expecting a node")
       }
     }
-    Some(key.toVector)
+    key
   }
 }
@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.util.Arrays
+
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongObjectMap}
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+
+import scala.collection.mutable
+import scala.collection.mutable.ArrayBuffer
+
+/*
+The build side of a hash join on node ids. Rows are kept in buckets keyed on the ids of their join nodes, in a
+primitive long map when joining on a single node.
+
+When the estimated size of the rows goes over memoryLimit, the table turns into a hybrid hash join: the rows are
+partitioned on the hash of their keys, one partition stays in memory and the rest are written out to temporary files,
+as are the build rows that arrive after that. Probe rows that belong to a partition on disk are written out as well,
+and once all probe rows have been seen, the partitions on disk are joined one at a time, so a partition has to fit in
+memory on its own.
+
+keyOf returns the node ids of a row, or null when one of its join nodes is null. The rows in memory are accounted for in
+memory, and the partitions on disk are created in spillFiles.
+ */
+class NodeHashJoinTable(width: Int, keyOf: ExecutionContext => Array[Long], memoryLimit: Long, memory: OperatorMemory,
+                        spillFiles: SpillFiles) {
+  import NodeHashJoinTable._
+
+  private val buckets: Buckets = if (width == 1) new SingleNodeBuckets else new NodeTupleBuckets
+  private val allBuckets = ArrayBuffer[Bucket]()
+  private var partitions: Array[Partition] = null
+  private var estimatedSize = 0L
+  private var rows = 0L
+
+  /*
+  The number of build rows in the table, in memory or on disk.
+   */
+  def size: Long = rows
+
+  def isEmpty: Boolean = rows == 0
+
+  /*
+  Adds a build row. Rows without a key are not added, and false is returned for them.
+   */
+  def add(row: ExecutionContext): Boolean = {
+    val key = keyOf(row)
+    if (key == null)
+      return false
+
+    rows += 1
+    val partition = partitionOf(key)
+    if (partition == InMemory) {
+      val bucket = buckets.get(key)
+      if (bucket == null) {
+        val created = new Bucket(key)
+        buckets.put(key, created)
+        allBuckets += created
+        created.rows += row
+      } else
+        bucket.rows += row
+
+      val size = SizeEstimator.ofRow(row) + SizeEstimator.ReferenceSize
+      memory.allocate(size)
+      estimatedSize += size
+      if (partitions == null && estimatedSize > memoryLimit)
+        spill()
+    } else
+      spilled(partition).build += row
+    true
+  }
+
+  /*
+  Joins the probe rows with the build rows that have the same key, producing probe row ++ build row. When pad is given,
+  build rows that no probe row matched are produced too, padded by it. The table can not be used once this has been
+  read.
+   */
+  def join(probe: Iterator[ExecutionContext], pad: Option[ExecutionContext => ExecutionContext])
+          (implicit state: QueryState): Iterator[ExecutionContext] = {
+    val joined = probe.flatMap {
+      probeRow =>
+        val key = keyOf(probeRow)
+        if (key == null)
+          Iterator.empty
+        else {
+          val partition = partitionOf(key)
+          if (partition == InMemory) {
+            val bucket = buckets.get(key)
+            if (bucket == null)
+              Iterator.empty
+            else {
+              bucket.matched = true
+              bucket.rows.iterator.map(probeRow ++ _)
+            }
+          } else {
+            if (partitions(partition) != null)
+              partitions(partition).probe += probeRow
+            Iterator.empty
+          }
+        }
+    }
+
+    def unmatched: Iterator[ExecutionContext] = pad match {
+      case Some(f) => allBuckets.iterator.filterNot(_.matched).flatMap(_.rows.iterator.map(f))
+      case None => Iterator.empty
+    }
+
+    def joinedOnDisk: Iterator[ExecutionContext] =
+      if (partitions == null)
+        Iterator.empty
+      else
+        partitions.iterator.filter(_ != null).flatMap {
+          partition =>
+            val table = new NodeHashJoinTable(width, keyOf, Long.MaxValue, memory, spillFiles)
+            partition.build.rows.foreach(table.add)
+            table.join(partition.probe.rows, pad)
+        }
+
+    memory.releaseWhenDone(joined ++ unmatched, estimatedSize) ++ joinedOnDisk
+  }
+
+  private def partitionOf(key: Array[Long]): Int =
+    if (partitions == null) InMemory else (Arrays.hashCode(key) & Int.MaxValue) % Partitions
+
+  private def spilled(partition: Int): Partition = {
+    if (partitions(partition) == null)
+      partitions(partition) = new Partition(spillFiles)
+    partitions(partition)
+  }
+
+  private def spill() {
+    partitions = new Array[Partition](Partitions)
+    val kept = allBuckets.filter(bucket => partitionOf(bucket.key) == InMemory)
+    val keptSize = kept.map(_.rows.map(row => SizeEstimator.ofRow(row) + SizeEstimator.ReferenceSize).sum).sum
+    memory.release(estimatedSize - keptSize)
+    estimatedSize = keptSize
+    allBuckets.foreach {
+      bucket =>
+        val partition = partitionOf(bucket.key)
+        if (partition != InMemory) {
+          buckets.remove(bucket.key)
+          bucket.rows.foreach(spilled(partition).build += _)
+        }
+    }
+    allBuckets.clear()
+    allBuckets ++= kept
+  }
+}
+
+object NodeHashJoinTable {
+  val Partitions = 64
+
+  private val InMemory = 0
+
+  private final class Bucket(val key: Array[Long]) {
+    val rows = ArrayBuffer[ExecutionContext]()
+    var matched = false
+  }
+
+  private trait Buckets {
+    def get(key: Array[Long]): Bucket
+    def put(key: Array[Long], bucket: Bucket)
+    def remove(key: Array[Long])
+  }
+
+  private final class SingleNodeBuckets extends Buckets {
+    private val map: PrimitiveLongObjectMap[Bucket] = Primitive.longObjectMap[Bucket]()
+
+    def get(key: Array[Long]) = map.get(key(0))
+    def put(key: Array[Long], bucket: Bucket) { map.put(key(0), bucket) }
+    def remove(key: Array[Long]) { map.remove(key(0)) }
+  }
+
+  private final class NodeTupleBuckets extends Buckets {
+    private val map = mutable.HashMap[NodeIds, Bucket]()
+
+    def get(key: Array[Long]) = map.getOrElse(new NodeIds(key), null)
+    def put(key: Array[Long], bucket: Bucket) { map.put(new NodeIds(key), bucket) }
+    def remove(key: Array[Long]) { map.remove(new NodeIds(key)) }
+  }
+
+  private final class NodeIds(val ids: Array[Long]) {
+    override def hashCode = Arrays.hashCode(ids)
+
+    override def equals(other: Any) = other match {
+      case that: NodeIds => Arrays.equals(ids, that.ids)
+      case _ => false
+    }
+  }
+
+  /*
+  The build and probe rows of a partition on disk.
+   */
+  private final class Partition(spillFiles: SpillFiles) {
+    val build = new SpilledRows(spillFiles.newFile())
+    val probe = new SpilledRows(spillFiles.newFile())
+  }
+
+  /*
+  Rows written to a temporary file, apart from rows holding values that can not be written, which are kept in memory.
+   */
+  private final class SpilledRows(file: SpillFile) {
+    private val unwritable = ArrayBuffer[ExecutionContext]()
+
+    def +=(row: ExecutionContext) {
+      if (SpillFile.canWriteRow(row))
+        file.writeRow(row)
+      else
+        unwritable += row
+    }
+
+    def rows(implicit state: QueryState): Iterator[ExecutionContext] = {
+      val reader = file.reader(state)
+      val written = new Iterator[ExecutionContext] {
+        def hasNext = reader.hasNext || {
+          file.delete()
+          false
+        }
+
+        def next() = reader.nextRow()
+      }
+      written ++ unwritable.iterator
+    }
+  }
+}
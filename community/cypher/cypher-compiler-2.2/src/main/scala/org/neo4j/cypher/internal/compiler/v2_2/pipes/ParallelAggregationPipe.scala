@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.util.concurrent.atomic.AtomicReference
+import java.util.concurrent.{ArrayBlockingQueue, ConcurrentLinkedQueue, Semaphore, TimeUnit}
+
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.aggregation.MergeableAggregationFunction
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{ParallelReads, QueryContext}
+import org.neo4j.cypher.internal.compiler.v2_2.symbols.SymbolTable
+import org.neo4j.graphdb.Node
+
+import scala.collection.JavaConverters._
+
+/*
+Runs an aggregation over a fused pipeline on several threads. The calling thread scans the leaf of the pipeline and
+hands the ids of the nodes it finds out in morsels. Worker threads, each in a read transaction of its own, run the
+rest of the pipeline over those morsels and aggregate into partial groups of their own, which are merged once the
+scan is done. The workers are threads of the job scheduler of the database, let in under the workload class of the
+query, so a query gets no more workers than its class has room for, and aggregates on the calling thread if there is
+room for none.
+
+This is only correct when the transaction of the query has no changes of its own, and when all aggregation
+functions can merge partial results, so the pipe falls back to running the aggregation on the calling thread
+otherwise.
+ */
+case class ParallelAggregationPipe(aggregation: EagerAggregationPipe, pipeline: FusedPipe,
+                                   workers: Int = ParallelAggregationPipe.DefaultWorkers)
+                                  (implicit val monitor: PipeMonitor) extends Pipe with RonjaPipe {
+
+  private val ident = pipeline.leaf match {
+    case AllNodesScanPipe(id) => id
+    case NodeByLabelScanPipe(id, _) => id
+    case leaf => throw new IllegalArgumentException(s"Can not split the scan of $leaf")
+  }
+
+  protected def internalCreateResults(state: QueryState): Iterator[ExecutionContext] =
+    state.query.parallelReads.filter(_ => state.initialContext.isEmpty).flatMap(aggregateInParallel(_, state)) match {
+      case Some(partials) =>
+        aggregation.createResults(merge(partials)(state))(state)
+      case None =>
+        aggregation.createResults(state)
+    }
+
+  /*
+  The partial groups of the workers, or None if the workload class of the query had no room for any worker
+   */
+  private def aggregateInParallel(reads: ParallelReads, state: QueryState): Option[Seq[GroupingTable]] = {
+    val morsels = new ArrayBlockingQueue[Array[Long]](workers * 2)
+    val failure = new AtomicReference[Throwable]()
+    val partials = new ConcurrentLinkedQueue[GroupingTable]()
+    val finished = new Semaphore(0)
+    val started = reads.startWorkers(workers, new Runnable {
+      def run() {
+        try {
+          partials.add(work(reads, state, morsels, failure))
+        } finally {
+          finished.release()
+        }
+      }
+    })
+    if (started == 0) None
+    else {
+      try {
+        val nodes = pipeline.leaf.createResults(state)
+        while (nodes.hasNext && failure.get() == null) {
+          val ids = new Array[Long](pipeline.morselSize)
+          var count = 0
+          while (count < ids.length && nodes.hasNext) {
+            ids(count) = nodes.next()(ident).asInstanceOf[Node].getId
+            count += 1
+          }
+          offer(morsels, if (count == ids.length) ids else java.util.Arrays.copyOf(ids, count))
+        }
+      } finally {
+        (1 to started).foreach(_ => offer(morsels, ParallelAggregationPipe.EndOfScan))
+      }
+
+      finished.acquire(started)
+      Option(failure.get()).foreach(throw _)
+      Some(partials.asScala.toSeq)
+    }
+  }
+
+  private def offer(morsels: ArrayBlockingQueue[Array[Long]], morsel: Array[Long]) {
+    // workers keep draining the queue after a failure, so this never waits forever
+    while (!morsels.offer(morsel, 10, TimeUnit.MILLISECONDS)) {}
+  }
+
+  private def work(reads: ParallelReads, state: QueryState, morsels: ArrayBlockingQueue[Array[Long]],
+                   failure: AtomicReference[Throwable]): GroupingTable = {
+    val groups = aggregation.newTable(state.query.operatorMemory / workers, state.memory.operator(aggregation),
+      state.spillFiles)
+    try {
+      reads.inReadTransaction {
+        (query: QueryContext) =>
+          val workerState = state.copy(query = query)
+          var ids = morsels.take()
+          while (ids ne ParallelAggregationPipe.EndOfScan) {
+            if (failure.get() == null)
+              aggregate(ids, groups, workerState)
+            ids = morsels.take()
+          }
+      }
+    } catch {
+      case e: Throwable =>
+        failure.compareAndSet(null, e)
+        drain(morsels)
+    }
+    groups
+  }
+
+  private def aggregate(ids: Array[Long], groups: GroupingTable, state: QueryState) {
+    val morsel = new Morsel(ids.length)
+    ids.foreach(id => morsel += state.newExecutionContext().newWith1(ident, state.query.nodeOps.getById(id)))
+    pipeline.morsels(morsel.iterator, state).foreach {
+      output =>
+        var i = 0
+        while (i < output.size) {
+          groups.aggregate(output(i))(state)
+          i += 1
+        }
+    }
+  }
+
+  private def drain(morsels: ArrayBlockingQueue[Array[Long]]) {
+    while (morsels.take() ne ParallelAggregationPipe.EndOfScan) {}
+  }
+
+  private def merge(partials: Seq[GroupingTable])(implicit state: QueryState): GroupingTable = {
+    val result = aggregation.newTable(state.query.operatorMemory, state.memory.operator(aggregation), state.spillFiles)
+    partials.foreach(result.merge)
+    result
+  }
+
+  def exists(pred: Pipe => Boolean): Boolean = pred(this) || aggregation.exists(pred)
+
+  def planDescription = aggregation.planDescription
+
+  def symbols: SymbolTable = aggregation.symbols
+
+  override def localEffects = aggregation.effects
+
+  def dup(sources: List[Pipe]): Pipe = {
+    require(sources.isEmpty)
+    this
+  }
+
+  def sources: Seq[Pipe] = Seq.empty
+
+  def estimatedCardinality: Option[Long] = aggregation.estimatedCardinality
+
+  def withEstimatedCardinality(estimated: Long) =
+    copy(aggregation = aggregation.withEstimatedCardinality(estimated))
+}
+
+object ParallelAggregationPipe {
+  val DefaultWorkers = Runtime.getRuntime.availableProcessors()
+
+  private val EndOfScan = new Array[Long](0)
+
+  /*
+  Replaces an aggregation over a fused pipeline on a node scan with its parallel counterpart, provided all of its
+  aggregation functions can merge partial results.
+   */
+  def parallelize(pipe: Pipe with RonjaPipe)(implicit monitor: PipeMonitor): Pipe with RonjaPipe = pipe match {
+    case aggregation: EagerAggregationPipe if splittable(aggregation.source) &&
+      aggregation.aggregations.values.forall(_.createAggregationFunction.isInstanceOf[MergeableAggregationFunction]) =>
+      aggregation.source match {
+        case pipeline: FusedPipe => ParallelAggregationPipe(aggregation, pipeline)
+        case leaf: Pipe with RonjaPipe => ParallelAggregationPipe(aggregation, FusedPipe(leaf, Seq.empty, leaf))
+      }
+
+    case _ =>
+      pipe
+  }
+
+  private def splittable(source: Pipe): Boolean = source match {
+    case pipeline: FusedPipe => splittable(pipeline.leaf)
+    case _: AllNodesScanPipe | _: NodeByLabelScanPipe => true
+    case _ => false
+  }
+}
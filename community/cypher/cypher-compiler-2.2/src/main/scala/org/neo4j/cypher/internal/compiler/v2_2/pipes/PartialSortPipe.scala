@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.commands.SortItem
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.Expression
+import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.{KeyExpressions, LegacyExpression}
+
+import scala.collection.mutable.ArrayBuffer
+
+/*
+ * PartialSortPipe is used for ORDER BY ... [LIMIT] when the rows already come ordered by the first sort item, as
+ * they do from an ordered index scan. Only runs of rows sharing that first value get sorted, on all sort items, and
+ * with a limit no more rows are read than it takes to complete the runs that make up the result.
+ */
+case class PartialSortPipe(source: Pipe, sortDescription: List[SortItem], countExpression: Option[Expression])
+                          (val estimatedCardinality: Option[Long] = None)(implicit pipeMonitor: PipeMonitor)
+  extends PipeWithSource(source, pipeMonitor) with Comparer with RonjaPipe {
+
+  private val sortItems = sortDescription.toArray
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    implicit val s = state
+    if (input.isEmpty)
+      Iterator.empty
+    else {
+      val rows = input.map(ctx => (sortItems.head(ctx), ctx)).buffered
+      val sorted = runs(rows).flatMap(sortRun)
+      countExpression match {
+        case Some(count) => sorted.take(count(rows.head._2).asInstanceOf[Number].intValue())
+        case None        => sorted
+      }
+    }
+  }
+
+  private def runs(rows: BufferedIterator[(Any, ExecutionContext)])
+                  (implicit state: QueryState): Iterator[Seq[ExecutionContext]] = new Iterator[Seq[ExecutionContext]] {
+    def hasNext = rows.hasNext
+
+    def next() = {
+      val (key, first) = rows.next()
+      val run = ArrayBuffer(first)
+      while (rows.hasNext && sameRun(key, rows.head._1))
+        run += rows.next()._2
+      run
+    }
+  }
+
+  // indexes order numbers by their double value, so numbers are only told apart exactly within a run
+  private def sameRun(a: Any, b: Any)(implicit state: QueryState): Boolean = (a, b) match {
+    case (x: Number, y: Number) => x.doubleValue() == y.doubleValue()
+    case _                      => compare(a, b) == 0
+  }
+
+  private def sortRun(run: Seq[ExecutionContext])(implicit state: QueryState): Seq[ExecutionContext] =
+    if (run.size == 1)
+      run
+    else
+      run.map(ctx => (sortItems.map(_(ctx)), ctx)).sortWith {
+        case ((a, _), (b, _)) => lessThan(a, b)
+      }.map(_._2)
+
+  private def lessThan(a: Array[Any], b: Array[Any])(implicit state: QueryState): Boolean = {
+    var i = 0
+    while (i < sortItems.length) {
+      val res = math.signum(compare(a(i), b(i)))
+      if (res != 0)
+        return if (sortItems(i).ascending) res < 0 else res > 0
+      i += 1
+    }
+    false
+  }
+
+  def planDescription =
+    source.planDescription
+      .andThen(this, "PartialSort", identifiers,
+        countExpression.map(LegacyExpression).toSeq :+ KeyExpressions(sortDescription.map(_.expression)): _*)
+
+  def symbols = source.symbols
+
+  override def effects = Effects.NONE
+
+  def dup(sources: List[Pipe]): Pipe = {
+    val (head :: Nil) = sources
+    copy(source = head)(estimatedCardinality)
+  }
+
+  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
+}
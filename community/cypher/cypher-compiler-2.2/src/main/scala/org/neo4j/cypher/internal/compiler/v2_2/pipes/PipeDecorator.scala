@@ -31,6 +31,12 @@ trait PipeDecorator {
   def decorate(pipe: Pipe, iter: Iterator[ExecutionContext]): Iterator[ExecutionContext]
 
   def decorate(plan: InternalPlanDescription, isProfileReady: => Boolean): InternalPlanDescription
+
+  /*
+  Called by pipes that materialize one of their sources, such as the build side of a hash join, with the number of
+  rows it held.
+   */
+  def registerBuildSize(pipe: Pipe, rows: Long)
 }
 
 object NullPipeDecorator extends PipeDecorator {
@@ -39,4 +45,6 @@ object NullPipeDecorator extends PipeDecorator {
   def decorate(plan: InternalPlanDescription, isProfileReady: => Boolean): InternalPlanDescription = plan
 
   def decorate(pipe: Pipe, state: QueryState): QueryState = state
+
+  def registerBuildSize(pipe: Pipe, rows: Long) {}
 }
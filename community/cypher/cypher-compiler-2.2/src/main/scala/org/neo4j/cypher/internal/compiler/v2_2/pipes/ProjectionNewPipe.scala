@@ -25,8 +25,9 @@ import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescr
 import org.neo4j.cypher.internal.compiler.v2_2.symbols.SymbolTable
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects._
 
-case class ProjectionNewPipe(source: Pipe, expressions: Map[String, Expression])(val estimatedCardinality: Option[Long] = None)
-                            (implicit pipeMonitor: PipeMonitor) extends PipeWithSource(source, pipeMonitor) with RonjaPipe {
+case class ProjectionNewPipe(source: Pipe, expressions: Map[String, Expression])
+                            (val estimatedCardinality: Option[Long] = None, val layout: SlotLayout = SlotLayout.empty)
+                            (implicit pipeMonitor: PipeMonitor) extends PipeWithSource(source, pipeMonitor) with RonjaPipe with FusiblePipe {
   val symbols: SymbolTable = {
     val newIdentifiers = expressions.map {
       case (name, expression) => name -> expression.getType(source.symbols)
@@ -36,27 +37,65 @@ case class ProjectionNewPipe(source: Pipe, expressions: Map[String, Expression])
   }
 
   protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState) =
-    input.map {
-      original =>
-        val m = MutableMaps.create(expressions.size)
-        expressions.foreach {
-          case (name, expression) =>
-            m.put(name, expression(original)(state))
-        }
-
-        ExecutionContext(m)
+    input.map(original => project(original, state))
+
+  def consume(row: ExecutionContext, state: QueryState): Iterator[ExecutionContext] =
+    Iterator.single(project(row, state))
+
+  override def producesAtMostOneRowPerRow = true
+
+  override def process(input: Morsel, state: QueryState): Morsel = {
+    var i = 0
+    while (i < input.size) {
+      input(i) = project(input(i), state)
+      i += 1
+    }
+    input
+  }
+
+  // the slots of the projected identifiers, when the layout has all of them
+  private val slots: Option[Array[(Int, Expression)]] = {
+    val resolved = expressions.toArray.map {
+      case (name, expression) => (layout.slotFor(name), expression)
+    }
+    if (layout.isEmpty || resolved.exists(_._1 < 0)) None else Some(resolved)
+  }
+
+  private def project(original: ExecutionContext, state: QueryState): ExecutionContext = slots match {
+    case Some(projections) =>
+      val row = new SlottedRow(layout)
+      var i = 0
+      while (i < projections.length) {
+        val (slot, expression) = projections(i)
+        row.setSlot(slot, expression(original)(state))
+        i += 1
+      }
+      ExecutionContext(row)
+
+    case None =>
+      projectByName(original, state)
+  }
+
+  private def projectByName(original: ExecutionContext, state: QueryState): ExecutionContext = {
+    val m = MutableMaps.create(expressions.size)
+    expressions.foreach {
+      case (name, expression) =>
+        m.put(name, expression(original)(state))
     }
 
+    ExecutionContext(m)
+  }
+
   override def planDescription =
     source.planDescription
       .andThen(this, "Projection", identifiers, KeyNames(expressions.keys.toSeq))
 
   def dup(sources: List[Pipe]): Pipe = {
     val (source :: Nil) = sources
-    copy(source = source)(estimatedCardinality)
+    copy(source = source)(estimatedCardinality, layout)
   }
 
   override def localEffects = expressions.effects
 
-  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
+  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated), layout)
 }
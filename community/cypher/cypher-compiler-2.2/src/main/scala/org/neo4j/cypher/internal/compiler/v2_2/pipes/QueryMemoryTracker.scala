@@ -0,0 +1,140 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.util.concurrent.atomic.AtomicLong
+
+import org.neo4j.cypher.internal.compiler.v2_2.MemoryLimitExceededException
+
+import scala.collection.mutable
+
+/*
+Accounts for the heap a query holds on to: the rows buffered by eager, sort and hash join operators, the groups of
+aggregations and distinct, and the values gathered by collect(). Sizes are the estimates of SizeEstimator.
+
+The query fails once what it holds goes over queryLimit, or once what all running queries hold together goes over
+globalLimit. Queries take memory from the global pool in chunks, give back the whole chunks they no longer use as they
+release memory, and give the rest back when they are closed. Without a global limit, nothing is taken from the pool.
+ */
+final class QueryMemoryTracker(queryLimit: Long = Long.MaxValue, globalLimit: Long = Long.MaxValue) {
+  import QueryMemoryTracker._
+
+  private val operators = mutable.Map[Pipe, OperatorMemory]()
+  private var used = 0L
+  private var reserved = 0L
+
+  def inUse: Long = synchronized(used)
+
+  /*
+  The memory held by a single operator. PROFILE shows how much each operator held at most.
+   */
+  def operator(pipe: Pipe): OperatorMemory = synchronized {
+    operators.getOrElseUpdate(pipe, new OperatorMemory(this))
+  }
+
+  def peak(pipe: Pipe): Option[Long] = synchronized(operators.get(pipe).map(_.peak))
+
+  def allocate(bytes: Long): Unit = synchronized {
+    if (used + bytes > queryLimit)
+      throw new MemoryLimitExceededException(
+        s"The query needed more than the $queryLimit bytes of memory that a single query may use")
+    used += bytes
+    if (used > reserved && globalLimit < Long.MaxValue)
+      reserve(math.max(used - reserved, GlobalChunk))
+  }
+
+  def release(bytes: Long): Unit = synchronized {
+    used -= bytes
+    val unused = reserved - used
+    if (unused > GlobalChunk) {
+      val chunks = unused / GlobalChunk * GlobalChunk
+      global.addAndGet(-chunks)
+      reserved -= chunks
+    }
+  }
+
+  def close(): Unit = synchronized {
+    global.addAndGet(-reserved)
+    reserved = 0
+    used = 0
+  }
+
+  private def reserve(bytes: Long) {
+    if (global.addAndGet(bytes) > globalLimit) {
+      global.addAndGet(-bytes)
+      throw new MemoryLimitExceededException(
+        s"The queries running together needed more than the $globalLimit bytes of memory that all queries may use")
+    }
+    reserved += bytes
+  }
+}
+
+object QueryMemoryTracker {
+  private val GlobalChunk = 1024 * 1024L
+  private val global = new AtomicLong()
+
+  /*
+  The memory taken from the global pool by the queries that are running.
+   */
+  def globalInUse: Long = global.get()
+}
+
+/*
+The part of the memory of a query that one operator holds. Operators allocate as their state grows, and release what
+they write out to disk or no longer need.
+ */
+final class OperatorMemory(query: QueryMemoryTracker) {
+  private var held = 0L
+  private var maxHeld = 0L
+
+  def peak: Long = synchronized(maxHeld)
+
+  def allocate(bytes: Long) {
+    query.allocate(bytes)
+    synchronized {
+      held += bytes
+      maxHeld = math.max(maxHeld, held)
+    }
+  }
+
+  def release(bytes: Long) {
+    synchronized {
+      held -= bytes
+    }
+    query.release(bytes)
+  }
+
+  /*
+  Releases bytes once all of rows has been read.
+   */
+  def releaseWhenDone[T](rows: Iterator[T], bytes: => Long): Iterator[T] = new Iterator[T] {
+    private var done = false
+
+    def hasNext = rows.hasNext || {
+      if (!done) {
+        done = true
+        release(bytes)
+      }
+      false
+    }
+
+    def next() = rows.next()
+  }
+}
@@ -34,7 +34,10 @@ case class QueryState(db: GraphDatabaseService,
                       decorator: PipeDecorator,
                       timeReader: TimeReader = new TimeReader,
                       var initialContext: Option[ExecutionContext] = None,
-                      queryId: AnyRef = UUID.randomUUID().toString) {
+                      queryId: AnyRef = UUID.randomUUID().toString,
+                      rowLayout: SlotLayout = SlotLayout.empty,
+                      memory: QueryMemoryTracker = new QueryMemoryTracker,
+                      spillFiles: SpillFiles = SpillFiles.inTempDirectory) {
 
   private var _pathValueBuilder: PathValueBuilder = null
 
@@ -46,6 +49,8 @@ case class QueryState(db: GraphDatabaseService,
     _pathValueBuilder.clear()
   }
 
+  def newExecutionContext(): ExecutionContext = ExecutionContext(rowLayout.newRow())
+
   def readTimeStamp(): Long = timeReader.getTime
 
   def graphDatabaseAPI: GraphDatabaseAPI = db match {
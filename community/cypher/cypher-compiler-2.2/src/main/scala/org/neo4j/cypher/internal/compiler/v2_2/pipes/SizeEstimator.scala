@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.graphdb.{Path, PropertyContainer}
+
+/*
+Rough estimates of how much heap the values held by an operator take up, used to decide when its state has outgrown
+the memory it may use. Entities are counted as the proxy objects they are, not as what they point to in the store.
+ */
+object SizeEstimator {
+  val ObjectOverhead = 16L
+  val ReferenceSize = 8L
+  val MapEntryOverhead = 32L
+
+  def of(value: Any): Long = value match {
+    case null => ReferenceSize
+    case _: Boolean | _: Byte | _: Short | _: Char | _: Int | _: Float => ObjectOverhead
+    case _: Long | _: Double => ObjectOverhead + 8
+    case x: String => ObjectOverhead + 24 + 2L * x.length
+    case _: PropertyContainer => ObjectOverhead + 16
+    case x: Path => ObjectOverhead + (2L * x.length() + 1) * (ReferenceSize + ObjectOverhead + 16)
+    // Ahead of Traversable, which maps are too
+    case x: Map[_, _] => x.foldLeft(ObjectOverhead + 16) {
+      case (size, (k, v)) => size + MapEntryOverhead + of(k) + of(v)
+    }
+    case x: Traversable[_] => x.foldLeft(ObjectOverhead + 16)(_ + ReferenceSize + of(_))
+    case x: Array[_] => x.foldLeft(ObjectOverhead + 8)(_ + of(_))
+    case _ => ObjectOverhead * 4
+  }
+
+  def ofAll(values: Traversable[Any]): Long = values.foldLeft(0L)(_ + ReferenceSize + of(_))
+
+  def ofRow(row: ExecutionContext): Long = row.foldLeft(ObjectOverhead * 4) {
+    case (size, (key, value)) => size + MapEntryOverhead + of(key) + of(value)
+  }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import scala.collection.mutable
+
+/*
+Assigns every identifier known at plan time a fixed position in a row, so that rows can be backed by an array
+instead of a hash map. Identifiers that were not known when the layout was computed still work, they just end up
+in the overflow map of the row.
+ */
+final class SlotLayout private(val identifiers: IndexedSeq[String]) {
+
+  private val slots: java.util.HashMap[String, Integer] = {
+    val result = new java.util.HashMap[String, Integer](identifiers.size * 2)
+    identifiers.zipWithIndex.foreach {
+      case (identifier, slot) => result.put(identifier, slot)
+    }
+    result
+  }
+
+  def size: Int = identifiers.size
+
+  def isEmpty: Boolean = identifiers.isEmpty
+
+  def slotFor(identifier: String): Int = {
+    val slot = slots.get(identifier)
+    if (slot == null) -1 else slot
+  }
+
+  def newRow(): mutable.Map[String, Any] =
+    if (isEmpty) MutableMaps.empty else new SlottedRow(this)
+
+  override def toString = identifiers.mkString("SlotLayout(", ", ", ")")
+}
+
+object SlotLayout {
+  val empty = new SlotLayout(IndexedSeq.empty)
+
+  def apply(identifiers: Iterable[String]): SlotLayout =
+    if (identifiers.isEmpty) empty else new SlotLayout(identifiers.toIndexedSeq.distinct.sorted)
+}
+
+/*
+A row backed by an array with one slot per identifier in the layout. Cloning a row, which pipes do for every row
+they produce, is an array copy rather than a rehash of every entry.
+ */
+final class SlottedRow private(val layout: SlotLayout,
+                               private val slots: Array[Any],
+                               private var overflow: mutable.Map[String, Any]) extends mutable.Map[String, Any] {
+
+  import SlottedRow.Absent
+
+  def this(layout: SlotLayout) = this(layout, SlottedRow.emptySlots(layout.size), null)
+
+  /*
+  The value in the given slot of the layout, or null if it holds none. Pipes that resolved the slots of their
+  identifiers when they were built use these instead of looking the identifiers up for every row.
+   */
+  def getSlot(slot: Int): Any = {
+    val value = slots(slot)
+    if (value.asInstanceOf[AnyRef] eq Absent) null else value
+  }
+
+  def setSlot(slot: Int, value: Any) {
+    slots(slot) = value
+  }
+
+  def get(key: String): Option[Any] = {
+    val slot = layout.slotFor(key)
+    if (slot >= 0) {
+      val value = slots(slot)
+      if (value.asInstanceOf[AnyRef] eq Absent) None else Some(value)
+    }
+    else if (overflow == null) None
+    else overflow.get(key)
+  }
+
+  override def contains(key: String): Boolean = {
+    val slot = layout.slotFor(key)
+    if (slot >= 0) !(slots(slot).asInstanceOf[AnyRef] eq Absent)
+    else overflow != null && overflow.contains(key)
+  }
+
+  override def put(key: String, value: Any): Option[Any] = {
+    val previous = get(key)
+    update(key, value)
+    previous
+  }
+
+  override def update(key: String, value: Any) {
+    val slot = layout.slotFor(key)
+    if (slot >= 0)
+      slots(slot) = value
+    else {
+      if (overflow == null)
+        overflow = MutableMaps.empty
+      overflow.update(key, value)
+    }
+  }
+
+  def +=(kv: (String, Any)) = {
+    update(kv._1, kv._2)
+    this
+  }
+
+  def -=(key: String) = {
+    val slot = layout.slotFor(key)
+    if (slot >= 0)
+      slots(slot) = Absent
+    else if (overflow != null)
+      overflow -= key
+    this
+  }
+
+  def iterator: Iterator[(String, Any)] = {
+    val slotted = layout.identifiers.iterator.zip(slots.iterator).filterNot {
+      case (_, value) => value.asInstanceOf[AnyRef] eq Absent
+    }
+    if (overflow == null) slotted else slotted ++ overflow.iterator
+  }
+
+  override def size: Int = {
+    var count = 0
+    var i = 0
+    while (i < slots.length) {
+      if (!(slots(i).asInstanceOf[AnyRef] eq Absent))
+        count += 1
+      i += 1
+    }
+    if (overflow == null) count else count + overflow.size
+  }
+
+  override def empty: SlottedRow = new SlottedRow(layout)
+
+  override def clone(): SlottedRow =
+    new SlottedRow(layout, slots.clone(), if (overflow == null) null else overflow.clone())
+}
+
+object SlottedRow {
+  private object Absent
+
+  private def emptySlots(size: Int): Array[Any] = {
+    val slots = new Array[Any](size)
+    java.util.Arrays.fill(slots.asInstanceOf[Array[AnyRef]], Absent)
+    slots
+  }
+}
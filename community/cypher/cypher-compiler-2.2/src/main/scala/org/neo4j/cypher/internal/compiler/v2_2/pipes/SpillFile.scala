@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.io._
+import java.nio.charset.Charset
+
+import org.neo4j.cypher.internal.PathImpl
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.graphdb.{Node, Path, PropertyContainer, Relationship}
+
+import scala.collection.JavaConverters._
+
+/*
+A temporary file that operators write values to when their state outgrows the memory they may use, and read back
+from later. Values are written in a compact tagged form: nodes and relationships as their ids, which are looked up
+again when read, and paths as the entities along them.
+
+Only the values SpillFile.canWrite accepts can be written, so operators check their state before deciding to spill.
+Spill files are created through the SpillFiles of the query, and the file on disk only once something is written.
+ */
+final class SpillFile private[pipes] (directory: File, owner: SpillFiles) {
+  import SpillFile._
+
+  private var file: File = null
+  private var out: DataOutputStream = null
+  private var in: DataInputStream = null
+  private var written = 0L
+  private var deleted = false
+
+  def size: Long = written
+
+  def write(value: Any) {
+    openOutput()
+    writeValue(value)
+    written += 1
+  }
+
+  def writeRow(row: ExecutionContext) {
+    openOutput()
+    out.writeInt(row.size)
+    row.foreach {
+      case (key, value) =>
+        writeValue(key)
+        writeValue(value)
+    }
+    written += 1
+  }
+
+  /*
+  Stops writing and reads back the values and rows in the order they were written.
+   */
+  def reader(state: QueryState): Reader = {
+    closeOutput()
+    if (file != null)
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BufferSize))
+    new Reader(state, in, written)
+  }
+
+  /*
+  Closes the file, along with a reader that has not been read to the end, and deletes it.
+   */
+  def delete() {
+    closeOutput()
+    if (in != null) {
+      in.close()
+      in = null
+    }
+    if (file != null) {
+      file.delete()
+      file = null
+    }
+    deleted = true
+    owner.deleted(this)
+  }
+
+  private def openOutput() {
+    if (out == null) {
+      if (deleted)
+        throw new IllegalStateException("Can not write to a spill file that has been deleted")
+      if (file != null)
+        throw new IllegalStateException("Can not write to a spill file that is being read")
+      directory.mkdirs()
+      file = File.createTempFile("cypher-spill", ".tmp", directory)
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BufferSize))
+    }
+  }
+
+  private def closeOutput() {
+    if (out != null) {
+      out.close()
+      out = null
+    }
+  }
+
+  private def writeValue(value: Any) {
+    value match {
+      case null => out.writeByte(NULL)
+      case x: Boolean => out.writeByte(if (x) TRUE else FALSE)
+      case x: Byte => out.writeByte(BYTE); out.writeByte(x)
+      case x: Short => out.writeByte(SHORT); out.writeShort(x)
+      case x: Int => out.writeByte(INT); out.writeInt(x)
+      case x: Long => out.writeByte(LONG); out.writeLong(x)
+      case x: Float => out.writeByte(FLOAT); out.writeFloat(x)
+      case x: Double => out.writeByte(DOUBLE); out.writeDouble(x)
+      case x: Char => out.writeByte(CHAR); out.writeChar(x)
+      case x: String =>
+        val bytes = x.getBytes(UTF8)
+        out.writeByte(STRING)
+        out.writeInt(bytes.length)
+        out.write(bytes)
+      case x: Node => out.writeByte(NODE); out.writeLong(x.getId)
+      case x: Relationship => out.writeByte(RELATIONSHIP); out.writeLong(x.getId)
+      case x: Path =>
+        out.writeByte(PATH)
+        out.writeInt(x.length())
+        x.iterator().asScala.foreach(writeValue)
+      case x: Seq[_] =>
+        out.writeByte(LIST)
+        out.writeInt(x.size)
+        x.foreach(writeValue)
+      case x: Map[_, _] =>
+        out.writeByte(MAP)
+        out.writeInt(x.size)
+        x.foreach {
+          case (k, v) =>
+            writeValue(k)
+            writeValue(v)
+        }
+      case x: Array[_] =>
+        out.writeByte(ARRAY)
+        out.writeByte(ArrayTypes.indexOf(x.getClass.getComponentType))
+        out.writeInt(x.length)
+        x.foreach(writeValue)
+      case x =>
+        throw new IllegalArgumentException(s"Can not spill $x to disk")
+    }
+  }
+
+  final class Reader(state: QueryState, in: DataInputStream, count: Long) {
+    private var read = 0L
+
+    if (count == 0 && in != null)
+      in.close()
+
+    def hasNext: Boolean = read < count
+
+    def next(): Any = readNext(readValue())
+
+    def nextRow(): ExecutionContext = readNext {
+      val row = state.newExecutionContext()
+      (1 to in.readInt()).foreach(_ => row += readValue().asInstanceOf[String] -> readValue())
+      row
+    }
+
+    private def readNext[T](reading: => T): T = {
+      if (!hasNext)
+        throw new NoSuchElementException("No more values in spill file")
+      read += 1
+      val value = reading
+      if (!hasNext)
+        in.close()
+      value
+    }
+
+    def close() {
+      if (in != null)
+        in.close()
+    }
+
+    private def readValue(): Any = in.readByte() match {
+      case NULL => null
+      case TRUE => true
+      case FALSE => false
+      case BYTE => in.readByte()
+      case SHORT => in.readShort()
+      case INT => in.readInt()
+      case LONG => in.readLong()
+      case FLOAT => in.readFloat()
+      case DOUBLE => in.readDouble()
+      case CHAR => in.readChar()
+      case STRING =>
+        val bytes = new Array[Byte](in.readInt())
+        in.readFully(bytes)
+        new String(bytes, UTF8)
+      case NODE => state.query.nodeOps.getById(in.readLong())
+      case RELATIONSHIP => state.query.relationshipOps.getById(in.readLong())
+      case PATH =>
+        val entities = (0 to 2 * in.readInt()).map(_ => readValue().asInstanceOf[PropertyContainer])
+        PathImpl(entities: _*)
+      case LIST => Vector.fill(in.readInt())(readValue())
+      case MAP => (1 to in.readInt()).map(_ => readValue() -> readValue()).toMap
+      case ARRAY =>
+        val componentType = ArrayTypes(in.readByte())
+        val array = java.lang.reflect.Array.newInstance(componentType, in.readInt())
+        (0 until java.lang.reflect.Array.getLength(array)).foreach {
+          i => java.lang.reflect.Array.set(array, i, readValue())
+        }
+        array
+      case tag => throw new IllegalStateException(s"Unknown value in spill file: $tag")
+    }
+  }
+}
+
+object SpillFile {
+  private val BufferSize = 64 * 1024
+  private val UTF8 = Charset.forName("UTF-8")
+
+  private val NULL: Byte = 0
+  private val TRUE: Byte = 1
+  private val FALSE: Byte = 2
+  private val BYTE: Byte = 3
+  private val SHORT: Byte = 4
+  private val INT: Byte = 5
+  private val LONG: Byte = 6
+  private val FLOAT: Byte = 7
+  private val DOUBLE: Byte = 8
+  private val CHAR: Byte = 9
+  private val STRING: Byte = 10
+  private val NODE: Byte = 11
+  private val RELATIONSHIP: Byte = 12
+  private val PATH: Byte = 13
+  private val LIST: Byte = 14
+  private val MAP: Byte = 15
+  private val ARRAY: Byte = 16
+
+  private val ArrayTypes: IndexedSeq[Class[_]] = IndexedSeq(
+    classOf[Boolean], classOf[Byte], classOf[Short], classOf[Int], classOf[Long],
+    classOf[Float], classOf[Double], classOf[Char], classOf[String])
+
+  def canWrite(value: Any): Boolean = value match {
+    case null | _: Boolean | _: Byte | _: Short | _: Int | _: Long | _: Float | _: Double | _: Char | _: String => true
+    case _: Node | _: Relationship | _: Path => true
+    case x: Seq[_] => x.forall(canWrite)
+    case x: Map[_, _] => x.forall { case (k, v) => canWrite(k) && canWrite(v) }
+    case x: Array[_] => ArrayTypes.contains(x.getClass.getComponentType)
+    case _ => false
+  }
+
+  def canWriteRow(row: ExecutionContext): Boolean = row.forall {
+    case (_, value) => canWrite(value)
+  }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.io.File
+
+import scala.collection.mutable
+
+/*
+The spill files of a query, kept in directory. Operators get their spill files from here rather than creating them
+themselves, so that the files of a query that fails, is terminated or is not read to the end are closed and deleted
+when the query is closed, instead of being left behind until the database is shut down.
+ */
+final class SpillFiles(val directory: File) {
+  private val files = mutable.Set[SpillFile]()
+  private var closed = false
+
+  def newFile(): SpillFile = synchronized {
+    if (closed)
+      throw new IllegalStateException("Can not spill to disk for a query that has been closed")
+    val file = new SpillFile(directory, this)
+    files += file
+    file
+  }
+
+  /*
+  The number of spill files that have been created and not yet deleted.
+   */
+  def size: Int = synchronized(files.size)
+
+  /*
+  Closes and deletes the files that the operators have not deleted themselves.
+   */
+  def close() {
+    val left = synchronized {
+      closed = true
+      val open = files.toList
+      files.clear()
+      open
+    }
+    left.foreach(_.delete())
+  }
+
+  private[pipes] def deleted(file: SpillFile): Unit = synchronized {
+    files -= file
+  }
+}
+
+object SpillFiles {
+  def inTempDirectory: SpillFiles = new SpillFiles(new File(System.getProperty("java.io.tmpdir")))
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.util.PriorityQueue
+
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+
+import scala.collection.mutable.ArrayBuffer
+
+/*
+Sorts rows within a memory limit. Rows are buffered until their estimated size goes over memoryLimit, at which point
+the buffer is sorted and written out to a temporary file as a sorted run. Once all rows have been seen, the runs and
+what is left in the buffer are merged, reading one row at a time from each run.
+
+The sort is stable, like sortWith, as long as the rows can be written to disk. If some row can not be, all rows are
+kept in memory instead. The rows in memory are accounted for in memory.
+ */
+class SpillingSorter(lessThan: (ExecutionContext, ExecutionContext) => Boolean, memoryLimit: Long,
+                     memory: OperatorMemory) {
+
+  def sort(input: Iterator[ExecutionContext])(implicit state: QueryState): Iterator[ExecutionContext] = {
+    val runs = ArrayBuffer[SpillFile]()
+    val buffer = ArrayBuffer[ExecutionContext]()
+    var estimatedSize = 0L
+    var spillable = memoryLimit < Long.MaxValue
+
+    input.foreach {
+      row =>
+        buffer += row
+        val size = SizeEstimator.ofRow(row)
+        memory.allocate(size)
+        estimatedSize += size
+        if (spillable) {
+          spillable = SpillFile.canWriteRow(row)
+          if (spillable && estimatedSize > memoryLimit) {
+            val run = state.spillFiles.newFile()
+            buffer.sortWith(lessThan).foreach(run.writeRow)
+            runs += run
+            buffer.clear()
+            memory.release(estimatedSize)
+            estimatedSize = 0
+          }
+        }
+    }
+
+    val inMemory = memory.releaseWhenDone(buffer.sortWith(lessThan).iterator, estimatedSize)
+    if (runs.isEmpty)
+      inMemory
+    else
+      merge(runs.map(run => rows(run.reader(state), run)) :+ inMemory)
+  }
+
+  private def rows(reader: SpillFile#Reader, run: SpillFile): Iterator[ExecutionContext] = new Iterator[ExecutionContext] {
+    def hasNext = reader.hasNext || {
+      run.delete()
+      false
+    }
+
+    def next() = reader.nextRow()
+  }
+
+  /*
+  A k-way merge of sorted runs. Rows that compare equal come out in the order of the runs they are in, which is the
+  order they were read in.
+   */
+  private def merge(runs: Seq[Iterator[ExecutionContext]]): Iterator[ExecutionContext] = {
+    case class Head(row: ExecutionContext, run: Int)
+
+    val heads = new PriorityQueue[Head](runs.size, new java.util.Comparator[Head] {
+      def compare(a: Head, b: Head): Int =
+        if (lessThan(a.row, b.row)) -1
+        else if (lessThan(b.row, a.row)) 1
+        else Integer.compare(a.run, b.run)
+    })
+
+    def advance(run: Int) {
+      if (runs(run).hasNext)
+        heads.add(Head(runs(run).next(), run))
+    }
+
+    runs.indices.foreach(advance)
+
+    new Iterator[ExecutionContext] {
+      def hasNext = !heads.isEmpty
+
+      def next() = {
+        val head = heads.poll()
+        if (head == null)
+          Iterator.empty.next()
+        advance(head.run)
+        head.row
+      }
+    }
+  }
+}
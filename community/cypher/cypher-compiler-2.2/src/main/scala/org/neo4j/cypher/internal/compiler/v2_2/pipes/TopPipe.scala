@@ -19,7 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.pipes
 
-import java.util.Comparator
+import java.util.{Arrays, PriorityQueue}
 
 import org.neo4j.cypher.internal.compiler.v2_2._
 import org.neo4j.cypher.internal.compiler.v2_2.commands.SortItem
@@ -31,7 +31,8 @@ import scala.math._
 
 /*
  * TopPipe is used when a query does a ORDER BY ... LIMIT query. Instead of ordering the whole result set and then
- * returning the matching top results, we only keep the top results in heap, which allows us to release memory earlier
+ * returning the matching top results, we only keep the top results in a bounded heap, which allows us to release memory
+ * earlier
  */
 case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpression: Expression)
                   (val estimatedCardinality: Option[Long] = None)(implicit pipeMonitor: PipeMonitor)
@@ -40,12 +41,13 @@ case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpressio
   val sortItems = sortDescription.toArray
   val sortItemsCount = sortItems.size
 
-  type SortDataWithContext = (Array[Any],ExecutionContext)
+  // the values a row is sorted on, and the position of the row in the input, which keeps the sort stable
+  class SortDataWithContext(val values: Array[Any], val ctx: ExecutionContext, val position: Long)
 
   class LessThanComparator(comparer: Comparer)(implicit qtx : QueryState) extends Ordering[SortDataWithContext] {
     override def compare(a: SortDataWithContext, b: SortDataWithContext): Int = {
-      val v1 = a._1
-      val v2 = b._1
+      val v1 = a.values
+      val v2 = b.values
       var i = 0
       while (i < sortItemsCount) {
         val res = signum(comparer.compare(v1(i), v2(i)))
@@ -55,15 +57,12 @@ case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpressio
         }
         i += 1
       }
-      0
+      java.lang.Long.compare(a.position, b.position)
     }
   }
 
-  def binarySearch(array: Array[SortDataWithContext], comparator: Comparator[SortDataWithContext])(key: SortDataWithContext) = {
-    java.util.Arrays.binarySearch(array.asInstanceOf[Array[SortDataWithContext]],key, comparator)
-  }
-
-  def arrayEntry(ctx : ExecutionContext)(implicit qtx : QueryState) : SortDataWithContext = (sortItems.map(_(ctx)),ctx)
+  def arrayEntry(ctx : ExecutionContext, position: Long)(implicit qtx : QueryState) : SortDataWithContext =
+    new SortDataWithContext(sortItems.map(_(ctx)), ctx, position)
 
   protected def internalCreateResults(input:Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
     implicit val s = state
@@ -77,35 +76,26 @@ case class TopPipe(source: Pipe, sortDescription: List[SortItem], countExpressio
 
       val first = input.next()
       val count = countExpression(first).asInstanceOf[Number].intValue()
-      var result = new Array[SortDataWithContext](count)
-      result(0) = arrayEntry(first)
-      var last : Int = 0
 
-      while ( last < count - 1 && input.hasNext ) {
-        last += 1
-        result(last) = arrayEntry(input.next())
+      // Bounded heap of the smallest rows seen so far, with the largest of them on top, ready to be replaced
+      val top = new PriorityQueue[SortDataWithContext](max(min(count, 1024), 1), lessThan.reverse)
+      var position = 0L
+
+      (Iterator.single(first) ++ input).foreach {
+        ctx =>
+          val next = arrayEntry(ctx, position)
+          position += 1
+          if (top.size < count)
+            top.add(next)
+          else if (count > 0 && lessThan.compare(next, top.peek()) < 0) {
+            top.poll()
+            top.add(next)
+          }
       }
 
-      if (input.isEmpty) {
-        result.slice(0,last + 1).sorted(lessThan).iterator.map(_._2)
-      } else {
-        result = result.sorted(lessThan)
-
-        val search = binarySearch(result, lessThan) _
-        input.foreach {
-          ctx =>
-            val next = arrayEntry(ctx)
-            if (lessThan.compare(next, result(last)) < 0) {
-              val idx = search(next)
-              val insertPosition = if (idx < 0 )  - idx - 1 else idx + 1
-              if (insertPosition >= 0 && insertPosition < count) {
-                Array.copy(result, insertPosition, result, insertPosition + 1, count - insertPosition - 1)
-                result(insertPosition) = next
-              }
-            }
-        }
-        result.toIterator.map(_._2)
-      }
+      val result = top.toArray(new Array[SortDataWithContext](top.size))
+      Arrays.sort(result, lessThan)
+      result.iterator.map(_.ctx)
     }
   }
 
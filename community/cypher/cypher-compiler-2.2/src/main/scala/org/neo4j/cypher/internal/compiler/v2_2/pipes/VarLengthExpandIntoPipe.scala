@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.collection.primitive.{Primitive, PrimitiveLongIntMap}
+import org.neo4j.cypher.internal.compiler.v2_2.executionplan.Effects
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.ExpandExpression
+import org.neo4j.cypher.internal.compiler.v2_2.spi.QueryContext
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.cypher.internal.compiler.v2_2.{ExecutionContext, InternalException}
+import org.neo4j.graphdb.{Direction, Node, Relationship}
+
+import scala.collection.mutable.ArrayBuffer
+
+/*
+Finds the variable length paths between two nodes that are both already bound.
+
+A breadth first search backwards from the end node first finds how far each node within max hops is from it. The paths
+are then expanded depth first from the start node, only following relationships into nodes that can still reach the end
+node within the hops that are left. The path being expanded is kept in arrays, with the ids of its relationships in a
+primitive set, and a list of relationships is only built for the paths that are produced - and not at all when nothing
+refers to the relationships.
+ */
+sealed abstract class VarLengthExpandIntoPipe[T](source: Pipe,
+                                                 fromName: String,
+                                                 relName: String,
+                                                 toName: String,
+                                                 dir: Direction,
+                                                 projectedDir: Direction,
+                                                 types: Seq[T],
+                                                 min: Int,
+                                                 max: Option[Int],
+                                                 projectRelationships: Boolean,
+                                                 filteringStep: (ExecutionContext, QueryState, Relationship) => Boolean,
+                                                 pipeMonitor: PipeMonitor) extends PipeWithSource(source, pipeMonitor) with RonjaPipe {
+
+  def getRelationships: (Node, QueryContext, Direction) => Iterator[Relationship]
+
+  private val minLength = min
+  private val maxLength = max.getOrElse(Int.MaxValue)
+
+  protected def internalCreateResults(input: Iterator[ExecutionContext], state: QueryState): Iterator[ExecutionContext] = {
+    input.flatMap {
+      row =>
+        val fromNode = getNode(row, fromName)
+        val toNode = getNode(row, toName)
+        (fromNode, toNode) match {
+          case (from: Node, to: Node) =>
+            val paths = new PathIterator(from, to, distancesTo(to, row, state), row, state)
+            if (projectRelationships)
+              paths.map(rels => row.newWith1(relName, rels))
+            else
+              paths.map(_ => row.clone())
+
+          case (from: Node, null) =>
+            Iterator.empty
+
+          case (from: Node, value) =>
+            throw new InternalException(s"Expected to find a node at $toName but found $value instead")
+
+          case (value, _) =>
+            throw new InternalException(s"Expected to find a node at $fromName but found $value instead")
+        }
+    }
+  }
+
+  private def getNode(row: ExecutionContext, name: String): Any =
+    row.getOrElse(name, throw new InternalException(s"Expected to find a node at $name but found nothing"))
+
+  /*
+  The number of hops to the end node from every node that is at most max hops from it.
+   */
+  private def distancesTo(to: Node, row: ExecutionContext, state: QueryState): PrimitiveLongIntMap = {
+    val distances = Primitive.longIntMap()
+    distances.put(to.getId, 0)
+
+    var frontier = ArrayBuffer(to)
+    var distance = 0
+    while (frontier.nonEmpty && distance < maxLength) {
+      distance += 1
+      val next = ArrayBuffer[Node]()
+      frontier.foreach {
+        node =>
+          getRelationships(node, state.query, dir.reverse()).foreach {
+            rel =>
+              val other = rel.getOtherNode(node)
+              if (!distances.containsKey(other.getId) && filteringStep(row, state, rel)) {
+                distances.put(other.getId, distance)
+                next += other
+              }
+          }
+      }
+      frontier = next
+    }
+    distances
+  }
+
+  private class PathIterator(from: Node, to: Node, distances: PrimitiveLongIntMap, row: ExecutionContext, state: QueryState)
+    extends Iterator[Seq[Relationship]] {
+
+    private val path = ArrayBuffer[Relationship]()
+    private val nodes = ArrayBuffer[Node]()
+    private val expansions = ArrayBuffer[Iterator[Relationship]]()
+    private val inPath = Primitive.longSet()
+    private var nextPath: Seq[Relationship] = null
+
+    if (distances.containsKey(from.getId)) {
+      nodes += from
+      expansions += expand(from)
+      if (minLength == 0 && from.getId == to.getId)
+        nextPath = Seq.empty
+    }
+
+    def hasNext: Boolean = {
+      if (nextPath == null)
+        nextPath = fetch()
+      nextPath != null
+    }
+
+    def next(): Seq[Relationship] = {
+      if (!hasNext)
+        Iterator.empty.next()
+      val result = nextPath
+      nextPath = null
+      result
+    }
+
+    private def fetch(): Seq[Relationship] = {
+      while (expansions.nonEmpty) {
+        val candidates = expansions.last
+        if (candidates.hasNext) {
+          val rel = candidates.next()
+          val node = rel.getOtherNode(nodes.last)
+          path += rel
+          nodes += node
+          inPath.add(rel.getId)
+          expansions += expand(node)
+          if (node.getId == to.getId && path.length >= minLength)
+            return if (dir != projectedDir) path.reverse.toList else path.toList
+        } else {
+          expansions.remove(expansions.length - 1)
+          nodes.remove(nodes.length - 1)
+          if (path.nonEmpty) {
+            inPath.remove(path.last.getId)
+            path.remove(path.length - 1)
+          }
+        }
+      }
+      null
+    }
+
+    private def expand(node: Node): Iterator[Relationship] = {
+      val hops = path.length + 1
+      if (hops > maxLength)
+        Iterator.empty
+      else
+        getRelationships(node, state.query, dir).filter {
+          rel =>
+            !inPath.contains(rel.getId) && {
+              val distance = distances.get(rel.getOtherNode(node).getId)
+              distance >= 0 && hops.toLong + distance <= maxLength
+            } && filteringStep(row, state, rel)
+        }
+    }
+  }
+
+  def planDescription = source.planDescription.
+    andThen(this, "Var length expand into", identifiers, ExpandExpression(fromName, relName, toName, projectedDir, true))
+
+  def symbols = source.symbols.add(relName, CTCollection(CTRelationship))
+
+  override def localEffects = Effects.READS_ENTITIES
+}
+
+case class VarLengthExpandIntoPipeForIntTypes(source: Pipe,
+                                              fromName: String,
+                                              relName: String,
+                                              toName: String,
+                                              dir: Direction,
+                                              projectedDir: Direction,
+                                              types: Seq[Int],
+                                              min: Int,
+                                              max: Option[Int],
+                                              projectRelationships: Boolean = true,
+                                              filteringStep: (ExecutionContext, QueryState, Relationship) => Boolean = (_, _, _) => true)
+                                             (val estimatedCardinality: Option[Long] = None)
+                                             (implicit pipeMonitor: PipeMonitor) extends VarLengthExpandIntoPipe[Int](source, fromName, relName, toName, dir, projectedDir, types, min, max, projectRelationships, filteringStep, pipeMonitor) {
+
+  override def getRelationships: (Node, QueryContext, Direction) => Iterator[Relationship] =
+    (n: Node, query: QueryContext, dir: Direction) => query.getRelationshipsForIds(n, dir, types)
+
+  def dup(sources: List[Pipe]): Pipe = {
+    val (head :: Nil) = sources
+    copy(head)(estimatedCardinality)
+  }
+
+  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
+}
+
+case class VarLengthExpandIntoPipeForStringTypes(source: Pipe,
+                                                 fromName: String,
+                                                 relName: String,
+                                                 toName: String,
+                                                 dir: Direction,
+                                                 projectedDir: Direction,
+                                                 types: Seq[String],
+                                                 min: Int,
+                                                 max: Option[Int],
+                                                 projectRelationships: Boolean = true,
+                                                 filteringStep: (ExecutionContext, QueryState, Relationship) => Boolean = (_, _, _) => true)
+                                                (val estimatedCardinality: Option[Long] = None)
+                                                (implicit pipeMonitor: PipeMonitor) extends VarLengthExpandIntoPipe[String](source, fromName, relName, toName, dir, projectedDir, types, min, max, projectRelationships, filteringStep, pipeMonitor) {
+
+  override def getRelationships: (Node, QueryContext, Direction) => Iterator[Relationship] =
+    (n: Node, query: QueryContext, dir: Direction) => query.getRelationshipsFor(n, dir, types)
+
+  def dup(sources: List[Pipe]): Pipe = {
+    val (head :: Nil) = sources
+    copy(head)(estimatedCardinality)
+  }
+
+  def withEstimatedCardinality(estimated: Long) = copy()(Some(estimated))
+}
@@ -95,7 +95,7 @@ sealed abstract class VarLengthExpandPipe[T](source: Pipe,
   def planDescription = source.planDescription.
     andThen(this, "Var length expand", identifiers, ExpandExpression(fromName, relName, toName, projectedDir, true))
 
-  def symbols = source.symbols.add(toName, CTNode).add(relName, CTRelationship)
+  def symbols = source.symbols.add(toName, CTNode).add(relName, CTCollection(CTRelationship))
 
 
   override def localEffects = Effects.READS_ENTITIES
@@ -39,3 +39,16 @@ abstract class AggregationFunction {
   def result: Any
 }
 
+/**
+ * An aggregation function whose partial results, aggregated over disjoint sets
+ * of rows, can be combined into the result over all of the rows.
+ */
+trait MergeableAggregationFunction {
+  self: AggregationFunction =>
+
+  /**
+   * Folds the result of another instance of the same function, aggregated over other rows, into this one.
+   */
+  def merge(partial: Any)(implicit state: QueryState)
+}
+
@@ -21,7 +21,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.pipes.aggregation
 
 import org.neo4j.cypher.internal.compiler.v2_2._
 import commands.expressions.Expression
-import pipes.QueryState
+import pipes.{QueryState, SizeEstimator}
 import collection.mutable.ListBuffer
 
 class CollectFunction(value:Expression) extends AggregationFunction {
@@ -30,7 +30,9 @@ class CollectFunction(value:Expression) extends AggregationFunction {
   def apply(data: ExecutionContext)(implicit state:QueryState) {
     value(data) match {
       case null =>
-      case v    => collection += v
+      case v    =>
+        state.memory.allocate(SizeEstimator.of(v) + SizeEstimator.ReferenceSize)
+        collection += v
     }
   }
 
@@ -23,7 +23,7 @@ import org.neo4j.cypher.internal.compiler.v2_2._
 import commands.expressions.Expression
 import pipes.QueryState
 
-trait MinMax extends AggregationFunction with Comparer {
+trait MinMax extends AggregationFunction with MergeableAggregationFunction with Comparer {
   def value: Expression
   def keep(comparisonResult: Int): Boolean
 
@@ -39,6 +39,13 @@ trait MinMax extends AggregationFunction with Comparer {
     }
   }
 
+  def merge(partial: Any)(implicit state: QueryState) {
+    partial match {
+      case null =>
+      case x => checkIfLargest(x)
+    }
+  }
+
   private def checkIfLargest(value: Any)(implicit qtx: QueryState) {
     if (biggestSeen == null) {
       biggestSeen = value
@@ -26,6 +26,7 @@ import org.neo4j.cypher.internal.helpers._
 
 class SumFunction(val value: Expression)
   extends AggregationFunction
+  with MergeableAggregationFunction
   with TypeSafeMathSupport
   with NumericExpressionOnly {
 
@@ -38,4 +39,8 @@ class SumFunction(val value: Expression)
       result = plus(result, number)
     })
   }
+
+  def merge(partial: Any)(implicit state: QueryState) {
+    result = plus(result, partial)
+  }
 }
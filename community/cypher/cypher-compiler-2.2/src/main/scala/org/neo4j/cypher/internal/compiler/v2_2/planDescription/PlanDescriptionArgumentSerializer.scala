@@ -38,6 +38,8 @@ object PlanDescriptionArgumentSerializer {
       case DbHits(value) => value.toString
       case _: EntityByIdRhs => arg.toString
       case Rows(value) => value.toString
+      case BuildRows(value) => value.toString
+      case PeakMemory(value) => value.toString
       case EstimatedRows(value) => value.toString
       case Version(version) => version
       case ExpandExpression(from, rel, to, dir: Direction, varLength) =>
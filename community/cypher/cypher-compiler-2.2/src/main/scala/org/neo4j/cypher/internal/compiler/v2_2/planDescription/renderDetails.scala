@@ -32,24 +32,30 @@ object renderDetails extends (InternalPlanDescription => String) {
     val names = renderAsTree.createUniqueNames(plan)
 
 
-    val headers = Seq("Operator", "EstimatedRows", "Rows", "DbHits", "Identifiers", "Other")
+    val headers = Seq("Operator", "EstimatedRows", "Rows", "DbHits", "BuildRows", "PeakMemory", "Identifiers",
+      "Other")
     val rows: Seq[Seq[(String, Option[String])]] = plans.map {
       p =>
         val name = Some(names(p))
         val rows = p.arguments.collectFirst { case Rows(count) => count.toString}
         val estimatedRows = p.arguments.collectFirst { case EstimatedRows(count) => count.toString}
         val dbHits = p.arguments.collectFirst { case DbHits(count) => count.toString}
+        val buildRows = p.arguments.collectFirst { case BuildRows(count) => count.toString}
+        val peakMemory = p.arguments.collectFirst { case PeakMemory(bytes) => bytes.toString}
         val ids = Some(p.orderedIdentifiers.filter(_.isNamed).mkString(", "))
         val other = Some(p.arguments.collect {
           case x
             if !x.isInstanceOf[Rows] &&
               !x.isInstanceOf[DbHits] &&
+              !x.isInstanceOf[BuildRows] &&
+              !x.isInstanceOf[PeakMemory] &&
               !x.isInstanceOf[EstimatedRows] &&
               !x.isInstanceOf[Version] => PlanDescriptionArgumentSerializer.serialize(x)
         }.mkString("; ").replaceAll(UNNAMED_PATTERN, ""))
 
         Seq("Operator" -> name, "EstimatedRows" -> estimatedRows, "Rows" -> rows,
-          "DbHits" -> dbHits, "Identifiers" -> ids, "Other" -> other)
+          "DbHits" -> dbHits, "BuildRows" -> buildRows, "PeakMemory" -> peakMemory, "Identifiers" -> ids,
+          "Other" -> other)
     }
 
     //Remove headers where no values are available
@@ -19,6 +19,7 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.planner
 
+import org.neo4j.cypher.internal.Profiled
 import org.neo4j.cypher.internal.compiler.v2_2._
 import org.neo4j.cypher.internal.compiler.v2_2.ast._
 import org.neo4j.cypher.internal.compiler.v2_2.ast.convert.plannerQuery.StatementConverters._
@@ -45,7 +46,8 @@ case class Planner(monitors: Monitors,
                    new CompositeQueryGraphSolver(
                      new GreedyQueryGraphSolver(expandsOrJoins),
                      new GreedyQueryGraphSolver(expandsOnly)
-                   )) extends PipeBuilder {
+                   ),
+                   idpQueryGraphSolver: QueryGraphSolver = new IDPQueryGraphSolver()) extends PipeBuilder {
 
   val executionPlanBuilder: PipeExecutionPlanBuilder =
     maybeExecutionPlanBuilder.getOrElse(new PipeExecutionPlanBuilder(clock, monitors))
@@ -54,9 +56,13 @@ case class Planner(monitors: Monitors,
     Planner.rewriteStatement(inputQuery.statement, inputQuery.scopeTree, inputQuery.semanticTable) match {
       case (ast: Query, rewrittenSemanticTable) =>
         monitor.startedPlanning(inputQuery.queryText)
-        val (logicalPlan, pipeBuildContext) = produceLogicalPlan(ast, rewrittenSemanticTable)(planContext)
+        val solver = if (inputQuery.planner == IDP) idpQueryGraphSolver else queryGraphSolver
+        val (logicalPlan, pipeBuildContext) = produceLogicalPlan(ast, rewrittenSemanticTable, solver)(planContext)
         monitor.foundPlan(inputQuery.queryText, logicalPlan)
-        val result = executionPlanBuilder.build(logicalPlan)(pipeBuildContext, planContext)
+        // Profiling needs every operator to keep its own pipe, so profiled queries always run interpreted
+        val runtime = if (inputQuery.planType == Profiled) InterpretedRuntime else inputQuery.runtime
+        val pipeInfo = executionPlanBuilder.build(logicalPlan)(pipeBuildContext.copy(runtime = runtime), planContext)
+        val result = if (inputQuery.planner == IDP) pipeInfo.copy(plannerUsed = IDP) else pipeInfo
         monitor.successfulPlanning(inputQuery.queryText, result)
         result
 
@@ -65,12 +71,13 @@ case class Planner(monitors: Monitors,
     }
   }
 
-  def produceLogicalPlan(ast: Query, semanticTable: SemanticTable)(planContext: PlanContext): (LogicalPlan, PipeExecutionBuilderContext) = {
+  def produceLogicalPlan(ast: Query, semanticTable: SemanticTable, solver: QueryGraphSolver = queryGraphSolver)
+                        (planContext: PlanContext): (LogicalPlan, PipeExecutionBuilderContext) = {
     tokenResolver.resolve(ast)(semanticTable, planContext)
     val unionQuery = ast.asUnionQuery
 
     val metrics = metricsFactory.newMetrics(planContext.statistics, semanticTable)
-    val context = LogicalPlanningContext(planContext, metrics, semanticTable, queryGraphSolver, QueryGraphCardinalityInput.empty)
+    val context = LogicalPlanningContext(planContext, metrics, semanticTable, solver, QueryGraphCardinalityInput.empty)
     val plan = strategy.plan(unionQuery)(context)
     val pipeBuildContext = PipeExecutionBuilderContext(metrics.cardinality, semanticTable)
 
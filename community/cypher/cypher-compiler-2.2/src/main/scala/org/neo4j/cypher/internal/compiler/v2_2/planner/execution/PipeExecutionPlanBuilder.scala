@@ -20,6 +20,7 @@
 package org.neo4j.cypher.internal.compiler.v2_2.planner.execution
 
 import org.neo4j.cypher.internal.compiler.v2_2._
+import org.neo4j.cypher.internal.compiler.v2_2.Foldable._
 import org.neo4j.cypher.internal.compiler.v2_2.ast.convert.commands.ExpressionConverters._
 import org.neo4j.cypher.internal.compiler.v2_2.ast.convert.commands.OtherConverters._
 import org.neo4j.cypher.internal.compiler.v2_2.ast.convert.commands.PatternConverters._
@@ -41,7 +42,10 @@ import org.neo4j.cypher.internal.helpers.Eagerly
 import org.neo4j.graphdb.{Direction, Relationship}
 import org.neo4j.helpers.Clock
 
-case class PipeExecutionBuilderContext(cardinality: Metrics.CardinalityModel, semanticTable: SemanticTable)
+import scala.collection.mutable
+
+case class PipeExecutionBuilderContext(cardinality: Metrics.CardinalityModel, semanticTable: SemanticTable,
+                                      runtime: RuntimeName = InterpretedRuntime)
 
 class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
 
@@ -51,13 +55,19 @@ class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
   def build(plan: LogicalPlan)(implicit context: PipeExecutionBuilderContext, planContext: PlanContext): PipeInfo = {
     val updating = false
 
+    lazy val referencedNames = namesReferencedIn(plan)
+
+    val rowLayout = SlotLayout(plan.treeFold(Set.empty[String]) {
+      case p: LogicalPlan => (acc, children) => children(acc ++ p.availableSymbols.map(_.name))
+    })
+
     def buildPipe(plan: LogicalPlan, input: QueryGraphCardinalityInput): Pipe = {
       implicit val monitor = monitors.newMonitor[PipeMonitor]()
       implicit val c = context.cardinality
 
       val result: Pipe with RonjaPipe = plan match {
         case Projection(left, expressions) =>
-          ProjectionNewPipe(buildPipe(left, input), Eagerly.immutableMapValues(expressions, buildExpression))()
+          ProjectionNewPipe(buildPipe(left, input), Eagerly.immutableMapValues(expressions, buildExpression))(layout = rowLayout)
 
         case ProjectEndpoints(left, rel, start, end, directed, length) =>
           ProjectEndpointsPipe(buildPipe(left, input), rel.name, start.name, end.name, directed, length.isSimple)()
@@ -89,6 +99,12 @@ class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
         case NodeIndexUniqueSeek(IdName(id), label, propertyKey, valueExpr, _) =>
           NodeIndexSeekPipe(id, label, propertyKey, valueExpr.map(buildExpression), unique = true)()
 
+        case NodeIndexScan(IdName(id), label, propertyKey, ascending, _) =>
+          NodeIndexScanPipe(id, label, propertyKey, ascending)()
+
+        case NodeCompositeIndexSeek(IdName(id), label, propertyKeys, valueExprs, _) =>
+          NodeCompositeIndexSeekPipe(id, label, propertyKeys, valueExprs.map(_.map(buildExpression)))()
+
         case Selection(predicates, left) =>
           FilterPipe(buildPipe(left, input), predicates.map(buildPredicate).reduce(_ ++ _))()
 
@@ -134,10 +150,18 @@ class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
 
           implicit val table: SemanticTable = context.semanticTable
 
-          if (types.exists(_.id == None))
-            VarLengthExpandPipeForStringTypes(buildPipe(left, input), fromName, relName, toName, dir, projectedDir, types.map(_.name), min, max, predicate)()
-          else
-            VarLengthExpandPipeForIntTypes(buildPipe(left, input), fromName, relName, toName, dir, projectedDir, types.flatMap(_.id).map(_.id), min, max, predicate)()
+          expansionMode match {
+            case ExpandAll if types.exists(_.id == None) =>
+              VarLengthExpandPipeForStringTypes(buildPipe(left, input), fromName, relName, toName, dir, projectedDir, types.map(_.name), min, max, predicate)()
+            case ExpandAll =>
+              VarLengthExpandPipeForIntTypes(buildPipe(left, input), fromName, relName, toName, dir, projectedDir, types.flatMap(_.id).map(_.id), min, max, predicate)()
+            case ExpandInto =>
+              val projectRelationships = referencedNames(relName)
+              if (types.exists(_.id == None))
+                VarLengthExpandIntoPipeForStringTypes(buildPipe(left, input), fromName, relName, toName, dir, projectedDir, types.map(_.name), min, max, projectRelationships, predicate)()
+              else
+                VarLengthExpandIntoPipeForIntTypes(buildPipe(left, input), fromName, relName, toName, dir, projectedDir, types.flatMap(_.id).map(_.id), min, max, projectRelationships, predicate)()
+          }
 
         case NodeHashJoin(nodes, left, right) =>
           NodeHashJoinPipe(nodes.map(_.name), buildPipe(left, input), buildPipe(right, input))()
@@ -187,6 +211,9 @@ class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
         case SortedLimit(lhs, exp, sortItems) =>
           TopPipe(buildPipe(lhs, input), sortItems.map(_.asCommandSortItem).toList, exp.asCommandExpression)()
 
+        case PartialSort(lhs, sortItems, limit) =>
+          PartialSortPipe(buildPipe(lhs, input), sortItems.map(_.asCommandSortItem).toList, limit.map(_.asCommandExpression))()
+
         // TODO: Maybe we shouldn't encode distinct as an empty aggregation.
         case Aggregation(Projection(source, expressions), groupingExpressions, aggregatingExpressions)
           if aggregatingExpressions.isEmpty && expressions == groupingExpressions =>
@@ -223,7 +250,12 @@ class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
       }
 
       val cardinality = context.cardinality(plan, input)
-      result.withEstimatedCardinality(cardinality.amount.toLong)
+      val pipe = result.withEstimatedCardinality(cardinality.amount.toLong)
+      context.runtime match {
+        case CompiledRuntime => FusedPipe.fuse(pipe)
+        case ParallelRuntime => ParallelAggregationPipe.parallelize(FusedPipe.fuse(pipe))
+        case _ => pipe
+      }
     }
 
     object buildPipeExpressions extends Rewriter {
@@ -242,9 +274,9 @@ class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
     def buildExpandPipe(types: Seq[RelTypeName], left: Pipe, fromName: String, relName: String, toName: String, dir: Direction)
                        (implicit table: SemanticTable, monitor: PipeMonitor) =
       if (types.exists(_.id == None))
-        ExpandPipeForStringTypes(left, fromName, relName, toName, dir, types.map(_.name))()
+        ExpandPipeForStringTypes(left, fromName, relName, toName, dir, types.map(_.name))(layout = rowLayout)
       else
-        ExpandPipeForIntTypes(left, fromName, relName, toName, dir, types.flatMap(_.id).map(_.id))()
+        ExpandPipeForIntTypes(left, fromName, relName, toName, dir, types.flatMap(_.id).map(_.id))(layout = rowLayout)
 
     def buildExpression(expr: ast.Expression): CommandExpression = {
       val rewrittenExpr = expr.endoRewrite(buildPipeExpressions)
@@ -267,6 +299,26 @@ class PipeExecutionPlanBuilder(clock: Clock, monitors: Monitors) {
         None
     }
 
-    PipeInfo(topLevelPipe, updating, None, fingerprint, Ronja)
+    PipeInfo(topLevelPipe, updating, None, fingerprint, Ronja, rowLayout)
+  }
+
+  /*
+  The names that the plan refers to anywhere, apart from the relationships bound by variable length expansions. When
+  nothing refers to those relationships, the expansion does not have to produce them.
+   */
+  private def namesReferencedIn(plan: LogicalPlan): Set[String] = {
+    val names = mutable.Set[String]()
+
+    def visit(that: Any): Unit = that match {
+      case Identifier(name) => names += name
+      case IdName(name) => names += name
+      case expand: VarExpand => Seq(expand.left, expand.from, expand.to, expand.predicates).foreach(visit)
+      case t: Traversable[_] => t.foreach(visit)
+      case p: Product => p.productIterator.foreach(visit)
+      case _ =>
+    }
+
+    visit(plan)
+    names.toSet
   }
 }
@@ -46,6 +46,7 @@ case class CardinalityCostModel(cardinality: CardinalityModel) extends CostModel
       _: Skip |
       _: Sort |
       _: SortedLimit |
+      _: PartialSort |
       _: Union |
       _: UnwindCollection
     => CPU_BOUND_PLAN_COST_PER_ROW
@@ -53,6 +54,13 @@ case class CardinalityCostModel(cardinality: CardinalityModel) extends CostModel
     case NodeIndexSeek(_, _, _, ManyQueryExpression(Collection(elements)), _) =>
       DB_ACCESS_BOUND_PLAN_COST_PER_ROW * Multiplier(elements.size)
 
+    case NodeCompositeIndexSeek(_, _, _, valueExprs, _) =>
+      val lookups = valueExprs.map {
+        case ManyQueryExpression(Collection(elements)) => elements.size
+        case _ => 1
+      }
+      DB_ACCESS_BOUND_PLAN_COST_PER_ROW * Multiplier(lookups.product)
+
     case _ =>
       DB_ACCESS_BOUND_PLAN_COST_PER_ROW
   }
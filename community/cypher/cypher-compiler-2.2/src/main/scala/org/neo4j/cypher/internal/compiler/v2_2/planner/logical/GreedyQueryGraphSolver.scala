@@ -26,7 +26,7 @@ import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps.{cartesianP
 import org.neo4j.cypher.internal.helpers.Converge.iterateUntilConverged
 
 class GreedyQueryGraphSolver(planCombiner: CandidateGenerator[PlanTable],
-                             config: PlanningStrategyConfiguration = PlanningStrategyConfiguration.default)
+                             val config: PlanningStrategyConfiguration = PlanningStrategyConfiguration.default)
   extends TentativeQueryGraphSolver {
 
   def tryPlan(queryGraph: QueryGraph)(implicit context: LogicalPlanningContext, leafPlan: Option[LogicalPlan] = None) = {
@@ -80,7 +80,7 @@ class GreedyQueryGraphSolver(planCombiner: CandidateGenerator[PlanTable],
     }
 
     val leaves: PlanTable = generateLeafPlanTable()
-    val afterCombiningPlans = iterateUntilConverged(findBestPlan(planCombiner))(leaves)
+    val afterCombiningPlans = iterateUntilConverged(findBestPlan(planCombiner))(combineLeafPlans(leaves, queryGraph))
 
     if (stillHasOverlappingPlans(afterCombiningPlans))
       None
@@ -90,6 +90,13 @@ class GreedyQueryGraphSolver(planCombiner: CandidateGenerator[PlanTable],
     }
   }
 
+  /*
+  Gives solvers a chance to combine the leaf plans in their own way before the greedy steps take over; whatever is
+  left unsolved is then combined greedily.
+   */
+  protected def combineLeafPlans(leaves: PlanTable, queryGraph: QueryGraph)(implicit context: LogicalPlanningContext): PlanTable =
+    leaves
+
   private def stillHasOverlappingPlans(afterCombiningPlans: PlanTable): Boolean =
     afterCombiningPlans.plans.exists {
       p1 => afterCombiningPlans.plans.exists {
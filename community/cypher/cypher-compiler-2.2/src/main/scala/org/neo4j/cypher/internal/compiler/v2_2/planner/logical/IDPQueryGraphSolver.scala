@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.planner.logical
+
+import org.neo4j.cypher.internal.compiler.v2_2.planner.QueryGraph
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.{IdName, LogicalPlan}
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps.{expand, join, projectEndpoints}
+import org.neo4j.helpers.Clock
+
+import scala.collection.mutable
+
+/*
+Finds the order of expands and joins by iterative dynamic programming, instead of committing to the cheapest
+step at each iteration like the greedy solver does.
+
+For every set of pattern identifiers that some combination of the leaf plans can solve, the table keeps the cheapest
+plan solving exactly that set. Each round extends the plans that were added or improved in the round before, by one
+expand or by joining them with any other plan in the table, until no plan improves. Plans for larger sets are thus
+only ever built from the best plans for their parts, starting from either side of every relationship.
+
+The number of such sets grows exponentially with the size of the pattern, so the search is given a budget of
+planning time, which is checked between rounds and between the joins of a round. When the budget runs out the largest
+plans found so far are kept, and the greedy steps finish the plan from there.
+ */
+class IDPQueryGraphSolver(budgetInMillis: Long = IDPQueryGraphSolver.DEFAULT_BUDGET_IN_MILLIS,
+                          clock: Clock = Clock.SYSTEM_CLOCK,
+                          configuration: PlanningStrategyConfiguration = PlanningStrategyConfiguration.default)
+  extends GreedyQueryGraphSolver(expandsOrJoins, configuration) {
+
+  override protected def combineLeafPlans(leaves: PlanTable, queryGraph: QueryGraph)
+                                         (implicit context: LogicalPlanningContext): PlanTable = {
+    val select = config.applySelections.asFunctionInContext
+    val pickBest = config.pickBestCandidate.asFunctionInContext
+    val deadline = clock.currentTimeMillis() + budgetInMillis
+
+    val table = mutable.Map[Set[IdName], LogicalPlan]()
+    leaves.plans.foreach(plan => table += (solvedIds(plan) -> plan))
+
+    var improved: Seq[LogicalPlan] = leaves.plans
+    while (improved.nonEmpty && clock.currentTimeMillis() < deadline) {
+      val plans = table.values.toSeq
+      val candidates = extend(improved, plans, queryGraph, deadline).map(select(_, queryGraph))
+
+      val improvedNow = mutable.Map[Set[IdName], LogicalPlan]()
+      candidates.foreach { candidate =>
+        val ids = solvedIds(candidate)
+        improvedNow.get(ids).orElse(table.get(ids)) match {
+          case Some(existing) =>
+            val best = pickBest(context.metrics.candidateListCreator(Seq(existing, candidate)))
+            if (best.exists(_ ne existing))
+              improvedNow += (ids -> candidate)
+          case None =>
+            improvedNow += (ids -> candidate)
+        }
+      }
+
+      table ++= improvedNow
+      improved = improvedNow.values.toSeq
+    }
+
+    val largestFirst = table.values.toSeq.sortBy(plan => (-solvedIds(plan).size, context.cost(plan, context.cardinalityInput)))
+    largestFirst.foldLeft(PlanTable.empty)(_ + _)
+  }
+
+  /*
+  Joining every improved plan with every plan in the table is what makes a round expensive, so the deadline is also
+  checked between joins, and a round that runs out of time keeps the joins it found so far
+   */
+  private def extend(improved: Seq[LogicalPlan], plans: Seq[LogicalPlan], queryGraph: QueryGraph, deadline: Long)
+                    (implicit context: LogicalPlanningContext): Seq[LogicalPlan] = {
+    val improvedTable = PlanTable(improved: _*)
+    val expanded = expand(improvedTable, queryGraph).plans ++ projectEndpoints(improvedTable, queryGraph).plans
+
+    def inTime = clock.currentTimeMillis() < deadline
+
+    val joined = for {
+      left <- improved.iterator.takeWhile(_ => inTime)
+      right <- plans.iterator.takeWhile(_ => inTime)
+      leftIds = solvedIds(left)
+      rightIds = solvedIds(right)
+      if !leftIds.subsetOf(rightIds) && !rightIds.subsetOf(leftIds)
+      candidate <- join(PlanTable(left, right), queryGraph).plans
+    } yield candidate
+
+    expanded ++ joined.toList
+  }
+
+  private def solvedIds(plan: LogicalPlan): Set[IdName] =
+    plan.availableSymbols.filterNot(idName => idName.name.endsWith("$$$_") || idName.name.endsWith("$$$"))
+}
+
+object IDPQueryGraphSolver {
+  val DEFAULT_BUDGET_IN_MILLIS = 1000L
+}
@@ -23,8 +23,8 @@ import org.neo4j.cypher.internal.compiler.v2_2.ast._
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.IdName
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{Cardinality, Multiplier, Selectivity}
 import org.neo4j.cypher.internal.compiler.v2_2.planner.{Selections, SemanticTable}
-import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
 import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics._
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{GraphStatistics, PropertyHistogram, RangeBound}
 import org.neo4j.cypher.internal.compiler.v2_2.{LabelId, functions}
 
 trait Expression2Selectivity {
@@ -75,6 +75,11 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
     case _: Equals =>
       GraphStatistics.DEFAULT_EQUALITY_SELECTIVITY
 
+    // WHERE x.prop >= <literal>
+    case PropertyRange(name, propertyKey, lower, upper) =>
+      calculateSelectivityForPropertyRange(name, propertyKey, lower, upper, selections).
+        getOrElse(GraphStatistics.DEFAULT_RANGE_SELECTIVITY)
+
     // WHERE <expr> >= <expr>
     case _: GreaterThan | _: GreaterThanOrEqual | _: LessThan | _: LessThanOrEqual =>
       GraphStatistics.DEFAULT_RANGE_SELECTIVITY
@@ -99,22 +104,78 @@ case class ExpressionSelectivityCalculator(stats: GraphStatistics, combiner: Sel
   private def calculateSelectivityForPropertyEquality(identifier: String, expressions: Seq[Expression], selections: Selections, propertyKey: PropertyKeyName)
                                                      (implicit semanticTable: SemanticTable): Selectivity = {
     val labels = selections.labelsOnNode(IdName(identifier))
-    val indexSelectivities: Seq[Selectivity] = labels.toSeq.flatMap {
+    val expandedSelectivities: Seq[Selectivity] = labels.toSeq.flatMap {
       labelName =>
         (labelName.id, propertyKey.id) match {
           case (Some(labelId), Some(propertyKeyId)) =>
-            stats.indexSelectivity(labelId, propertyKeyId)
+            stats.indexPropertyHistogram(labelId, propertyKeyId) match {
+              case Some(histogram) =>
+                expressions.map(equalitySelectivity(histogram))
+
+              case None =>
+                stats.indexSelectivity(labelId, propertyKeyId).toSeq.flatMap(selectivity => expressions.map(_ => selectivity))
+            }
 
           case _ =>
-            Some(Selectivity(0))
+            expressions.map(_ => Selectivity(0))
         }
     }
 
-    val expandedSelectivities = Stream.from(0).take(expressions.size).flatMap(_ => indexSelectivities)
-
     val selectivity: Option[Selectivity] = combiner.orTogetherSelectivities(expandedSelectivities)
 
     selectivity.
       getOrElse(DEFAULT_EQUALITY_SELECTIVITY * Multiplier(expressions.size)) // If no index exist, use default equality selectivity
   }
+
+  private def equalitySelectivity(histogram: PropertyHistogram)(expression: Expression): Selectivity = expression match {
+    case _: Null => Selectivity(0)
+    case literal: Literal => histogram.equality(literal.value)
+    case _ => histogram.unknownEquality
+  }
+
+  /*
+      Every label on the node with a sampled index on the property gives an estimate of its own; the one telling us
+      the fewest nodes match is the one we trust, just like we would pick its index to find them.
+   */
+  private def calculateSelectivityForPropertyRange(identifier: String, propertyKey: PropertyKeyName,
+                                                   lower: Option[RangeBound], upper: Option[RangeBound], selections: Selections)
+                                                  (implicit semanticTable: SemanticTable): Option[Selectivity] = {
+    val histograms: Seq[PropertyHistogram] = selections.labelsOnNode(IdName(identifier)).toSeq.flatMap {
+      labelName =>
+        (labelName.id, propertyKey.id) match {
+          case (Some(labelId), Some(propertyKeyId)) => stats.indexPropertyHistogram(labelId, propertyKeyId)
+          case _ => None
+        }
+    }
+
+    if (histograms.isEmpty)
+      None
+    else
+      Some(histograms.map(_.range(lower, upper)).min)
+  }
+}
+
+/*
+    Comparisons between a property and a number or a string literal, on either side, as a range of values
+ */
+object PropertyRange {
+  def unapply(exp: Expression): Option[(String, PropertyKeyName, Option[RangeBound], Option[RangeBound])] = exp match {
+    case GreaterThan(Property(Identifier(name), key), RangeValue(value)) => Some((name, key, Some(RangeBound(value, inclusive = false)), None))
+    case GreaterThanOrEqual(Property(Identifier(name), key), RangeValue(value)) => Some((name, key, Some(RangeBound(value, inclusive = true)), None))
+    case LessThan(Property(Identifier(name), key), RangeValue(value)) => Some((name, key, None, Some(RangeBound(value, inclusive = false))))
+    case LessThanOrEqual(Property(Identifier(name), key), RangeValue(value)) => Some((name, key, None, Some(RangeBound(value, inclusive = true))))
+    case GreaterThan(RangeValue(value), Property(Identifier(name), key)) => Some((name, key, None, Some(RangeBound(value, inclusive = false))))
+    case GreaterThanOrEqual(RangeValue(value), Property(Identifier(name), key)) => Some((name, key, None, Some(RangeBound(value, inclusive = true))))
+    case LessThan(RangeValue(value), Property(Identifier(name), key)) => Some((name, key, Some(RangeBound(value, inclusive = false)), None))
+    case LessThanOrEqual(RangeValue(value), Property(Identifier(name), key)) => Some((name, key, Some(RangeBound(value, inclusive = true)), None))
+    case _ => None
+  }
+
+  private object RangeValue {
+    def unapply(exp: Expression): Option[Any] = exp match {
+      case literal: NumberLiteral => Some(literal.value)
+      case literal: StringLiteral => Some(literal.value)
+      case _ => None
+    }
+  }
 }
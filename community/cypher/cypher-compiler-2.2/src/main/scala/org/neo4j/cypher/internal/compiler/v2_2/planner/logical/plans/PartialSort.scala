@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans
+
+import org.neo4j.cypher.internal.compiler.v2_2.ast.{Expression, SortItem}
+import org.neo4j.cypher.internal.compiler.v2_2.planner.PlannerQuery
+
+/*
+Sorts rows that already come ordered by the first sort item, so only runs of rows sharing that value need sorting.
+With a limit, no more rows than needed are read from the left.
+ */
+case class PartialSort(left: LogicalPlan, sortItems: Seq[SortItem], limit: Option[Expression])(val solved: PlannerQuery)
+  extends LogicalPlan {
+  val lhs = Some(left)
+  val rhs = None
+  def availableSymbols = left.availableSymbols
+
+  override def mapExpressions(f: (Set[IdName], Expression) => Expression): LogicalPlan =
+    copy(
+      sortItems = sortItems.map(_.mapExpression(f(left.availableSymbols, _))),
+      limit = limit.map(f(left.availableSymbols, _))
+    )(solved)
+}
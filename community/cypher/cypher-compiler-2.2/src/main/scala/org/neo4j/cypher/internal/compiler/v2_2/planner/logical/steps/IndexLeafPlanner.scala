@@ -22,7 +22,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps
 import org.neo4j.cypher.internal.compiler.v2_2.ast._
 import org.neo4j.kernel.api.index.IndexDescriptor
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans._
-import org.neo4j.cypher.internal.compiler.v2_2.planner.QueryGraph
+import org.neo4j.cypher.internal.compiler.v2_2.planner.{SemanticTable, QueryGraph}
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical._
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps.LogicalPlanProducer._
 import org.neo4j.cypher.internal.compiler.v2_2.commands.{SingleQueryExpression, ManyQueryExpression, QueryExpression}
@@ -105,6 +105,45 @@ object indexSeekLeafPlanner extends IndexLeafPlanner {
 
 }
 
+object compositeIndexSeekLeafPlanner extends LeafPlanner {
+  def apply(qg: QueryGraph)(implicit context: LogicalPlanningContext) = {
+    implicit val semanticTable = context.semanticTable
+    val predicates: Seq[Expression] = qg.selections.flatPredicates
+    val labelPredicateMap: Map[IdName, Set[HasLabels]] = qg.selections.labelPredicates
+
+    val equalities: Map[IdName, Seq[(PropertyKeyName, Expression, Expression)]] = predicates.collect {
+      case inPredicate@In(Property(Identifier(name), propertyKeyName), ConstantExpression(valueExpr)) if !qg.argumentIds.contains(IdName(name)) =>
+        IdName(name) -> (propertyKeyName, inPredicate: Expression, valueExpr)
+    }.groupBy(_._1).mapValues(_.map(_._2))
+
+    context.metrics.candidateListCreator(
+      for ((idName, nodeEqualities) <- equalities.toSeq;
+           labelPredicate <- labelPredicateMap.getOrElse(idName, Set.empty).toSeq;
+           labelName <- labelPredicate.labels;
+           labelId <- labelName.id.toSeq;
+           indexDescriptor <- context.planContext.getCompositeIndexRules(labelName.name);
+           covering <- coveringEqualities(indexDescriptor, nodeEqualities).toSeq)
+      yield {
+        val (propertyKeys, solvedPredicates, valueExprs) = covering.unzip3
+        planNodeCompositeIndexSeek(idName, LabelToken(labelName, labelId), propertyKeys,
+          valueExprs.map(ManyQueryExpression(_)), solvedPredicates :+ labelPredicate, qg.argumentIds)
+      }
+    )
+  }
+
+  // a composite index can only be used when every one of its properties is compared for equality
+  private def coveringEqualities(indexDescriptor: IndexDescriptor, equalities: Seq[(PropertyKeyName, Expression, Expression)])
+                                (implicit semanticTable: SemanticTable): Option[Seq[(PropertyKeyToken, Expression, Expression)]] = {
+    val covering = indexDescriptor.getPropertyKeyIds.toSeq.map {
+      propertyKeyId => equalities.collectFirst {
+        case (propertyKeyName, predicate, valueExpr) if propertyKeyName.id.exists(_.id == propertyKeyId) =>
+          (PropertyKeyToken(propertyKeyName, propertyKeyName.id.get), predicate, valueExpr)
+      }
+    }
+    if (covering.forall(_.isDefined)) Some(covering.flatten) else None
+  }
+}
+
 object legacyHintLeafPlanner extends LeafPlanner {
   def apply(qg: QueryGraph)(implicit context: LogicalPlanningContext) = {
     context.metrics.candidateListCreator(qg.hints.toSeq.collect {
@@ -161,6 +161,20 @@ object LogicalPlanProducer {
     )
   }
 
+  def planNodeCompositeIndexSeek(idName: IdName,
+                                 label: ast.LabelToken,
+                                 propertyKeys: Seq[ast.PropertyKeyToken],
+                                 valueExprs: Seq[QueryExpression[Expression]],
+                                 solvedPredicates: Seq[Expression] = Seq.empty,
+                                 argumentIds: Set[IdName]) =
+    NodeCompositeIndexSeek(idName, label, propertyKeys, valueExprs, argumentIds)(
+      PlannerQuery(graph = QueryGraph.empty
+        .addPatternNodes(idName)
+        .addPredicates(solvedPredicates: _*)
+        .addArgumentIds(argumentIds.toSeq)
+      )
+    )
+
   def planLegacyHintSeek(idName: IdName, hint: LegacyIndexHint, argumentIds: Set[IdName]) = {
     LegacyIndexSeek(idName, hint, argumentIds)(
       PlannerQuery(graph = QueryGraph.empty
@@ -322,6 +336,38 @@ object LogicalPlanProducer {
       inner.solved.updateTailOrSelf(_.updateQueryProjection(_.updateShuffle(_.withSortItems(items))))
     )
 
+  def planNodeIndexScan(idName: IdName,
+                        label: ast.LabelToken,
+                        propertyKey: ast.PropertyKeyToken,
+                        ascending: Boolean,
+                        solvedPredicates: Seq[Expression],
+                        argumentIds: Set[IdName]) =
+    NodeIndexScan(idName, label, propertyKey, ascending, argumentIds)(
+      PlannerQuery(graph = QueryGraph.empty
+        .addPatternNodes(idName)
+        .addPredicates(solvedPredicates: _*)
+        .addArgumentIds(argumentIds.toSeq)
+      )
+    )
+
+  def planPartialSort(inner: LogicalPlan, items: Seq[ast.SortItem], limit: Option[Expression]) =
+    PartialSort(inner, items, limit)(
+      inner.solved.updateTailOrSelf(_.updateQueryProjection(_.updateShuffle(
+        shuffle => limit.fold(shuffle)(shuffle.withLimitExpression)
+          .withSortItems(items))))
+    )
+
+  def planPartialSortedSkipAndLimit(inner: LogicalPlan, skip: Expression, limit: Expression, items: Seq[ast.SortItem]) =
+    planSkip(
+      PartialSort(inner, items, Some(ast.Add(limit, skip)(limit.position)))(
+        inner.solved.updateTailOrSelf(_.updateQueryProjection(_.updateShuffle(
+          _.withSkipExpression(skip)
+           .withLimitExpression(limit)
+           .withSortItems(items))))
+      ),
+      skip
+    )
+
   def planSortedLimit(inner: LogicalPlan, limit: Expression, items: Seq[ast.SortItem]) =
     SortedLimit(inner, limit, items)(
       inner.solved.updateTailOrSelf(_.updateQueryProjection(_.updateShuffle(
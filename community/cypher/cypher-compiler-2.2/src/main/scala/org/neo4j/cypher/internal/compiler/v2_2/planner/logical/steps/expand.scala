@@ -50,35 +50,10 @@ object expand extends CandidateGenerator[PlanTable] {
               (identifier, innerPredicate) -> all
           }.unzip
 
-          val expandF =
-            (otherSide: IdName) =>
-              planVarExpand(plan, nodeId, dir, otherSide, patternRel, predicates, allPredicates, ExpandAll)
-
-          if (overlapping)
-            expandIntoAlreadyExistingNode(expandF, otherSide)
-          else
-            expandF(otherSide)
+          val mode = if (overlapping) ExpandInto else ExpandAll
+          planVarExpand(plan, nodeId, dir, otherSide, patternRel, predicates, allPredicates, mode)
       }
     }
     context.metrics.candidateListCreator(expandPlans.toList)
   }
-
-  /*
-  If we are expanding into an identifier already in scope, we instead expand into a temporary identifier, and then check
-  that we expanded into the correct node.
-
-  Example:
-  MATCH (a)-[r]->(a)
-
-  is solved by something that looks like
-  MATCH (a)-[r]->($TEMP) WHERE $TEMP = a
-   */
-  private def expandIntoAlreadyExistingNode(f: IdName => LogicalPlan, otherSide: IdName)
-                                           (implicit context: LogicalPlanningContext): LogicalPlan = {
-    val temp = IdName(otherSide.name + "$$$")
-    val expand = f(temp)
-    val left = Identifier(otherSide.name)(null)
-    val right = Identifier(temp.name)(null)
-    planHiddenSelection(Seq(Equals(left, right)(null)), expand)
-  }
 }
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps
+
+import org.neo4j.cypher.internal.compiler.v2_2.ast._
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.LogicalPlanningContext
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans._
+
+/*
+Replaces the label scan feeding ORDER BY with a scan of an index on the first sort item, so rows come out already
+ordered by it. Nulls sort last, so an ascending scan is followed by the labelled nodes lacking the property, whereas
+a descending scan is only used when a predicate rules such nodes out anyway.
+ */
+object orderedIndexScan {
+
+  import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.steps.LogicalPlanProducer._
+
+  def apply(plan: LogicalPlan, sortItem: SortItem)(implicit context: LogicalPlanningContext): Option[LogicalPlan] = {
+    val ascending = sortItem.isInstanceOf[AscSortItem]
+    (plan, sortItem.expression) match {
+      // the projection of the sort keys is planned as a query part of its own, applied to its argument
+      case (apply@Apply(left, _: Argument), _) =>
+        orderedIndexScan(left, sortItem).map(apply.copy(_)(apply.solved))
+
+      case (projection@Projection(source, expressions), Identifier(key)) =>
+        expressions.get(key).collect {
+          case property@Property(Identifier(name), _) =>
+            orderedSource(source, IdName(name), property, ascending, propertyRequired = false)
+              .map(projection.copy(_)(projection.solved))
+        }.flatten
+
+      case _ =>
+        None
+    }
+  }
+
+  // selections and expansions keep the order of the rows coming into them
+  private def orderedSource(plan: LogicalPlan, idName: IdName, property: Property, ascending: Boolean,
+                            propertyRequired: Boolean)
+                           (implicit context: LogicalPlanningContext): Option[LogicalPlan] = plan match {
+    case labelScan: NodeByLabelScan if labelScan.idName == idName =>
+      indexScan(labelScan, property, ascending, propertyRequired)
+
+    case selection@Selection(predicates, left) =>
+      val required = propertyRequired || predicates.exists(requiresProperty(property))
+      orderedSource(left, idName, property, ascending, required).map(selection.copy(predicates, _)(selection.solved))
+
+    case expand: Expand =>
+      orderedSource(expand.left, idName, property, ascending, propertyRequired).map(expand.copy(_)(expand.solved))
+
+    case _ =>
+      None
+  }
+
+  private def indexScan(labelScan: NodeByLabelScan, property: Property, ascending: Boolean, propertyRequired: Boolean)
+                       (implicit context: LogicalPlanningContext): Option[LogicalPlan] = {
+    implicit val semanticTable = context.semanticTable
+    val propertyKeyName = property.propertyKey
+    for (labelId <- labelScan.label.right.toOption;
+         labelName <- semanticTable.resolvedLabelIds.collectFirst { case (name, id) if id == labelId => name };
+         propertyKeyId <- propertyKeyName.id;
+         _ <- context.planContext.getIndexRule(labelName, propertyKeyName.name)
+                .orElse(context.planContext.getUniqueIndexRule(labelName, propertyKeyName.name))
+         if ascending || propertyRequired)
+    yield {
+      val scan = planNodeIndexScan(labelScan.idName, LabelToken(labelName, labelId),
+        PropertyKeyToken(propertyKeyName, propertyKeyId), ascending,
+        labelScan.solved.graph.selections.flatPredicates, labelScan.argumentIds)
+      if (propertyRequired)
+        scan
+      else
+        planUnion(scan, planSelection(Seq(IsNull(property)(property.position)), labelScan))
+    }
+  }
+
+  // any of these is null, and so does not hold, when the property is missing
+  private def requiresProperty(property: Property)(predicate: Expression): Boolean = predicate match {
+    case IsNotNull(`property`) => true
+    case In(`property`, _) => true
+    case Equals(lhs, rhs) => lhs == property || rhs == property
+    case NotEquals(lhs, rhs) => lhs == property || rhs == property
+    case LessThan(lhs, rhs) => lhs == property || rhs == property
+    case LessThanOrEqual(lhs, rhs) => lhs == property || rhs == property
+    case GreaterThan(lhs, rhs) => lhs == property || rhs == property
+    case GreaterThanOrEqual(lhs, rhs) => lhs == property || rhs == property
+    case _ => false
+  }
+}
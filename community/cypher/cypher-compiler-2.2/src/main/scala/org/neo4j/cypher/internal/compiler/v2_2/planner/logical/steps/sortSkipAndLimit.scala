@@ -38,15 +38,23 @@ object sortSkipAndLimit extends PlanTransformer[PlannerQuery] {
           addLimit(l, addSkip(s, plan))
 
         case (sortItems, None, Some(l)) =>
-          planSortedLimit(plan, l, sortItems)
+          orderedIndexScan(plan, sortItems.head) match {
+            case Some(orderedPlan) => planPartialSort(orderedPlan, sortItems, Some(l))
+            case None => planSortedLimit(plan, l, sortItems)
+          }
 
         case (sortItems, Some(s), Some(l)) =>
-          planSortedSkipAndLimit(plan, s, l, sortItems)
+          orderedIndexScan(plan, sortItems.head) match {
+            case Some(orderedPlan) => planPartialSortedSkipAndLimit(orderedPlan, s, l, sortItems)
+            case None => planSortedSkipAndLimit(plan, s, l, sortItems)
+          }
 
         case (sortItems, s, None) =>
           require(sortItems.forall(_.expression.isInstanceOf[Identifier]))
-          val sortDescriptions = sortItems.map(sortDescription)
-          val sortPlan = planSort(plan, sortDescriptions, sortItems)
+          val sortPlan = orderedIndexScan(plan, sortItems.head) match {
+            case Some(orderedPlan) => planPartialSort(orderedPlan, sortItems, None)
+            case None => planSort(plan, sortItems.map(sortDescription), sortItems)
+          }
           addSkip(s, sortPlan)
       }
 
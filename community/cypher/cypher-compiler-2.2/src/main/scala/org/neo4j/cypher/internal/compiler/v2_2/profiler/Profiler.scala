@@ -22,7 +22,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.profiler
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments
 import org.neo4j.cypher.internal.compiler.v2_2._
-import org.neo4j.cypher.internal.compiler.v2_2.pipes.{SingleRowPipe, Pipe, PipeDecorator, QueryState}
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
 import org.neo4j.cypher.internal.compiler.v2_2.spi.{DelegatingOperations, DelegatingQueryContext, Operations, QueryContext}
 import org.neo4j.graphdb.{Node, PropertyContainer, Relationship}
 
@@ -32,6 +32,8 @@ class Profiler extends PipeDecorator {
 
   val dbHitsStats: mutable.Map[Pipe, ProfilingQueryContext] = mutable.Map.empty
   val rowStats: mutable.Map[Pipe, ProfilingIterator] = mutable.Map.empty
+  val buildSizeStats: mutable.Map[Pipe, Long] = mutable.Map.empty
+  var memory: Option[QueryMemoryTracker] = None
 
 
   def decorate(pipe: Pipe, iter: Iterator[ExecutionContext]): Iterator[ExecutionContext] = {
@@ -51,9 +53,14 @@ class Profiler extends PipeDecorator {
     }
 
     dbHitsStats(pipe) = decoratedContext
+    memory = Some(state.memory)
     state.copy(query = decoratedContext)
   }
 
+  def registerBuildSize(pipe: Pipe, rows: Long) {
+    buildSizeStats(pipe) = buildSizeStats.getOrElse(pipe, 0L) + rows
+  }
+
 
   def decorate(plan: InternalPlanDescription, isProfileReady: => Boolean): InternalPlanDescription = {
     if (!isProfileReady)
@@ -65,9 +72,15 @@ class Profiler extends PipeDecorator {
         val rows = rowStats.get(pipe).map(_.count).getOrElse(0L)
         val dbhits = dbHitsStats.get(pipe).map(_.count).getOrElse(0L)
 
-        input
+        val profiled = input
           .addArgument(Arguments.Rows(rows))
           .addArgument(Arguments.DbHits(dbhits))
+
+        val withBuildRows =
+          buildSizeStats.get(pipe).map(size => profiled.addArgument(Arguments.BuildRows(size))).getOrElse(profiled)
+
+        memory.flatMap(_.peak(pipe)).map(bytes => withBuildRows.addArgument(Arguments.PeakMemory(bytes)))
+          .getOrElse(withBuildRows)
     }
   }
 }
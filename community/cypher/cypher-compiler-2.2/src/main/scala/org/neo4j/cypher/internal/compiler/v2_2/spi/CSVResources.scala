@@ -21,8 +21,9 @@ package org.neo4j.cypher.internal.compiler.v2_2.spi
 
 import java.io._
 import java.net.{CookieHandler, CookieManager, CookiePolicy, URL}
+import java.util.concurrent.{ArrayBlockingQueue, CountDownLatch, TimeUnit}
 
-import org.neo4j.csv.reader.{Extractors, CharSeekers, Mark, Readables}
+import org.neo4j.csv.reader.{CharReadable, CharSeeker, CharSeekers, Extractors, Mark, Readables}
 import org.neo4j.cypher.internal.compiler.v2_2.{LoadExternalResourceException, TaskCloser}
 import org.neo4j.cypher.internal.compiler.v2_2.pipes.ExternalResource
 
@@ -33,50 +34,26 @@ object CSVResources {
   val DEFAULT_FIELD_TERMINATOR: Char = ','
   val DEFAULT_BUFFER_SIZE: Int =  2 * 1024 * 1024
   val DEFAULT_QUOTE_CHAR: Char = '"'
+  val DEFAULT_CHUNK_SIZE: Int = 1024
 }
 
-class CSVResources(cleaner: TaskCloser) extends ExternalResource {
+/*
+Opens the files of LOAD CSV, closing them through cleaner when the query is closed. The files are parsed ahead of the
+query by work handed to background.
+ */
+class CSVResources(cleaner: TaskCloser, background: Runnable => Unit) extends ExternalResource {
 
   def getCsvIterator(url: URL, fieldTerminator: Option[String] = None): Iterator[Array[String]] = {
     val inputStream = openStream(url)
     val reader = Readables.wrap(new InputStreamReader(inputStream, "UTF-8"))
     val delimiter: Char = fieldTerminator.map(_.charAt(0)).getOrElse(CSVResources.DEFAULT_FIELD_TERMINATOR)
-    val seeker = CharSeekers.charSeeker(reader, CSVResources.DEFAULT_BUFFER_SIZE, true, CSVResources.DEFAULT_QUOTE_CHAR)
-    val extractors = new Extractors(delimiter)
-    val delimiters = Array(delimiter.toInt)
-    val mark = new Mark
+    val iterator = new ThreadAheadCsvIterator(reader, delimiter, background)
 
     cleaner.addTask(_ => {
-      seeker.close()
+      iterator.close()
     })
 
-    new Iterator[Array[String]] {
-      private def readNextRow: Array[String] = {
-        val buffer = new ArrayBuffer[String]
-        breakable {
-          while (seeker.seek( mark, delimiters)) {
-            buffer += seeker.extract(mark, extractors.string()).value()
-            if (mark.isEndOfLine) break
-        }}
-
-        if (buffer.isEmpty) {
-          null
-        } else {
-          buffer.toArray
-        }
-      }
-
-      var nextRow: Array[String] = readNextRow
-
-      def hasNext: Boolean = nextRow != null
-
-      def next(): Array[String] = {
-        if (!hasNext) Iterator.empty.next()
-        val row = nextRow
-        nextRow = readNextRow
-        row
-      }
-    }
+    iterator
   }
 
   private def openStream(url: URL, connectionTimeout: Int = 2000, readTimeout: Int = 10 * 60 * 1000): InputStream = {
@@ -94,6 +71,139 @@ class CSVResources(cleaner: TaskCloser) extends ExternalResource {
   }
 }
 
+/*
+Parses the rows of a CSV file in the background and hands them over in chunks, so that parsing the file overlaps with
+running the query over the rows that have already been parsed. The parser is run by background, and reading the
+characters from the file happens on yet another thread, the read ahead of the char seeker, which the parser owns.
+
+Failures to read or parse the file are rethrown by the iterator once it reaches the row where they happened.
+ */
+private[spi] class ThreadAheadCsvIterator(reader: CharReadable, delimiter: Char, background: Runnable => Unit,
+                                          chunkSize: Int = CSVResources.DEFAULT_CHUNK_SIZE)
+  extends Iterator[Array[String]] {
+
+  import ThreadAheadCsvIterator.{CloseTimeoutMillis, EndOfRows}
+
+  private val chunks = new ArrayBlockingQueue[Array[Array[String]]](4)
+  private val stopped = new CountDownLatch(1)
+  @volatile private var closed = false
+  @volatile private var failure: Throwable = null
+  private var parser: Thread = null
+
+  background(new Runnable {
+    def run() {
+      running(Thread.currentThread())
+      try {
+        if (!closed) {
+          val seeker =
+            CharSeekers.charSeeker(reader, CSVResources.DEFAULT_BUFFER_SIZE, true, CSVResources.DEFAULT_QUOTE_CHAR)
+          try {
+            parse(seeker)
+          } finally {
+            seeker.close()
+          }
+        }
+      } catch {
+        case e: Throwable => failure = e
+      } finally {
+        offer(EndOfRows)
+        running(null)
+        stopped.countDown()
+      }
+    }
+  })
+
+  private var current: Array[Array[String]] = Array.empty
+  private var position = 0
+  private var exhausted = false
+
+  def hasNext: Boolean = {
+    while (!exhausted && position == current.length) {
+      current = chunks.take()
+      position = 0
+      if (current eq EndOfRows) {
+        exhausted = true
+        Option(failure).foreach(throw _)
+      }
+    }
+    !exhausted
+  }
+
+  def next(): Array[String] = {
+    if (!hasNext) Iterator.empty.next()
+    val row = current(position)
+    current(position) = null
+    position += 1
+    row
+  }
+
+  /*
+  Stops the parser, interrupting it in case it is blocked, and waits a bounded time for it to let go of the file. A
+  parser that is stuck on reading the file closes it as soon as the read returns.
+   */
+  def close() {
+    closed = true
+    exhausted = true
+    chunks.clear()
+    synchronized {
+      if (parser != null)
+        parser.interrupt()
+    }
+    stopped.await(CloseTimeoutMillis, TimeUnit.MILLISECONDS)
+  }
+
+  // Only interrupts the parser while it runs, since the thread goes on to run other work afterwards
+  private def running(thread: Thread): Unit = synchronized {
+    parser = thread
+    if (thread == null)
+      Thread.interrupted()
+  }
+
+  private def parse(seeker: CharSeeker) {
+    val extractors = new Extractors(delimiter)
+    val delimiters = Array(delimiter.toInt)
+    val mark = new Mark
+
+    def readNextRow: Array[String] = {
+      val buffer = new ArrayBuffer[String]
+      breakable {
+        while (seeker.seek(mark, delimiters)) {
+          buffer += seeker.extract(mark, extractors.string()).value()
+          if (mark.isEndOfLine) break
+      }}
+
+      if (buffer.isEmpty) null else buffer.toArray
+    }
+
+    val chunk = new ArrayBuffer[Array[String]](chunkSize)
+    var row = readNextRow
+    while (row != null && !closed) {
+      chunk += row
+      if (chunk.size == chunkSize) {
+        offer(chunk.toArray)
+        chunk.clear()
+      }
+      row = readNextRow
+    }
+    if (chunk.nonEmpty)
+      offer(chunk.toArray)
+  }
+
+  private def offer(chunk: Array[Array[String]]) {
+    // the query may stop consuming rows at any time, so keep checking whether we have been closed
+    try {
+      while (!closed && !chunks.offer(chunk, 10, TimeUnit.MILLISECONDS)) {}
+    } catch {
+      case _: InterruptedException => // closed while waiting for room
+    }
+  }
+}
+
+private[spi] object ThreadAheadCsvIterator {
+  private val EndOfRows = new Array[Array[String]](0)
+  private val CloseTimeoutMillis = 5000L
+}
+
 object TheCookieManager {
   private lazy val theCookieManager = create
 
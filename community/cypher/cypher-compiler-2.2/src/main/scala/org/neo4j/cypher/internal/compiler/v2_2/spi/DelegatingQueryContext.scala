@@ -19,8 +19,11 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.spi
 
+import java.io.File
+
 import org.neo4j.graphdb.{Relationship, PropertyContainer, Direction, Node}
 import org.neo4j.kernel.api.index.IndexDescriptor
+import org.neo4j.kernel.impl.util.JobScheduler
 
 class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
@@ -77,6 +80,9 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] = manyDbHits(inner.exactIndexSearch(index, value))
 
+  def orderedIndexScan(index: IndexDescriptor, ascending: Boolean): Iterator[Node] =
+    manyDbHits(inner.orderedIndexScan(index, ascending))
+
   def getNodesByLabel(id: Int): Iterator[Node] = manyDbHits(inner.getNodesByLabel(id))
 
   def upgrade(context: QueryContext): LockingQueryContext = inner.upgrade(context)
@@ -103,6 +109,22 @@ class DelegatingQueryContext(inner: QueryContext) extends QueryContext {
 
   override def hasLocalFileAccess: Boolean = inner.hasLocalFileAccess
 
+  override def operatorMemory: Long = inner.operatorMemory
+
+  override def queryMemoryLimit: Long = inner.queryMemoryLimit
+
+  override def globalQueryMemoryLimit: Long = inner.globalQueryMemoryLimit
+
+  override def spillDirectory: File = inner.spillDirectory
+
+  override def runInBackground(group: JobScheduler.Group, work: Runnable) {
+    inner.runInBackground(group, work)
+  }
+
+  override def parallelReads: Option[ParallelReads] = inner.parallelReads
+
+  override def parallelWrites: Option[ParallelWrites] = inner.parallelWrites
+
   def relationshipStartNode(rel: Relationship) = inner.relationshipStartNode(rel)
 
   def relationshipEndNode(rel: Relationship) = inner.relationshipEndNode(rel)
@@ -33,8 +33,27 @@ trait GraphStatistics {
       indexSelectivity(:X, prop) = s => |MATCH (a:X)| * s = |MATCH (a:X) WHERE x.prop = *|
    */
   def indexSelectivity(label: LabelId, property: PropertyKeyId): Option[Selectivity]
+
+  /*
+      Distribution of the values of an indexed property among the nodes with the given label, once the index
+      has been sampled
+
+      indexPropertyHistogram(:X, prop).equality(v) = s => |MATCH (a:X)| * s = |MATCH (a:X) WHERE a.prop = v|
+   */
+  def indexPropertyHistogram(label: LabelId, property: PropertyKeyId): Option[PropertyHistogram]
 }
 
+trait PropertyHistogram {
+  def equality(value: Any): Selectivity
+
+  // comparing with a value that is not known when planning, such as a parameter
+  def unknownEquality: Selectivity
+
+  def range(lower: Option[RangeBound], upper: Option[RangeBound]): Selectivity
+}
+
+case class RangeBound(value: Any, inclusive: Boolean)
+
 object GraphStatistics {
   val DEFAULT_RANGE_SELECTIVITY          = Selectivity(0.3)
   val DEFAULT_PREDICATE_SELECTIVITY      = Selectivity(0.75)
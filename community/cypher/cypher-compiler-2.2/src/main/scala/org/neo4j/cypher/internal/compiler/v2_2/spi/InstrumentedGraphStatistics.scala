@@ -28,6 +28,7 @@ sealed trait StatisticsKey
 case class NodesWithLabelCardinality(labelId: Option[LabelId]) extends StatisticsKey
 case class CardinalityByLabelsAndRelationshipType(lhs: Option[LabelId], relType: Option[RelTypeId], rhs: Option[LabelId]) extends StatisticsKey
 case class IndexSelectivity(labelId: LabelId, propertyKeyId: PropertyKeyId) extends StatisticsKey
+case class IndexPropertyHistogram(labelId: LabelId, propertyKeyId: PropertyKeyId) extends StatisticsKey
 
 case class MutableGraphStatisticsSnapshot(map: mutable.Map[StatisticsKey, Double] = mutable.Map.empty) {
   def freeze: GraphStatisticsSnapshot = GraphStatisticsSnapshot(map.toMap)
@@ -44,6 +45,8 @@ case class GraphStatisticsSnapshot(map: Map[StatisticsKey, Double] = Map.empty)
         instrumented.cardinalityByLabelsAndRelationshipType(lhs, relType, rhs)
       case IndexSelectivity(labelId, propertyKeyId) =>
         instrumented.indexSelectivity(labelId, propertyKeyId)
+      case IndexPropertyHistogram(labelId, propertyKeyId) =>
+        instrumented.indexPropertyHistogram(labelId, propertyKeyId)
     }
     snapshot.freeze
   }
@@ -97,4 +100,10 @@ case class InstrumentedGraphStatistics(inner: GraphStatistics, snapshot: Mutable
     snapshot.map.getOrElseUpdate(IndexSelectivity(label, property), selectivity.fold(0.0)(_.factor))
     selectivity
   }
+
+  def indexPropertyHistogram(label: LabelId, property: PropertyKeyId): Option[PropertyHistogram] = {
+    val histogram = inner.indexPropertyHistogram(label, property)
+    snapshot.map.getOrElseUpdate(IndexPropertyHistogram(label, property), histogram.fold(0.0)(_.unknownEquality.factor))
+    histogram
+  }
 }
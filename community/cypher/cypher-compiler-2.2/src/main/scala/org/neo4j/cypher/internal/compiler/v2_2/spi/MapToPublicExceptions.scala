@@ -32,6 +32,8 @@ trait MapToPublicExceptions[T <: Throwable] {
 
   def loadExternalResourceException(message: String, cause: Throwable): T
 
+  def memoryLimitExceededException(message: String): T
+
   def incomparableValuesException(lhs: String, rhs: String): T
 
   def arithmeticException(message: String, cause: Throwable): T
@@ -106,6 +106,9 @@ class QueriedGraphStatistics(graph: GraphDatabaseService, queryContext: QueryCon
     }
   }
 
+  def indexPropertyHistogram(labelId: LabelId, propertyKeyId: PropertyKeyId): Option[PropertyHistogram] =
+    None
+
   private def indexExistsOnLabelAndProp(labelName: String, propertyKeyName: String) =
     graph.schema().getIndexes(DynamicLabel.label(labelName)).asScala.exists(_.getPropertyKeys.asScala.toSeq == Seq(propertyKeyName))
 }
@@ -20,9 +20,12 @@
 
 package org.neo4j.cypher.internal.compiler.v2_2.spi
 
+import java.io.File
+
 import org.neo4j.cypher.internal.compiler.v2_2.InternalQueryStatistics
 import org.neo4j.graphdb._
 import org.neo4j.kernel.api.constraints.UniquenessConstraint
+import org.neo4j.kernel.impl.util.JobScheduler
 import org.neo4j.kernel.api.index.IndexDescriptor
 
 /*
@@ -74,6 +77,8 @@ trait QueryContext extends TokenContext {
 
   def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node]
 
+  def orderedIndexScan(index: IndexDescriptor, ascending: Boolean): Iterator[Node]
+
   def exactUniqueIndexSearch(index: IndexDescriptor, value: Any): Option[Node]
 
   def getNodesByLabel(id: Int): Iterator[Node]
@@ -92,6 +97,48 @@ trait QueryContext extends TokenContext {
 
   def hasLocalFileAccess: Boolean = false
 
+  /**
+   * The number of bytes a single operator, e.g. an aggregation, may hold on to before it spills its state to disk.
+   */
+  def operatorMemory: Long = Long.MaxValue
+
+  /**
+   * The number of bytes a single query may hold on to for the state of its operators.
+   */
+  def queryMemoryLimit: Long = Long.MaxValue
+
+  /**
+   * The number of bytes all running queries may hold on to together for the state of their operators.
+   */
+  def globalQueryMemoryLimit: Long = Long.MaxValue
+
+  /**
+   * The directory operators write their state to when it does not fit in the memory they may use.
+   */
+  def spillDirectory: File = new File(System.getProperty("java.io.tmpdir"))
+
+  /**
+   * Runs work in the background, on a thread of the job scheduler of the database so that it is stopped when the
+   * database shuts down. Contexts without a database behind them run it on a daemon thread of its own.
+   */
+  def runInBackground(group: JobScheduler.Group, work: Runnable) {
+    val thread = new Thread(work, s"Cypher $group")
+    thread.setDaemon(true)
+    thread.start()
+  }
+
+  /**
+   * Support for reading the graph from other threads than the one this context belongs to, or None if this context
+   * can not offer that, e.g. because its transaction has changes that other transactions would not see.
+   */
+  def parallelReads: Option[ParallelReads] = None
+
+  /**
+   * Support for writing to the graph from other threads than the one this context belongs to, in transactions of
+   * their own, or None if this context does not allow that, e.g. because it is not running in a top level transaction.
+   */
+  def parallelWrites: Option[ParallelWrites] = None
+
   /**
    * This should not be used. We'll remove sooner (or later). Don't do it.
    */
@@ -104,6 +151,40 @@ trait QueryContext extends TokenContext {
   def relationshipEndNode(rel: Relationship): Node
 }
 
+trait ParallelReads {
+  /**
+   * Runs work on the calling thread against a query context backed by a read transaction of its own, which is
+   * closed again when the work is done.
+   */
+  def inReadTransaction[T](work: QueryContext => T): T
+
+  /**
+   * Runs up to the given number of workers on threads of the job scheduler of the database, each let in under the
+   * workload class the calling thread runs under, and returns how many were started. Fewer are started when the
+   * class has no room for more, which may leave none at all.
+   */
+  def startWorkers(workers: Int, work: Runnable): Int
+}
+
+trait ParallelWrites {
+  /**
+   * The number of write transactions that may be used concurrently.
+   */
+  def parallelism: Int
+
+  /**
+   * Runs work on the calling thread against a query context backed by a write transaction of its own, which is
+   * committed when the work is done. Work that fails because its transaction conflicted with another one, e.g. by
+   * deadlocking with it, is rolled back and run again in a new transaction, so it has to be repeatable.
+   */
+  def inWriteTransaction[T](work: QueryContext => T): T
+
+  /**
+   * Runs work on a thread of the job scheduler of the database, which is stopped when the database shuts down.
+   */
+  def execute(work: Runnable)
+}
+
 trait LockingQueryContext extends QueryContext {
   def releaseLocks()
 }
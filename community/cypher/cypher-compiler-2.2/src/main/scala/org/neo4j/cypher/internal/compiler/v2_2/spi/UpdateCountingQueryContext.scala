@@ -52,6 +52,20 @@ class UpdateCountingQueryContext(inner: QueryContext) extends DelegatingQueryCon
 
   override def getOptStatistics = Some(getStatistics)
 
+  def add(statistics: InternalQueryStatistics) {
+    nodesCreated.increase(statistics.nodesCreated)
+    relationshipsCreated.increase(statistics.relationshipsCreated)
+    propertiesSet.increase(statistics.propertiesSet)
+    nodesDeleted.increase(statistics.nodesDeleted)
+    relationshipsDeleted.increase(statistics.relationshipsDeleted)
+    labelsAdded.increase(statistics.labelsAdded)
+    labelsRemoved.increase(statistics.labelsRemoved)
+    indexesAdded.increase(statistics.indexesAdded)
+    indexesRemoved.increase(statistics.indexesRemoved)
+    constraintsAdded.increase(statistics.constraintsAdded)
+    constraintsRemoved.increase(statistics.constraintsRemoved)
+  }
+
   override def createNode() = {
     nodesCreated.increase()
     inner.createNode()
@@ -43,11 +43,16 @@ class LiteralReplacementTest extends CypherFunSuite  {
     assertRewrite("MATCH ({a:\"apa\"})", "MATCH ({a:{`  AUTOSTRING0`}})", Map("  AUTOSTRING0" -> "apa"))
   }
 
-  test("should extract literals in skip limit clause") {
+  test("should not extract literals in skip limit clause") {
     assertRewrite(
       s"RETURN 0 as x SKIP 1 limit 2",
-      s"RETURN {`  AUTOINT0`} as x SKIP {`  AUTOINT1`} LIMIT {`  AUTOINT2`}",
-      Map("  AUTOINT0" -> 0, "  AUTOINT1" -> 1, "  AUTOINT2" -> 2)
+      s"RETURN {`  AUTOINT0`} as x SKIP 1 LIMIT 2",
+      Map("  AUTOINT0" -> 0)
+    )
+    assertRewrite(
+      s"WITH 0 as x ORDER BY x LIMIT 10 RETURN x",
+      s"WITH {`  AUTOINT0`} as x ORDER BY x LIMIT 10 RETURN x",
+      Map("  AUTOINT0" -> 0)
     )
   }
 
@@ -25,9 +25,15 @@ import org.mockito.invocation.InvocationOnMock
 import org.mockito.stubbing.Answer
 import org.neo4j.cypher.internal.commons.CypherFunSuite
 import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_2.commands.Equals
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.{Identifier, Literal, Property}
+import org.neo4j.cypher.internal.compiler.v2_2.commands.values.{UnresolvedLabel, UnresolvedProperty}
+import org.neo4j.cypher.internal.compiler.v2_2.mutation.{CreateNode, DeleteEntityAction, PropertySetAction}
 import org.neo4j.cypher.internal.compiler.v2_2.pipes._
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments
 import org.neo4j.cypher.internal.compiler.v2_2.symbols.SymbolTable
+import org.neo4j.graphdb.Node
 
 class AddEagernessIfNecessaryTest extends CypherFunSuite {
   implicit val monitor = mock[PipeMonitor]
@@ -129,6 +135,59 @@ class AddEagernessIfNecessaryTest extends CypherFunSuite {
     result should equal(expected)
   }
 
+  test("reading one label and creating nodes with another needs no eagerness") {
+    val scan = labelScan("a", "Foo")
+    val create = ExecuteUpdateCommandsPipe(scan, Seq(CreateNode("b", Map.empty, Seq(UnresolvedLabel("Bar")))))
+
+    addEagernessIfNecessary(create) should equal(create)
+  }
+
+  test("reading a label and creating nodes with it needs eagerness") {
+    val scan = labelScan("a", "Foo")
+    val create = ExecuteUpdateCommandsPipe(scan, Seq(CreateNode("b", Map.empty, Seq(UnresolvedLabel("Foo")))))
+
+    addEagernessIfNecessary(create) should equal(create.copy(source = EagerPipe(scan, spillToDisk = true)))
+  }
+
+  test("scanning all nodes and creating nodes needs eagerness") {
+    val scan = NodeStartPipe(SingleRowPipe(), "a", new EntityProducer[Node] {
+      def producerType = "AllNodes"
+      def arguments = Seq.empty
+      def apply(ctx: ExecutionContext, state: QueryState) = Iterator.empty
+    })()
+    val create = ExecuteUpdateCommandsPipe(scan, Seq(CreateNode("b", Map.empty, Seq(UnresolvedLabel("Bar")))))
+
+    addEagernessIfNecessary(create).sources.head shouldBe an[EagerPipe]
+  }
+
+  test("filtering on a property and setting another needs no eagerness") {
+    val filter = FilterPipe(labelScan("a", "Foo"), Equals(property("a", "x"), Literal(1)))()
+    val set = ExecuteUpdateCommandsPipe(filter, Seq(PropertySetAction(property("a", "y"), Literal(2))))
+
+    addEagernessIfNecessary(set) should equal(set)
+  }
+
+  test("filtering on a property and setting it needs eagerness") {
+    val filter = FilterPipe(labelScan("a", "Foo"), Equals(property("a", "x"), Literal(1)))()
+    val set = ExecuteUpdateCommandsPipe(filter, Seq(PropertySetAction(property("a", "x"), Literal(2))))
+
+    addEagernessIfNecessary(set) should equal(set.copy(source = EagerPipe(filter, spillToDisk = true)))
+  }
+
+  test("deleting needs eagerness that keeps all rows in memory") {
+    val scan = labelScan("a", "Foo")
+    val delete = ExecuteUpdateCommandsPipe(scan, Seq(DeleteEntityAction(Identifier("a"))))
+
+    addEagernessIfNecessary(delete) should equal(delete.copy(source = EagerPipe(scan, spillToDisk = false)))
+  }
+
+  private def property(name: String, key: String) = Property(Identifier(name), UnresolvedProperty(key))
+
+  private def labelScan(name: String, label: String) =
+    NodeStartPipe(SingleRowPipe(), name, EntityProducer[Node]("NodeByLabel", Arguments.LabelName(label)) {
+      (_, _) => Iterator.empty
+    })()
+
   test("pipe with no source is returned as is") {
     val pipe = mock[Pipe]
     when(pipe.sources).thenReturn(Seq.empty)
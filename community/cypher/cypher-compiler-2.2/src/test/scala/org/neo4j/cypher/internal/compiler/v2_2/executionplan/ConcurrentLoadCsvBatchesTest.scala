@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.executionplan
+
+import java.net.URL
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.mockito.Matchers
+import org.mockito.Mockito._
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.Literal
+import org.neo4j.cypher.internal.compiler.v2_2.pipes._
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{MapToPublicExceptions, ParallelWrites, QueryContext}
+import org.neo4j.cypher.internal.compiler.v2_2.{ArithmeticException, LoadCsvStatusWrapCypherException}
+
+class ConcurrentLoadCsvBatchesTest extends CypherFunSuite {
+
+  private implicit val monitor = mock[PipeMonitor]
+  private val url = "http://example.com/some.csv"
+
+  test("should find a load csv that streams its rows into updates") {
+    val load = LoadCSVPipe(SingleRowPipe(), NoHeaders, Literal(url), "line", None)
+    val pipe = EmptyResultPipe(ExecuteUpdateCommandsPipe(load, Seq.empty))
+
+    ConcurrentLoadCsvBatches.streamingLoadCsv(pipe) should equal(Some(load))
+  }
+
+  test("should not find a load csv that is followed by an eager pipe") {
+    val load = LoadCSVPipe(SingleRowPipe(), NoHeaders, Literal(url), "line", None)
+    val pipe = EmptyResultPipe(ExecuteUpdateCommandsPipe(new EagerPipe(load), Seq.empty))
+
+    ConcurrentLoadCsvBatches.streamingLoadCsv(pipe) should equal(None)
+  }
+
+  test("should not find a load csv that reads rows of another one") {
+    val first = LoadCSVPipe(SingleRowPipe(), NoHeaders, Literal(url), "a", None)
+    val second = LoadCSVPipe(first, NoHeaders, Literal(url), "b", None)
+
+    ConcurrentLoadCsvBatches.streamingLoadCsv(second) should equal(None)
+  }
+
+  test("should write every batch in a transaction of its own") {
+    val load = LoadCSVPipe(SingleRowPipe(), HasHeaders, Literal(url), "line", None)
+    val writes = new CountingWrites
+    val state = stateReading(Iterator(Array("a")) ++ (1 to 25).map(i => Array(i.toString)))
+
+    new ConcurrentLoadCsvBatches(load, load, 10, writes).run(state)
+
+    writes.transactions.get() should equal(3)
+  }
+
+  test("should tell which batch failed") {
+    val load = LoadCSVPipe(SingleRowPipe(), NoHeaders, Literal(url), "line", None)
+    val writes = new CountingWrites {
+      override def inWriteTransaction[T](work: QueryContext => T): T =
+        if (transactions.incrementAndGet() == 2) throw new ArithmeticException("/ by zero") else work(query)
+    }
+    val state = stateReading((1 to 25).map(i => Array(i.toString)).iterator)
+
+    val e = intercept[LoadCsvStatusWrapCypherException](new ConcurrentLoadCsvBatches(load, load, 10, writes).run(state))
+
+    val mapper = mock[MapToPublicExceptions[Exception]]
+    e.mapToPublic(mapper)
+    verify(mapper).loadCsvStatusWrapCypherException(
+      Matchers.contains("in the batch of lines 11 to 20"), Matchers.isA(classOf[ArithmeticException]))
+  }
+
+  test("should wait for the batches being written when reading the file fails") {
+    val load = LoadCSVPipe(SingleRowPipe(), NoHeaders, Literal(url), "line", None)
+    val malformedLineRead = new CountDownLatch(1)
+    val finished = new AtomicInteger()
+    val writes = new CountingWrites {
+      override def parallelism = 2
+
+      override def execute(work: Runnable) {
+        new Thread(new Runnable {
+          def run() {
+            malformedLineRead.await()
+            work.run()
+            finished.incrementAndGet()
+          }
+        }).start()
+      }
+    }
+    val malformedLine = Iterator.continually[Array[String]] {
+      malformedLineRead.countDown()
+      throw new IllegalStateException("Malformed line 11")
+    }
+    val state = stateReading((1 to 10).map(i => Array(i.toString)).iterator ++ malformedLine)
+
+    intercept[IllegalStateException](new ConcurrentLoadCsvBatches(load, load, 10, writes).run(state))
+
+    writes.transactions.get() should equal(1)
+    finished.get() should equal(1)
+  }
+
+  private def stateReading(rows: Iterator[Array[String]]) = {
+    val resources = mock[ExternalResource]
+    when(resources.getCsvIterator(Matchers.eq(new URL(url)), Matchers.any())).thenReturn(rows)
+    QueryStateHelper.emptyWith(query = mock[QueryContext], resources = resources)
+  }
+
+  private class CountingWrites extends ParallelWrites {
+    val transactions = new AtomicInteger()
+    val query = mock[QueryContext]
+
+    def parallelism = 1
+
+    def inWriteTransaction[T](work: QueryContext => T): T = {
+      transactions.incrementAndGet()
+      work(query)
+    }
+
+    def execute(work: Runnable) {
+      work.run()
+    }
+  }
+}
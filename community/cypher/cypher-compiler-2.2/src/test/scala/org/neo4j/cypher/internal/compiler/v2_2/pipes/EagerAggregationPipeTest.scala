@@ -102,7 +102,34 @@ class EagerAggregationPipeTest extends CypherFunSuite {
     getResults(aggregationPipe) should equal(List(Map("count(name)" -> 3)))
   }
 
+  test("should spill groups to disk when they outgrow the operator memory") {
+    val rows = (0 until 5000).map(i => Map("name" -> s"name${i % 1000}", "x" -> i))
+    val source = new FakePipe(rows, "name" -> CTString, "x" -> CTInteger)
+
+    val returnItems = createReturnItemsFor("name")
+    val grouping = Map("count(*)" -> CountStar(), "sum(x)" -> Sum(Identifier("x")), "max(x)" -> Max(Identifier("x")))
+    val aggregationPipe = new EagerAggregationPipe(source, returnItems, grouping)()
+
+    val expected = (0 until 1000).map {
+      i => Map("name" -> s"name$i", "count(*)" -> 5, "sum(x)" -> (0 until 5).map(_ * 1000 + i).sum, "max(x)" -> (4000 + i))
+    }
+    getResults(aggregationPipe, operatorMemory = 1024).toSet should equal(expected.toSet)
+  }
+
+  test("should keep groups in memory when an aggregation can not merge partial results") {
+    val rows = (0 until 100).map(i => Map("name" -> s"name${i % 10}", "x" -> i))
+    val source = new FakePipe(rows, "name" -> CTString, "x" -> CTInteger)
+
+    val returnItems = createReturnItemsFor("name")
+    val grouping = Map("collect(x)" -> Collect(Identifier("x")))
+    val aggregationPipe = new EagerAggregationPipe(source, returnItems, grouping)()
+
+    val expected = (0 until 10).map(i => Map("name" -> s"name$i", "collect(x)" -> (0 until 10).map(_ * 10 + i).toList))
+    getResults(aggregationPipe, operatorMemory = 1024).toSet should equal(expected.toSet)
+  }
+
   private def createSymbolTableFor(name: String) = name -> CTNode
 
-  private def getResults(p: Pipe) = p.createResults(QueryStateHelper.empty).map(_.m.toMap).toList
+  private def getResults(p: Pipe, operatorMemory: Long = Long.MaxValue) =
+    p.createResults(QueryStateHelper.emptyWithOperatorMemory(operatorMemory)).map(_.m.toMap).toList
 }
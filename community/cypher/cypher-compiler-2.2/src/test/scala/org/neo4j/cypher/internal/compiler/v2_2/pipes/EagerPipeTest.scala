@@ -39,4 +39,23 @@ class EagerPipeTest extends CypherFunSuite {
     lazyIterator shouldBe empty
     resultIterator should not be empty
   }
+
+  test("should spill rows that do not fit in memory to disk and return them in order") {
+    val rows = (0 until 1000).map(i => Map[String, Any]("x" -> i, "name" -> s"name$i"))
+    val eager = new EagerPipe(new FakePipe(rows), spillToDisk = true)
+
+    val result = eager.createResults(QueryStateHelper.emptyWithOperatorMemory(1024)).map(_.m.toMap).toList
+
+    result should equal(rows)
+  }
+
+  test("should keep rows that can not be written to disk in memory") {
+    val unwritable = new Object
+    val rows = (0 until 100).map(i => Map[String, Any]("x" -> i)) :+ Map[String, Any]("x" -> unwritable)
+    val eager = new EagerPipe(new FakePipe(rows ++ rows), spillToDisk = true)
+
+    val result = eager.createResults(QueryStateHelper.emptyWithOperatorMemory(1024)).map(_.m.toMap).toList
+
+    result should equal(rows ++ rows)
+  }
 }
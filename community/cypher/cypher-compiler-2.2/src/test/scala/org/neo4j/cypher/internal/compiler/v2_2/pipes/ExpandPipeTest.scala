@@ -27,7 +27,7 @@ import org.mockito.stubbing.Answer
 import org.neo4j.graphdb.{Node, Direction, Relationship}
 import org.mockito.invocation.InvocationOnMock
 import org.neo4j.cypher.internal.compiler.v2_2.symbols._
-import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_2.{ExecutionContext, InternalException}
 import org.neo4j.cypher.internal.compiler.v2_2.commands.{Not, Predicate, True}
 
 class ExpandPipeTest extends CypherFunSuite {
@@ -112,6 +112,39 @@ class ExpandPipeTest extends CypherFunSuite {
     single.m should equal(Map("a" -> startNode, "r" -> relationship1, "b" -> endNode1))
   }
 
+  test("should expand slotted rows into the slots of the relationship and the end node") {
+    // given
+    mockRelationships(relationship1, relationship2)
+    val layout = SlotLayout(Seq("a", "r", "b"))
+    val start = new SlottedRow(layout)
+    start("a") = startNode
+    val left = newMockedPipe("a", ExecutionContext(start))
+
+    // when
+    val result = ExpandPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Seq.empty)(layout = layout)
+      .createResults(queryState).toList
+
+    // then
+    val (first :: second :: Nil) = result
+    first.m shouldBe a[SlottedRow]
+    first.m should equal(Map("a" -> startNode, "r" -> relationship1, "b" -> endNode1))
+    second.m should equal(Map("a" -> startNode, "r" -> relationship2, "b" -> endNode2))
+    start.toMap should equal(Map("a" -> startNode))
+  }
+
+  test("should fail on slotted rows without a start point") {
+    // given
+    val layout = SlotLayout(Seq("a", "r", "b"))
+    val left = newMockedPipe("a", ExecutionContext(new SlottedRow(layout)))
+
+    // when
+    val result = ExpandPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Seq.empty)(layout = layout)
+      .createResults(queryState)
+
+    // then
+    an [InternalException] should be thrownBy result.toList
+  }
+
   private def row(values: (String, Any)*) = ExecutionContext.from(values: _*)
 
   private def mockRelationships(rels: Relationship*) {
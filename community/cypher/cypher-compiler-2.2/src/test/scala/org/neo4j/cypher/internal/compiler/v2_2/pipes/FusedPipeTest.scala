@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.mockito.Matchers.any
+import org.mockito.Mockito.when
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.{Identifier, Literal}
+import org.neo4j.cypher.internal.compiler.v2_2.commands.{Equals, Not}
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{Operations, QueryContext}
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.graphdb.{Direction, Node, Relationship}
+
+class FusedPipeTest extends CypherFunSuite {
+
+  private implicit val monitor = mock[PipeMonitor]
+
+  val nodes = List(mock[Node], mock[Node], mock[Node])
+
+  test("should fuse a filter on top of a scan") {
+    // given
+    val scan = AllNodesScanPipe("a")()
+    val filter = FilterPipe(scan, Not(Equals(Identifier("a"), Literal(nodes(1)))))()
+
+    // when
+    val fused = FusedPipe.fuse(filter)
+
+    // then
+    fused should equal(FusedPipe(scan, Seq(filter), filter))
+    fused.createResults(queryState).map(_("a")).toList should equal(List(nodes(0), nodes(2)))
+  }
+
+  test("should extend an existing pipeline with the next operator") {
+    // given
+    val scan = AllNodesScanPipe("a")()
+    val filter = FilterPipe(scan, Not(Equals(Identifier("a"), Literal(nodes(1)))))()
+    val pipeline = FusedPipe.fuse(filter)
+    val projection = ProjectionNewPipe(pipeline, Map("b" -> Identifier("a")))()
+
+    // when
+    val fused = FusedPipe.fuse(projection)
+
+    // then
+    fused should equal(FusedPipe(scan, Seq(filter, projection), projection))
+    fused.createResults(queryState).toList should equal(List(Map("b" -> nodes(0)), Map("b" -> nodes(2))))
+  }
+
+  test("should produce every row when the input spans several morsels") {
+    // given
+    val scan = AllNodesScanPipe("a")()
+    val filter = FilterPipe(scan, Not(Equals(Identifier("a"), Literal(nodes(1)))))()
+    val projection = ProjectionNewPipe(filter, Map("b" -> Identifier("a")))()
+
+    // when
+    val fused = FusedPipe(scan, Seq(filter, projection), projection, morselSize = 2)
+
+    // then
+    fused.createResults(queryState).toList should equal(List(Map("b" -> nodes(0)), Map("b" -> nodes(2))))
+  }
+
+  test("should only pull the rows it needs when the expansion of a single row fills a morsel") {
+    // given
+    var nodesPulled = 0
+    var relationshipsPulled = 0
+    val relationship = mock[Relationship]
+    when(relationship.getOtherNode(any())).thenReturn(nodes(1))
+    val nodeOps = mock[Operations[Node]]
+    when(nodeOps.all).thenReturn(Iterator.continually(nodes(0)).take(10).map { n => nodesPulled += 1; n })
+    val query = mock[QueryContext]
+    when(query.nodeOps).thenReturn(nodeOps)
+    when(query.getRelationshipsFor(any(), any(), any())).thenReturn(
+      Iterator.continually(relationship).take(1000).map { r => relationshipsPulled += 1; r })
+
+    val scan = AllNodesScanPipe("a")()
+    val expand = ExpandPipeForStringTypes(scan, "a", "r", "b", Direction.OUTGOING, Seq.empty)()
+    val fused = FusedPipe(scan, Seq(expand), expand, morselSize = 4)
+
+    // when
+    val result = LimitPipe(fused, Literal(1))().createResults(QueryStateHelper.emptyWith(query = query)).toList
+
+    // then
+    result should have size 1
+    nodesPulled should equal(4)
+    relationshipsPulled should equal(4)
+  }
+
+  test("should keep the rows of a pipeline in the slots of the row layout") {
+    // given
+    val relationship = mock[Relationship]
+    when(relationship.getOtherNode(any())).thenReturn(nodes(1))
+    val query = queryState.query
+    when(query.getRelationshipsFor(any(), any(), any())).thenAnswer(new Answer[Iterator[Relationship]] {
+      def answer(invocation: InvocationOnMock) = Iterator(relationship)
+    })
+    val layout = SlotLayout(Seq("a", "r", "b", "c"))
+
+    val scan = AllNodesScanPipe("a")()
+    val expand = ExpandPipeForStringTypes(scan, "a", "r", "b", Direction.OUTGOING, Seq.empty)(layout = layout)
+    val projection = ProjectionNewPipe(expand, Map("c" -> Identifier("b")))(layout = layout)
+    val fused = FusedPipe(scan, Seq(expand, projection), projection)
+
+    // when
+    val result = fused.createResults(QueryStateHelper.emptyWith(query = query).copy(rowLayout = layout)).toList
+
+    // then
+    result.map(_.m) should equal(List.fill(3)(Map("c" -> nodes(1))))
+    result.foreach(_.m shouldBe a[SlottedRow])
+  }
+
+  test("should keep the plan description of the pipes it replaces") {
+    val filter = FilterPipe(AllNodesScanPipe("a")(), Not(Equals(Identifier("a"), Literal(nodes(1)))))()
+
+    FusedPipe.fuse(filter).planDescription should equal(filter.planDescription)
+  }
+
+  test("should not fuse operators on top of unsupported pipes") {
+    val source = new FakePipe(List.empty[Map[String, Any]], "a" -> CTNode)
+    val filter = FilterPipe(source, Not(Equals(Identifier("a"), Literal(nodes(1)))))()
+
+    FusedPipe.fuse(filter) should be theSameInstanceAs filter
+  }
+
+  private def queryState = {
+    val nodeOps = when(mock[Operations[Node]].all).thenReturn(nodes.iterator).getMock[Operations[Node]]
+    QueryStateHelper.emptyWith(query = when(mock[QueryContext].nodeOps).thenReturn(nodeOps).getMock[QueryContext])
+  }
+}
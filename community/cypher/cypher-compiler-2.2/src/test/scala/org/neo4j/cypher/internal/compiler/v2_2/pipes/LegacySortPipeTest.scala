@@ -36,7 +36,7 @@ class LegacySortPipeTest extends CypherFunSuite {
     val source = new FakePipe(List(), "x" -> CTAny)
     val sortPipe = new LegacySortPipe(source, List(SortItem(Identifier("x"), true)))
 
-    sortPipe.createResults(QueryStateHelper.empty).toList shouldBe empty
+    sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList shouldBe empty
   }
 
   test("simpleSortingIsSupported") {
@@ -44,7 +44,7 @@ class LegacySortPipeTest extends CypherFunSuite {
     val source = new FakePipe(list, "x" -> CTString)
     val sortPipe = new LegacySortPipe(source, List(SortItem(Identifier("x"), true)))
 
-    sortPipe.createResults(QueryStateHelper.empty).toList should equal(List(
+    sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList should equal(List(
       MutableMap("x" -> "A"), MutableMap("x" -> "B")
     ))
   }
@@ -59,7 +59,7 @@ class LegacySortPipeTest extends CypherFunSuite {
       SortItem(Identifier("x"), true),
       SortItem(Identifier("y"), true)))
 
-    sortPipe.createResults(QueryStateHelper.empty).toList should equal(List(
+    sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList should equal(List(
       MutableMap("x" -> "A", "y" -> 100),
       MutableMap("x" -> "B", "y" -> 10),
       MutableMap("x" -> "B", "y" -> 20)
@@ -76,7 +76,7 @@ class LegacySortPipeTest extends CypherFunSuite {
       SortItem(Identifier("x"), true),
       SortItem(Identifier("y"), false)))
 
-    sortPipe.createResults(QueryStateHelper.empty).toList should equal(List(
+    sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList should equal(List(
       MutableMap("x" -> "A", "y" -> 100),
       MutableMap("x" -> "B", "y" -> 20),
       MutableMap("x" -> "B", "y" -> 10)
@@ -92,7 +92,7 @@ class LegacySortPipeTest extends CypherFunSuite {
 
     val sortPipe = new LegacySortPipe(source, List(SortItem(Identifier("y"), true)))
 
-    sortPipe.createResults(QueryStateHelper.empty).toList should equal(List(
+    sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList should equal(List(
       MutableMap("y" -> 1),
       MutableMap("y" -> 2),
       MutableMap("y" -> null)
@@ -109,7 +109,7 @@ class LegacySortPipeTest extends CypherFunSuite {
 
     val sortPipe = new LegacySortPipe(source, List(SortItem(Add(Identifier("x"), Literal(1)), true)))
 
-    val actualResult = sortPipe.createResults(QueryStateHelper.empty).toList
+    val actualResult = sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList
     val expectedResult =  List(
       MutableMap("x" -> 1),
       MutableMap("x" -> 2),
@@ -125,6 +125,16 @@ class LegacySortPipeTest extends CypherFunSuite {
 
     val sortPipe = new LegacySortPipe(source, List(SortItem(Add(Add(Literal(1), RandFunction()), Literal(1)), true)))
 
-    intercept[PatternException](sortPipe.createResults(QueryStateHelper.empty))
+    intercept[PatternException](sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()))
+  }
+
+  test("shouldMergeSortedRunsWhenRowsDoNotFitInMemory") {
+    val list: Seq[MutableMap[String, Any]] = (0 until 2000).map(i => MutableMap[String, Any]("x" -> (i * 7919) % 100, "y" -> i))
+    val source = new FakePipe(list, "x" -> CTNumber, "y" -> CTNumber)
+
+    val sortPipe = new LegacySortPipe(source, List(SortItem(Add(Identifier("x"), Literal(1)), true)))
+
+    sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory(1024)).map(_.toMap).toList should equal(
+      list.sortBy(_("x").asInstanceOf[Int]).map(_.toMap))
   }
 }
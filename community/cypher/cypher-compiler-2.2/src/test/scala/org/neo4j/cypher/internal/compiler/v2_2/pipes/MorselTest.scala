@@ -0,0 +1,48 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+
+class MorselTest extends CypherFunSuite {
+
+  test("should grow beyond its initial capacity") {
+    val morsel = new Morsel(2)
+    val rows = (1 to 5).map(i => ExecutionContext.from("x" -> i))
+
+    rows.foreach(morsel += _)
+
+    morsel.size should equal(5)
+    (0 until morsel.size).map(morsel(_)) should equal(rows)
+  }
+
+  test("should drop rows when truncated") {
+    val morsel = new Morsel(4)
+    (1 to 4).foreach(i => morsel += ExecutionContext.from("x" -> i))
+
+    morsel.truncate(1)
+
+    morsel.size should equal(1)
+    morsel(0) should equal(ExecutionContext.from("x" -> 1))
+    morsel.clear()
+    morsel.isEmpty should equal(true)
+  }
+}
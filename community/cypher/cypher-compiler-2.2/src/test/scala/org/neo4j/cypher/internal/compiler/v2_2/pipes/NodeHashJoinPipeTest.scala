@@ -35,7 +35,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     val node1 = newMockedNode(1)
     val node2 = newMockedNode(2)
     val node3 = newMockedNode(3)
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     when(left.createResults(queryState)).thenReturn(Iterator(row("b" -> node1), row("b" -> node2)))
@@ -55,7 +55,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     val node0 = newMockedNode(0)
     val node1 = newMockedNode(1)
     val node2 = newMockedNode(2)
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     when(left.createResults(queryState)).thenReturn(
@@ -89,7 +89,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     // given
     val node1 = newMockedNode(1)
     val node2 = newMockedNode(2)
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     when(left.createResults(queryState)).thenReturn(Iterator(row("b" -> node1, "a" -> 10), row("b" -> node2, "a" -> 20)))
@@ -111,7 +111,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     // given
     val node1 = newMockedNode(1)
     val node2 = newMockedNode(2)
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     when(left.createResults(queryState)).thenReturn(Iterator(row("b" -> null, "a" -> 10), row("b" -> node2, "a" -> 20)))
@@ -132,7 +132,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     // given
     val node1 = newMockedNode(1)
     val node2 = newMockedNode(2)
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     when(left.createResults(queryState)).thenReturn(Iterator(row("b" -> node2, "a" -> 10), row("b" -> node1, "a" -> 20)))
@@ -151,7 +151,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
 
   test("should not fetch results from RHS if LHS is empty") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     when(left.createResults(queryState)).thenReturn(Iterator.empty)
@@ -168,7 +168,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
 
   test("should not fetch results from RHS if no probe table was built") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     when(left.createResults(queryState)).thenReturn(Iterator(row("b" -> null), row("b" -> null)))
@@ -187,7 +187,7 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
 
   test("if RHS is empty, terminate building of the probe map early") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
     val node1 = newMockedNode(1)
@@ -207,6 +207,25 @@ class NodeHashJoinPipeTest extends CypherFunSuite {
     lhsIterator.fetched should equal(0)
   }
 
+  test("should partition both sides to disk when the build side does not fit in memory") {
+    // given
+    val nodes = (0 until 200).map(newMockedNode)
+    val queryState = QueryStateHelper.emptyWithOperatorMemory(operatorMemory = 1024, nodes = nodes)
+
+    val left = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
+    when(left.createResults(queryState)).thenReturn(nodes.iterator.map(n => row("b" -> n, "a" -> n.getId)))
+
+    val right = newMockedPipe(SymbolTable(Map("b" -> CTNode)))
+    when(right.createResults(queryState)).thenReturn(nodes.iterator.filter(_.getId % 2 == 0).map(n => row("b" -> n, "c" -> "x")))
+
+    // when
+    val result = NodeHashJoinPipe(Set("b"), left, right)().createResults(queryState).toList
+
+    // then
+    result.toSet should equal(nodes.filter(_.getId % 2 == 0).map(n => Map("a" -> n.getId, "b" -> n, "c" -> "x")).toSet)
+    result should have size 100
+  }
+
   private def row(values: (String, Any)*) = ExecutionContext.from(values: _*)
 
   private def newMockedNode(id: Int) = {
@@ -37,7 +37,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("should support simple hash join over nodes") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b",
       row("b" -> node1),
@@ -56,7 +56,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("should work when the inner pipe produces multiple rows with the same join key") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b",
       row("b" -> node1, "a" -> 10),
@@ -79,7 +79,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("empty lhs should give empty results and not fetch anything from the rhs") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b")
 
@@ -99,7 +99,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("empty rhs should give null results") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b",
       row("b" -> node1, "a" -> 10),
@@ -121,7 +121,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("lhs with null in the join key should not match anything on rhs") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b",
       row("b" -> node1, "a" -> 10),
@@ -146,7 +146,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("rhs with null in the join key should not match anything") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b",
       row("b" -> node1, "a" -> 10),
@@ -171,7 +171,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("null in both sides should still not match anything") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b",
       row("b" -> null,  "a" -> 20))
@@ -190,7 +190,7 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
 
   test("should support joining on two different identifiers") {
     // given
-    val queryState = QueryStateHelper.empty
+    val queryState = QueryStateHelper.emptyWithOperatorMemory()
 
     val left = newMockedPipe("b",
       row("a" -> node1, "b" -> node2, "c" -> 1),
@@ -219,6 +219,25 @@ class NodeOuterHashJoinPipeTest extends CypherFunSuite {
     ))
   }
 
+  test("should partition both sides to disk when the build side does not fit in memory") {
+    // given
+    val nodes = (0 until 200).map(newMockedNode)
+    val queryState = QueryStateHelper.emptyWithOperatorMemory(operatorMemory = 1024, nodes = nodes)
+
+    val left = newMockedPipe("b", nodes.map(n => row("b" -> n, "a" -> n.getId)) :+ row("b" -> null, "a" -> -1L): _*)
+    val right = newMockedPipe("b", nodes.filter(_.getId % 3 == 0).map(n => row("b" -> n, "c" -> n.getId)): _*)
+
+    // when
+    val result = NodeOuterHashJoinPipe(Set("b"), left, right, Set("c"))().createResults(queryState).toList
+
+    // then
+    val expected = nodes.map {
+      n => Map("a" -> n.getId, "b" -> n, "c" -> (if (n.getId % 3 == 0) n.getId else null))
+    } :+ Map("a" -> -1L, "b" -> null, "c" -> null)
+    result.toSet should equal(expected.toSet)
+    result should have size 201
+  }
+
   private def row(values: (String, Any)*) = ExecutionContext.from(values: _*)
 
   private def newMockedNode(id: Int) = {
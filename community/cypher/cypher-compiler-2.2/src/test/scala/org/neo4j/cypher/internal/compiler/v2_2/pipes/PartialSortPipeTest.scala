@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.commands.SortItem
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.{Identifier, Literal}
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+
+import scala.collection.mutable.{Map => MutableMap}
+
+class PartialSortPipeTest extends CypherFunSuite {
+
+  private implicit val monitor = mock[PipeMonitor]
+
+  test("empty input gives empty output") {
+    val source = new FakePipe(List(), "x" -> CTAny)
+    val pipe = new PartialSortPipe(source, List(SortItem(Identifier("x"), ascending = true)), None)()
+
+    pipe.createResults(QueryStateHelper.empty).toList should be(empty)
+  }
+
+  test("sorts runs of equal first keys on the remaining sort items") {
+    val source = new FakePipe(List(
+      MutableMap("x" -> 1, "y" -> "B"),
+      MutableMap("x" -> 1, "y" -> "A"),
+      MutableMap("x" -> 2, "y" -> "C"),
+      MutableMap("x" -> 3, "y" -> "B"),
+      MutableMap("x" -> 3, "y" -> "A")), "x" -> CTNumber, "y" -> CTString)
+    val pipe = new PartialSortPipe(source, List(
+      SortItem(Identifier("x"), ascending = true),
+      SortItem(Identifier("y"), ascending = true)), None)()
+
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => (ctx("x"), ctx("y"))).toList
+
+    result should equal(List(1 -> "A", 1 -> "B", 2 -> "C", 3 -> "A", 3 -> "B"))
+  }
+
+  test("treats integral and floating point numbers of equal value as one run") {
+    val source = new FakePipe(List(
+      MutableMap("x" -> 1, "y" -> 2),
+      MutableMap("x" -> 1.0, "y" -> 1)), "x" -> CTNumber, "y" -> CTNumber)
+    val pipe = new PartialSortPipe(source, List(
+      SortItem(Identifier("x"), ascending = true),
+      SortItem(Identifier("y"), ascending = true)), None)()
+
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("y")).toList
+
+    result should equal(List(1, 2))
+  }
+
+  test("does not read further than the run that completes the limit") {
+    var pulled = 0
+    val rows = (0 until 100).iterator.map { i =>
+      pulled += 1
+      MutableMap[String, Any]("x" -> i / 10, "y" -> (10 - i % 10))
+    }
+    val source = new FakePipe(rows, "x" -> CTNumber, "y" -> CTNumber)
+    val pipe = new PartialSortPipe(source, List(
+      SortItem(Identifier("x"), ascending = true),
+      SortItem(Identifier("y"), ascending = false)), Some(Literal(12)))()
+
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => (ctx("x"), ctx("y"))).toList
+
+    result should have size 12
+    result.take(2) should equal(List(0 -> 10, 0 -> 9))
+    result.last should equal(1 -> 9)
+    pulled should be <= 21
+  }
+}
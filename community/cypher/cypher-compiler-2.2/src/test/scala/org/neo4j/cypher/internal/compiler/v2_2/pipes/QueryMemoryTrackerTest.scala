@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.MemoryLimitExceededException
+
+class QueryMemoryTrackerTest extends CypherFunSuite {
+
+  test("should fail when a query goes over its limit") {
+    val memory = new QueryMemoryTracker(queryLimit = 100)
+    memory.allocate(60)
+    memory.release(20)
+    memory.allocate(60)
+
+    a [MemoryLimitExceededException] should be thrownBy memory.allocate(1)
+    memory.inUse should equal(100)
+  }
+
+  test("should fail when the queries running together go over the global limit") {
+    val first = new QueryMemoryTracker(globalLimit = Long.MaxValue - 1)
+    val second = new QueryMemoryTracker(globalLimit = QueryMemoryTracker.globalInUse + 3 * 1024 * 1024)
+    try {
+      first.allocate(2 * 1024 * 1024)
+      second.allocate(512 * 1024)
+
+      a [MemoryLimitExceededException] should be thrownBy second.allocate(1024 * 1024)
+    } finally {
+      first.close()
+      second.close()
+    }
+  }
+
+  test("should give the memory of a query back to the global pool when it is closed") {
+    val before = QueryMemoryTracker.globalInUse
+    val memory = new QueryMemoryTracker(globalLimit = Long.MaxValue - 1)
+    memory.allocate(10)
+    QueryMemoryTracker.globalInUse should be > before
+
+    memory.close()
+
+    QueryMemoryTracker.globalInUse should equal(before)
+  }
+
+  test("should give whole chunks it no longer uses back to the global pool before it is closed") {
+    val before = QueryMemoryTracker.globalInUse
+    val memory = new QueryMemoryTracker(globalLimit = Long.MaxValue - 1)
+    try {
+      memory.allocate(5 * 1024 * 1024)
+      memory.release(4 * 1024 * 1024 + 512 * 1024)
+
+      QueryMemoryTracker.globalInUse - before should equal(1024 * 1024)
+      memory.inUse should equal(512 * 1024)
+    } finally {
+      memory.close()
+    }
+  }
+
+  test("should not take memory from the global pool without a global limit") {
+    val before = QueryMemoryTracker.globalInUse
+    val memory = new QueryMemoryTracker()
+    memory.allocate(10 * 1024 * 1024)
+
+    QueryMemoryTracker.globalInUse should equal(before)
+    memory.close()
+  }
+
+  test("should remember the most each operator held") {
+    val pipe = new FakePipe(Iterator.empty)
+    val memory = new QueryMemoryTracker()
+    val operator = memory.operator(pipe)
+    operator.allocate(30)
+    operator.allocate(20)
+    operator.release(40)
+    operator.allocate(10)
+
+    memory.peak(pipe) should equal(Some(50))
+    memory.inUse should equal(20)
+  }
+
+  test("should release what an operator holds once its rows have been read") {
+    val memory = new QueryMemoryTracker()
+    val operator = memory.operator(new FakePipe(Iterator.empty))
+    operator.allocate(30)
+
+    val rows = operator.releaseWhenDone(Iterator(1, 2), 30)
+    rows.next()
+    memory.inUse should equal(30)
+    rows.next()
+    rows.hasNext should equal(false)
+
+    memory.inUse should equal(0)
+  }
+}
@@ -19,8 +19,9 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.pipes
 
-import org.neo4j.graphdb.GraphDatabaseService
-import org.neo4j.cypher.internal.compiler.v2_2.spi.QueryContext
+import org.mockito.Mockito._
+import org.neo4j.graphdb.{GraphDatabaseService, Node}
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{Operations, QueryContext}
 
 object QueryStateHelper {
   def empty: QueryState = emptyWith()
@@ -28,4 +29,15 @@ object QueryStateHelper {
   def emptyWith(db: GraphDatabaseService = null, query: QueryContext = null, resources: ExternalResource = null,
                 params: Map[String, Any] = Map.empty, decorator: PipeDecorator = NullPipeDecorator) =
     QueryState(db = db, query = query, resources = resources, params = params, decorator = decorator)
+
+  def emptyWithOperatorMemory(operatorMemory: Long = Long.MaxValue, nodes: Seq[Node] = Seq.empty): QueryState = {
+    val query = mock(classOf[QueryContext])
+    when(query.operatorMemory).thenReturn(operatorMemory)
+    if (nodes.nonEmpty) {
+      val nodeOps = mock(classOf[Operations[Node]])
+      nodes.foreach(node => when(nodeOps.getById(node.getId)).thenReturn(node))
+      when(query.nodeOps).thenReturn(nodeOps)
+    }
+    emptyWith(query = query)
+  }
 }
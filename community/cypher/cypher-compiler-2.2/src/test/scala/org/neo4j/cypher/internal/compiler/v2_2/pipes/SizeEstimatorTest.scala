@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+
+class SizeEstimatorTest extends CypherFunSuite {
+
+  test("should count the strings held by a map") {
+    val large = "x" * 10000
+    val map = Map("a" -> large, "b" -> large)
+
+    SizeEstimator.of(map) should be > 2 * SizeEstimator.of(large)
+  }
+
+  test("should count the entries of a map once each") {
+    val map = Map("a" -> 1, "b" -> 2L)
+
+    SizeEstimator.of(map) should equal(SizeEstimator.ObjectOverhead + 16 +
+      2 * SizeEstimator.MapEntryOverhead + 2 * SizeEstimator.of("a") + SizeEstimator.of(1) + SizeEstimator.of(2L))
+  }
+
+  test("should count the elements of a collection") {
+    val large = "x" * 10000
+
+    SizeEstimator.of(List(large, large)) should be > 2 * SizeEstimator.of(large)
+  }
+}
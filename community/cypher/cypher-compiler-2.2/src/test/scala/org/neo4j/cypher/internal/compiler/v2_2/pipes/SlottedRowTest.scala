@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+
+import scala.collection.mutable
+
+class SlottedRowTest extends CypherFunSuite {
+
+  val layout = SlotLayout(Seq("b", "a", "c"))
+
+  test("should assign slots in a stable order") {
+    layout.slotFor("a") should equal(0)
+    layout.slotFor("b") should equal(1)
+    layout.slotFor("c") should equal(2)
+    layout.slotFor("x") should equal(-1)
+  }
+
+  test("should only contain the entries that have been set") {
+    val row = new SlottedRow(layout)
+    row("a") = 1
+    row("c") = null
+
+    row.get("a") should equal(Some(1))
+    row.get("b") should equal(None)
+    row.get("c") should equal(Some(null))
+    row.contains("b") should equal(false)
+    row.size should equal(2)
+    row.toMap should equal(Map("a" -> 1, "c" -> null))
+  }
+
+  test("should keep identifiers that are not in the layout") {
+    val row = new SlottedRow(layout)
+    row += "a" -> 1
+    row += "x" -> 2
+
+    row.toMap should equal(Map("a" -> 1, "x" -> 2))
+
+    row -= "a"
+    row -= "x"
+
+    row should be(empty)
+  }
+
+  test("clones should not share state with the original row") {
+    val row = new SlottedRow(layout)
+    row("a") = 1
+    row("x") = 2
+
+    val clone = row.clone()
+    clone("a") = 10
+    clone("b") = 20
+    clone("x") = 30
+
+    row.toMap should equal(Map("a" -> 1, "x" -> 2))
+    clone.toMap should equal(Map("a" -> 10, "b" -> 20, "x" -> 30))
+  }
+
+  test("should be equal to a hash map based row with the same entries") {
+    val row = new SlottedRow(layout)
+    row("a") = 1
+    row("x") = 2
+
+    row should equal(mutable.Map("a" -> 1, "x" -> 2))
+    ExecutionContext(row).newWith1("b", 3) should equal(ExecutionContext.from("a" -> 1, "b" -> 3, "x" -> 2))
+  }
+
+  test("should read and write values by slot") {
+    val row = new SlottedRow(layout)
+    row.setSlot(layout.slotFor("b"), 2)
+
+    row.getSlot(layout.slotFor("b")) should equal(2)
+    row.getSlot(layout.slotFor("a")).asInstanceOf[AnyRef] should be(null)
+    row.toMap should equal(Map("b" -> 2))
+  }
+
+  test("an empty layout should produce hash map based rows") {
+    SlotLayout(Seq.empty).newRow() should not be a[SlottedRow]
+    layout.newRow() shouldBe a[SlottedRow]
+  }
+}
@@ -24,6 +24,7 @@ import org.junit.Assert._
 import org.neo4j.cypher.internal.compiler.v2_2.symbols._
 import collection.mutable.{Map=>MutableMap}
 import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.MemoryLimitExceededException
 
 class SortPipeTest extends CypherFunSuite with MockitoSugar {
 
@@ -33,7 +34,7 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
     val source = new FakePipe(List(), "x" -> CTAny)
     val sortPipe = new SortPipe(source, List(Ascending("x")))()
 
-    assertEquals(List(), sortPipe.createResults(QueryStateHelper.empty).toList)
+    assertEquals(List(), sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList)
   }
 
   test("simple sorting is supported") {
@@ -41,7 +42,7 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
     val source = new FakePipe(list, "x" -> CTString)
     val sortPipe = new SortPipe(source, List(Ascending("x")))()
 
-    assertEquals(List(MutableMap("x" -> "A"), MutableMap("x" -> "B")), sortPipe.createResults(QueryStateHelper.empty).toList)
+    assertEquals(List(MutableMap("x" -> "A"), MutableMap("x" -> "B")), sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList)
   }
 
   test("sort by two columns") {
@@ -57,7 +58,7 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
     assertEquals(List(
       MutableMap("x" -> "A", "y" -> 100),
       MutableMap("x" -> "B", "y" -> 10),
-      MutableMap("x" -> "B", "y" -> 20)), sortPipe.createResults(QueryStateHelper.empty).toList)
+      MutableMap("x" -> "B", "y" -> 20)), sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList)
   }
 
   test("sort by two columns with one descending") {
@@ -73,7 +74,7 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
     assertEquals(List(
       MutableMap("x" -> "A", "y" -> 100),
       MutableMap("x" -> "B", "y" -> 20),
-      MutableMap("x" -> "B", "y" -> 10)), sortPipe.createResults(QueryStateHelper.empty).toList)
+      MutableMap("x" -> "B", "y" -> 10)), sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList)
   }
 
   test("should handle null values") {
@@ -88,6 +89,35 @@ class SortPipeTest extends CypherFunSuite with MockitoSugar {
     assertEquals(List(
       MutableMap("y" -> 1),
       MutableMap("y" -> 2),
-      MutableMap("y" -> null)), sortPipe.createResults(QueryStateHelper.empty).toList)
+      MutableMap("y" -> null)), sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory()).toList)
+  }
+
+  test("should merge sorted runs when the rows do not fit in memory") {
+    val list: Seq[MutableMap[String, Any]] = (0 until 2000).map(i => MutableMap[String, Any]("x" -> (i * 7919) % 100, "y" -> i))
+    val source = new FakePipe(list, "x" -> CTInteger, "y" -> CTInteger)
+
+    val sortPipe = new SortPipe(source, List(Descending("x")))()
+
+    assertEquals(list.sortBy(row => -row("x").asInstanceOf[Int]).map(_.toMap),
+      sortPipe.createResults(QueryStateHelper.emptyWithOperatorMemory(1024)).map(_.toMap).toList)
+  }
+
+  test("should fail when the rows it holds go over the query memory limit") {
+    val list: Seq[MutableMap[String, Any]] = (0 until 2000).map(i => MutableMap[String, Any]("x" -> i))
+    val sortPipe = new SortPipe(new FakePipe(list, "x" -> CTInteger), List(Descending("x")))()
+    val state = QueryStateHelper.emptyWithOperatorMemory().copy(memory = new QueryMemoryTracker(queryLimit = 16 * 1024))
+
+    a [MemoryLimitExceededException] should be thrownBy sortPipe.createResults(state).toList
+  }
+
+  test("should not count rows written to disk against the query memory limit") {
+    val list: Seq[MutableMap[String, Any]] = (0 until 2000).map(i => MutableMap[String, Any]("x" -> i))
+    val sortPipe = new SortPipe(new FakePipe(list, "x" -> CTInteger), List(Descending("x")))()
+    val memory = new QueryMemoryTracker(queryLimit = 16 * 1024)
+    val state = QueryStateHelper.emptyWithOperatorMemory(1024).copy(memory = memory)
+
+    sortPipe.createResults(state).toList should have size 2000
+    memory.inUse should equal(0)
+    memory.peak(sortPipe).get should be <= 16 * 1024L
   }
 }
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import java.io.File
+import java.nio.file.Files
+
+import org.mockito.Mockito.when
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{Operations, QueryContext}
+import org.neo4j.graphdb.Node
+
+class SpillFileTest extends CypherFunSuite {
+
+  var directory: File = null
+  var spillFiles: SpillFiles = null
+
+  override protected def beforeEach() {
+    super.beforeEach()
+    directory = Files.createTempDirectory("spill-file-test").toFile
+    spillFiles = new SpillFiles(directory)
+  }
+
+  override protected def afterEach() {
+    spillFiles.close()
+    directory.delete()
+    super.afterEach()
+  }
+
+  test("should read back the values it was given") {
+    val values = Seq(null, true, false, 1.toByte, 2.toShort, 3, 4L, 1.5f, 2.5d, 'c', "räksmörgås",
+      List(1, "two", List(3L)), Map("a" -> 1, "b" -> List("c")))
+
+    roundTrip(values) should equal(values)
+  }
+
+  test("should read back property arrays") {
+    val Seq(ints: Array[Int], strings: Array[String]) = roundTrip(Seq(Array(1, 2, 3), Array("a", "b")))
+
+    ints should equal(Array(1, 2, 3))
+    strings should equal(Array("a", "b"))
+  }
+
+  test("should look nodes up again when reading them back") {
+    val node = mock[Node]
+    when(node.getId).thenReturn(42L)
+    val nodeOps = when(mock[Operations[Node]].getById(42L)).thenReturn(node).getMock[Operations[Node]]
+    val query = when(mock[QueryContext].nodeOps).thenReturn(nodeOps).getMock[QueryContext]
+
+    roundTrip(Seq(node, List(node)), query) should equal(Seq(node, List(node)))
+  }
+
+  test("should read back rows") {
+    val file = spillFiles.newFile()
+    try {
+      file.writeRow(ExecutionContext.from("a" -> 1, "b" -> List("c")))
+      file.write("d")
+
+      val reader = file.reader(QueryStateHelper.empty)
+      reader.nextRow() should equal(ExecutionContext.from("a" -> 1, "b" -> List("c")))
+      reader.next() should equal("d")
+      reader.hasNext should equal(false)
+    } finally {
+      file.delete()
+    }
+  }
+
+  test("should only create the file once something is written") {
+    val file = spillFiles.newFile()
+
+    directory.list() shouldBe empty
+    file.reader(QueryStateHelper.empty).hasNext should equal(false)
+
+    file.write("a")
+    directory.list() should have size 1
+
+    file.delete()
+    directory.list() shouldBe empty
+    spillFiles.size should equal(0)
+  }
+
+  test("should delete the files that were not deleted when closed") {
+    val read = spillFiles.newFile()
+    val written = spillFiles.newFile()
+    (1 to 10).foreach(read.write)
+    (1 to 10).foreach(written.write)
+    val reader = read.reader(QueryStateHelper.empty)
+    reader.next() should equal(1)
+
+    spillFiles.close()
+
+    directory.list() shouldBe empty
+    spillFiles.size should equal(0)
+    an [IllegalStateException] should be thrownBy spillFiles.newFile()
+    an [IllegalStateException] should be thrownBy written.write(11)
+  }
+
+  test("should only accept values it can write") {
+    SpillFile.canWrite(List(1, Map("a" -> "b"))) should equal(true)
+    SpillFile.canWrite(Array(1L, 2L)) should equal(true)
+    SpillFile.canWrite(new Object) should equal(false)
+    SpillFile.canWrite(List(1, new Object)) should equal(false)
+  }
+
+  private def roundTrip(values: Seq[Any], query: QueryContext = mock[QueryContext]): Seq[Any] = {
+    val file = spillFiles.newFile()
+    try {
+      values.foreach(file.write)
+      val reader = file.reader(QueryStateHelper.emptyWith(query = query))
+      values.map(_ => reader.next())
+    } finally {
+      file.delete()
+    }
+  }
+}
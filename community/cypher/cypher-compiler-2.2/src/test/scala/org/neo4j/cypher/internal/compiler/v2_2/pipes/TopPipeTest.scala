@@ -117,4 +117,22 @@ class TopPipeTest extends CypherFunSuite {
     val in = (0 until count).toSeq.map(i => Map("a" -> i)).sortBy( x => 50 - r.nextInt(100))
     new FakePipe(in, "a" -> CTInteger)
   }
+
+  test("aLimitLargerThanTheInputOnlyHoldsTheInput") {
+    val input = createFakePipeWith(5)
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(Int.MaxValue))()
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("a")).toList
+
+    result should equal(List(0, 1, 2, 3, 4))
+  }
+
+  test("equalValuesKeepTheirInputOrder") {
+    val in = (0 until 10).map(i => Map("a" -> i % 2, "b" -> i))
+    val input = new FakePipe(in, "a" -> CTInteger, "b" -> CTInteger)
+
+    val pipe = new TopPipe(input, List(SortItem(Identifier("a"), ascending = true)), Literal(3))()
+    val result = pipe.createResults(QueryStateHelper.empty).map(ctx => ctx("b")).toList
+
+    result should equal(List(0, 2, 4))
+  }
 }
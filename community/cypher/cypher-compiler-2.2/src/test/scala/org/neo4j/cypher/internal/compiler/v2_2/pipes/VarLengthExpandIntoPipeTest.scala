@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.pipes
+
+import org.mockito.Matchers._
+import org.mockito.Mockito._
+import org.mockito.invocation.InvocationOnMock
+import org.mockito.stubbing.Answer
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.ExecutionContext
+import org.neo4j.cypher.internal.compiler.v2_2.spi.QueryContext
+import org.neo4j.cypher.internal.compiler.v2_2.symbols._
+import org.neo4j.graphdb.{Direction, Node, Relationship}
+
+class VarLengthExpandIntoPipeTest extends CypherFunSuite {
+
+  implicit val monitor = mock[PipeMonitor]
+
+  val startNode = newMockedNode(1)
+  val middleNode = newMockedNode(2)
+  val endNode = newMockedNode(3)
+  val deadEndNode = newMockedNode(4)
+  val leftRelationship1 = newMockedRelationship(1, startNode, middleNode)
+  val leftRelationship2 = newMockedRelationship(2, startNode, middleNode)
+  val rightRelationship = newMockedRelationship(3, middleNode, endNode)
+  val deadEndRelationship = newMockedRelationship(4, middleNode, deadEndNode)
+  val shortcut = newMockedRelationship(5, startNode, endNode)
+
+  val graph = Map(
+    (startNode, Direction.OUTGOING) -> Seq(leftRelationship1, leftRelationship2, shortcut),
+    (middleNode, Direction.INCOMING) -> Seq(leftRelationship1, leftRelationship2),
+    (middleNode, Direction.OUTGOING) -> Seq(deadEndRelationship, rightRelationship),
+    (endNode, Direction.INCOMING) -> Seq(rightRelationship, shortcut),
+    (deadEndNode, Direction.INCOMING) -> Seq(deadEndRelationship)
+  ).withDefaultValue(Seq.empty)
+
+  test("should find all paths between the bound nodes") {
+    // given
+    val query = mock[QueryContext]
+    replyWithMap(query, graph)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+    val left = newMockedPipe(queryState, row("a" -> startNode, "b" -> endNode))
+
+    // when
+    val result = VarLengthExpandIntoPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Direction.OUTGOING, Seq.empty, 1, None)().
+      createResults(queryState).toList
+
+    // then
+    result.map(_("r")) should equal(List(
+      List(leftRelationship1, rightRelationship),
+      List(leftRelationship2, rightRelationship),
+      List(shortcut)
+    ))
+    result.map(_("b")).distinct should equal(List(endNode))
+  }
+
+  test("should not expand nodes that can not reach the end node") {
+    // given
+    val query = mock[QueryContext]
+    replyWithMap(query, graph)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+    val left = newMockedPipe(queryState, row("a" -> startNode, "b" -> endNode))
+
+    // when
+    VarLengthExpandIntoPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Direction.OUTGOING, Seq.empty, 1, None)().
+      createResults(queryState).toList
+
+    // then
+    verify(query, never()).getRelationshipsFor(deadEndNode, Direction.OUTGOING, Seq.empty)
+  }
+
+  test("should respect the min and max lengths") {
+    // given
+    val query = mock[QueryContext]
+    replyWithMap(query, graph)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+    val left = newMockedPipe(queryState, row("a" -> startNode, "b" -> endNode))
+
+    // when
+    val result = VarLengthExpandIntoPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Direction.OUTGOING, Seq.empty, 2, Some(2))().
+      createResults(queryState).toList
+
+    // then
+    result.map(_("r")) should equal(List(
+      List(leftRelationship1, rightRelationship),
+      List(leftRelationship2, rightRelationship)
+    ))
+  }
+
+  test("should project the relationship list in the right direction") {
+    // given
+    val query = mock[QueryContext]
+    replyWithMap(query, graph)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+    val left = newMockedPipe(queryState, row("a" -> endNode, "b" -> startNode))
+
+    // when
+    val result = VarLengthExpandIntoPipeForStringTypes(left, "a", "r", "b", Direction.INCOMING, Direction.OUTGOING, Seq.empty, 1, None)().
+      createResults(queryState).toList
+
+    // then
+    result.map(_("r")) should equal(List(
+      List(leftRelationship1, rightRelationship),
+      List(leftRelationship2, rightRelationship),
+      List(shortcut)
+    ))
+  }
+
+  test("should produce a row per path without the relationships when they are not projected") {
+    // given
+    val query = mock[QueryContext]
+    replyWithMap(query, graph)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+    val left = newMockedPipe(queryState, row("a" -> startNode, "b" -> endNode))
+
+    // when
+    val result = VarLengthExpandIntoPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Direction.OUTGOING, Seq.empty, 1, None, projectRelationships = false)().
+      createResults(queryState).toList
+
+    // then
+    result should equal(List.fill(3)(Map("a" -> startNode, "b" -> endNode)))
+  }
+
+  test("should not produce anything when the end node is null") {
+    // given
+    val query = mock[QueryContext]
+    replyWithMap(query, graph)
+    val queryState = QueryStateHelper.emptyWith(query = query)
+    val left = newMockedPipe(queryState, row("a" -> startNode, "b" -> null))
+
+    // when
+    val result = VarLengthExpandIntoPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Direction.OUTGOING, Seq.empty, 1, None)().
+      createResults(queryState).toList
+
+    // then
+    result shouldBe empty
+  }
+
+  test("should type the relationship identifier as a collection of relationships") {
+    // given
+    val queryState = QueryStateHelper.emptyWith(query = mock[QueryContext])
+    val left = newMockedPipe(queryState)
+
+    // when
+    val symbols = VarLengthExpandIntoPipeForStringTypes(left, "a", "r", "b", Direction.OUTGOING, Direction.OUTGOING, Seq.empty, 1, None)().symbols
+
+    // then
+    symbols.identifiers("r") should equal(CTCollection(CTRelationship))
+  }
+
+  private def row(values: (String, Any)*) = ExecutionContext.from(values: _*)
+
+  private def newMockedNode(id: Int) = {
+    val node = mock[Node]
+    when(node.getId).thenReturn(id)
+    node
+  }
+
+  private def newMockedRelationship(id: Int, startNode: Node, endNode: Node): Relationship = {
+    val relationship = mock[Relationship]
+    when(relationship.getId).thenReturn(id)
+    when(relationship.getStartNode).thenReturn(startNode)
+    when(relationship.getEndNode).thenReturn(endNode)
+    when(relationship.getOtherNode(startNode)).thenReturn(endNode)
+    when(relationship.getOtherNode(endNode)).thenReturn(startNode)
+    relationship
+  }
+
+  private def replyWithMap(query: QueryContext, mapping: Map[(Node, Direction), Seq[Relationship]]) {
+    when(query.getRelationshipsFor(any(), any(), any())).thenAnswer(new Answer[Iterator[Relationship]] {
+      def answer(invocation: InvocationOnMock): Iterator[Relationship] = {
+        val (startNode :: dir :: _ :: Nil) = invocation.getArguments.toList
+        mapping((startNode.asInstanceOf[Node], dir.asInstanceOf[Direction])).iterator
+      }
+    })
+  }
+
+  private def newMockedPipe(queryState: QueryState, rows: ExecutionContext*): Pipe = {
+    val pipe = mock[Pipe]
+    when(pipe.sources).thenReturn(Seq.empty)
+    when(pipe.symbols).thenReturn(SymbolTable(Map("a" -> CTNode, "b" -> CTNode)))
+    when(pipe.createResults(queryState)).thenReturn(rows.iterator)
+    pipe
+  }
+}
@@ -33,4 +33,18 @@ trait AggregateTest {
     values.foreach(value => func(ExecutionContext.from("x" -> value)))
     func.result
   }
+
+  def mergedAggregateOn(left: Seq[Any], right: Seq[Any]): Any = {
+    implicit val state = QueryStateHelper.empty
+
+    def aggregate(values: Seq[Any]) = {
+      val func: AggregationFunction = createAggregator(Identifier("x"))
+      values.foreach(value => func(ExecutionContext.from("x" -> value)))
+      func
+    }
+
+    val merged = aggregate(left)
+    merged.asInstanceOf[MergeableAggregationFunction].merge(aggregate(right).result)
+    merged.result
+  }
 }
@@ -31,4 +31,8 @@ class CountTest extends CypherFunSuite with AggregateTest {
     result should equal(2L)
     result shouldBe a [java.lang.Long]
   }
+
+  test("merges partial counts") {
+    mergedAggregateOn(Seq(1, null), Seq("foo", 2)) should equal(3L)
+  }
 }
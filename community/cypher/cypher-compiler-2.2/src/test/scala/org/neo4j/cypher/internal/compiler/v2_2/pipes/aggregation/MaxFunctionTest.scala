@@ -57,4 +57,11 @@ class MaxFunctionTest extends CypherFunSuite with AggregateTest {
   test("noNumberValuesThrowAnException") {
     intercept[IncomparableValuesException](aggregateOn(1, "wut"))
   }
+
+  test("merges partial maxima") {
+    mergedAggregateOn(Seq(1, 5), Seq(3)) should equal(5)
+    mergedAggregateOn(Seq(1), Seq(7)) should equal(7)
+    mergedAggregateOn(Seq(), Seq(2)) should equal(2)
+    mergedAggregateOn(Seq(2), Seq(null)) should equal(2)
+  }
 }
@@ -71,4 +71,9 @@ class SumFunctionTest extends CypherFunSuite with AggregateTest {
   test("noNumberValuesThrowAnException") {
     intercept[CypherTypeException](aggregateOn(1, "wut"))
   }
+
+  test("merges partial sums") {
+    mergedAggregateOn(Seq(1, 2), Seq(3.5d)) should equal(6.5)
+    mergedAggregateOn(Seq(1, 2), Seq()) should equal(3)
+  }
 }
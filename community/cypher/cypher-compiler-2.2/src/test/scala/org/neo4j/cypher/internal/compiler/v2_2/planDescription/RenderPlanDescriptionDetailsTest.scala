@@ -76,6 +76,23 @@ class RenderPlanDescriptionDetailsTest extends CypherFunSuite {
         |""".stripMargin)
   }
 
+  test("build side sizes get a column of their own") {
+    val arguments = Seq(
+      Rows(42),
+      DbHits(33),
+      BuildRows(7))
+
+    val plan = PlanDescriptionImpl(pipe, "NAME", NoChildren, arguments, Set("n"))
+
+    renderDetails(plan) should equal(
+      """+----------+---------------+------+--------+-----------+-------------+-------+
+        || Operator | EstimatedRows | Rows | DbHits | BuildRows | Identifiers | Other |
+        |+----------+---------------+------+--------+-----------+-------------+-------+
+        ||     NAME |             1 |   42 |     33 |         7 |           n |       |
+        |+----------+---------------+------+--------+-----------+-------------+-------+
+        |""".stripMargin)
+  }
+
   test("execution plan without profiler stats uses question marks") {
     val arguments = Seq()
 
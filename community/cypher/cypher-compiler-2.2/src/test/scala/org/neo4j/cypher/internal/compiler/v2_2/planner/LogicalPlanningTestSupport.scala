@@ -126,6 +126,7 @@ trait LogicalPlanningTestSupport extends CypherTestSupport with AstConstructionT
   def newMockedPlanContext(implicit statistics: GraphStatistics = newMockedStatistics) = {
     val context = mock[PlanContext]
     doReturn(statistics).when(context).statistics
+    doReturn(Seq.empty).when(context).getCompositeIndexRules(any())
     context
   }
 
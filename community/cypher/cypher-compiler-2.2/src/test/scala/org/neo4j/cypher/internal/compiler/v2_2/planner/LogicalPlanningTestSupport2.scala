@@ -69,7 +69,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     def internalPlan(query: PlannerQuery)(implicit context: LogicalPlanningContext, leafPlan: Option[LogicalPlan] = None): LogicalPlan =
      planSingleQuery(query)
   }
-  var queryGraphSolver = new CompositeQueryGraphSolver(
+  var queryGraphSolver: QueryGraphSolver = new CompositeQueryGraphSolver(
     new GreedyQueryGraphSolver(expandsOrJoins),
     new GreedyQueryGraphSolver(expandsOnly)
   )
@@ -82,6 +82,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     def graphStatistics: GraphStatistics
     def indexes: Set[(String, String)]
     def uniqueIndexes: Set[(String, String)]
+    def compositeIndexes: Set[(String, Seq[String])]
     def labelCardinality: Map[String, Cardinality]
     def knownLabels: Set[String]
     def qg: QueryGraph
@@ -118,6 +119,7 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
       HardcodedGraphStatistics
     def indexes = Set.empty
     def uniqueIndexes = Set.empty
+    def compositeIndexes = Set.empty
     def labelCardinality = Map.empty
     def knownLabels = Set.empty
     def qg: QueryGraph = ???
@@ -140,6 +142,10 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
     def uniqueIndexOn(label: String, property: String) {
       uniqueIndexes = uniqueIndexes + (label -> property)
     }
+    var compositeIndexes: Set[(String, Seq[String])] = Set.empty
+    def compositeIndexOn(label: String, properties: String*) {
+      compositeIndexes = compositeIndexes + (label -> properties)
+    }
 
     def costModel(cardinality: Metrics.CardinalityModel) =
       cost.orElse(parent.costModel(cardinality))
@@ -182,6 +188,12 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
         addLabelIfUnknown(label)
         table.resolvedPropertyKeyNames.put(property, PropertyKeyId(table.resolvedPropertyKeyNames.size))
       }
+      config.compositeIndexes.foreach { case (label, properties) =>
+        addLabelIfUnknown(label)
+        properties.filterNot(table.resolvedPropertyKeyNames.contains).foreach {
+          property => table.resolvedPropertyKeyNames.put(property, PropertyKeyId(table.resolvedPropertyKeyNames.size))
+        }
+      }
       config.labelCardinality.keys.foreach(addLabelIfUnknown)
       config.knownLabels.foreach(addLabelIfUnknown)
       table
@@ -225,6 +237,15 @@ trait LogicalPlanningTestSupport2 extends CypherTestSupport with AstConstruction
         else
           None
 
+      def getCompositeIndexRules(labelName: String): Seq[IndexDescriptor] =
+        config.compositeIndexes.toSeq.collect {
+          case (`labelName`, properties) =>
+            new IndexDescriptor(
+              semanticTable.resolvedLabelIds(labelName).id,
+              properties.map(semanticTable.resolvedPropertyKeyNames(_).id).toArray
+            )
+        }
+
       def getOptPropertyKeyId(propertyKeyName: String) =
         semanticTable.resolvedPropertyKeyNames.get(propertyKeyName).map(_.id)
       def getOptLabelId(labelName: String): Option[Int] =
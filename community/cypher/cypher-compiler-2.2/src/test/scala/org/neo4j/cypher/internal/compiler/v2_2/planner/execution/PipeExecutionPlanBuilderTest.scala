@@ -22,7 +22,7 @@ package org.neo4j.cypher.internal.compiler.v2_2.planner.execution
 import org.neo4j.cypher.internal.commons.CypherFunSuite
 import org.neo4j.cypher.internal.compiler.v2_2.LabelId
 import org.neo4j.cypher.internal.compiler.v2_2.ast.convert.commands.ExpressionConverters._
-import org.neo4j.cypher.internal.compiler.v2_2.ast.{Collection, RelTypeName, SignedDecimalIntegerLiteral, SignedIntegerLiteral}
+import org.neo4j.cypher.internal.compiler.v2_2.ast.{Collection, RelTypeName, SignedDecimalIntegerLiteral, SignedIntegerLiteral, Identifier => AstIdentifier}
 import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.Identifier
 import org.neo4j.cypher.internal.compiler.v2_2.commands.{expressions => legacy, Equals}
 import org.neo4j.cypher.internal.compiler.v2_2.executionplan.PipeInfo
@@ -232,4 +232,31 @@ class PipeExecutionPlanBuilderTest extends CypherFunSuite with LogicalPlanningTe
       case _ => fail("expected VarLengthExpandPipeForIntTypes")
     }
   }
+
+  test("use VarLengthExpandIntoPipe when expanding into a bound node") {
+    val relTypeNames = Seq("existing1", "existing2", "existing3").map(new RelTypeName(_)(null))
+    val scans = CartesianProduct(AllNodesScan("a", Set.empty)(solved), AllNodesScan("b", Set.empty)(solved))(solved)
+    val logicalPlan = VarExpand(scans, "a", Direction.INCOMING, Direction.INCOMING, relTypeNames, "b", "r1", new VarPatternLength(2, Some(5)), ExpandInto) _
+    val pipeInfo = build(logicalPlan)
+
+    pipeInfo.pipe match {
+      case pipe: VarLengthExpandIntoPipeForIntTypes => pipe.copy(filteringStep = null)(pipe.estimatedCardinality) should equal(
+        VarLengthExpandIntoPipeForIntTypes(CartesianProductPipe(AllNodesScanPipe("a")(), AllNodesScanPipe("b")())(), "a", "r1", "b",
+          Direction.INCOMING, Direction.INCOMING, Seq(1, 2, 3), 2, Some(5), projectRelationships = false)().copy(filteringStep = null)(pipe.estimatedCardinality))
+
+      case _ => fail("expected VarLengthExpandIntoPipeForIntTypes")
+    }
+  }
+
+  test("VarLengthExpandIntoPipe produces the relationships when they are referred to") {
+    val scans = CartesianProduct(AllNodesScan("a", Set.empty)(solved), AllNodesScan("b", Set.empty)(solved))(solved)
+    val expand = VarExpand(scans, "a", Direction.OUTGOING, Direction.OUTGOING, Seq.empty, "b", "r1", new VarPatternLength(1, None), ExpandInto)(solved)
+    val logicalPlan = Projection(expand, Map("r1" -> AstIdentifier("r1") _)) _
+    val pipeInfo = build(logicalPlan)
+
+    pipeInfo.pipe match {
+      case ProjectionNewPipe(pipe: VarLengthExpandIntoPipeForIntTypes, _) => pipe.projectRelationships should equal(true)
+      case _ => fail("expected VarLengthExpandIntoPipeForIntTypes under a projection")
+    }
+  }
 }
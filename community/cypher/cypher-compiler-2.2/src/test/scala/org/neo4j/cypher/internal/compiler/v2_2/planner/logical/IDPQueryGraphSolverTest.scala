@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.planner.logical
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.Foldable._
+import org.neo4j.cypher.internal.compiler.v2_2.planner.LogicalPlanningTestSupport2
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans._
+import org.neo4j.helpers.Clock
+
+class IDPQueryGraphSolverTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
+
+  // (a) and (d) are rare, and have few relationships; (b) and (c) are hubs, with many relationships each
+  private val fanOut: Map[(String, String), Double] = Map(
+    ("a", "b") -> 1.0, ("b", "c") -> 1.0, ("d", "c") -> 1.0,
+    ("b", "a") -> 1000.0, ("c", "b") -> 1000.0, ("c", "d") -> 1000.0
+  ).withDefaultValue(1000.0)
+
+  private def myCardinality(plan: LogicalPlan): Cardinality = Cardinality(plan match {
+    case _: NodeByLabelScan => 1
+    case _: AllNodesScan => 10000
+    case Expand(lhs, from, _, _, to, _, ExpandAll) => myCardinality(lhs).amount * fanOut((from.name, to.name))
+    case Expand(lhs, _, _, _, _, _, ExpandInto) => myCardinality(lhs).amount
+    case NodeHashJoin(_, lhs, rhs) => math.min(myCardinality(lhs).amount, myCardinality(rhs).amount)
+    case Selection(_, lhs) => myCardinality(lhs).amount
+    case plan => plan.lhs.map(myCardinality(_).amount).getOrElse(1.0)
+  })
+
+  private val query = "MATCH (a:A)-[r1]->(b)-[r2]->(c)<-[r3]-(d:D) RETURN a, d"
+
+  private def joinsOn(plan: LogicalPlan, id: String) = plan.exists {
+    case NodeHashJoin(ids, _, _) => ids == Set(IdName(id))
+  }
+
+  private def expandsFrom(plan: LogicalPlan, from: String, to: String) = plan.exists {
+    case Expand(_, IdName(`from`), _, _, IdName(`to`), _, ExpandAll) => true
+  }
+
+  test("should join plans that the greedy solver has already discarded") {
+    queryGraphSolver = new IDPQueryGraphSolver()
+
+    val plan = (new given { cardinality = PartialFunction(myCardinality) } planFor query).plan
+
+    joinsOn(plan, "c") should equal(true)
+    expandsFrom(plan, "d", "c") should equal(true)
+    expandsFrom(plan, "c", "d") should equal(false)
+  }
+
+  test("the greedy solver expands from the hub instead") {
+    queryGraphSolver = new CompositeQueryGraphSolver(
+      new GreedyQueryGraphSolver(expandsOrJoins),
+      new GreedyQueryGraphSolver(expandsOnly)
+    )
+
+    val plan = (new given { cardinality = PartialFunction(myCardinality) } planFor query).plan
+
+    joinsOn(plan, "c") should equal(false)
+    expandsFrom(plan, "c", "d") should equal(true)
+  }
+
+  test("should complete the plan greedily when it runs out of planning time") {
+    queryGraphSolver = new IDPQueryGraphSolver(budgetInMillis = 0)
+
+    val plan = (new given { cardinality = PartialFunction(myCardinality) } planFor query).plan
+
+    expandsFrom(plan, "c", "d") should equal(true)
+  }
+
+  test("should complete the plan when the budget runs out in the middle of a round") {
+    // every look at the clock takes a millisecond, so the budget runs out among the joins of the first rounds
+    val ticking = new Clock {
+      private var now = 0L
+
+      def currentTimeMillis() = {
+        now += 1
+        now
+      }
+    }
+    queryGraphSolver = new IDPQueryGraphSolver(budgetInMillis = 5, clock = ticking)
+
+    val plan = planFor("MATCH (a:A)-[r1]->(b)-[r2]->(c)-[r3]->(d)<-[r4]-(e)<-[r5]-(f:F), (b)-[r6]->(e) RETURN a, f").plan
+
+    plan.solved.graph.patternRelationships.map(_.name.name) should equal(Set("r1", "r2", "r3", "r4", "r5", "r6"))
+  }
+
+  test("should solve every relationship of a long pattern") {
+    queryGraphSolver = new IDPQueryGraphSolver()
+
+    val plan = planFor("MATCH (a:A)-[r1]->(b)-[r2]->(c)-[r3]->(d)<-[r4]-(e)<-[r5]-(f:F), (b)-[r6]->(e) RETURN a, f").plan
+
+    plan.solved.graph.patternRelationships.map(_.name.name) should equal(Set("r1", "r2", "r3", "r4", "r5", "r6"))
+  }
+
+  test("should plan cartesian products of disconnected patterns") {
+    queryGraphSolver = new IDPQueryGraphSolver()
+
+    val plan = planFor("MATCH (a:A)-[r1]->(b), (c:C) RETURN a, c").plan
+
+    plan.exists { case _: CartesianProduct => true } should equal(true)
+  }
+}
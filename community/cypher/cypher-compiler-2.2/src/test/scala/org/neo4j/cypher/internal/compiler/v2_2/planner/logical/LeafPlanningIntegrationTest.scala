@@ -105,6 +105,27 @@ class LeafPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTes
     )
   }
 
+  test("should build plans for composite index seek when every property of the index is compared") {
+    (new given {
+      compositeIndexOn("Awesome", "prop", "other")
+    } planFor "MATCH (n:Awesome) WHERE n.other = 'a' AND n.prop = 42 RETURN n").plan should beLike {
+      case NodeCompositeIndexSeek(
+              IdName("n"),
+              LabelToken("Awesome", _),
+              Seq(PropertyKeyToken("prop", _), PropertyKeyToken("other", _)),
+              Seq(ManyQueryExpression(Collection(Seq(SignedDecimalIntegerLiteral("42")))),
+                  ManyQueryExpression(Collection(Seq(StringLiteral("a"))))), _) => ()
+    }
+  }
+
+  test("should not use composite index when only some of its properties are compared") {
+    (new given {
+      compositeIndexOn("Awesome", "prop", "other")
+    } planFor "MATCH (n:Awesome) WHERE n.prop = 42 RETURN n").plan should beLike {
+      case Selection(_, _: NodeByLabelScan) => ()
+    }
+  }
+
   test("should build plans for node by ID mixed with label scan when node by ID is cheaper") {
     (new given {
       knownLabels = Set("Awesome")
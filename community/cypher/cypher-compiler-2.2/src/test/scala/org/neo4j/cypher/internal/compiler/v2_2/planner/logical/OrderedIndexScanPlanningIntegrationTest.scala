@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal.compiler.v2_2.planner.logical
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.cypher.internal.compiler.v2_2.Foldable._
+import org.neo4j.cypher.internal.compiler.v2_2.planner.LogicalPlanningTestSupport2
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans._
+
+class OrderedIndexScanPlanningIntegrationTest extends CypherFunSuite with LogicalPlanningTestSupport2 {
+
+  test("should use an ordered index scan for ORDER BY on an indexed property") {
+    val plan = (new given {
+      indexOn("Awesome", "prop")
+    } planFor "MATCH (n:Awesome) RETURN n ORDER BY n.prop LIMIT 10").plan
+
+    plan.exists { case _: PartialSort => true } should be(true)
+    plan.exists { case NodeIndexScan(IdName("n"), _, _, true, _) => true } should be(true)
+    // nodes without the property sort last, so they are appended from the label scan
+    plan.exists { case _: Union => true } should be(true)
+    plan.exists { case _: Sort | _: SortedLimit => true } should be(false)
+  }
+
+  test("should scan the index in descending order when a predicate requires the property") {
+    val plan = (new given {
+      indexOn("Awesome", "prop")
+    } planFor "MATCH (n:Awesome) WHERE n.prop > 3 RETURN n ORDER BY n.prop DESC LIMIT 10").plan
+
+    plan.exists { case _: PartialSort => true } should be(true)
+    plan.exists { case NodeIndexScan(IdName("n"), _, _, false, _) => true } should be(true)
+    plan.exists { case _: Union => true } should be(false)
+  }
+
+  test("should not scan the index in descending order when nodes may lack the property") {
+    val plan = (new given {
+      indexOn("Awesome", "prop")
+    } planFor "MATCH (n:Awesome) RETURN n ORDER BY n.prop DESC LIMIT 10").plan
+
+    plan.exists { case _: NodeIndexScan => true } should be(false)
+    plan.exists { case _: SortedLimit => true } should be(true)
+  }
+
+  test("should keep sorting when there is no index on the property") {
+    val plan = (new given {
+      indexOn("Awesome", "other")
+    } planFor "MATCH (n:Awesome) RETURN n ORDER BY n.prop LIMIT 10").plan
+
+    plan.exists { case _: NodeIndexScan => true } should be(false)
+    plan.exists { case _: PartialSort => true } should be(false)
+  }
+}
@@ -26,7 +26,7 @@ import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.Cardinality.Numer
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.IdName
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{Cardinality, QueryGraphProducer, Selectivity}
 import org.neo4j.cypher.internal.compiler.v2_2.planner.{LogicalPlanningTestSupport, QueryGraph, SemanticTable}
-import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{GraphStatistics, PropertyHistogram}
 import org.neo4j.cypher.internal.compiler.v2_2.{LabelId, PropertyKeyId, RelTypeId}
 import org.scalatest.matchers.{MatchResult, Matcher}
 
@@ -48,6 +48,7 @@ trait CardinalityTestHelper extends QueryGraphProducer with CardinalityCustomMat
                       allNodes: Option[Double] = None,
                       knownLabelCardinality: Map[String, Double] = Map.empty,
                       knownIndexSelectivity: Map[(String, String), Double] = Map.empty,
+                      knownIndexHistograms: Map[(String, String), PropertyHistogram] = Map.empty,
                       knownProperties: Set[String] = Set.empty,
                       knownRelationshipCardinality: Map[(String, String, String), Double] = Map.empty,
                       knownNodeNames: Set[String] = Set.empty,
@@ -107,6 +108,17 @@ trait CardinalityTestHelper extends QueryGraphProducer with CardinalityCustomMat
       )
     }
 
+    def withIndexHistogram(v: ((Symbol, Symbol), PropertyHistogram)) = {
+      val ((Symbol(labelName), Symbol(propertyName)), histogram) = v
+      if (!knownLabelCardinality.contains(labelName))
+        fail("Label not known. Add it with withLabel")
+
+      copy(
+        knownIndexHistograms = knownIndexHistograms + ((labelName, propertyName) -> histogram),
+        knownProperties = knownProperties + propertyName
+      )
+    }
+
     def withKnownProperty(propertyName: Symbol) =
       copy(
         knownProperties = knownProperties + propertyName.name
@@ -141,6 +153,12 @@ trait CardinalityTestHelper extends QueryGraphProducer with CardinalityCustomMat
           }
         }
 
+        def indexPropertyHistogram(label: LabelId, property: PropertyKeyId): Option[PropertyHistogram] =
+          for (lName <- getLabelName(label);
+               pName <- getPropertyName(property);
+               histogram <- knownIndexHistograms.get((lName, pName)))
+            yield histogram
+
         def getCardinality(fromLabel:String, typ:String, toLabel:String): Double =
           knownRelationshipCardinality.getOrElse((fromLabel, typ, toLabel), 0.0)
 
@@ -23,7 +23,8 @@ import org.neo4j.cypher.internal.compiler.v2_2.planner.SemanticTable
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.Metrics.QueryGraphCardinalityModel
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.cardinality.{RandomizedCardinalityModelTestSuite, ABCDCardinalityData}
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.IdName
-import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
+import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.Selectivity
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{GraphStatistics, PropertyHistogram, RangeBound}
 
 class AssumeIndependenceQueryGraphCardinalityModelTest extends RandomizedCardinalityModelTestSuite with ABCDCardinalityData {
 
@@ -219,6 +220,62 @@ class AssumeIndependenceQueryGraphCardinalityModelTest extends RandomizedCardina
       shouldHaveQueryGraphCardinality(0)
   }
 
+  test("uses the histogram of an index for equality") {
+    val queries = Table.apply[String, Double](
+      ("query", "expected cardinality"),
+      "MATCH (a:A) WHERE a.prop = 42" -> 10.0,
+      "MATCH (a:A) WHERE a.prop = 43" -> 0.1,
+      "MATCH (a:A) WHERE a.prop IN [42, 43]" -> 100 * or(0.1, 0.001),
+      "MATCH (a:A) WHERE a.prop = {param}" -> 1.0,
+      "MATCH (a:A) WHERE a.prop = null" -> 0.0
+    )
+    forAll(queries) { (q: String, expected: Double) =>
+      givenPattern(q).
+        withGraphNodes(1000).
+        withLabel('A -> 100).
+        withIndexHistogram(('A, 'prop) -> histogram).
+        shouldHaveQueryGraphCardinality(expected)
+    }
+  }
+
+  test("uses the histogram of an index for ranges") {
+    val queries = Table.apply[String, Double](
+      ("query", "expected cardinality"),
+      "MATCH (a:A) WHERE a.prop > 100" -> 20.0,
+      "MATCH (a:A) WHERE 100 < a.prop" -> 20.0,
+      "MATCH (a:A) WHERE a.prop <= 'm'" -> 60.0,
+      "MATCH (a:A) WHERE a.prop > {param}" -> 100 * DEFAULT_RANGE_SELECTIVITY
+    )
+    forAll(queries) { (q: String, expected: Double) =>
+      givenPattern(q).
+        withGraphNodes(1000).
+        withLabel('A -> 100).
+        withIndexHistogram(('A, 'prop) -> histogram).
+        shouldHaveQueryGraphCardinality(expected)
+    }
+  }
+
+  test("uses the default range selectivity without a histogram") {
+    givenPattern("MATCH (a:A) WHERE a.prop > 100").
+      withGraphNodes(1000).
+      withLabel('A -> 100).
+      withKnownProperty('prop).
+      shouldHaveQueryGraphCardinality(100 * DEFAULT_RANGE_SELECTIVITY)
+  }
+
+  // 42 is on a tenth of the nodes, and the rest of the values are rare
+  object histogram extends PropertyHistogram {
+    def equality(value: Any) = if (value == 42L) Selectivity(0.1) else Selectivity(0.001)
+
+    def unknownEquality = Selectivity(0.01)
+
+    def range(lower: Option[RangeBound], upper: Option[RangeBound]) = (lower, upper) match {
+      case (Some(RangeBound(100L, false)), None) => Selectivity(0.2)
+      case (None, Some(RangeBound("m", true))) => Selectivity(0.6)
+      case _ => fail(s"Unexpected range $lower to $upper")
+    }
+  }
+
   // 2014-12-05: Davide - This test looks strange since inbound cardinality is never used in the test framework?
   ignore("honours bound arguments") {
     givenPattern("MATCH (a:FOO)-[:TYPE]->(b:BAR)").
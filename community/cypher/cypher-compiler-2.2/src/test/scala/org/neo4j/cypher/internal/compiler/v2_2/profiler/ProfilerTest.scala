@@ -19,13 +19,15 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.profiler
 
+import org.mockito.Mockito._
 import org.neo4j.cypher.internal.commons.CypherFunSuite
 import org.neo4j.cypher.internal.compiler.v2_2._
 import org.neo4j.cypher.internal.compiler.v2_2.pipes._
-import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.{DbHits, Rows}
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.{BuildRows, DbHits, Rows}
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.{Argument, InternalPlanDescription}
 import org.neo4j.cypher.internal.compiler.v2_2.spi.QueryContext
-import org.neo4j.cypher.internal.compiler.v2_2.symbols.SymbolTable
+import org.neo4j.cypher.internal.compiler.v2_2.symbols.{CTNode, SymbolTable}
+import org.neo4j.graphdb.Node
 
 import scala.collection.immutable.::
 
@@ -98,6 +100,31 @@ class ProfilerTest extends CypherFunSuite {
     assertRecorded(decoratedResult, "rhs", expectedRows = 10*20, expectedDbHits = 10*30)
   }
 
+  test("should report the number of rows on the build side of a hash join") {
+    // GIVEN
+    val nodes = (0 until 3).map {
+      id =>
+        val node = mock[Node]
+        when(node.getId).thenReturn(id)
+        node
+    }
+    val lhs = new FakePipe(nodes.map(n => Map("n" -> n)), "n" -> CTNode)
+    val rhs = new FakePipe(nodes.take(1).map(n => Map("n" -> n)), "n" -> CTNode)
+    val join = NodeHashJoinPipe(Set("n"), lhs, rhs)()
+    val queryContext = mock[QueryContext]
+    when(queryContext.operatorMemory).thenReturn(Long.MaxValue)
+    val profiler = new Profiler
+    val queryState = QueryStateHelper.emptyWith(query = queryContext, decorator = profiler)
+
+    // WHEN
+    materialize(join.createResults(queryState))
+    val decoratedResult = profiler.decorate(join.planDescription, isProfileReady = true)
+
+    // THEN
+    decoratedResult.arguments should contain(BuildRows(3))
+    decoratedResult.arguments should contain(Rows(1))
+  }
+
   private def assertRecorded(result: InternalPlanDescription, name: String, expectedRows: Int, expectedDbHits: Int) {
     val pipeArgs: Seq[Argument] = result.find(name).flatMap(_.arguments)
 
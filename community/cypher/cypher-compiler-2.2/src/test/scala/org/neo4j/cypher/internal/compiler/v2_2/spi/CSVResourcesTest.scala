@@ -19,7 +19,12 @@
  */
 package org.neo4j.cypher.internal.compiler.v2_2.spi
 
+import java.io.{InputStreamReader, InterruptedIOException, Reader}
 import java.net.URL
+import java.util.concurrent.{ExecutorService, Executors, TimeUnit}
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.neo4j.csv.reader.Readables
 import org.mockito.Mockito._
 import org.mockito.Matchers._
 import org.neo4j.cypher.internal.commons.{CreateTempFileTestSupport, CypherFunSuite}
@@ -30,10 +35,22 @@ class CSVResourcesTest extends CypherFunSuite with CreateTempFileTestSupport {
 
   var resources: CSVResources = _
   var cleaner: TaskCloser = _
+  var executor: ExecutorService = _
+  val scheduled = new AtomicInteger()
+  val background: Runnable => Unit = work => {
+    scheduled.incrementAndGet()
+    executor.execute(work)
+  }
 
   override def beforeEach() {
     cleaner = mock[TaskCloser]
-    resources = new CSVResources(cleaner)
+    executor = Executors.newCachedThreadPool()
+    scheduled.set(0)
+    resources = new CSVResources(cleaner, background)
+  }
+
+  override def afterEach() {
+    executor.shutdownNow()
   }
 
   test("should handle strings") {
@@ -175,4 +192,75 @@ class CSVResourcesTest extends CypherFunSuite with CreateTempFileTestSupport {
         r should equal(expected)
     }
   }
+
+  test("should read rows that span several parsed chunks in order") {
+    // given
+    val rows = CSVResources.DEFAULT_CHUNK_SIZE * 3 + 17
+    val url = createCSVTempFileURL {
+      writer =>
+        (1 to rows).foreach(i => writer.println(s"$i,row$i"))
+    }
+
+    //when
+    val result = resources.getCsvIterator(new URL(url)).toList
+
+    //then
+    result.map(_.toList) should equal((1 to rows).map(i => List(i.toString, s"row$i")).toList)
+  }
+
+  test("should not return more rows once closed") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        (1 to CSVResources.DEFAULT_CHUNK_SIZE * 10).foreach(i => writer.println(i))
+    }
+    val iterator = new ThreadAheadCsvIterator(Readables.wrap(new InputStreamReader(new URL(url).openStream(), "UTF-8")), ',',
+      background)
+
+    //when
+    iterator.next() should equal(Array("1"))
+    iterator.close()
+
+    //then
+    iterator.hasNext should equal(false)
+  }
+
+  test("should parse the file on the background it is given") {
+    // given
+    val url = createCSVTempFileURL {
+      writer =>
+        writer.println("1")
+    }
+
+    //when
+    val result = resources.getCsvIterator(new URL(url)).toList
+
+    //then
+    result.map(_.toList) should equal(List(List("1")))
+    scheduled.get() should equal(1)
+  }
+
+  test("should stop a parser that is blocked reading the file when closed") {
+    // given
+    val blocked = new Reader {
+      def read(buffer: Array[Char], offset: Int, length: Int): Int =
+        try {
+          Thread.sleep(Long.MaxValue)
+          -1
+        } catch {
+          case e: InterruptedException => throw new InterruptedIOException()
+        }
+
+      def close() {}
+    }
+    val iterator = new ThreadAheadCsvIterator(Readables.wrap(blocked), ',', background)
+
+    //when
+    val start = System.currentTimeMillis()
+    iterator.close()
+
+    //then
+    System.currentTimeMillis() - start should be < TimeUnit.SECONDS.toMillis(10)
+    iterator.hasNext should equal(false)
+  }
 }
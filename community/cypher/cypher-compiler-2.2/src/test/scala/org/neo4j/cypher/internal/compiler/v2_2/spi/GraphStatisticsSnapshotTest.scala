@@ -34,6 +34,9 @@ class GraphStatisticsSnapshotTest extends CypherFunSuite {
 
     def indexSelectivity(label: LabelId, property: PropertyKeyId): Option[Selectivity] =
       Some(1.0 / ((property.id + 1) * FACTOR))
+
+    def indexPropertyHistogram(label: LabelId, property: PropertyKeyId): Option[PropertyHistogram] =
+      None
   }
 
   test("records queries and its observed values") {
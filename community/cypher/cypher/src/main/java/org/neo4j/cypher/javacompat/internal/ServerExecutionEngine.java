@@ -70,6 +70,19 @@ public class ServerExecutionEngine extends ExecutionEngine implements QueryExecu
         return serverExecutionEngine.isPeriodicCommit( query );
     }
 
+    @Override
+    public void prepareQuery( String query ) throws QueryExecutionKernelException
+    {
+        try
+        {
+            serverExecutionEngine.prepare( query );
+        }
+        catch ( CypherException e )
+        {
+            throw new QueryExecutionKernelException( e );
+        }
+    }
+
     @Override
     public Result profileQuery( String query, Map<String, Object> parameters ) throws QueryExecutionKernelException
     {
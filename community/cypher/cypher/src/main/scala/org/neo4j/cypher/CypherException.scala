@@ -136,6 +136,10 @@ class LoadExternalResourceException(message: String, cause: Throwable = null) ex
   val status = Status.Statement.ExternalResourceFailure
 }
 
+class MemoryLimitExceededException(message: String) extends CypherException(message) {
+  val status = Status.Statement.MemoryLimitExceeded
+}
+
 class LoadCsvStatusWrapCypherException(extraInfo: String, cause: CypherException) extends CypherException(s"${cause.getMessage} (${extraInfo})", cause) {
   val status = cause.status
 }
@@ -30,7 +30,7 @@ import org.neo4j.graphdb.config.Setting
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge
 import org.neo4j.kernel.impl.transaction.log.TransactionIdStore
-import org.neo4j.kernel.impl.util.StringLogger
+import org.neo4j.kernel.impl.util.{JobScheduler, StringLogger}
 import org.neo4j.kernel.{GraphDatabaseAPI, InternalAbstractGraphDatabase, api}
 
 import scala.collection.JavaConverters._
@@ -60,6 +60,13 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
 
   private val parsedQueries = new LRUCache[String, ParsedQuery](getPlanCacheSize)
 
+  private val plannedQueries: Option[PlannedQueries] =
+    try {
+      Option(graphAPI.getDependencyResolver.resolveDependency(classOf[PlannedQueries]))
+    } catch {
+      case _: IllegalArgumentException => None
+    }
+
   @throws(classOf[SyntaxException])
   def profile(query: String): ExtendedExecutionResult = profile(query, Map[String, Any]())
 
@@ -84,6 +91,17 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
     plan.execute(graphAPI, txInfo, params ++ extractedParams)
   }
 
+  /*
+  Plans the query, unless its plan is cached already, without executing it.
+   */
+  @throws(classOf[SyntaxException])
+  def prepare(query: String) {
+    val (_, _, txInfo) = planQuery(query)
+    txInfo.statement.close()
+    txInfo.tx.success()
+    txInfo.tx.close()
+  }
+
   @throws(classOf[SyntaxException])
   protected def parseQuery(queryText: String): ParsedQuery =
     parsedQueries.getOrElseUpdate( queryText, compiler.parseQuery( queryText ) )
@@ -99,6 +117,8 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
       val tx = graph.beginTx()
       val kernelStatement = txBridge.instance()
 
+      var parsedQuery: ParsedQuery = null
+
       val (plan: ExecutionPlan, extractedParameters) = try {
         // fetch plan cache
         val cache: LRUCache[String, (ExecutionPlan, Map[String, Any])] = getOrCreateFromSchemaState(kernelStatement, {
@@ -109,7 +129,7 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
         Iterator.continually {
           cacheAccessor.getOrElseUpdate(cache)(queryText, {
             touched = true
-            val parsedQuery: ParsedQuery = parseQuery(queryText)
+            parsedQuery = parseQuery(queryText)
             parsedQuery.plan(kernelStatement)
           })
         }.flatMap { case (plan, params) =>
@@ -133,6 +153,8 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
         kernelStatement.close()
         tx.success()
         tx.close()
+        val planned = parsedQuery
+        plannedQueries.foreach(_.recordLater(() => compiler.parameterizedQueryText(queryText, planned)))
       }
       else {
         // close the old statement reference after the statement has been "upgraded"
@@ -160,6 +182,26 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
 
   def prettify(query: String): String = Prettifier(query)
 
+  /*
+  Plans the queries remembered from before the last restart, so that they are in the plan cache before they are asked
+  for. This runs in the background, for the first engine of the database only; queries that can no longer be planned,
+  e.g. because the schema changed, are skipped.
+   */
+  private def warmUp(queries: PlannedQueries) {
+    val jobs = graphAPI.getDependencyResolver.resolveDependency(classOf[JobScheduler])
+    jobs.schedule(JobScheduler.Group.plannedQueries, new Runnable {
+      def run() {
+        queries.load().foreach { query =>
+          try {
+            prepare(query)
+          } catch {
+            case t: Throwable => logger.info(s"Could not plan remembered query: $query", t)
+          }
+        }
+      }
+    })
+  }
+
   private def createCompiler(logger: StringLogger): CypherCompiler = {
     val version = optGraphSetting[String](
       graph, GraphDatabaseSettings.cypher_parser_version, CypherVersion.vDefault.name
@@ -184,6 +226,8 @@ class ExecutionEngine(graph: GraphDatabaseService, logger: StringLogger = String
       .andThen(_.getOrElse(defaultValue))
       .applyOrElse(graph, (_: GraphDatabaseService) => defaultValue)
   }
+
+  plannedQueries.filter(_.claimWarmUp()).foreach(warmUp)
 }
 
 object ExecutionEngine {
@@ -21,6 +21,7 @@ package org.neo4j.cypher.internal
 
 import org.neo4j.cypher._
 import org.neo4j.cypher.internal.compatibility._
+import org.neo4j.cypher.internal.compiler.v2_2.{CompiledRuntime, IDP, InterpretedRuntime, ParallelRuntime, PlannerName, Ronja, RuntimeName}
 import org.neo4j.graphdb.GraphDatabaseService
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
 import org.neo4j.helpers.Clock
@@ -32,11 +33,13 @@ import org.neo4j.kernel.monitoring.{Monitors => KernelMonitors}
 object CypherCompiler {
   val DEFAULT_QUERY_CACHE_SIZE: Int = 128
   val DEFAULT_QUERY_PLAN_TTL: Long = 1000 // 1 second
+  val DEFAULT_IDP_BUDGET: Long = 1000 // 1 second
   val CLOCK = Clock.SYSTEM_CLOCK
   val STATISTICS_DIVERGENCE_THRESHOLD = 0.5
 }
 
-case class PreParsedQuery(statement: String, version: CypherVersion, planType: PlanType)
+case class PreParsedQuery(statement: String, version: CypherVersion, planType: PlanType, runtime: RuntimeName = InterpretedRuntime,
+                          planner: PlannerName = Ronja)
 
 
 class CypherCompiler(graph: GraphDatabaseService,
@@ -49,6 +52,7 @@ class CypherCompiler(graph: GraphDatabaseService,
 
   private val queryCacheSize: Int = getQueryCacheSize
   private val queryPlanTTL: Long = getQueryPlanTTL
+  private val idpBudget: Long = getIdpBudget
   private val compatibilityFor1_9 = CompatibilityFor1_9(graph, queryCacheSize)
   private val compatibilityFor2_0 = CompatibilityFor2_0(graph, queryCacheSize)
   private val compatibilityFor2_1 = CompatibilityFor2_1(graph, queryCacheSize, kernelMonitors, kernelAPI)
@@ -57,7 +61,7 @@ class CypherCompiler(graph: GraphDatabaseService,
       kernelMonitors, kernelAPI)
   private val compatibilityFor2_2Cost =
     CompatibilityFor2_2Cost(graph, queryCacheSize, STATISTICS_DIVERGENCE_THRESHOLD, queryPlanTTL, CLOCK,
-      kernelMonitors, kernelAPI, logger)
+      kernelMonitors, kernelAPI, logger, idpBudget)
 
   @throws(classOf[SyntaxException])
   def parseQuery(queryText: String): ParsedQuery = {
@@ -65,18 +69,27 @@ class CypherCompiler(graph: GraphDatabaseService,
     val preParsedQuery: PreParsedQuery = preParse(queryWithOptions)
     val planType = preParsedQuery.planType
     val version = preParsedQuery.version
+    val runtime = preParsedQuery.runtime
+    val planner = preParsedQuery.planner
     val statementAsText = preParsedQuery.statement
 
     version match {
-      case CypherVersion.`v2_2_cost` => compatibilityFor2_2Cost.produceParsedQuery(statementAsText, planType)
-      case CypherVersion.`v2_2_rule` => compatibilityFor2_2Rule.produceParsedQuery(statementAsText, planType)
-      case CypherVersion.v2_2 => compatibilityFor2_2Cost.produceParsedQuery(statementAsText, planType)
+      case CypherVersion.`v2_2_cost` => compatibilityFor2_2Cost.produceParsedQuery(statementAsText, planType, runtime, planner)
+      case CypherVersion.`v2_2_rule` => compatibilityFor2_2Rule.produceParsedQuery(statementAsText, planType, runtime)
+      case CypherVersion.v2_2 => compatibilityFor2_2Cost.produceParsedQuery(statementAsText, planType, runtime, planner)
       case CypherVersion.v2_1 => compatibilityFor2_1.parseQuery(statementAsText, planType == Profiled)
       case CypherVersion.v2_0 => compatibilityFor2_0.parseQuery(statementAsText, planType == Profiled)
       case CypherVersion.v1_9 => compatibilityFor1_9.parseQuery(statementAsText, planType == Profiled)
     }
   }
 
+  /*
+  The query text with the literals that the planner replaces with parameters written as those parameters, options
+  included, or None if the query can not be written that way.
+   */
+  def parameterizedQueryText(queryText: String, parsedQuery: ParsedQuery): Option[String] =
+    parsedQuery.parameterizedStatement.map(queryText.dropRight(optionParser(queryText).statement.length) + _)
+
   private def preParse(queryWithOption: CypherQueryWithOptions): PreParsedQuery = {
 
     import org.neo4j.cypher.internal.CollectionFrosting._
@@ -99,7 +112,28 @@ class CypherCompiler(graph: GraphDatabaseService,
       throw new InvalidArgumentException("EXPLAIN not supported in versions older than Neo4j v2.2")
     }
 
-    PreParsedQuery(queryWithOption.statement, cypherVersion, planType)
+    val runtimeOptions = queryWithOption.options.collectSingle {
+      case CompiledRuntimeOption => CompiledRuntime
+      case ParallelRuntimeOption => ParallelRuntime
+      case InterpretedRuntimeOption => InterpretedRuntime
+    }
+
+    val runtime = runtimeOptions match {
+      case Right(name) => name.getOrElse(InterpretedRuntime)
+      case Left(names) => throw new SyntaxException(s"You must specify only one runtime for a query (found: $names)")
+    }
+
+    val plannerOptions = queryWithOption.options.collectSingle {
+      case GreedyPlannerOption => Ronja
+      case IDPPlannerOption => IDP
+    }
+
+    val planner = plannerOptions match {
+      case Right(name) => name.getOrElse(Ronja)
+      case Left(names) => throw new SyntaxException(s"You must specify only one planner for a query (found: $names)")
+    }
+
+    PreParsedQuery(queryWithOption.statement, cypherVersion, planType, runtime, planner)
   }
 
   private def calculatePlanType(options: Seq[CypherOption]) = {
@@ -124,6 +158,12 @@ class CypherCompiler(graph: GraphDatabaseService,
   }
 
 
+  private def getIdpBudget: Long = {
+    optGraphAs[InternalAbstractGraphDatabase]
+      .andThen(_.getConfig.get(GraphDatabaseSettings.query_planner_idp_budget).longValue())
+      .applyOrElse(graph, (_: GraphDatabaseService) => DEFAULT_IDP_BUDGET)
+  }
+
   private def optGraphAs[T <: GraphDatabaseService : Manifest]: PartialFunction[GraphDatabaseService, T] = {
     case (db: T) => db
   }
@@ -24,5 +24,10 @@ sealed trait CypherOption
 final case class VersionOption(version: String) extends CypherOption
 case object ProfileOption extends CypherOption
 case object ExplainOption extends CypherOption
+case object CompiledRuntimeOption extends CypherOption
+case object ParallelRuntimeOption extends CypherOption
+case object InterpretedRuntimeOption extends CypherOption
+case object GreedyPlannerOption extends CypherOption
+case object IDPPlannerOption extends CypherOption
 
 
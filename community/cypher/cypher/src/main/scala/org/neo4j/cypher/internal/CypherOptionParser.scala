@@ -32,7 +32,7 @@ case class CypherOptionParser(monitor: ParserMonitor[CypherQueryWithOptions]) ex
 
   def AllOptions: Rule1[Seq[CypherOption]] = zeroOrMore(AnyCypherOption, WS)
 
-  def AnyCypherOption: Rule1[CypherOption] = Version | Explain | Profile
+  def AnyCypherOption: Rule1[CypherOption] = Version | Explain | Profile | Runtime | Planner
 
   def AnySomething: Rule1[String] = rule("Query") { oneOrMore(org.parboiled.scala.ANY) ~> identity }
 
@@ -53,4 +53,24 @@ case class CypherOptionParser(monitor: ParserMonitor[CypherQueryWithOptions]) ex
   def Profile = keyword("PROFILE") ~ push(ProfileOption)
 
   def Explain = keyword("EXPLAIN") ~ push(ExplainOption)
+
+  def Runtime: Rule1[CypherOption] =
+    rule("RUNTIME") {
+      keyword("RUNTIME") ~ WS ~ (Compiled | Parallel | Interpreted)
+    }
+
+  def Compiled: Rule1[CypherOption] = keyword("COMPILED") ~ push(CompiledRuntimeOption)
+
+  def Parallel: Rule1[CypherOption] = keyword("PARALLEL") ~ push(ParallelRuntimeOption)
+
+  def Interpreted: Rule1[CypherOption] = keyword("INTERPRETED") ~ push(InterpretedRuntimeOption)
+
+  def Planner: Rule1[CypherOption] =
+    rule("PLANNER") {
+      keyword("PLANNER") ~ WS ~ (Greedy | IDP)
+    }
+
+  def Greedy: Rule1[CypherOption] = keyword("GREEDY") ~ push(GreedyPlannerOption)
+
+  def IDP: Rule1[CypherOption] = keyword("IDP") ~ push(IDPPlannerOption)
 }
@@ -24,4 +24,10 @@ import org.neo4j.kernel.api.Statement
 trait ParsedQuery {
   def isPeriodicCommit: Boolean
   def plan(statement: Statement): (ExecutionPlan, Map[String, Any])
+
+  /*
+  The statement with the literals that the planner replaces with parameters written as those parameters, or None if
+  the compiler does not replace literals or they could not be found.
+   */
+  def parameterizedStatement: Option[String] = None
 }
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io._
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.atomic.AtomicBoolean
+
+import org.neo4j.kernel.impl.util.JobScheduler
+import org.neo4j.kernel.lifecycle.LifecycleAdapter
+
+import scala.collection.mutable
+
+/*
+The texts of the queries that have been planned on a database, kept in a file so that the plan cache can be warmed up
+again after a restart. There is one instance per database, which the PlannedQueriesExtensionFactory adds to its
+lifecycle.
+
+Each query is appended as it is planned, as a length-prefixed UTF-8 string. The file is rewritten to hold only the
+`capacity` most recently planned distinct queries when it is loaded, and whenever it grows past a few times that size.
+A partially written last entry, left behind by a crash, is ignored. Queries that are recorded later are written by a
+job on the scheduler, so that query threads do not wait for the file; if more are waiting than fit in the file, the
+rest are dropped. A capacity of 0 disables the file.
+ */
+class PlannedQueries(file: File, capacity: Int, scheduler: => JobScheduler) extends LifecycleAdapter {
+
+  private var written = 0
+  private var out: DataOutputStream = null
+  private var warmedUp = false
+  private val pending = new ArrayBlockingQueue[() => Option[String]](math.max(capacity, 1))
+  private val writing = new AtomicBoolean()
+  @volatile private var jobs: JobScheduler = null
+
+  private val writer = new Runnable {
+    def run() {
+      try {
+        writePending()
+      } finally {
+        writing.set(false)
+      }
+      if (!pending.isEmpty) scheduleWrite()
+    }
+  }
+
+  override def start() {
+    jobs = scheduler
+    if (!pending.isEmpty) scheduleWrite()
+  }
+
+  override def stop() {
+    jobs = null
+    writePending()
+    close()
+  }
+
+  /*
+  Whether the caller should warm up the plan cache with the loaded queries. Only the first caller is told to, so that
+  the queries are planned once per database however many execution engines there are.
+   */
+  def claimWarmUp(): Boolean = synchronized {
+    val first = !warmedUp && capacity > 0
+    warmedUp = true
+    first
+  }
+
+  /*
+  Records a query later, on the scheduler. The text is only worked out then, and nothing is recorded if there is none.
+   */
+  def recordLater(query: () => Option[String]) {
+    if (capacity > 0 && pending.offer(query))
+      scheduleWrite()
+  }
+
+  def load(): Seq[String] = synchronized {
+    if (capacity > 0) {
+      val queries = recent(read())
+      rewrite(queries)
+      queries
+    } else {
+      Seq.empty
+    }
+  }
+
+  def record(query: String): Unit = synchronized {
+    if (capacity > 0) {
+      append(query)
+      out.flush()
+    }
+  }
+
+  def close(): Unit = synchronized {
+    if (out != null) {
+      out.close()
+      out = null
+    }
+  }
+
+  private def scheduleWrite() {
+    val scheduler = jobs
+    if (scheduler != null && writing.compareAndSet(false, true))
+      scheduler.schedule(JobScheduler.Group.plannedQueries, writer)
+  }
+
+  private def writePending(): Unit = synchronized {
+    var query = pending.poll()
+    while (query != null) {
+      query().foreach(append)
+      query = pending.poll()
+    }
+    if (out != null) out.flush()
+  }
+
+  private def append(query: String) {
+    if (written >= PlannedQueries.COMPACTION_FACTOR * capacity)
+      rewrite(recent(read()))
+    write(query)
+  }
+
+  private def recent(queries: Seq[String]): Seq[String] = {
+    val distinct = mutable.LinkedHashSet[String]()
+    queries.reverseIterator.foreach { query =>
+      if (distinct.size < capacity) distinct += query
+    }
+    distinct.toSeq.reverse
+  }
+
+  private def read(): Seq[String] = {
+    close()
+    if (!file.exists())
+      return Seq.empty
+
+    val in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))
+    val queries = Seq.newBuilder[String]
+    try {
+      var done = false
+      while (!done) {
+        try {
+          val length = in.readInt()
+          if (length < 0 || length > file.length()) {
+            done = true
+          } else {
+            val bytes = new Array[Byte](length)
+            in.readFully(bytes)
+            queries += new String(bytes, UTF_8)
+          }
+        } catch {
+          case _: EOFException => done = true
+        }
+      }
+    } finally {
+      in.close()
+    }
+    queries.result()
+  }
+
+  private def rewrite(queries: Seq[String]): Unit = {
+    close()
+    val parent = file.getAbsoluteFile.getParentFile
+    if (parent != null) parent.mkdirs()
+    out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, false)))
+    written = 0
+    queries.foreach(write)
+    out.flush()
+  }
+
+  private def write(query: String): Unit = {
+    if (out == null) {
+      out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)))
+      written = 0
+    }
+    val bytes = query.getBytes(UTF_8)
+    out.writeInt(bytes.length)
+    out.write(bytes)
+    written += 1
+  }
+}
+
+object PlannedQueries {
+  val COMPACTION_FACTOR = 4
+  val FILE_NAME = "cypher-planned-queries"
+}
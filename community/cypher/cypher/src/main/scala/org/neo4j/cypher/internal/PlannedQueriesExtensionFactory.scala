@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io.File
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.kernel.configuration.Config
+import org.neo4j.kernel.extension.KernelExtensionFactory
+import org.neo4j.kernel.impl.util.JobScheduler
+import org.neo4j.kernel.lifecycle.Lifecycle
+
+/*
+Gives every database its own PlannedQueries, closed when the database shuts down. Execution engines look it up with
+the dependency resolver of their database.
+ */
+class PlannedQueriesExtensionFactory
+  extends KernelExtensionFactory[PlannedQueriesExtensionFactory.Dependencies](PlannedQueriesExtensionFactory.KEY) {
+
+  override def newKernelExtension(dependencies: PlannedQueriesExtensionFactory.Dependencies): Lifecycle = {
+    val config = dependencies.getConfig
+    val capacity =
+      if (config.get(GraphDatabaseSettings.query_cache_persistence)) config.get(GraphDatabaseSettings.query_cache_size).intValue()
+      else 0
+    val file = new File(config.get(GraphDatabaseSettings.store_dir), PlannedQueries.FILE_NAME)
+    new PlannedQueries(file, capacity, dependencies.getJobScheduler)
+  }
+}
+
+object PlannedQueriesExtensionFactory {
+  val KEY = "cypher planned queries"
+
+  trait Dependencies {
+    def getConfig: Config
+
+    def getJobScheduler: JobScheduler
+  }
+}
@@ -29,7 +29,7 @@ import org.neo4j.cypher.internal.compiler.v2_2.executionplan.{InternalExecutionR
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.{DbHits, Rows, Version}
 import org.neo4j.cypher.internal.compiler.v2_2.planDescription.{Argument, InternalPlanDescription, PlanDescriptionArgumentSerializer}
 import org.neo4j.cypher.internal.compiler.v2_2.spi.MapToPublicExceptions
-import org.neo4j.cypher.internal.compiler.v2_2.{CypherCompilerFactory, Legacy, PlannerName, Ronja, CypherException => CypherException_v2_2}
+import org.neo4j.cypher.internal.compiler.v2_2.{CypherCompilerFactory, IDP, InterpretedRuntime, Legacy, PlannerName, Ronja, RuntimeName, CypherException => CypherException_v2_2}
 import org.neo4j.cypher.internal.spi.v2_2.{TransactionBoundGraphStatistics, TransactionBoundPlanContext, TransactionBoundQueryContext}
 import org.neo4j.cypher.javacompat.ProfilerStatistics
 import org.neo4j.graphdb.{QueryExecutionType, GraphDatabaseService, ResourceIterator}
@@ -70,6 +70,8 @@ object exceptionHandlerFor2_2 extends MapToPublicExceptions[CypherException] {
 
   def loadExternalResourceException(message: String, cause: Throwable) = throw new LoadExternalResourceException(message, cause)
 
+  def memoryLimitExceededException(message: String) = throw new MemoryLimitExceededException(message)
+
   def parameterNotFoundException(message: String, cause: Throwable) = throw new ParameterNotFoundException(message, cause)
 
   def uniquePathNotUniqueException(message: String) = throw new UniquePathNotUniqueException(message)
@@ -112,11 +114,14 @@ trait CompatibilityFor2_2 {
 
   protected val compiler: v2_2.CypherCompiler
 
-  def produceParsedQuery(statementAsText: String, planType: PlanType) = new ParsedQuery {
-    val preparedQueryForV_2_2 = Try(compiler.prepareQuery(statementAsText, planType))
+  def produceParsedQuery(statementAsText: String, planType: PlanType, runtime: RuntimeName = InterpretedRuntime,
+                         planner: PlannerName = Ronja) = new ParsedQuery {
+    val preparedQueryForV_2_2 = Try(compiler.prepareQuery(statementAsText, planType, runtime, planner))
 
     def isPeriodicCommit = preparedQueryForV_2_2.map(_.isPeriodicCommit).getOrElse(false)
 
+    override def parameterizedStatement = preparedQueryForV_2_2.toOption.flatMap(_.parameterizedQueryText)
+
     def plan(statement: Statement): (ExecutionPlan, Map[String, Any]) = exceptionHandlerFor2_2.runSafely {
       val planContext = new TransactionBoundPlanContext(statement, graph)
       val (planImpl, extractedParameters) = compiler.planPreparedQuery(preparedQueryForV_2_2.get, planContext)
@@ -146,6 +151,7 @@ trait CompatibilityFor2_2 {
     private def translate(in: PlannerName): CypherVersion = in match {
       case Legacy => CypherVersion.v2_2_rule
       case Ronja => CypherVersion.v2_2_cost
+      case IDP => CypherVersion.v2_2_cost
     }
 
     def isStale(lastTxId: () => Long, statement: Statement) =
@@ -270,9 +276,10 @@ case class CompatibilityFor2_2Cost(graph: GraphDatabaseService,
                                    clock: Clock,
                                    kernelMonitors: KernelMonitors,
                                    kernelAPI: KernelAPI,
-                                   logger: StringLogger) extends CompatibilityFor2_2 {
+                                   logger: StringLogger,
+                                   idpBudget: Long) extends CompatibilityFor2_2 {
   protected val compiler = CypherCompilerFactory.ronjaCompiler(
-    graph, queryCacheSize, statsDivergenceThreshold, queryPlanTTL, clock, kernelMonitors, logger)
+    graph, queryCacheSize, statsDivergenceThreshold, queryPlanTTL, clock, kernelMonitors, logger, idpBudget)
 }
 
 case class CompatibilityFor2_2Rule(graph: GraphDatabaseService,
@@ -89,6 +89,9 @@ class ExceptionTranslatingQueryContext(inner: QueryContext) extends DelegatingQu
   override def exactIndexSearch(index: IndexDescriptor, value: Any): Iterator[Node] =
     translateException(super.exactIndexSearch(index, value))
 
+  override def orderedIndexScan(index: IndexDescriptor, ascending: Boolean): Iterator[Node] =
+    translateException(super.orderedIndexScan(index, ascending))
+
   override def getNodesByLabel(id: Int): Iterator[Node] =
     translateException(super.getNodesByLabel(id))
 
@@ -20,10 +20,10 @@
 package org.neo4j.cypher.internal.spi.v2_2
 
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.{Cardinality, Selectivity}
-import org.neo4j.cypher.internal.compiler.v2_2.spi.GraphStatistics
+import org.neo4j.cypher.internal.compiler.v2_2.spi.{GraphStatistics, PropertyHistogram, RangeBound}
 import org.neo4j.cypher.internal.compiler.v2_2.{LabelId, NameId, PropertyKeyId, RelTypeId}
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
-import org.neo4j.kernel.api.index.IndexDescriptor
+import org.neo4j.kernel.api.index.{IndexDescriptor, IndexValueHistogram}
 import org.neo4j.kernel.api.{Statement => KernelStatement}
 
 class TransactionBoundGraphStatistics(statement: KernelStatement) extends GraphStatistics {
@@ -45,6 +45,20 @@ class TransactionBoundGraphStatistics(statement: KernelStatement) extends GraphS
       case e: IndexNotFoundKernelException => None
     }
 
+  def indexPropertyHistogram(label: LabelId, property: PropertyKeyId): Option[PropertyHistogram] =
+    try {
+      val histogram = statement.readOperations().indexValueHistogram(new IndexDescriptor(label, property))
+      val labeledNodes = statement.readOperations().countsForNode(label).toDouble
+
+      if (histogram.isEmpty || labeledNodes == 0)
+        None
+      else
+        Some(KernelPropertyHistogram(histogram, Math.min(1.0, histogram.entries() / labeledNodes)))
+    }
+    catch {
+      case e: IndexNotFoundKernelException => None
+    }
+
   def nodesWithLabelCardinality(labelId: Option[LabelId]): Cardinality =
     statement.readOperations().countsForNode(labelId)
 
@@ -70,3 +84,21 @@ object TransactionBoundGraphStatistics {
   private implicit def toKernelEncode(nameId: Option[NameId]): Int =
     nameId.map(toKernelEncode).getOrElse(WILDCARD)
 }
+
+/*
+    The histogram counts selectivities among the entries of the index, but only the nodes with the property are in
+    there, so they are scaled down to selectivities among all the nodes with the label.
+ */
+case class KernelPropertyHistogram(histogram: IndexValueHistogram, indexedFraction: Double) extends PropertyHistogram {
+  def equality(value: Any): Selectivity =
+    histogram.equalitySelectivity(value) * indexedFraction
+
+  def unknownEquality: Selectivity =
+    histogram.expectedEqualitySelectivity() * indexedFraction
+
+  def range(lower: Option[RangeBound], upper: Option[RangeBound]): Selectivity =
+    histogram.rangeSelectivity(
+      lower.map(_.value.asInstanceOf[AnyRef]).orNull, lower.exists(_.inclusive),
+      upper.map(_.value.asInstanceOf[AnyRef]).orNull, upper.exists(_.inclusive)
+    ) * indexedFraction
+}
@@ -19,6 +19,8 @@
  */
 package org.neo4j.cypher.internal.spi.v2_2
 
+import java.io.File
+
 import org.neo4j.collection.primitive.PrimitiveLongIterator
 import org.neo4j.cypher.internal.compiler.v2_2.{EntityNotFoundException, FailedIndexException}
 import org.neo4j.cypher.internal.compiler.v2_2.spi._
@@ -26,6 +28,7 @@ import org.neo4j.cypher.internal.helpers.JavaConversionSupport
 import org.neo4j.cypher.internal.helpers.JavaConversionSupport._
 import org.neo4j.graphdb.DynamicRelationshipType._
 import org.neo4j.graphdb._
+import org.neo4j.graphdb.config.Setting
 import org.neo4j.graphdb.factory.GraphDatabaseSettings
 import org.neo4j.helpers.collection.IteratorUtil
 import org.neo4j.kernel.api._
@@ -34,7 +37,9 @@ import org.neo4j.kernel.api.exceptions.schema.{AlreadyConstrainedException, Alre
 import org.neo4j.kernel.api.index.{IndexDescriptor, InternalIndexState}
 import org.neo4j.kernel.impl.api.KernelStatement
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge
-import org.neo4j.kernel.{GraphDatabaseAPI, InternalAbstractGraphDatabase}
+import org.neo4j.kernel.impl.util.JobScheduler
+import org.neo4j.kernel.impl.workload.WorkloadManager
+import org.neo4j.kernel.{DeadlockDetectedException, GraphDatabaseAPI, InternalAbstractGraphDatabase}
 import org.neo4j.tooling.GlobalGraphOperations
 
 import scala.collection.JavaConverters._
@@ -94,6 +99,96 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     }
   }
 
+  override def runInBackground(group: JobScheduler.Group, work: Runnable) {
+    jobScheduler.schedule(group, work)
+  }
+
+  private def jobScheduler = graph.getDependencyResolver.resolveDependency(classOf[JobScheduler])
+
+  override def parallelReads: Option[ParallelReads] = statement match {
+    case kernelStatement: KernelStatement if !kernelStatement.hasTxStateWithChanges =>
+      Some(new ParallelReads {
+        def inReadTransaction[T](work: (QueryContext) => T): T = inNewTransaction(work)
+
+        def startWorkers(workers: Int, work: Runnable): Int = {
+          val workloads = graph.getDependencyResolver.resolveDependency(classOf[WorkloadManager])
+          val workloadClass = workloads.runningWorkloadClass()
+          // threads that run no admitted work are not held back, and neither are their workers
+          val started =
+            if (workloadClass == null) workers
+            else (1 to workers).takeWhile(_ => workloads.tryEnter(workloadClass)).size
+          (1 to started).foreach {
+            _ => jobScheduler.schedule(JobScheduler.Group.cypherWorkers, new Runnable {
+              def run() {
+                val admission = if (workloadClass == null) null else workloads.admitted(workloadClass)
+                try {
+                  work.run()
+                } finally {
+                  if (admission != null)
+                    admission.close()
+                }
+              }
+            })
+          }
+          started
+        }
+      })
+
+    case _ =>
+      None
+  }
+
+  override def parallelWrites: Option[ParallelWrites] = graph match {
+    case iagdb: InternalAbstractGraphDatabase if isTopLevelTx =>
+      val concurrentBatches: Int = iagdb.getConfig.get(GraphDatabaseSettings.load_csv_batch_parallelism)
+      if (concurrentBatches > 1)
+        Some(new ParallelWrites {
+          def parallelism = concurrentBatches
+
+          def inWriteTransaction[T](work: (QueryContext) => T): T = inNewTransactionRetryingDeadlocks(work, 1)
+
+          def execute(work: Runnable) {
+            jobScheduler.schedule(JobScheduler.Group.loadCsv, work)
+          }
+        })
+      else
+        None
+
+    case _ =>
+      None
+  }
+
+  private def inNewTransactionRetryingDeadlocks[T](work: (QueryContext) => T, attempt: Int): T =
+    try {
+      inNewTransaction(work)
+    } catch {
+      case e: Throwable if attempt < TransactionBoundQueryContext.MAX_WRITE_ATTEMPTS && causedByDeadlock(e) =>
+        inNewTransactionRetryingDeadlocks(work, attempt + 1)
+    }
+
+  private def causedByDeadlock(e: Throwable): Boolean = e match {
+    case _: DeadlockDetectedException => true
+    case _ => e.getCause != null && e.getCause != e && causedByDeadlock(e.getCause)
+  }
+
+  private def inNewTransaction[T](work: (QueryContext) => T): T = {
+    val tx = graph.beginTx()
+    try {
+      val otherStatement = txBridge.instance()
+      val result = try {
+        work(new TransactionBoundQueryContext(graph, tx, isTopLevelTx = true, otherStatement))
+      }
+      finally {
+        otherStatement.close()
+      }
+      tx.success()
+      result
+    }
+    finally {
+      tx.close()
+    }
+  }
+
   def createNode(): Node =
     graph.createNode()
 
@@ -121,6 +216,9 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
   def exactIndexSearch(index: IndexDescriptor, value: Any) =
     mapToScala(statement.readOperations().nodesGetFromIndexLookup(index, value))(nodeOps.getById)
 
+  def orderedIndexScan(index: IndexDescriptor, ascending: Boolean) =
+    mapToScala(statement.readOperations().nodesGetFromIndexScan(index, ascending))(nodeOps.getById)
+
   def exactUniqueIndexSearch(index: IndexDescriptor, value: Any): Option[Node] = {
     val nodeId: Long = statement.readOperations().nodeGetUniqueFromIndexLookup(index, value)
     if (StatementConstants.NO_SUCH_NODE == nodeId) None else Some(nodeOps.getById(nodeId))
@@ -284,6 +382,23 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     case _ => true
   }
 
+  override def operatorMemory: Long = graph match {
+    case iagdb: InternalAbstractGraphDatabase => iagdb.getConfig.get(GraphDatabaseSettings.query_operator_memory)
+    case _ => Long.MaxValue
+  }
+
+  override def queryMemoryLimit: Long = memoryLimit(GraphDatabaseSettings.query_memory_limit)
+
+  override def globalQueryMemoryLimit: Long = memoryLimit(GraphDatabaseSettings.query_memory_global_limit)
+
+  override def spillDirectory: File = new File(graph.getStoreDir, TransactionBoundQueryContext.SPILL_DIRECTORY)
+
+  private def memoryLimit(setting: Setting[java.lang.Long]): Long = graph match {
+    case iagdb: InternalAbstractGraphDatabase =>
+      Option(iagdb.getConfig.get(setting)).map(_.longValue).getOrElse(Long.MaxValue)
+    case _ => Long.MaxValue
+  }
+
   def relationshipStartNode(rel: Relationship) = rel.getStartNode
 
   def relationshipEndNode(rel: Relationship) = rel.getEndNode
@@ -298,3 +413,8 @@ final class TransactionBoundQueryContext(graph: GraphDatabaseAPI,
     statement = txBridge.instance()
   }
 }
+
+object TransactionBoundQueryContext {
+  val MAX_WRITE_ATTEMPTS = 5
+  val SPILL_DIRECTORY = "cypher-spill"
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+class CompiledRuntimeAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTestSupport {
+
+  test("should return the same rows as the interpreted runtime for scans, filters and expands") {
+    val a = createLabeledNode(Map("name" -> "a", "age" -> 10), "Person")
+    val b = createLabeledNode(Map("name" -> "b", "age" -> 20), "Person")
+    val c = createLabeledNode(Map("name" -> "c", "age" -> 30), "Person")
+    relate(a, b, "KNOWS")
+    relate(b, c, "KNOWS")
+    relate(c, a, "KNOWS")
+
+    val query = "MATCH (p:Person)-[:KNOWS]->(q) WHERE p.age > 15 RETURN p.name, q.name"
+
+    val compiled = executeWithNewPlanner(s"RUNTIME COMPILED $query").toSet
+    val interpreted = executeWithNewPlanner(s"RUNTIME INTERPRETED $query").toSet
+
+    compiled should equal(Set(Map("p.name" -> "b", "q.name" -> "c"), Map("p.name" -> "c", "q.name" -> "a")))
+    compiled should equal(interpreted)
+  }
+
+  test("should aggregate over a compiled pipeline") {
+    (1 to 10).foreach(i => createLabeledNode(Map("x" -> i % 3), "Item"))
+
+    val result = executeWithNewPlanner("RUNTIME COMPILED MATCH (n:Item) WHERE n.x > 0 RETURN n.x, count(*)").toSet
+
+    result should equal(Set(Map("n.x" -> 1, "count(*)" -> 4), Map("n.x" -> 2, "count(*)" -> 3)))
+  }
+
+  test("should fall back to the interpreted runtime when profiling") {
+    createLabeledNode(Map("x" -> 1), "Item")
+    createLabeledNode(Map("x" -> 2), "Item")
+
+    val result = executeWithNewPlanner("PROFILE RUNTIME COMPILED MATCH (n:Item) WHERE n.x > 1 RETURN n.x")
+
+    result.toList should equal(List(Map("n.x" -> 2)))
+    result.executionPlanDescription().toString should include("Filter")
+  }
+
+  test("should not accept more than one runtime") {
+    intercept[SyntaxException](execute("RUNTIME COMPILED RUNTIME INTERPRETED MATCH (n) RETURN n"))
+  }
+}
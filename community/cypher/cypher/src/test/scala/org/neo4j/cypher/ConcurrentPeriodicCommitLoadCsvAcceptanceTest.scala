@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import java.io.PrintWriter
+
+import org.neo4j.cypher.internal.commons.CreateTempFileTestSupport
+import org.neo4j.cypher.internal.compiler.v2_2.commands.expressions.StringHelper.RichString
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+
+class ConcurrentPeriodicCommitLoadCsvAcceptanceTest
+  extends ExecutionEngineFunSuite with CreateTempFileTestSupport with QueryStatisticsTestSupport {
+
+  override def databaseConfig() =
+    super.databaseConfig() ++ Map(GraphDatabaseSettings.load_csv_batch_parallelism.name() -> "4")
+
+  test("should create nodes for all rows when batches are written concurrently") {
+    val url = createFile(writer => {
+      writer.println("id,name")
+      (1 to 1000).foreach(i => writer.println(s"$i,name$i"))
+    })
+
+    val result = execute(
+      s"USING PERIODIC COMMIT 50 LOAD CSV WITH HEADERS FROM '$url' AS line " +
+      "CREATE (:Person {id: toInt(line.id), name: line.name})")
+
+    assertStats(result, nodesCreated = 1000, propertiesSet = 2000, labelsAdded = 1000)
+    executeScalar[Number]("MATCH (p:Person) RETURN count(DISTINCT p.id)").longValue() should equal(1000)
+    executeScalar[Number]("MATCH (p:Person) RETURN sum(p.id)").longValue() should equal((1 to 1000).sum)
+  }
+
+  test("should merge nodes backed by a uniqueness constraint when batches are written concurrently") {
+    execute("CREATE CONSTRAINT ON (p:Person) ASSERT p.id IS UNIQUE")
+    val url = createFile(writer => {
+      (1 to 1000).foreach(i => writer.println(s"${i % 100}"))
+    })
+
+    execute(s"USING PERIODIC COMMIT 10 LOAD CSV FROM '$url' AS line MERGE (:Person {id: line[0]})")
+
+    executeScalar[Number]("MATCH (p:Person) RETURN count(p)").longValue() should equal(100)
+  }
+
+  test("should tell which batch failed when batches are written concurrently") {
+    val url = createFile(writer => {
+      (1 to 100).foreach(i => writer.println(if (i == 42) "0" else s"$i"))
+    })
+
+    val e = intercept[CypherException](
+      execute(s"USING PERIODIC COMMIT 10 LOAD CSV FROM '$url' AS line CREATE ({name: 1/toInt(line[0])})"))
+
+    e.getMessage should include("in the batch of lines 41 to 50")
+  }
+
+  test("should still return rows from periodic commit when batches may be written concurrently") {
+    val url = createFile(writer => {
+      (1 to 10).foreach(i => writer.println(s"$i"))
+    })
+
+    val result = execute(s"USING PERIODIC COMMIT 3 LOAD CSV FROM '$url' AS line CREATE (n {id: line[0]}) RETURN n.id")
+
+    result.toList.map(_("n.id")) should equal((1 to 10).map(_.toString).toList)
+  }
+
+  private def createFile(f: PrintWriter => Unit) = createTempFileURL("cypher", ".csv")(f).cypherEscape
+}
@@ -77,6 +77,21 @@ class CypherCompilerStringCacheMonitoringAcceptanceTest extends ExecutionEngineF
     counter.counts should equal(CacheCounts(hits = 2, misses = 1, flushes = 1))
   }
 
+  test("should not miss the cache when executing a query that was prepared ahead") {
+    // given
+    val counter = new CacheCounter()
+    kernelMonitors.addMonitorListener(counter)
+    eengine.prepare("return 42")
+    val misses = counter.counts.misses
+
+    // when
+    execute("return 42").toList
+
+    // then
+    misses should equal(1)
+    counter.counts.misses should equal(1)
+  }
+
   test("should monitor cache flushes") {
     // given
     val counter = new CacheCounter()
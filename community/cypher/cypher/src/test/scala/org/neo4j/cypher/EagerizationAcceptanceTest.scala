@@ -57,11 +57,41 @@ class EagerizationAcceptanceTest extends ExecutionEngineFunSuite {
   }
 
   test("should introduce eagerness when the ON MATCH includes writing to a node") {
+    val result = execute("MATCH (a:Foo), (b:Bar) MERGE (a)-[r:KNOWS]->(b) ON MATCH SET a:Bar")
+
+    assertNumberOfEagerness(result, 1)
+  }
+
+  test("should not introduce eagerness when the ON MATCH only sets properties that are not read") {
     val result = execute("MATCH (a:Foo), (b:Bar) MERGE (a)-[r:KNOWS]->(b) ON MATCH SET a.prop = 42")
 
+    assertNumberOfEagerness(result, 0)
+  }
+
+  test("should not introduce eagerness when creating nodes with labels that are not read") {
+    val result = execute("MATCH (a:Foo) CREATE (b:Bar)")
+
+    assertNumberOfEagerness(result, 0)
+  }
+
+  test("should introduce eagerness when creating nodes with labels that are read") {
+    val result = execute("MATCH (a:Foo) CREATE (b:Foo)")
+
+    assertNumberOfEagerness(result, 1)
+  }
+
+  test("should introduce eagerness when setting a property that is filtered on") {
+    val result = execute("MATCH (a:Foo) WHERE a.prop = 1 SET a.prop = 2")
+
     assertNumberOfEagerness(result, 1)
   }
 
+  test("should not introduce eagerness when setting a property that is not read") {
+    val result = execute("MATCH (a:Foo) WHERE a.prop = 1 SET a.other = 2")
+
+    assertNumberOfEagerness(result, 0)
+  }
+
   test("should understand symbols introduced by FOREACH") {
     val result = execute(
       """MATCH (a:Label)
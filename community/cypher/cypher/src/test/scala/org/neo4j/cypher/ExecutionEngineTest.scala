@@ -25,10 +25,11 @@ import org.neo4j.cypher.internal.compiler.v2_2.planner.PlanningMonitor
 import org.neo4j.cypher.internal.compiler.v2_2.planner.logical.plans.LogicalPlan
 import org.neo4j.graphdb._
 import org.neo4j.kernel.TopLevelTransaction
+import org.neo4j.kernel.monitoring.Monitors
 import org.neo4j.test.ImpermanentGraphDatabase
 import scala.collection.JavaConverters._
 import java.util.concurrent.TimeUnit
-import org.neo4j.cypher.internal.PathImpl
+import org.neo4j.cypher.internal.{PathImpl, PlannedQueries}
 import org.neo4j.graphdb.factory.{GraphDatabaseSettings, GraphDatabaseFactory}
 import java.io.{PrintWriter, File}
 import org.neo4j.cypher.internal.commons.CreateTempFileTestSupport
@@ -1079,6 +1080,57 @@ order by a.COL1""")
     ))
   }
 
+  test("queries that only differ in literals should return their own results") {
+    val alice = createNode("name" -> "Alice", "age" -> 42)
+    val bob = createNode("name" -> "Bob", "age" -> 137)
+    relate(alice, createNode())
+    relate(bob, createNode())
+
+    execute("match (n {name: 'Alice'})-->() where n.age > 40 return n.name").toList should equal(List(Map("n.name" -> "Alice")))
+    execute("match (n {name: 'Bob'})-->() where n.age > 100 return n.name").toList should equal(List(Map("n.name" -> "Bob")))
+    execute("match (n {name: 'Bob'})-->() where n.age > 1000 return n.name").toList should equal(List.empty)
+  }
+
+  test("should plan the queries remembered from before a restart once when starting up") {
+    val storeDir = "target/planned-queries"
+    FileUtils.deleteRecursively(new File(storeDir))
+    val planningThreads = new java.util.concurrent.CopyOnWriteArrayList[Thread]()
+    def startDb() = {
+      val monitors = new Monitors()
+      monitors.addMonitorListener(new PlanningMonitor {
+        def startedPlanning(q: String) { planningThreads.add(Thread.currentThread()) }
+        def foundPlan(q: String, p: LogicalPlan) {}
+        def successfulPlanning(q: String, p: PipeInfo) {}
+      })
+      new GraphDatabaseFactory().setMonitors(monitors).newEmbeddedDatabaseBuilder(storeDir)
+        .setConfig(GraphDatabaseSettings.query_cache_persistence, "true")
+        .newGraphDatabase()
+    }
+
+    val old = startDb()
+    try old.execute("match (n:Person:Dog) where n.name = 'Alice' return n").close() finally old.shutdown()
+
+    // the literal is not written down
+    new PlannedQueries(new File(storeDir, PlannedQueries.FILE_NAME), 10, null).load() should equal(
+      Seq("match (n:Person:Dog) where n.name = {`  AUTOSTRING0`} return n"))
+
+    planningThreads.clear()
+    val db = startDb()
+    try {
+      // another engine on the same database does not warm up again
+      new ExecutionEngine(db)
+
+      val deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30)
+      while (planningThreads.isEmpty && System.currentTimeMillis() < deadline) Thread.sleep(10)
+      db.execute("match (n:Person:Dog) where n.name = 'Bob' return n").close()
+
+      planningThreads.asScala should not contain Thread.currentThread()
+      planningThreads.size should equal(1)
+    } finally {
+      db.shutdown()
+    }
+  }
+
   private def createReadOnlyEngine(): ExecutionEngine = {
     FileUtils.deleteRecursively(new File("target/readonly"))
     val old = new GraphDatabaseFactory().newEmbeddedDatabase("target/readonly")
@@ -0,0 +1,44 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+class IDPPlannerAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTestSupport {
+
+  test("should find the same rows as the greedy planner for a longer pattern") {
+    val people = (1 to 10).map(i => createLabeledNode(Map("id" -> i), "Person"))
+    val cities = (1 to 3).map(i => createLabeledNode(Map("id" -> i), "City"))
+    people.sliding(2).foreach { case Seq(a, b) => relate(a, b, "KNOWS") }
+    people.zipWithIndex.foreach { case (p, i) => relate(p, cities(i % 3), "LIVES_IN") }
+
+    val query =
+      "MATCH (a:Person)-[:KNOWS]->(b)-[:KNOWS]->(c)-[:LIVES_IN]->(city:City)<-[:LIVES_IN]-(d)<-[:KNOWS]-(e:Person) " +
+      "WHERE a.id < 5 RETURN a.id, c.id, city.id, d.id, e.id"
+
+    val idp = executeWithNewPlanner(s"PLANNER IDP $query").toSet
+    val greedy = executeWithNewPlanner(s"PLANNER GREEDY $query").toSet
+
+    idp should not be empty
+    idp should equal(greedy)
+  }
+
+  test("should not accept more than one planner") {
+    intercept[SyntaxException](execute("PLANNER IDP PLANNER GREEDY MATCH (n) RETURN n"))
+  }
+}
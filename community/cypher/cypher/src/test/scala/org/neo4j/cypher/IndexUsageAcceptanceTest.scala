@@ -34,6 +34,19 @@ class IndexUsageAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTe
     result.executionPlanDescription().toString should include("NodeIndexSeek")
   }
 
+  test("should use composite index when all of its properties are compared") {
+    // Given
+    execute("CREATE (:Crew { name:'Neo', age: 30 }), (:Crew { name:'Neo', age: 40 }), (:Crew { name:'Trinity', age: 30 })")
+    graph.createIndex("Crew", "name", "age")
+
+    // When
+    val result = executeWithNewPlanner("MATCH (n:Crew) WHERE n.age = 30 AND n.name = 'Neo' RETURN n.name, n.age")
+
+    // Then
+    result.toList should equal(List(Map("n.name" -> "Neo", "n.age" -> 30)))
+    result.executionPlanDescription().toString should include("NodeCompositeIndexSeek")
+  }
+
   test("should not forget predicates") {
     // Given
     execute("CREATE (_0:Matrix { name:'The Architect' }),(_1:Matrix { name:'Agent Smith' }),(_2:Matrix:Crew { name:'Cypher' }),(_3:Crew { name:'Trinity' }),(_4:Crew { name:'Morpheus' }),(_5:Crew { name:'Neo' }), _1-[:CODED_BY]->_0, _2-[:KNOWS]->_1, _4-[:KNOWS]->_3, _4-[:KNOWS]->_2, _5-[:KNOWS]->_4, _5-[:LOVES]->_3")
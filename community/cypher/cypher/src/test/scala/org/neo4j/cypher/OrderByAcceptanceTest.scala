@@ -45,4 +45,54 @@ class OrderByAcceptanceTest extends ExecutionEngineFunSuite with CustomMatchers
       Map("prop" -> -5)
     ))
   }
+
+  test("should use an ordered index scan for ORDER BY with LIMIT on an indexed property") {
+    graph.createIndex("Person", "age")
+    createLabeledNode(Map("age" -> 30, "name" -> "b"), "Person")
+    createLabeledNode(Map("age" -> 20), "Person")
+    createLabeledNode(Map("age" -> 30, "name" -> "a"), "Person")
+    createLabeledNode(Map("age" -> 25.5), "Person")
+    createLabeledNode(Map("name" -> "no age"), "Person")
+
+    val result = executeWithNewPlanner("MATCH (n:Person) RETURN n.age AS age, n.name AS name ORDER BY n.age, n.name LIMIT 4")
+
+    result.toList should equal(List(
+      Map("age" -> 20, "name" -> null),
+      Map("age" -> 25.5, "name" -> null),
+      Map("age" -> 30, "name" -> "a"),
+      Map("age" -> 30, "name" -> "b")
+    ))
+    result.executionPlanDescription().toString should include("NodeIndexScan")
+  }
+
+  test("should sort nodes without the property last when ordering by an indexed property") {
+    graph.createIndex("Person", "age")
+    createLabeledNode(Map("name" -> "no age"), "Person")
+    createLabeledNode(Map("age" -> 30), "Person")
+    createLabeledNode(Map("age" -> 20), "Person")
+
+    val result = executeWithNewPlanner("MATCH (n:Person) RETURN n.age AS age ORDER BY n.age LIMIT 10")
+
+    result.toList should equal(List(
+      Map("age" -> 20),
+      Map("age" -> 30),
+      Map("age" -> null)
+    ))
+  }
+
+  test("should scan an index in descending order when a predicate requires the property") {
+    graph.createIndex("Person", "age")
+    createLabeledNode(Map("age" -> 10), "Person")
+    createLabeledNode(Map("age" -> 40), "Person")
+    createLabeledNode(Map("age" -> 30), "Person")
+    createLabeledNode(Map("name" -> "no age"), "Person")
+
+    val result = executeWithNewPlanner("MATCH (n:Person) WHERE n.age > 15 RETURN n.age AS age ORDER BY n.age DESC LIMIT 10")
+
+    result.toList should equal(List(
+      Map("age" -> 40),
+      Map("age" -> 30)
+    ))
+    result.executionPlanDescription().toString should include("NodeIndexScan")
+  }
 }
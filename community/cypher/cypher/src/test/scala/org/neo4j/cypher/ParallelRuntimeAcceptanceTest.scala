@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+import org.neo4j.kernel.impl.workload.WorkloadManager
+
+import scala.collection.JavaConverters._
+
+class ParallelRuntimeAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTestSupport {
+
+  override def databaseConfig() = super.databaseConfig() ++ Map(
+    GraphDatabaseSettings.workload_classes.name() -> "reporting,analytics",
+    "dbms.workload.reporting.max_concurrent" -> "1",
+    "dbms.workload.analytics.max_concurrent" -> "2")
+
+  test("should aggregate the same as the interpreted runtime over more than one morsel of nodes") {
+    (1 to 3000).foreach(i => createLabeledNode(Map("x" -> i % 5, "y" -> i), "Item"))
+
+    val query = "MATCH (n:Item) WHERE n.y > 100 RETURN n.x, count(*), sum(n.y), min(n.y), max(n.y)"
+
+    val parallel = executeWithNewPlanner(s"RUNTIME PARALLEL $query").toSet
+    val interpreted = executeWithNewPlanner(s"RUNTIME INTERPRETED $query").toSet
+
+    parallel should have size 5
+    parallel should equal(interpreted)
+  }
+
+  test("should count all nodes without grouping keys") {
+    (1 to 2500).foreach(_ => createNode())
+
+    val result = executeWithNewPlanner("RUNTIME PARALLEL MATCH (n) RETURN count(n)").toList
+
+    result should equal(List(Map("count(n)" -> 2500)))
+  }
+
+  test("should see nodes created earlier in the same transaction") {
+    createNode()
+
+    val result = graph.inTx {
+      createNode()
+      executeWithNewPlanner("RUNTIME PARALLEL MATCH (n) RETURN count(*)").toList
+    }
+
+    result should equal(List(Map("count(*)" -> 2)))
+  }
+
+  test("should fall back to the interpreted runtime for aggregations that can not be merged") {
+    (1 to 10).foreach(i => createNode(Map("x" -> i)))
+
+    val result = executeWithNewPlanner("RUNTIME PARALLEL MATCH (n) RETURN avg(n.x)").toList
+
+    result should equal(List(Map("avg(n.x)" -> 5.5)))
+  }
+
+  test("should let its workers in under the workload class of the query") {
+    (1 to 2500).foreach(_ => createNode())
+
+    val result = countNodesInParallelAs("analytics")
+
+    result should equal(List(Map("count(n)" -> 2500)))
+    admitted("analytics") should equal(2)
+  }
+
+  test("should aggregate on the calling thread when the workload class of the query has no room for workers") {
+    (1 to 2500).foreach(_ => createNode())
+
+    val result = countNodesInParallelAs("reporting")
+
+    result should equal(List(Map("count(n)" -> 2500)))
+    admitted("reporting") should equal(1)
+  }
+
+  private def workloads = graph.getDependencyResolver.resolveDependency(classOf[WorkloadManager])
+
+  private def countNodesInParallelAs(workloadClass: String) = {
+    val assignment = workloads.assign(workloadClass)
+    try {
+      graph.inTx {
+        executeWithNewPlanner("RUNTIME PARALLEL MATCH (n) RETURN count(n)").toList
+      }
+    } finally {
+      assignment.close()
+    }
+  }
+
+  private def admitted(workloadClass: String) =
+    workloads.workloadClassInfo().asScala.find(_.getName == workloadClass).get.getAdmitted
+}
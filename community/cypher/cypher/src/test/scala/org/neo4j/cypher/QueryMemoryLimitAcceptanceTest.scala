@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.cypher.internal.compiler.v2_2.pipes.QueryMemoryTracker
+import org.neo4j.cypher.internal.compiler.v2_2.planDescription.InternalPlanDescription.Arguments.PeakMemory
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+
+class QueryMemoryLimitAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTestSupport {
+
+  override def databaseConfig() =
+    super.databaseConfig() ++ Map(
+      GraphDatabaseSettings.query_memory_limit.name() -> "64k",
+      GraphDatabaseSettings.query_memory_global_limit.name() -> "16m")
+
+  test("should fail a query that collects more than the query memory limit") {
+    (1 to 2000).foreach(i => createNode(Map("name" -> s"node number $i")))
+
+    a [MemoryLimitExceededException] should be thrownBy executeWithNewPlanner("MATCH (n) RETURN collect(n.name)")
+  }
+
+  test("should fail a query that sorts more than the query memory limit") {
+    (1 to 2000).foreach(i => createNode(Map("x" -> i)))
+
+    a [MemoryLimitExceededException] should be thrownBy executeWithNewPlanner("MATCH (n) RETURN n.x ORDER BY n.x")
+  }
+
+  test("should run queries within the limit, and give their memory back when they are done") {
+    (1 to 2000).foreach(i => createNode(Map("x" -> i)))
+    val before = QueryMemoryTracker.globalInUse
+
+    executeWithNewPlanner("MATCH (n) WHERE n.x <= 10 RETURN n.x ORDER BY n.x").columnAs[Int]("n.x").toList should
+      equal(1 to 10)
+    executeWithNewPlanner("MATCH (n) RETURN count(*)").columnAs[Long]("count(*)").toList should equal(List(2000))
+
+    QueryMemoryTracker.globalInUse should equal(before)
+  }
+
+  test("should show the most memory an operator held when profiling") {
+    (1 to 100).foreach(i => createNode(Map("x" -> i)))
+
+    val result = profile("MATCH (n) RETURN n.x ORDER BY n.x")
+    result.toList
+
+    val sort = result.executionPlanDescription().find("Sort").head
+    sort.arguments.collectFirst { case PeakMemory(bytes) => bytes }.get should be > 0L
+  }
+}
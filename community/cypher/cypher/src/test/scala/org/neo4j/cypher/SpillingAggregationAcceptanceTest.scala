@@ -0,0 +1,79 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import java.io.File
+
+import org.neo4j.cypher.internal.spi.v2_2.TransactionBoundQueryContext
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+
+class SpillingAggregationAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTestSupport {
+
+  override def databaseConfig() =
+    super.databaseConfig() ++ Map(GraphDatabaseSettings.query_operator_memory.name() -> "1k")
+
+  test("should aggregate on nodes when groups do not fit in memory") {
+    val people = (1 to 200).map(i => createLabeledNode(Map("name" -> s"p$i"), "Person"))
+    people.zipWithIndex.foreach {
+      case (person, i) => (0 to i % 3).foreach(_ => relate(person, createNode()))
+    }
+
+    val result = executeWithNewPlanner("MATCH (p:Person)-->(x) RETURN p, p.name, count(x)").toSet
+
+    result should equal(people.zipWithIndex.map {
+      case (person, i) => Map("p" -> person, "p.name" -> s"p${i + 1}", "count(x)" -> (i % 3 + 1))
+    }.toSet)
+  }
+
+  test("should aggregate collections when groups do not fit in memory") {
+    (1 to 300).foreach(i => createNode(Map("x" -> i)))
+
+    val result = executeWithNewPlanner("MATCH (n) RETURN n.x % 100 AS k, collect(n.x) AS xs").toList
+
+    result should have size 100
+    result.foreach { row =>
+      val k = row("k").asInstanceOf[Number].longValue()
+      row("xs").asInstanceOf[Seq[Number]].map(_.longValue()).toSet should equal((1L to 300L).filter(_ % 100 == k).toSet)
+    }
+  }
+
+  test("should delete the spill files of a query that is closed before all its rows are read") {
+    (1 to 300).foreach(i => createNode(Map("x" -> i)))
+
+    val result = eengine.execute("MATCH (n) RETURN n.x AS k, count(*) AS c")
+    result.next()
+    spillFiles should not be empty
+    result.close()
+
+    spillFiles shouldBe empty
+  }
+
+  test("should delete the spill files of a query that stops reading its aggregation early") {
+    (1 to 300).foreach(i => createNode(Map("x" -> i)))
+
+    val result = eengine.execute("MATCH (n) WITH n.x AS k, count(*) AS c RETURN k, c LIMIT 1").toList
+
+    result should have size 1
+    spillFiles shouldBe empty
+  }
+
+  private def spillFiles: Seq[String] =
+    Option(new File(graph.getStoreDir, TransactionBoundQueryContext.SPILL_DIRECTORY).list()).map(_.toSeq).getOrElse(Seq.empty)
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+import org.neo4j.graphdb.Relationship
+import org.neo4j.graphdb.factory.GraphDatabaseSettings
+
+class SpillingSortAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTestSupport {
+
+  override def databaseConfig() =
+    super.databaseConfig() ++ Map(GraphDatabaseSettings.query_operator_memory.name() -> "1k")
+
+  test("should sort nodes when the rows do not fit in memory") {
+    val nodes = (1 to 500).map(i => createNode(Map("x" -> (i * 7919) % 500)) -> (i * 7919) % 500)
+
+    val result = executeWithNewPlanner("MATCH (n) RETURN n, n.x ORDER BY n.x DESC").toList
+
+    result should equal(nodes.sortBy(-_._2).map { case (n, x) => Map("n" -> n, "n.x" -> x) })
+  }
+
+  test("should sort relationships and lists when the rows do not fit in memory") {
+    (1 to 200).foreach(i => relate(createNode(Map("x" -> i)), createNode()))
+
+    val result = executeWithNewPlanner("MATCH (a)-[r]->(b) RETURN r, [a, b] AS ends, a.x AS x ORDER BY x").toList
+
+    result.map(_("x")) should equal(1 to 200)
+    graph.inTx {
+      result.foreach {
+        row => row("ends") should equal(List(row("r").asInstanceOf[Relationship].getStartNode, row("r").asInstanceOf[Relationship].getEndNode))
+      }
+    }
+  }
+}
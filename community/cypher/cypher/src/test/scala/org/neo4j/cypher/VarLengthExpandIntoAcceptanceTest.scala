@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher
+
+class VarLengthExpandIntoAcceptanceTest extends ExecutionEngineFunSuite with NewPlannerTestSupport {
+
+  test("should expand into the bound end node with the new planner") {
+    diamond()
+
+    val query = "MATCH (a:A), (b:B) WITH a, b LIMIT 1 MATCH (a)-[r*]->(b) " +
+                "RETURN extract(x IN r | id(x)) AS rels, startNode(head(r)) = a AS fromA"
+    val result = executeWithNewPlanner(query)
+
+    result.executionPlanDescription().toString should include("Var length expand into")
+    val rows = result.toList
+    rows should have size 3
+    rows.map(_("fromA")).toSet should equal(Set(true))
+    // the rule planner lists the relationships of these paths from the end node back
+    relationshipSets(rows) should equal(relationshipSets(executeWithRulePlanner(query)))
+  }
+
+  test("should find the empty path when the minimum length is zero and both ends are the same node") {
+    diamond()
+
+    val result = executeWithNewPlanner(
+      "MATCH (a:A) WITH a, a AS b MATCH (a)-[r*0..2]->(b) RETURN length(r) AS length")
+
+    result.toList should equal(List(Map("length" -> 0)))
+  }
+
+  test("should find no path of length zero between different nodes") {
+    diamond()
+
+    val query = "MATCH (a:A), (b:B) WITH a, b MATCH (a)-[r*0..1]->(b) RETURN length(r) AS length"
+
+    executeWithNewPlanner(query).toList should equal(List(Map("length" -> 1)))
+  }
+
+  test("should find cycles back to the start node") {
+    val a = createLabeledNode("A")
+    val x = createNode()
+    val y = createNode()
+    relate(a, x)
+    relate(x, y)
+    relate(y, a)
+    relate(x, a)
+
+    val query = "MATCH (a:A) WITH a MATCH (a)-[r*]->(a) RETURN extract(x IN r | id(x)) AS rels"
+    val result = executeWithNewPlanner(query).toList
+
+    sorted(result) should equal(sorted(executeWithRulePlanner(query)))
+    result should have size 2
+  }
+
+  test("should not use a relationship twice in the same path") {
+    val a = createLabeledNode("A")
+    val b = createLabeledNode("B")
+    val x = createNode()
+    relate(a, x)
+    relate(x, x)
+    relate(x, b)
+
+    val query = "MATCH (a:A), (b:B) WITH a, b MATCH (a)-[r*]->(b) RETURN length(r) AS length"
+    val result = executeWithNewPlanner(query).toList
+
+    result.map(_("length")).toSet should equal(Set(2, 3))
+    sorted(result) should equal(sorted(executeWithRulePlanner(query)))
+  }
+
+  test("should return the same paths as the rule planner for both directions and a type") {
+    val (a, b) = diamond()
+    relate(b, a, "BACK")
+
+    val queries = Seq(
+      "MATCH (a:A), (b:B) WITH a, b MATCH (a)-[r:T*1..3]-(b) RETURN extract(x IN r | id(x)) AS rels",
+      "MATCH (a:A), (b:B) WITH a, b MATCH (a)<-[r*]-(b) RETURN extract(x IN r | id(x)) AS rels",
+      "MATCH (a:A), (b:B) WITH a, b MATCH (a)-[r*2]-(b) RETURN extract(x IN r | id(x)) AS rels")
+
+    queries.foreach {
+      query => sorted(executeWithNewPlanner(query).toList) should equal(sorted(executeWithRulePlanner(query)))
+    }
+  }
+
+  test("should leave var length relationships between unbound nodes to the rule planner") {
+    diamond()
+
+    execute("MATCH (a:A)-[r*]->(b) RETURN count(*)")
+  }
+
+  /*
+  a -> b, and a -> x -> b and a -> y -> b
+   */
+  private def diamond() = {
+    val a = createLabeledNode("A")
+    val b = createLabeledNode("B")
+    val x = createNode()
+    val y = createNode()
+    relate(a, b, "T")
+    relate(a, x, "T")
+    relate(x, b, "T")
+    relate(a, y, "T")
+    relate(y, b, "T")
+    (a, b)
+  }
+
+  private def executeWithRulePlanner(query: String): List[Map[String, Any]] =
+    eengine.execute(s"CYPHER ${CypherVersion.v2_2_rule.name} $query").toList
+
+  private def sorted(rows: List[Map[String, Any]]) = rows.map(_.toString).sorted
+
+  private def relationshipSets(rows: List[Map[String, Any]]) = rows.map(_("rels").asInstanceOf[Seq[Any]].toSet).toSet
+}
@@ -19,6 +19,9 @@
  */
 package org.neo4j.cypher.internal
 
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.{Callable, CountDownLatch, Executors, TimeUnit}
+
 import org.neo4j.cypher.internal.commons.CypherFunSuite
 
 class LRUCacheTest extends CypherFunSuite {
@@ -53,6 +56,63 @@ class LRUCacheTest extends CypherFunSuite {
     cache.containsKey("2") should equal(false);
   }
 
+  test("shouldCreateAMissingValueOnceWhenAskedForItConcurrently") {
+    val cache = new LRUCache[String, String](5)
+    val created = new AtomicInteger()
+    val started = new CountDownLatch(1)
+    val release = new CountDownLatch(1)
+    val executor = Executors.newFixedThreadPool(4)
+
+    try {
+      val first = executor.submit(new Callable[String] {
+        def call() = cache.getOrElseUpdate("query", {
+          started.countDown()
+          release.await()
+          created.incrementAndGet()
+          "plan"
+        })
+      })
+      started.await()
+      val others = (1 to 3).map(_ => executor.submit(new Callable[String] {
+        def call() = cache.getOrElseUpdate("query", {
+          created.incrementAndGet()
+          "another plan"
+        })
+      }))
+      release.countDown()
+
+      (first +: others).map(_.get(10, TimeUnit.SECONDS)) should equal(Seq.fill(4)("plan"))
+      created.get() should equal(1)
+    } finally {
+      executor.shutdownNow()
+    }
+  }
+
+  test("shouldCreateAValueInlineWhenAskedForItWhileCreatingIt") {
+    val cache = new LRUCache[String, String](5)
+    val executor = Executors.newSingleThreadExecutor()
+
+    try {
+      val value = executor.submit(new Callable[String] {
+        def call() = cache.getOrElseUpdate("query", cache.getOrElseUpdate("query", "inner plan") + " and more")
+      })
+
+      value.get(10, TimeUnit.SECONDS) should equal("inner plan")
+      cache.get("query") should equal(Some("inner plan"))
+    } finally {
+      executor.shutdownNow()
+    }
+  }
+
+  test("shouldNotCacheAValueWhoseCreationFailed") {
+    val cache = new LRUCache[String, String](5)
+
+    intercept[IllegalStateException](cache.getOrElseUpdate("query", throw new IllegalStateException("planning failed")))
+
+    cache.containsKey("query") should equal(false)
+    cache.getOrElseUpdate("query", "plan") should equal("plan")
+  }
+
   def fillWithOneToFive(cache: LRUCache[String, String]) {
     cache.put("1", "1")
     cache.put("2", "2")
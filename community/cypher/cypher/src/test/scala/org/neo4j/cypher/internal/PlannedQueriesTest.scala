@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.cypher.internal
+
+import java.io.{File, RandomAccessFile}
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+import org.neo4j.cypher.internal.commons.CypherFunSuite
+import org.neo4j.kernel.impl.util.JobScheduler
+import org.neo4j.kernel.lifecycle.LifecycleAdapter
+
+class PlannedQueriesTest extends CypherFunSuite {
+
+  var file: File = null
+
+  override protected def beforeEach() {
+    super.beforeEach()
+    file = new File(Files.createTempDirectory("planned-queries").toFile, "queries")
+  }
+
+  test("remembers recorded queries") {
+    val queries = new PlannedQueries(file, 10, null)
+    queries.record("MATCH (n) RETURN n")
+    queries.record("MATCH (n:Person) RETURN n.name")
+    queries.close()
+
+    new PlannedQueries(file, 10, null).load() should equal(Seq("MATCH (n) RETURN n", "MATCH (n:Person) RETURN n.name"))
+  }
+
+  test("keeps only the most recently planned distinct queries") {
+    val queries = new PlannedQueries(file, 2, null)
+    queries.record("RETURN 1")
+    queries.record("RETURN 2")
+    queries.record("RETURN 1")
+    queries.record("RETURN 3")
+    queries.close()
+
+    new PlannedQueries(file, 2, null).load() should equal(Seq("RETURN 1", "RETURN 3"))
+  }
+
+  test("compacts the file as it grows") {
+    val queries = new PlannedQueries(file, 2, null)
+    queries.load()
+    (1 to 100).foreach(i => queries.record(s"RETURN ${i % 3}"))
+    queries.close()
+
+    file.length() should be < 100L
+    new PlannedQueries(file, 2, null).load() should equal(Seq("RETURN 0", "RETURN 1"))
+  }
+
+  test("ignores a partially written last query") {
+    val queries = new PlannedQueries(file, 10, null)
+    queries.record("RETURN 1")
+    queries.record("RETURN 2")
+    queries.close()
+    val raf = new RandomAccessFile(file, "rw")
+    try raf.setLength(file.length() - 3) finally raf.close()
+
+    new PlannedQueries(file, 10, null).load() should equal(Seq("RETURN 1"))
+  }
+
+  test("writes queries recorded later on the scheduler") {
+    val scheduler = new InlineJobScheduler
+    val queries = new PlannedQueries(file, 10, scheduler)
+    queries.start()
+    queries.recordLater(() => Some("RETURN {`  AUTOINT0`}"))
+    queries.recordLater(() => None)
+
+    scheduler.scheduled should equal(2)
+    new PlannedQueries(file, 10, null).load() should equal(Seq("RETURN {`  AUTOINT0`}"))
+    queries.stop()
+  }
+
+  test("writes the queries that are still waiting when stopped") {
+    val queries = new PlannedQueries(file, 10, null)
+    queries.start()
+    queries.recordLater(() => Some("RETURN 1"))
+    queries.stop()
+
+    new PlannedQueries(file, 10, null).load() should equal(Seq("RETURN 1"))
+  }
+
+  test("lets only the first caller warm up the plan cache") {
+    val queries = new PlannedQueries(file, 10, null)
+
+    queries.claimWarmUp() should equal(true)
+    queries.claimWarmUp() should equal(false)
+  }
+
+  test("neither remembers nor warms up anything without a capacity") {
+    val queries = new PlannedQueries(file, 0, null)
+    queries.record("RETURN 1")
+
+    queries.claimWarmUp() should equal(false)
+    queries.load() should equal(Seq.empty)
+    file.exists() should equal(false)
+  }
+
+  test("loads nothing when there is no file") {
+    new PlannedQueries(file, 10, null).load() should equal(Seq.empty)
+  }
+
+  class InlineJobScheduler extends LifecycleAdapter with JobScheduler {
+    var scheduled = 0
+
+    def schedule(group: JobScheduler.Group, job: Runnable): JobScheduler.JobHandle = {
+      scheduled += 1
+      job.run()
+      null
+    }
+
+    def scheduleRecurring(group: JobScheduler.Group, runnable: Runnable, period: Long, timeUnit: TimeUnit): JobScheduler.JobHandle =
+      throw new UnsupportedOperationException
+
+    def scheduleRecurring(group: JobScheduler.Group, runnable: Runnable, initialDelay: Long, period: Long,
+                          timeUnit: TimeUnit): JobScheduler.JobHandle =
+      throw new UnsupportedOperationException
+  }
+}
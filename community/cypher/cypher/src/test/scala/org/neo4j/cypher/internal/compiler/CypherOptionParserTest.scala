@@ -44,9 +44,22 @@ class CypherOptionParserTest extends CypherFunSuite {
     parse("EXPLAIN THIS") should equal(CypherQueryWithOptions("THIS", Seq(ExplainOption)))
   }
 
+  test("should parse runtime") {
+    parse("RUNTIME COMPILED MATCH") should equal(CypherQueryWithOptions("MATCH", Seq(CompiledRuntimeOption)))
+    parse("RUNTIME PARALLEL MATCH") should equal(CypherQueryWithOptions("MATCH", Seq(ParallelRuntimeOption)))
+    parse("runtime interpreted MATCH") should equal(CypherQueryWithOptions("MATCH", Seq(InterpretedRuntimeOption)))
+  }
+
+  test("should parse planner") {
+    parse("PLANNER IDP MATCH") should equal(CypherQueryWithOptions("MATCH", Seq(IDPPlannerOption)))
+    parse("planner greedy MATCH") should equal(CypherQueryWithOptions("MATCH", Seq(GreedyPlannerOption)))
+    parse("CYPHER 2.2 PLANNER IDP PROFILE THINGS") should equal(CypherQueryWithOptions("THINGS", Seq(VersionOption("2.2"), IDPPlannerOption, ProfileOption)))
+  }
+
   test("should parse multiple options") {
     parse("CYPHER 2.2-cost PROFILE PATTERN") should equal(CypherQueryWithOptions("PATTERN", Seq(VersionOption("2.2-cost"), ProfileOption)))
     parse("EXPLAIN CYPHER 2.1 YALL") should equal(CypherQueryWithOptions("YALL", Seq(ExplainOption, VersionOption("2.1"))))
+    parse("CYPHER 2.2 RUNTIME COMPILED PROFILE THINGS") should equal(CypherQueryWithOptions("THINGS", Seq(VersionOption("2.2"), CompiledRuntimeOption, ProfileOption)))
   }
 
   test("should require whitespace between option and query") {
@@ -82,6 +82,64 @@ class CypherCompilerAstCacheAcceptanceTest extends CypherFunSuite with GraphData
     counter.counts should equal(CacheCounts(hits = 1, misses = 1, flushes = 1))
   }
 
+  test("should share the plan of queries that only differ in literals") {
+    val compiler = createCompiler()
+    val counter = new CacheCounter()
+    compiler.monitors.addMonitorListener(counter)
+
+    val (_, firstParams) = graph.inTx { compiler.planQuery("match (n:Person {name: 'Alice'})-->() where n.age > 42 return n", planContext, Normal) }
+    val (_, secondParams) = graph.inTx { compiler.planQuery("match (n:Person {name: 'Bob'})-->() where n.age > 137 return n", planContext, Normal) }
+
+    counter.counts should equal(CacheCounts(hits = 1, misses = 1, flushes = 1))
+    firstParams.values.toSet should equal(Set("Alice", 42))
+    secondParams.values.toSet should equal(Set("Bob", 137))
+  }
+
+  test("should share the plan of a query with the text it is remembered by") {
+    val compiler = createCompiler()
+    val counter = new CacheCounter()
+    compiler.monitors.addMonitorListener(counter)
+    val query = "match (n:Person {name: 'Alice'})-->() where n.age > 42 return n"
+    val remembered = compiler.prepareQuery(query, Normal).parameterizedQueryText.get
+
+    graph.inTx { compiler.planQuery(remembered, planContext, Normal) }
+    graph.inTx { compiler.planQuery(query, planContext, Normal) }
+
+    counter.counts should equal(CacheCounts(hits = 1, misses = 1, flushes = 1))
+  }
+
+  test("should write the literals of a query as the parameters they are replaced with") {
+    val compiler = createCompiler()
+    val query = "match (n:Person {name: \"Al\\\"ice\"}) where n.age > -42 and n.weight < 1.5E-3 and n.awake = true " +
+      "return n.name, 'n' limit 10"
+
+    compiler.prepareQuery(query, Normal).parameterizedQueryText should equal(Some(
+      "match (n:Person {name: {`  AUTOSTRING0`}}) where n.age > {`  AUTOINT1`} and n.weight < {`  AUTODOUBLE2`} and " +
+      "n.awake = {`  AUTOBOOL3`} return n.name, {`  AUTOSTRING4`} limit 10"))
+  }
+
+  test("should not share the plan of queries that differ in their limit") {
+    val compiler = createCompiler()
+    val counter = new CacheCounter()
+    compiler.monitors.addMonitorListener(counter)
+
+    graph.inTx { compiler.planQuery("match (n) return n order by n.name limit 10", planContext, Normal) }
+    graph.inTx { compiler.planQuery("match (n) return n order by n.name limit 1000", planContext, Normal) }
+
+    counter.counts should equal(CacheCounts(hits = 0, misses = 2, flushes = 1))
+  }
+
+  test("should not share the plan of queries that differ in their labels") {
+    val compiler = createCompiler()
+    val counter = new CacheCounter()
+    compiler.monitors.addMonitorListener(counter)
+
+    graph.inTx { compiler.planQuery("match (n:Person) return n", planContext, Normal) }
+    graph.inTx { compiler.planQuery("match (n:Dog) return n", planContext, Normal) }
+
+    counter.counts should equal(CacheCounts(hits = 0, misses = 2, flushes = 1))
+  }
+
   test("should monitor cache flushes") {
     val compiler = createCompiler()
     val counter = new CacheCounter()
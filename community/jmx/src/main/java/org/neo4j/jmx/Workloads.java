@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.jmx;
+
+import java.util.List;
+
+import org.neo4j.kernel.info.WorkloadClassInfo;
+
+@ManagementInterface( name = Workloads.NAME )
+@Description( "Information about the workload classes that work is let into the database by" )
+public interface Workloads
+{
+    final String NAME = "Workloads";
+
+    @Description( "The workload classes, with how much of their work is running and waiting, and how much "
+                  + "has been let in, turned away or has stopped waiting" )
+    List<WorkloadClassInfo> getWorkloadClasses();
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.jmx.impl;
+
+import java.util.List;
+import javax.management.NotCompliantMBeanException;
+
+import org.neo4j.helpers.Service;
+import org.neo4j.jmx.Workloads;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
+import org.neo4j.kernel.info.WorkloadClassInfo;
+
+@Service.Implementation( ManagementBeanProvider.class )
+public final class WorkloadsBean extends ManagementBeanProvider
+{
+    public WorkloadsBean()
+    {
+        super( Workloads.class );
+    }
+
+    @Override
+    protected Neo4jMBean createMBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new WorkloadsImpl( management );
+    }
+
+    @Override
+    protected Neo4jMBean createMXBean( ManagementData management ) throws NotCompliantMBeanException
+    {
+        return new WorkloadsImpl( management, true );
+    }
+
+    private static class WorkloadsImpl extends Neo4jMBean implements Workloads
+    {
+        private final WorkloadManager workloads;
+
+        WorkloadsImpl( ManagementData management ) throws NotCompliantMBeanException
+        {
+            super( management );
+            this.workloads = management.resolveDependency( WorkloadManager.class );
+        }
+
+        WorkloadsImpl( ManagementData management, boolean isMXBean )
+        {
+            super( management, isMXBean );
+            this.workloads = management.resolveDependency( WorkloadManager.class );
+        }
+
+        @Override
+        public List<WorkloadClassInfo> getWorkloadClasses()
+        {
+            return workloads.workloadClassInfo();
+        }
+    }
+}
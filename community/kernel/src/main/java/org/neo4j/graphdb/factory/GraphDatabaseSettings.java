@@ -40,12 +40,14 @@ import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.BYTES;
 import static org.neo4j.helpers.Settings.DURATION;
+import static org.neo4j.helpers.Settings.EMPTY;
 import static org.neo4j.helpers.Settings.DirectMemoryUsage.directMemoryUsage;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.INTEGER;
 import static org.neo4j.helpers.Settings.NO_DEFAULT;
 import static org.neo4j.helpers.Settings.PATH;
 import static org.neo4j.helpers.Settings.STRING;
+import static org.neo4j.helpers.Settings.STRING_LIST;
 import static org.neo4j.helpers.Settings.TRUE;
 import static org.neo4j.helpers.Settings.basePath;
 import static org.neo4j.helpers.Settings.illegalValueMessage;
@@ -100,13 +102,72 @@ public abstract class GraphDatabaseSettings
     @Description( "The number of Cypher query execution plans that are cached." )
     public static Setting<Integer> query_cache_size = setting( "query_cache_size", INTEGER, "100", min( 0 ) );
 
+    @Description( "Remember the queries in the query cache in the store directory, and plan them again in the background "
+                  + "when the database starts, so that they are not planned on their first use after a restart." )
+    public static Setting<Boolean> query_cache_persistence = setting( "query_cache_persistence", BOOLEAN, FALSE );
+
     @Description("The minimum lifetime of a query plan before a query is considered for replanning")
     public static Setting<Long> query_plan_ttl = setting( "query_plan_ttl", DURATION, "1s" );
 
+    @Description( "The time the IDP planner, selected with `PLANNER IDP`, may spend searching for the best order of "
+                  + "expands and joins before it completes the plan greedily." )
+    public static Setting<Long> query_planner_idp_budget = setting( "query_planner_idp_budget", DURATION, "1s" );
+
     @Description( "Determines if Cypher will allow using file URLs when loading data using `LOAD CSV`. Setting this "
                   + "value to `false` will cause Neo4j to fail `LOAD CSV` clauses that load data from the file system." )
     public static Setting<Boolean> allow_file_urls = setting( "allow_file_urls", BOOLEAN, TRUE );
 
+    @Description( "The number of batches of a `USING PERIODIC COMMIT` `LOAD CSV` query that may be written "
+                  + "concurrently, each in a transaction of its own. Only queries that stream every row of the file "
+                  + "straight into updates, without returning, aggregating or ordering rows, have their batches "
+                  + "written concurrently, and those batches must not depend on each other, e.g. a `MERGE` should be "
+                  + "backed by a uniqueness constraint. Batches that deadlock with each other are retried." )
+    public static Setting<Integer> load_csv_batch_parallelism =
+            setting( "load_csv_batch_parallelism", INTEGER, "1", min( 1 ) );
+
+    @Description( "The amount of memory a single Cypher operator, such as an aggregation, may use for its state before "
+                  + "it spills that state to temporary files." )
+    public static Setting<Long> query_operator_memory = setting( "query_operator_memory", BYTES, "256m", min( 1024L ) );
+
+    @Description( "The amount of memory a single Cypher query may hold on to for the state of its operators, such as "
+                  + "sort buffers, aggregations and collected values. A query that needs more fails. When not set, "
+                  + "queries are not limited." )
+    public static Setting<Long> query_memory_limit = setting( "query_memory_limit", BYTES, NO_DEFAULT );
+
+    @Description( "The amount of memory all running Cypher queries may hold on to together for the state of their "
+                  + "operators. A query that would take them over it fails. When not set, there is no such limit." )
+    public static Setting<Long> query_memory_global_limit = setting( "query_memory_global_limit", BYTES, NO_DEFAULT );
+
+    @Description( "The number of units of work of the default workload class, such as requests to the transactional "
+                  + "HTTP endpoint, that may run at the same time. When not set, they are not limited." )
+    public static final Setting<Integer> workload_default_max_concurrent =
+            setting( "dbms.workload.default.max_concurrent", INTEGER, NO_DEFAULT, min( 1 ) );
+
+    @Description( "The number of units of work of the default workload class that may wait for their turn when it "
+                  + "is at its limit. Any more are turned away." )
+    public static final Setting<Integer> workload_default_max_queued =
+            setting( "dbms.workload.default.max_queued", INTEGER, "10000", min( 0 ) );
+
+    @Description( "How long work of the default workload class may wait for its turn before it is turned away." )
+    public static final Setting<Long> workload_default_queue_timeout =
+            setting( "dbms.workload.default.queue_timeout", DURATION, "30s" );
+
+    @Description( "The workload classes that work can be put in, besides the `default` class. Each class `<name>` is "
+                  + "configured like the default class, with `dbms.workload.<name>.max_concurrent`, "
+                  + "`dbms.workload.<name>.max_queued` and `dbms.workload.<name>.queue_timeout`, and also with "
+                  + "`dbms.workload.<name>.priority` (classes with a higher priority are let in first, 0 by default) "
+                  + "and `dbms.workload.<name>.users` (the server users whose requests belong to the class). "
+                  + "Requests to the transactional HTTP endpoint can also name their class in the "
+                  + "`X-Workload-Class` header, unless the class lists users and the requesting user is not one of "
+                  + "them. Embedded applications put the transactions of a thread in a class by "
+                  + "assigning the thread to it." )
+    public static final Setting<List<String>> workload_classes = setting( "dbms.workload.classes", STRING_LIST, EMPTY );
+
+    @Description( "The number of units of work of all workload classes together that may run at the same time. When "
+                  + "not set, only the limits of the individual classes apply." )
+    public static final Setting<Integer> workload_max_concurrent =
+            setting( "dbms.workload.max_concurrent", INTEGER, NO_DEFAULT, min( 1 ) );
+
     // Store files
     @Description("The directory where the database files are located.")
     public static final Setting<File> store_dir = setting("store_dir", PATH, NO_DEFAULT );
@@ -169,6 +230,11 @@ public abstract class GraphDatabaseSettings
     public static final Setting<Integer> index_sampling_update_percentage =
             setting("index_sampling_update_percentage", INTEGER, "5", min( 0 ) );
 
+    @Description("Number of incremental samples, estimated from the updates applied to an index since it was last " +
+            "sampled, that are taken before the whole index is sampled again. Set to 0 to always sample the whole index")
+    public static final Setting<Integer> index_sampling_full_resample_interval =
+            setting("index_sampling_full_resample_interval", INTEGER, "10", min( 0 ) );
+
     // Lucene settings
     @Description( "The maximum number of open Lucene index searchers." )
     public static Setting<Integer> lucene_searcher_cache_size = setting("lucene_searcher_cache_size",INTEGER, Integer.toString( Integer.MAX_VALUE ), min( 1 ));
@@ -158,6 +158,7 @@ import org.neo4j.kernel.impl.traversal.MonoDirectionalTraversalDescription;
 import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.Neo4jJobScheduler;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.kernel.info.DiagnosticsManager;
 import org.neo4j.kernel.info.JvmChecker;
 import org.neo4j.kernel.info.JvmMetadataRepository;
@@ -270,6 +271,7 @@ public abstract class InternalAbstractGraphDatabase
     protected NeoStoreDataSource neoDataSource;
     protected RecoveryVerifier recoveryVerifier;
     protected Guard guard;
+    protected WorkloadManager workloadManager;
     protected NodeAutoIndexerImpl nodeAutoIndexer;
     protected RelationshipAutoIndexerImpl relAutoIndexer;
     protected KernelData extensions;
@@ -521,6 +523,8 @@ public abstract class InternalAbstractGraphDatabase
 
         guard = config.get( Configuration.execution_guard_enabled ) ? new Guard( msgLog ) : null;
 
+        workloadManager = new WorkloadManager( config );
+
         lockManager = createLockManager();
 
         idGeneratorFactory = createIdGeneratorFactory();
@@ -1456,6 +1460,10 @@ public abstract class InternalAbstractGraphDatabase
             {
                 return type.cast( guard );
             }
+            else if ( WorkloadManager.class.isAssignableFrom( type ) )
+            {
+                return type.cast( workloadManager );
+            }
             else if ( IndexProviders.class.isAssignableFrom( type ) && type.isInstance( neoDataSource ) )
             {
                 return type.cast( neoDataSource );
@@ -70,6 +70,7 @@ import org.neo4j.kernel.impl.api.UpdateableSchemaState;
 import org.neo4j.kernel.impl.api.index.IndexingService;
 import org.neo4j.kernel.impl.api.index.SchemaIndexProviderMap;
 import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
+import org.neo4j.kernel.impl.api.index.sampling.IndexValueHistograms;
 import org.neo4j.kernel.impl.api.scan.LabelScanStoreProvider;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
 import org.neo4j.kernel.impl.api.store.CacheLayer;
@@ -140,6 +141,7 @@ import org.neo4j.kernel.impl.util.IdOrderingQueue;
 import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.StringLogger;
 import org.neo4j.kernel.impl.util.SynchronizedArrayIdOrderingQueue;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.kernel.info.DiagnosticsExtractor;
 import org.neo4j.kernel.info.DiagnosticsManager;
 import org.neo4j.kernel.info.DiagnosticsPhase;
@@ -677,7 +679,9 @@ public class NeoStoreDataSource implements NeoStoreProvider, Lifecycle, IndexPro
 
         final IndexingService indexingService = IndexingService.create(
                 new IndexSamplingConfig( config ), scheduler, providerMap,
-                new NeoStoreIndexStoreView( lockService, neoStore ), tokenNameLookup, updateableSchemaState,
+                new NeoStoreIndexStoreView( lockService, neoStore, IndexValueHistograms.load( fs,
+                        new File( storeDir, NeoStore.DEFAULT_NAME + StoreFactory.INDEX_HISTOGRAMS_STORE ) ) ),
+                tokenNameLookup, updateableSchemaState,
                 toList( new SchemaStorage( neoStore.getSchemaStore() ).allIndexRules() ), logging,
                 indexingServiceMonitor );
         final IntegrityValidator integrityValidator = new IntegrityValidator( neoStore, indexingService );
@@ -975,7 +979,8 @@ public class NeoStoreDataSource implements NeoStoreProvider, Lifecycle, IndexPro
                         statementOperations, updateableSchemaState, schemaWriteGuard, schemaIndexProviderMap,
                         transactionHeaderInformationFactory, persistenceCache, storeLayer, transactionCommitProcess,
                         indexConfigStore,
-                        legacyIndexProviderLookup, hooks, transactionMonitor, life ) );
+                        legacyIndexProviderLookup, hooks, transactionMonitor, life,
+                        dependencyResolver.resolveDependency( WorkloadManager.class ) ) );
 
         final Kernel kernel = new Kernel( kernelTransactions, hooks, kernelHealth, transactionMonitor );
 
@@ -52,6 +52,16 @@ interface DataRead
     PrimitiveLongIterator nodesGetFromIndexLookup( IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException;
 
+    /**
+     * Returns an iterator over all nodes in the given index, ordered by their indexed value as specified by
+     * {@link org.neo4j.kernel.api.index.IndexReader#orderedScan(boolean)}.
+     *
+     * @throws org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException
+     *          if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexScan( IndexDescriptor index, boolean ascending )
+            throws IndexNotFoundKernelException;
+
     /**
      * @return an iterator over all nodes in the database.
      */
@@ -120,6 +120,8 @@ public interface Status
         MarkedAsFailed( ClientError, "Transaction was marked as both successful and failed. Failure takes precedence" +
                 " and so this transaction was rolled back although it may have looked like it was going to be " +
                 "committed" ),
+        WorkloadLimitReached( TransientError, "The work could not begin, because its workload class was at its " +
+                "concurrency limit and its queue was full or it waited for too long." ),
         ;
 
 
@@ -157,6 +159,8 @@ public interface Status
         // database
         ExecutionFailure( DatabaseError, "The database was unable to execute the statement." ),
         ExternalResourceFailure( TransientError, "The external resource is not available"),
+        MemoryLimitExceeded( TransientError, "The statement needed more memory than the memory limits of the "
+                + "database allow." ),
         ;
 
         private final Code code;
@@ -35,6 +35,13 @@ public interface IndexReader extends Resource
 {
     PrimitiveLongIterator lookup( Object value );
 
+    /**
+     * Returns all nodes in this index ordered by their indexed value. Numbers come first, ordered by their
+     * double value, then strings in lexicographic order, and then values of any other type in no particular
+     * order. A descending scan returns the exact reverse of that.
+     */
+    PrimitiveLongIterator orderedScan( boolean ascending );
+
     IndexReader EMPTY = new IndexReader()
     {
         @Override
@@ -43,6 +50,12 @@ public interface IndexReader extends Resource
             return PrimitiveLongCollections.emptyIterator();
         }
 
+        @Override
+        public PrimitiveLongIterator orderedScan( boolean ascending )
+        {
+            return PrimitiveLongCollections.emptyIterator();
+        }
+
         // Used for checking index correctness
         @Override
         public int getIndexedCount( long nodeId, Object propertyValue )
@@ -57,6 +70,12 @@ public interface IndexReader extends Resource
             return 0;
         }
 
+        @Override
+        public IndexValueHistogram valueHistogram()
+        {
+            return IndexValueHistogram.EMPTY;
+        }
+
         @Override
         public void close()
         {
@@ -76,6 +95,13 @@ public interface IndexReader extends Resource
      */
     public long sampleIndex( DoubleLong.Out result ) throws IndexNotFoundKernelException;
 
+    /**
+     * Build a histogram of the values in this index (on the current thread)
+     * @return the histogram, see {@link IndexValueHistogram}
+     * @throws IndexNotFoundKernelException if the index is dropped while sampling
+     */
+    IndexValueHistogram valueHistogram() throws IndexNotFoundKernelException;
+
     class Delegator implements IndexReader
     {
         private final IndexReader delegate;
@@ -91,6 +117,12 @@ public interface IndexReader extends Resource
             return delegate.lookup( value );
         }
 
+        @Override
+        public PrimitiveLongIterator orderedScan( boolean ascending )
+        {
+            return delegate.orderedScan( ascending );
+        }
+
         @Override
         public int getIndexedCount( long nodeId, Object propertyValue )
         {
@@ -103,6 +135,12 @@ public interface IndexReader extends Resource
             return delegate.sampleIndex( result );
         }
 
+        @Override
+        public IndexValueHistogram valueHistogram() throws IndexNotFoundKernelException
+        {
+            return delegate.valueHistogram();
+        }
+
         @Override
         public void close()
         {
@@ -0,0 +1,564 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.neo4j.helpers.UTF8;
+
+/**
+ * Describes how the values in an index are distributed, as an equi-depth histogram over the numbers and the
+ * strings it holds, together with the values it holds most often.
+ * <p/>
+ * Buckets follow the order of {@link IndexReader#orderedScan(boolean)}, and a bucket never holds both numbers and
+ * strings. Other values, such as booleans and arrays, are only counted. All selectivities are fractions of the
+ * entries in the index.
+ */
+public class IndexValueHistogram
+{
+    public static final int DEFAULT_BUCKETS = 32;
+    public static final int DEFAULT_MOST_COMMON_VALUES = 16;
+
+    public static final IndexValueHistogram EMPTY = new Builder( 1, 0, 0 ).build();
+
+    private static final byte NUMBER = 0;
+    private static final byte STRING = 1;
+
+    private final long entries;
+    private final long distinctValues;
+    private final Object[] commonValues;
+    private final long[] commonCounts;
+    private final Object[] lowerBounds;
+    private final Object[] upperBounds;
+    private final long[] bucketEntries;
+    private final long[] bucketDistinctValues;
+
+    private IndexValueHistogram( long entries, long distinctValues, Object[] commonValues, long[] commonCounts,
+                                 Object[] lowerBounds, Object[] upperBounds, long[] bucketEntries,
+                                 long[] bucketDistinctValues )
+    {
+        this.entries = entries;
+        this.distinctValues = distinctValues;
+        this.commonValues = commonValues;
+        this.commonCounts = commonCounts;
+        this.lowerBounds = lowerBounds;
+        this.upperBounds = upperBounds;
+        this.bucketEntries = bucketEntries;
+        this.bucketDistinctValues = bucketDistinctValues;
+    }
+
+    public long entries()
+    {
+        return entries;
+    }
+
+    public long distinctValues()
+    {
+        return distinctValues;
+    }
+
+    public boolean isEmpty()
+    {
+        return entries == 0;
+    }
+
+    /**
+     * The fraction of entries that have the given value. Values outside of what the histogram has seen are taken
+     * to occur once, since the index may have changed since it was last sampled.
+     */
+    public double equalitySelectivity( Object value )
+    {
+        if ( entries == 0 )
+        {
+            return 0.0d;
+        }
+
+        Object key = orderedKey( value );
+        if ( key == null )
+        {
+            return 1.0d / Math.max( 1, distinctValues );
+        }
+
+        for ( int i = 0; i < commonValues.length; i++ )
+        {
+            if ( commonValues[i].equals( key ) )
+            {
+                return (double) commonCounts[i] / entries;
+            }
+        }
+
+        for ( int bucket = 0; bucket < lowerBounds.length; bucket++ )
+        {
+            if ( contains( bucket, key ) )
+            {
+                // the most common values are accounted for above, so they should not inflate the rest of the bucket
+                long remainingEntries = bucketEntries[bucket];
+                long remainingDistinctValues = bucketDistinctValues[bucket];
+                for ( int i = 0; i < commonValues.length; i++ )
+                {
+                    if ( contains( bucket, commonValues[i] ) )
+                    {
+                        remainingEntries -= commonCounts[i];
+                        remainingDistinctValues--;
+                    }
+                }
+                if ( remainingEntries <= 0 || remainingDistinctValues <= 0 )
+                {
+                    break;
+                }
+                return (double) remainingEntries / remainingDistinctValues / entries;
+            }
+        }
+        return 1.0d / entries;
+    }
+
+    /**
+     * The fraction of entries that have a value which is not known up front, assuming it is drawn from the values
+     * in the index; that is the chance of two random entries having the same value.
+     */
+    public double expectedEqualitySelectivity()
+    {
+        if ( entries == 0 )
+        {
+            return 0.0d;
+        }
+
+        double selectivity = 0.0d;
+        long commonEntries = 0;
+        for ( long count : commonCounts )
+        {
+            double fraction = (double) count / entries;
+            selectivity += fraction * fraction;
+            commonEntries += count;
+        }
+        long remainingEntries = entries - commonEntries;
+        long remainingDistinctValues = distinctValues - commonValues.length;
+        if ( remainingEntries > 0 && remainingDistinctValues > 0 )
+        {
+            double fraction = (double) remainingEntries / entries;
+            selectivity += fraction * fraction / remainingDistinctValues;
+        }
+        return selectivity;
+    }
+
+    /**
+     * The fraction of entries that fall within the given range. A {@code null} bound leaves that side open, but the
+     * range still only covers values of the same kind as the other bound, since numbers never compare to strings.
+     * Bounds that are neither numbers nor strings match nothing.
+     */
+    public double rangeSelectivity( Object lower, boolean lowerInclusive, Object upper, boolean upperInclusive )
+    {
+        Object low = lower == null ? null : orderedKey( lower );
+        Object high = upper == null ? null : orderedKey( upper );
+        if ( entries == 0 || (lower != null && low == null) || (upper != null && high == null) ||
+             (low != null && high != null && kind( low ) != kind( high )) )
+        {
+            return 0.0d;
+        }
+
+        Object bound = low != null ? low : high;
+        double matching = 0.0d;
+        for ( int bucket = 0; bucket < lowerBounds.length; bucket++ )
+        {
+            if ( bound == null || kind( lowerBounds[bucket] ) == kind( bound ) )
+            {
+                // the most common values are counted exactly below, rather than spread over their buckets
+                long remainingEntries = bucketEntries[bucket];
+                long remainingDistinctValues = bucketDistinctValues[bucket];
+                for ( Object common : commonValues )
+                {
+                    if ( contains( bucket, common ) )
+                    {
+                        remainingEntries -= commonCountOf( common );
+                        remainingDistinctValues--;
+                    }
+                }
+                if ( remainingEntries > 0 )
+                {
+                    matching += remainingEntries * overlap( bucket, remainingDistinctValues,
+                            low, lowerInclusive, high, upperInclusive );
+                }
+            }
+        }
+        for ( int i = 0; i < commonValues.length; i++ )
+        {
+            Object common = commonValues[i];
+            if ( (bound == null || kind( common ) == kind( bound )) &&
+                 (low == null || above( common, low, lowerInclusive )) &&
+                 (high == null || above( high, common, upperInclusive )) )
+            {
+                matching += commonCounts[i];
+            }
+        }
+        return Math.min( 1.0d, matching / entries );
+    }
+
+    private long commonCountOf( Object common )
+    {
+        for ( int i = 0; i < commonValues.length; i++ )
+        {
+            if ( commonValues[i].equals( common ) )
+            {
+                return commonCounts[i];
+            }
+        }
+        return 0;
+    }
+
+    private double overlap( int bucket, long distinctValuesInBucket,
+                            Object low, boolean lowInclusive, Object high, boolean highInclusive )
+    {
+        Object bucketLow = lowerBounds[bucket], bucketHigh = upperBounds[bucket];
+        if ( low != null && !above( bucketHigh, low, lowInclusive ) )
+        {
+            return 0.0d;
+        }
+        if ( high != null && !above( high, bucketLow, highInclusive ) )
+        {
+            return 0.0d;
+        }
+
+        boolean coversLow = low == null || above( bucketLow, low, lowInclusive );
+        boolean coversHigh = high == null || above( high, bucketHigh, highInclusive );
+        if ( coversLow && coversHigh )
+        {
+            return 1.0d;
+        }
+
+        double fraction = 0.5d;
+        if ( bucketLow instanceof Double )
+        {
+            // numbers are assumed to spread evenly over the bucket
+            double from = (Double) (coversLow ? bucketLow : low), to = (Double) (coversHigh ? bucketHigh : high);
+            double width = (Double) bucketHigh - (Double) bucketLow;
+            fraction = width > 0 ? (to - from) / width : 1.0d;
+        }
+        return Math.min( 1.0d, Math.max( 1.0d / Math.max( 1, distinctValuesInBucket ), fraction ) );
+    }
+
+    private boolean contains( int bucket, Object key )
+    {
+        return kind( lowerBounds[bucket] ) == kind( key ) &&
+               compare( lowerBounds[bucket], key ) <= 0 && compare( key, upperBounds[bucket] ) <= 0;
+    }
+
+    private static boolean above( Object value, Object bound, boolean inclusive )
+    {
+        int comparison = compare( value, bound );
+        return comparison > 0 || (inclusive && comparison == 0);
+    }
+
+    /**
+     * Numbers are kept as doubles, the way the index compares them, and characters as strings. Anything else
+     * has no order, and is {@code null} here.
+     */
+    private static Object orderedKey( Object value )
+    {
+        if ( value instanceof Number )
+        {
+            return ((Number) value).doubleValue();
+        }
+        if ( value instanceof String || value instanceof Character )
+        {
+            return value.toString();
+        }
+        return null;
+    }
+
+    private static byte kind( Object key )
+    {
+        return key instanceof Double ? NUMBER : STRING;
+    }
+
+    private static int compare( Object left, Object right )
+    {
+        return left instanceof Double
+               ? Double.compare( (Double) left, (Double) right )
+               : ((String) left).compareTo( (String) right );
+    }
+
+    public void writeTo( DataOutput out ) throws IOException
+    {
+        out.writeLong( entries );
+        out.writeLong( distinctValues );
+        out.writeInt( commonValues.length );
+        for ( int i = 0; i < commonValues.length; i++ )
+        {
+            writeKey( out, commonValues[i] );
+            out.writeLong( commonCounts[i] );
+        }
+        out.writeInt( lowerBounds.length );
+        for ( int i = 0; i < lowerBounds.length; i++ )
+        {
+            writeKey( out, lowerBounds[i] );
+            writeKey( out, upperBounds[i] );
+            out.writeLong( bucketEntries[i] );
+            out.writeLong( bucketDistinctValues[i] );
+        }
+    }
+
+    public static IndexValueHistogram readFrom( DataInput in ) throws IOException
+    {
+        long entries = in.readLong();
+        long distinctValues = in.readLong();
+        int common = in.readInt();
+        Object[] commonValues = new Object[common];
+        long[] commonCounts = new long[common];
+        for ( int i = 0; i < common; i++ )
+        {
+            commonValues[i] = readKey( in );
+            commonCounts[i] = in.readLong();
+        }
+        int buckets = in.readInt();
+        Object[] lowerBounds = new Object[buckets], upperBounds = new Object[buckets];
+        long[] bucketEntries = new long[buckets], bucketDistinctValues = new long[buckets];
+        for ( int i = 0; i < buckets; i++ )
+        {
+            lowerBounds[i] = readKey( in );
+            upperBounds[i] = readKey( in );
+            bucketEntries[i] = in.readLong();
+            bucketDistinctValues[i] = in.readLong();
+        }
+        return new IndexValueHistogram( entries, distinctValues, commonValues, commonCounts,
+                lowerBounds, upperBounds, bucketEntries, bucketDistinctValues );
+    }
+
+    private static void writeKey( DataOutput out, Object key ) throws IOException
+    {
+        if ( key instanceof Double )
+        {
+            out.writeByte( NUMBER );
+            out.writeDouble( (Double) key );
+        }
+        else
+        {
+            byte[] bytes = UTF8.encode( (String) key );
+            out.writeByte( STRING );
+            out.writeInt( bytes.length );
+            out.write( bytes );
+        }
+    }
+
+    private static Object readKey( DataInput in ) throws IOException
+    {
+        byte kind = in.readByte();
+        switch ( kind )
+        {
+        case NUMBER:
+            return in.readDouble();
+        case STRING:
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully( bytes );
+            return UTF8.decode( bytes );
+        default:
+            throw new IOException( "Unknown kind of histogram value: " + kind );
+        }
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+        {
+            return true;
+        }
+        if ( obj == null || getClass() != obj.getClass() )
+        {
+            return false;
+        }
+        IndexValueHistogram that = (IndexValueHistogram) obj;
+        return entries == that.entries && distinctValues == that.distinctValues &&
+               Arrays.equals( commonValues, that.commonValues ) && Arrays.equals( commonCounts, that.commonCounts ) &&
+               Arrays.equals( lowerBounds, that.lowerBounds ) && Arrays.equals( upperBounds, that.upperBounds ) &&
+               Arrays.equals( bucketEntries, that.bucketEntries ) &&
+               Arrays.equals( bucketDistinctValues, that.bucketDistinctValues );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        int result = (int) (entries ^ (entries >>> 32));
+        result = 31 * result + Arrays.hashCode( commonValues );
+        result = 31 * result + Arrays.hashCode( upperBounds );
+        return result;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "IndexValueHistogram[entries=%d, distinctValues=%d, mostCommon=%s, buckets=%d]",
+                entries, distinctValues, Arrays.toString( commonValues ), lowerBounds.length );
+    }
+
+    /**
+     * Builds a histogram from the values of an index, which have to be included in the order of
+     * {@link IndexReader#orderedScan(boolean)}, each once together with the number of entries that have it.
+     */
+    public static class Builder
+    {
+        private final int mostCommonValues;
+        private final long bucketDepth;
+        private final PriorityQueue<CommonValue> common;
+
+        private final List<Object> lowerBounds = new ArrayList<>();
+        private final List<Object> upperBounds = new ArrayList<>();
+        private final List<Long> bucketEntries = new ArrayList<>();
+        private final List<Long> bucketDistinctValues = new ArrayList<>();
+
+        private long entries;
+        private long distinctValues;
+
+        private Object bucketLow;
+        private Object bucketHigh;
+        private long bucketEntryCount;
+        private long bucketDistinctCount;
+
+        /**
+         * @param buckets the number of buckets to aim for, given that there will be about {@code expectedEntries}
+         * @param mostCommonValues how many of the most common values to keep
+         * @param expectedEntries the number of entries in the index
+         */
+        public Builder( int buckets, int mostCommonValues, long expectedEntries )
+        {
+            this.mostCommonValues = mostCommonValues;
+            this.bucketDepth = Math.max( 1, expectedEntries / Math.max( 1, buckets ) );
+            this.common = new PriorityQueue<>( Math.max( 1, mostCommonValues ), CommonValue.BY_COUNT );
+        }
+
+        public Builder include( Object value, long count )
+        {
+            Object key = orderedKey( value );
+            if ( key == null )
+            {
+                return includeUnordered( count );
+            }
+            assert count > 0;
+            entries += count;
+            distinctValues++;
+
+            if ( bucketLow != null && kind( bucketLow ) != kind( key ) )
+            {
+                closeBucket();
+            }
+            if ( bucketLow == null )
+            {
+                bucketLow = key;
+            }
+            bucketHigh = key;
+            bucketEntryCount += count;
+            bucketDistinctCount++;
+            if ( bucketEntryCount >= bucketDepth )
+            {
+                closeBucket();
+            }
+
+            // a value that occurs once is no more common than any other
+            if ( count > 1 && mostCommonValues > 0 )
+            {
+                if ( common.size() < mostCommonValues )
+                {
+                    common.add( new CommonValue( key, count ) );
+                }
+                else if ( common.peek().count < count )
+                {
+                    common.poll();
+                    common.add( new CommonValue( key, count ) );
+                }
+            }
+            return this;
+        }
+
+        /** Counts a value that has no order, such as a boolean or an array. */
+        public Builder includeUnordered( long count )
+        {
+            assert count > 0;
+            entries += count;
+            distinctValues++;
+            return this;
+        }
+
+        private void closeBucket()
+        {
+            if ( bucketLow != null )
+            {
+                lowerBounds.add( bucketLow );
+                upperBounds.add( bucketHigh );
+                bucketEntries.add( bucketEntryCount );
+                bucketDistinctValues.add( bucketDistinctCount );
+            }
+            bucketLow = bucketHigh = null;
+            bucketEntryCount = bucketDistinctCount = 0;
+        }
+
+        public IndexValueHistogram build()
+        {
+            closeBucket();
+
+            List<CommonValue> mostCommon = new ArrayList<>( common );
+            Collections.sort( mostCommon, Collections.reverseOrder( CommonValue.BY_COUNT ) );
+            Object[] commonValues = new Object[mostCommon.size()];
+            long[] commonCounts = new long[mostCommon.size()];
+            for ( int i = 0; i < commonValues.length; i++ )
+            {
+                commonValues[i] = mostCommon.get( i ).value;
+                commonCounts[i] = mostCommon.get( i ).count;
+            }
+
+            int buckets = lowerBounds.size();
+            long[] entryCounts = new long[buckets], distinctCounts = new long[buckets];
+            for ( int i = 0; i < buckets; i++ )
+            {
+                entryCounts[i] = bucketEntries.get( i );
+                distinctCounts[i] = bucketDistinctValues.get( i );
+            }
+            return new IndexValueHistogram( entries, distinctValues, commonValues, commonCounts,
+                    lowerBounds.toArray(), upperBounds.toArray(), entryCounts, distinctCounts );
+        }
+    }
+
+    private static class CommonValue
+    {
+        static final Comparator<CommonValue> BY_COUNT = new Comparator<CommonValue>()
+        {
+            @Override
+            public int compare( CommonValue left, CommonValue right )
+            {
+                return Long.compare( left.count, right.count );
+            }
+        };
+
+        final Object value;
+        final long count;
+
+        CommonValue( Object value, long count )
+        {
+            this.value = value;
+            this.count = count;
+        }
+    }
+}
@@ -215,6 +215,14 @@ public class ConstraintEnforcingEntityOperations implements EntityOperations
         return entityReadOperations.nodesGetFromIndexLookup( state, index, value );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexScan( KernelStatement state, IndexDescriptor index,
+                                                        boolean ascending )
+            throws IndexNotFoundKernelException
+    {
+        return entityReadOperations.nodesGetFromIndexScan( state, index, ascending );
+    }
+
     @Override
     public long nodeGetUniqueFromIndexLookup(
             KernelStatement state,
@@ -53,7 +53,7 @@ public interface CountsAccessor extends CountsVisitor.Visitable
 
     void replaceIndexUpdateAndSize( int labelId, int propertyKeyId, long updates, long size );
 
-    void incrementIndexUpdates( int labelId, int propertyKeyId, long total );
+    void incrementIndexUpdates( int labelId, int propertyKeyId, long updatesDelta, long sizeDelta );
 
     void replaceIndexSample( int labelId, int propertyKeyId, long unique, long size );
 
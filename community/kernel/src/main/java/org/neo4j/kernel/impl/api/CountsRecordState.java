@@ -95,9 +95,9 @@ public class CountsRecordState implements CountsAccessor, RecordState
     }
 
     @Override
-    public void incrementIndexUpdates( int labelId, int propertyKeyId, long delta )
+    public void incrementIndexUpdates( int labelId, int propertyKeyId, long updatesDelta, long sizeDelta )
     {
-        counts( indexCountsKey( labelId, propertyKeyId ) ).increment( delta, 0l );
+        counts( indexCountsKey( labelId, propertyKeyId ) ).increment( updatesDelta, sizeDelta );
     }
 
 
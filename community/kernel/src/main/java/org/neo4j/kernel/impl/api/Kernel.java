@@ -26,6 +26,7 @@ import org.neo4j.kernel.api.TransactionHook;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.api.heuristics.StatisticsData;
 import org.neo4j.kernel.impl.transaction.TransactionMonitor;
+import org.neo4j.kernel.impl.workload.WorkloadAdmissionException;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
 /**
@@ -80,7 +81,15 @@ public class Kernel extends LifecycleAdapter implements KernelAPI
     public KernelTransaction newTransaction() throws TransactionFailureException
     {
         health.assertHealthy( TransactionFailureException.class );
-        KernelTransaction transaction = transactions.newInstance();
+        KernelTransaction transaction;
+        try
+        {
+            transaction = transactions.newInstance();
+        }
+        catch ( WorkloadAdmissionException e )
+        {
+            throw new TransactionFailureException( e.status(), e, "%s", e.getMessage() );
+        }
         transactionMonitor.transactionStarted();
         return transaction;
     }
@@ -27,6 +27,7 @@ import java.util.Set;
 import org.neo4j.collection.pool.Pool;
 import org.neo4j.collection.primitive.PrimitiveIntCollections;
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
+import org.neo4j.graphdb.Resource;
 import org.neo4j.helpers.Clock;
 import org.neo4j.helpers.ThisShouldNotHappenError;
 import org.neo4j.kernel.api.KernelTransaction;
@@ -152,6 +153,8 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private long lastTransactionIdWhenStarted;
     /** Implements reusing the same underlying {@link KernelStatement} for overlapping statements. */
     private KernelStatement currentStatement;
+    /** The slot the workload manager let this transaction in with, if any, given up when the transaction ends. */
+    private Resource workloadAdmission;
 
 
     public KernelTransactionImplementation( StatementOperationParts operations,
@@ -196,6 +199,15 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
 
     /** Reset this transaction to a vanilla state, turning it into a logically new transaction. */
     public KernelTransactionImplementation initialize( long lastCommittedTx )
+    {
+        return initialize( lastCommittedTx, null );
+    }
+
+    /**
+     * Reset this transaction to a vanilla state, turning it into a logically new transaction that gives up the
+     * given workload admission when it ends.
+     */
+    public KernelTransactionImplementation initialize( long lastCommittedTx, Resource workloadAdmission )
     {
         assert locks != null : "This transaction has been disposed off, it should not be used.";
         this.terminated = closing = closed = failure = success = false;
@@ -207,6 +219,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
         this.counts.initialize();
         this.startTimeMillis = clock.currentTimeMillis();
         this.lastTransactionIdWhenStarted = lastCommittedTx;
+        this.workloadAdmission = workloadAdmission;
         return this;
     }
 
@@ -575,6 +588,11 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
     private void release()
     {
         locks.releaseAll();
+        if ( workloadAdmission != null )
+        {
+            workloadAdmission.close();
+            workloadAdmission = null;
+        }
         pool.release( this );
     }
 
@@ -822,7 +840,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             else
             {
                 rule = IndexRule.indexRule( schemaStorage.newRuleId(), element.getLabelId(),
-                        element.getPropertyKeyId(), providerDescriptor );
+                        element.getPropertyKeyIds(), providerDescriptor );
             }
             recordState.createSchemaRule( rule );
         }
@@ -833,7 +851,7 @@ public class KernelTransactionImplementation implements KernelTransaction, TxSta
             SchemaStorage.IndexRuleKind kind = isConstraintIndex ?
                                                SchemaStorage.IndexRuleKind.CONSTRAINT
                                                                  : SchemaStorage.IndexRuleKind.INDEX;
-            IndexRule rule = schemaStorage.indexRule( element.getLabelId(), element.getPropertyKeyId(), kind );
+            IndexRule rule = schemaStorage.indexRule( element.getLabelId(), element.getPropertyKeyIds(), kind );
             recordState.dropSchemaRule( rule );
         }
 
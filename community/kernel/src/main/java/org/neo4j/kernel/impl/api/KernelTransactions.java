@@ -47,6 +47,8 @@ import org.neo4j.kernel.impl.transaction.state.IntegrityValidator;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreTransactionContext;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreTransactionContextSupplier;
 import org.neo4j.kernel.impl.transaction.state.TransactionRecordState;
+import org.neo4j.kernel.impl.workload.WorkloadAdmissionException;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
@@ -84,6 +86,7 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
     private final TransactionHooks hooks;
     private final TransactionMonitor transactionMonitor;
     private final LifeSupport dataSourceLife;
+    private final WorkloadManager workloads;
 
     // End Tx Dependencies
 
@@ -113,7 +116,7 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
                                IndexConfigStore indexConfigStore,
                                LegacyIndexApplier.ProviderLookup legacyIndexProviderLookup,
                                TransactionHooks hooks, TransactionMonitor transactionMonitor,
-                               LifeSupport dataSourceLife )
+                               LifeSupport dataSourceLife, WorkloadManager workloads )
     {
         this.neoStoreTransactionContextSupplier = neoStoreTransactionContextSupplier;
         this.neoStore = neoStore;
@@ -135,6 +138,7 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
         this.hooks = hooks;
         this.transactionMonitor = transactionMonitor;
         this.dataSourceLife = dataSourceLife;
+        this.workloads = workloads;
     }
 
     /**
@@ -167,11 +171,28 @@ public class KernelTransactions extends LifecycleAdapter implements Factory<Kern
         }
     };
 
+    /**
+     * Begins a transaction, first waiting for the workload class the calling thread has been assigned to let it in.
+     *
+     * @throws WorkloadAdmissionException if the workload class did not let the transaction in.
+     */
     @Override
     public KernelTransaction newInstance()
     {
         assertDatabaseIsRunning();
-        return localTxPool.acquire().initialize( neoStore.getLastCommittedTransactionId() );
+        WorkloadManager.Admission admission = workloads.admitCurrentThread();
+        try
+        {
+            return localTxPool.acquire().initialize( neoStore.getLastCommittedTransactionId(), admission );
+        }
+        catch ( RuntimeException e )
+        {
+            if ( admission != null )
+            {
+                admission.close();
+            }
+            throw e;
+        }
     }
 
     /**
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections.PrimitiveLongBaseIterator;
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.function.primitive.FunctionFromPrimitiveLong;
+import org.neo4j.helpers.Pair;
+
+/**
+ * Merges the nodes a transaction has added to an index into an ordered scan of the committed index entries,
+ * keeping the order {@link org.neo4j.kernel.api.index.IndexReader#orderedScan(boolean)} promises. Values of
+ * committed nodes are only read while there are added nodes left to place among them.
+ */
+class OrderedIndexScanMerge extends PrimitiveLongBaseIterator
+{
+    /**
+     * Numbers by their double value, then strings, then anything else, which is not ordered any further.
+     */
+    static final Comparator<Object> VALUE_ORDER = new Comparator<Object>()
+    {
+        @Override
+        public int compare( Object left, Object right )
+        {
+            int leftGroup = group( left ), rightGroup = group( right );
+            if ( leftGroup != rightGroup )
+            {
+                return leftGroup - rightGroup;
+            }
+            switch ( leftGroup )
+            {
+            case 0:
+                return Double.compare( ((Number) left).doubleValue(), ((Number) right).doubleValue() );
+            case 1:
+                return left.toString().compareTo( right.toString() );
+            default:
+                return 0;
+            }
+        }
+
+        private int group( Object value )
+        {
+            return value instanceof Number ? 0 : value instanceof String || value instanceof Character ? 1 : 2;
+        }
+    };
+
+    private final PrimitiveLongIterator committed;
+    private final FunctionFromPrimitiveLong<Object> committedValue;
+    private final List<Pair<Long,Object>> added;
+    private final Comparator<Object> order;
+    private int addedPosition;
+    private long pendingCommitted;
+    private Object pendingCommittedValue;
+    private boolean hasPendingCommitted;
+
+    /**
+     * @param committed the ordered scan of the index, without any of the nodes modified in the transaction.
+     * @param committedValue reads the indexed value of a committed node.
+     * @param added the modified nodes that belong in the index, paired with their values.
+     */
+    OrderedIndexScanMerge( PrimitiveLongIterator committed, FunctionFromPrimitiveLong<Object> committedValue,
+                           List<Pair<Long,Object>> added, boolean ascending )
+    {
+        this.committed = committed;
+        this.committedValue = committedValue;
+        this.added = added;
+        this.order = ascending ? VALUE_ORDER : Collections.reverseOrder( VALUE_ORDER );
+        Collections.sort( added, new Comparator<Pair<Long,Object>>()
+        {
+            @Override
+            public int compare( Pair<Long,Object> left, Pair<Long,Object> right )
+            {
+                return order.compare( left.other(), right.other() );
+            }
+        } );
+    }
+
+    @Override
+    protected boolean fetchNext()
+    {
+        if ( addedPosition == added.size() )
+        {
+            if ( hasPendingCommitted )
+            {
+                hasPendingCommitted = false;
+                return next( pendingCommitted );
+            }
+            return committed.hasNext() && next( committed.next() );
+        }
+
+        if ( !hasPendingCommitted && committed.hasNext() )
+        {
+            pendingCommitted = committed.next();
+            pendingCommittedValue = committedValue.apply( pendingCommitted );
+            hasPendingCommitted = true;
+        }
+
+        Pair<Long,Object> nextAdded = added.get( addedPosition );
+        if ( hasPendingCommitted && order.compare( pendingCommittedValue, nextAdded.other() ) <= 0 )
+        {
+            hasPendingCommitted = false;
+            return next( pendingCommitted );
+        }
+        addedPosition++;
+        return next( nextAdded.first() );
+    }
+}
@@ -19,9 +19,11 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,8 +32,10 @@ import org.neo4j.collection.primitive.PrimitiveIntIterator;
 import org.neo4j.collection.primitive.PrimitiveLongCollections;
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.cursor.Cursor;
+import org.neo4j.function.primitive.FunctionFromPrimitiveLong;
 import org.neo4j.function.primitive.PrimitiveLongPredicate;
 import org.neo4j.graphdb.Direction;
+import org.neo4j.helpers.Pair;
 import org.neo4j.helpers.Predicate;
 import org.neo4j.helpers.ThisShouldNotHappenError;
 import org.neo4j.kernel.api.EntityType;
@@ -54,6 +58,7 @@ import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -70,6 +75,7 @@ import org.neo4j.kernel.impl.api.operations.SchemaReadOperations;
 import org.neo4j.kernel.impl.api.operations.SchemaWriteOperations;
 import org.neo4j.kernel.impl.api.state.AugmentWithLocalStateExpandCursor;
 import org.neo4j.kernel.impl.api.state.ConstraintIndexCreator;
+import org.neo4j.kernel.impl.api.state.NodeState;
 import org.neo4j.kernel.impl.api.store.StoreReadLayer;
 import org.neo4j.kernel.impl.core.Token;
 import org.neo4j.kernel.impl.index.IndexEntityType;
@@ -347,6 +353,14 @@ public class StateHandlingStatementOperations implements
         return rule;
     }
 
+    @Override
+    public IndexDescriptor indexCreate( KernelStatement state, int labelId, int[] propertyKeys )
+    {
+        IndexDescriptor rule = new IndexDescriptor( labelId, propertyKeys );
+        state.txState().indexRuleDoAdd( rule );
+        return rule;
+    }
+
     @Override
     public void indexDrop( KernelStatement state, IndexDescriptor descriptor ) throws DropIndexFailureException
     {
@@ -479,7 +493,7 @@ public class StateHandlingStatementOperations implements
             @Override
             public boolean accept( IndexDescriptor item )
             {
-                return item.getPropertyKeyId() == propertyKey;
+                return !item.isComposite() && item.getPropertyKeyId() == propertyKey;
             }
         };
         return filter( predicate, descriptorIterator );
@@ -587,11 +601,148 @@ public class StateHandlingStatementOperations implements
             throws IndexNotFoundKernelException
     {
         PrimitiveLongResourceIterator committed = storeLayer.nodesGetFromIndexLookup( state, index, value );
+        if ( index.isComposite() )
+        {
+            return resourceIterator( filterCompositeIndexMatches( state, index, (Object[]) value, committed ),
+                    committed );
+        }
         PrimitiveLongIterator exactMatches = filterExactIndexMatches( state, index, value, committed );
         PrimitiveLongIterator changeFilteredMatches = filterIndexStateChanges( state, index, value, exactMatches );
         return resourceIterator( changeFilteredMatches, committed );
     }
 
+    @Override
+    public PrimitiveLongIterator nodesGetFromIndexScan( final KernelStatement state, final IndexDescriptor index,
+                                                        boolean ascending )
+            throws IndexNotFoundKernelException
+    {
+        PrimitiveLongResourceIterator committed = storeLayer.nodesGetFromIndexScan( state, index, ascending );
+        if ( !state.hasTxStateWithChanges() )
+        {
+            return committed;
+        }
+
+        // nodes modified in this transaction are left out of the committed scan and merged back in by their values
+        final ReadableTxState txState = state.txState();
+        PrimitiveLongIterator unmodified = PrimitiveLongCollections.filter( committed, new PrimitiveLongPredicate()
+        {
+            @Override
+            public boolean accept( long nodeId )
+            {
+                return !txState.nodeModifiedInThisTx( nodeId );
+            }
+        } );
+        List<Pair<Long,Object>> added = new ArrayList<>();
+        for ( NodeState node : txState.modifiedNodes() )
+        {
+            try
+            {
+                if ( nodeHasLabel( state, node.getId(), index.getLabelId() ) )
+                {
+                    Object value = nodeGetProperty( state, node.getId(), index.getPropertyKeyId() ).value( null );
+                    if ( value != null )
+                    {
+                        added.add( Pair.of( node.getId(), value ) );
+                    }
+                }
+            }
+            catch ( EntityNotFoundException e )
+            {
+                // deleted in this transaction
+            }
+        }
+        FunctionFromPrimitiveLong<Object> committedValue = new FunctionFromPrimitiveLong<Object>()
+        {
+            @Override
+            public Object apply( long nodeId )
+            {
+                try
+                {
+                    return nodeGetProperty( state, nodeId, index.getPropertyKeyId() ).value( null );
+                }
+                catch ( EntityNotFoundException e )
+                {
+                    throw new ThisShouldNotHappenError( "Mattias", "An index claims a node by id " + nodeId +
+                            " has a value. However, it looks like that node does not exist.", e );
+                }
+            }
+        };
+        return resourceIterator( new OrderedIndexScanMerge( unmodified, committedValue, added, ascending ),
+                committed );
+    }
+
+    /**
+     * The transaction state keeps index changes for single properties only, so for a composite index the nodes
+     * modified in this transaction are checked against the sought values instead of trusting the index for them.
+     */
+    private PrimitiveLongIterator filterCompositeIndexMatches( KernelStatement state, IndexDescriptor index,
+            Object[] values, PrimitiveLongIterator committed )
+    {
+        PrimitiveLongPredicate matches = compositeMatch( state, index, values );
+        boolean exactMatchNeeded = false;
+        for ( Object value : values )
+        {
+            exactMatchNeeded |= isNumberOrArray( value );
+        }
+        PrimitiveLongIterator exactMatches = exactMatchNeeded ? PrimitiveLongCollections.filter( committed, matches )
+                                                              : committed;
+        if ( !state.hasTxStateWithChanges() )
+        {
+            return exactMatches;
+        }
+
+        final ReadableTxState txState = state.txState();
+        PrimitiveLongIterator unmodified = PrimitiveLongCollections.filter( exactMatches, new PrimitiveLongPredicate()
+        {
+            @Override
+            public boolean accept( long nodeId )
+            {
+                return !txState.nodeModifiedInThisTx( nodeId );
+            }
+        } );
+        Set<Long> modifiedNodes = new HashSet<>();
+        for ( NodeState node : txState.modifiedNodes() )
+        {
+            modifiedNodes.add( node.getId() );
+        }
+        PrimitiveLongIterator modifiedMatches = PrimitiveLongCollections.filter(
+                PrimitiveLongCollections.toPrimitiveIterator( modifiedNodes.iterator() ), matches );
+        return PrimitiveLongCollections.concat( iterator( unmodified, modifiedMatches ) );
+    }
+
+    private PrimitiveLongPredicate compositeMatch( final KernelStatement state, final IndexDescriptor index,
+                                                  final Object[] values )
+    {
+        final int[] propertyKeyIds = index.getPropertyKeyIds();
+        return new PrimitiveLongPredicate()
+        {
+            @Override
+            public boolean accept( long nodeId )
+            {
+                try
+                {
+                    if ( !nodeHasLabel( state, nodeId, index.getLabelId() ) )
+                    {
+                        return false;
+                    }
+                    for ( int i = 0; i < propertyKeyIds.length; i++ )
+                    {
+                        if ( !nodeGetProperty( state, nodeId, propertyKeyIds[i] ).valueEquals( values[i] ) )
+                        {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                catch ( EntityNotFoundException e )
+                {
+                    // deleted in this transaction
+                    return false;
+                }
+            }
+        };
+    }
+
     private PrimitiveLongIterator filterExactIndexMatches(
             KernelStatement state,
             IndexDescriptor index,
@@ -919,6 +1070,13 @@ public class StateHandlingStatementOperations implements
         return storeLayer.indexUniqueValuesPercentage( descriptor );
     }
 
+    @Override
+    public IndexValueHistogram indexValueHistogram( KernelStatement statement, IndexDescriptor descriptor )
+            throws IndexNotFoundKernelException
+    {
+        return storeLayer.indexValueHistogram( descriptor );
+    }
+
     @Override
     public PrimitiveLongIterator nodeGetRelationships( KernelStatement state, long nodeId, Direction direction,
                                                        int[] relTypes ) throws EntityNotFoundException
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.helpers.BiConsumer;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.NodePropertyUpdate;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.api.properties.Property;
+
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.propertyValuesEqual;
+
+/**
+ * Derives updates to composite indexes from the updates to single properties.
+ * <p/>
+ * Seen from a label and a property key, the property updates of a node describe how its index entry for
+ * that pair changed, just like they do for single property indexes. A property without such an update kept
+ * its value, which is then read from the store. The composite entry of a node is the tuple of the values of all
+ * the properties of the index, and exists only if the node has all of them.
+ * <p/>
+ * This relies on the store already reflecting the transaction that the updates came from.
+ */
+class CompositeIndexUpdates
+{
+    private final Collection<IndexDescriptor> compositeIndexes;
+    private final IndexStoreView storeView;
+    private final Map<Long,List<NodePropertyUpdate>> updatesByNode = new HashMap<>();
+
+    CompositeIndexUpdates( Collection<IndexDescriptor> compositeIndexes, IndexStoreView storeView )
+    {
+        this.compositeIndexes = compositeIndexes;
+        this.storeView = storeView;
+    }
+
+    void add( NodePropertyUpdate update )
+    {
+        for ( IndexDescriptor index : compositeIndexes )
+        {
+            if ( indexOf( index.getPropertyKeyIds(), update.getPropertyKeyId() ) != -1 )
+            {
+                List<NodePropertyUpdate> updates = updatesByNode.get( update.getNodeId() );
+                if ( updates == null )
+                {
+                    updatesByNode.put( update.getNodeId(), updates = new ArrayList<>() );
+                }
+                updates.add( update );
+                return;
+            }
+        }
+    }
+
+    void accept( BiConsumer<IndexDescriptor,NodePropertyUpdate> consumer )
+    {
+        for ( Map.Entry<Long,List<NodePropertyUpdate>> entry : updatesByNode.entrySet() )
+        {
+            for ( IndexDescriptor index : compositeIndexes )
+            {
+                NodePropertyUpdate update = compositeUpdate( entry.getKey(), entry.getValue(), index );
+                if ( update != null )
+                {
+                    consumer.accept( index, update );
+                }
+            }
+        }
+    }
+
+    private NodePropertyUpdate compositeUpdate( long nodeId, List<NodePropertyUpdate> updates, IndexDescriptor index )
+    {
+        int labelId = index.getLabelId();
+        int[] propertyKeyIds = index.getPropertyKeyIds();
+        Object[] before = new Object[propertyKeyIds.length];
+        Object[] after = new Object[propertyKeyIds.length];
+        boolean changed = false;
+        for ( int i = 0; i < propertyKeyIds.length; i++ )
+        {
+            boolean updated = false;
+            for ( NodePropertyUpdate update : updates )
+            {
+                if ( update.getPropertyKeyId() == propertyKeyIds[i] && update.forLabel( labelId ) )
+                {
+                    switch ( update.getUpdateMode() )
+                    {
+                    case ADDED:
+                        after[i] = update.getValueAfter();
+                        break;
+                    case CHANGED:
+                        before[i] = update.getValueBefore();
+                        after[i] = update.getValueAfter();
+                        break;
+                    case REMOVED:
+                        before[i] = update.getValueBefore();
+                        break;
+                    }
+                    updated = true;
+                }
+            }
+            if ( updated )
+            {
+                changed = true;
+            }
+            else
+            {
+                before[i] = after[i] = storedValue( nodeId, propertyKeyIds[i] );
+            }
+        }
+        if ( !changed )
+        {
+            return null;
+        }
+
+        long[] labels = new long[]{labelId};
+        boolean existedBefore = isComplete( before );
+        boolean existsAfter = isComplete( after );
+        if ( existedBefore && existsAfter )
+        {
+            return tupleValuesEqual( before, after ) ? null :
+                   NodePropertyUpdate.change( nodeId, propertyKeyIds[0], before, labels, after, labels );
+        }
+        if ( existedBefore )
+        {
+            return NodePropertyUpdate.remove( nodeId, propertyKeyIds[0], before, labels );
+        }
+        if ( existsAfter )
+        {
+            return NodePropertyUpdate.add( nodeId, propertyKeyIds[0], after, labels );
+        }
+        return null;
+    }
+
+    private Object storedValue( long nodeId, int propertyKeyId )
+    {
+        try
+        {
+            Property property = storeView.getProperty( nodeId, propertyKeyId );
+            return property instanceof DefinedProperty ? ((DefinedProperty) property).value() : null;
+        }
+        catch ( EntityNotFoundException | PropertyNotFoundException e )
+        {
+            return null;
+        }
+    }
+
+    private static boolean isComplete( Object[] tuple )
+    {
+        for ( Object value : tuple )
+        {
+            if ( value == null )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean tupleValuesEqual( Object[] a, Object[] b )
+    {
+        for ( int i = 0; i < a.length; i++ )
+        {
+            if ( !propertyValuesEqual( a[i], b[i] ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf( int[] propertyKeyIds, int propertyKeyId )
+    {
+        for ( int i = 0; i < propertyKeyIds.length; i++ )
+        {
+            if ( propertyKeyIds[i] == propertyKeyId )
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -19,6 +19,8 @@
  */
 package org.neo4j.kernel.impl.api.index;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -104,4 +106,17 @@ public final class IndexMap implements Cloneable
     {
         return indexesByDescriptor.keySet().iterator();
     }
+
+    public Collection<IndexDescriptor> compositeDescriptors()
+    {
+        Collection<IndexDescriptor> composites = new ArrayList<>();
+        for ( IndexDescriptor descriptor : indexesByDescriptor.keySet() )
+        {
+            if ( descriptor.isComposite() )
+            {
+                composites.add( descriptor );
+            }
+        }
+        return composites;
+    }
 }
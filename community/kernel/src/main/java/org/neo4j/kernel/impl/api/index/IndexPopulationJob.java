@@ -33,6 +33,7 @@ import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexPopulator;
 import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
 import org.neo4j.kernel.impl.api.UpdateableSchemaState;
@@ -114,6 +115,7 @@ public class IndexPopulationJob implements Runnable
                 log.flush();
                 populator.create();
                 storeView.replaceIndexCounts( descriptor, 0, 0, 0 );
+                storeView.replaceIndexHistogram( descriptor, IndexValueHistogram.EMPTY );
 
                 indexAllNodes();
                 verifyDeferredConstraints();
@@ -21,6 +21,7 @@ package org.neo4j.kernel.impl.api.index;
 
 import org.neo4j.helpers.collection.Visitor;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.index.PropertyAccessor;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
@@ -55,5 +56,9 @@ public interface IndexStoreView extends PropertyAccessor
 
     void replaceIndexCounts( IndexDescriptor descriptor, long uniqueElements, long maxUniqueElements, long indexSize );
 
-    void incrementIndexUpdates( IndexDescriptor descriptor, long updatesDelta );
+    void incrementIndexUpdates( IndexDescriptor descriptor, long updatesDelta, long sizeDelta );
+
+    IndexValueHistogram indexHistogram( IndexDescriptor descriptor );
+
+    void replaceIndexHistogram( IndexDescriptor descriptor, IndexValueHistogram histogram );
 }
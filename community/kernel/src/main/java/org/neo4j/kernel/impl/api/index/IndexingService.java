@@ -40,6 +40,7 @@ import org.neo4j.kernel.api.exceptions.schema.ConstraintVerificationFailedKernel
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
@@ -197,7 +198,7 @@ public class IndexingService extends LifecycleAdapter
             IndexProxy indexProxy;
 
             long indexId = indexRule.getId();
-            IndexDescriptor descriptor = new IndexDescriptor( indexRule.getLabel(), indexRule.getPropertyKey() );
+            IndexDescriptor descriptor = new IndexDescriptor( indexRule.getLabel(), indexRule.getPropertyKeys() );
             SchemaIndexProvider.Descriptor providerDescriptor = indexRule.getProviderDescriptor();
             SchemaIndexProvider provider = providerMap.apply( providerDescriptor );
             InternalIndexState initialState = provider.getInitialState( indexId );
@@ -327,6 +328,12 @@ public class IndexingService extends LifecycleAdapter
         }
     }
 
+    public IndexValueHistogram indexValueHistogram( long indexId ) throws IndexNotFoundKernelException
+    {
+        final IndexProxy indexProxy = indexMapRef.getOnlineIndexProxy( indexId );
+        return storeView.indexHistogram( indexProxy.getDescriptor() );
+    }
+
     /*
      * Creates an index.
      *
@@ -345,7 +352,7 @@ public class IndexingService extends LifecycleAdapter
             // We already have this index
             return;
         }
-        final IndexDescriptor descriptor = new IndexDescriptor( rule.getLabel(), rule.getPropertyKey() );
+        final IndexDescriptor descriptor = new IndexDescriptor( rule.getLabel(), rule.getPropertyKeys() );
         SchemaIndexProvider.Descriptor providerDescriptor = rule.getProviderDescriptor();
         boolean constraint = rule.isConstraintIndex();
         if ( state == State.RUNNING )
@@ -421,10 +428,17 @@ public class IndexingService extends LifecycleAdapter
         recoveredNodeIds.clear();
     }
 
-    private void applyUpdates( Iterable<NodePropertyUpdate> updates,  IndexUpdaterMap updaterMap )
+    private void applyUpdates( Iterable<NodePropertyUpdate> updates, final IndexUpdaterMap updaterMap )
     {
+        Collection<IndexDescriptor> compositeIndexes = updaterMap.compositeDescriptors();
+        CompositeIndexUpdates compositeUpdates =
+                compositeIndexes.isEmpty() ? null : new CompositeIndexUpdates( compositeIndexes, storeView );
         for ( NodePropertyUpdate update : updates )
         {
+            if ( compositeUpdates != null )
+            {
+                compositeUpdates.add( update );
+            }
             int propertyKeyId = update.getPropertyKeyId();
             switch ( update.getUpdateMode() )
             {
@@ -475,6 +489,18 @@ public class IndexingService extends LifecycleAdapter
                 break;
             }
         }
+
+        if ( compositeUpdates != null )
+        {
+            compositeUpdates.accept( new BiConsumer<IndexDescriptor,NodePropertyUpdate>()
+            {
+                @Override
+                public void accept( IndexDescriptor descriptor, NodePropertyUpdate update )
+                {
+                    processUpdateIfIndexExists( updaterMap, update, descriptor );
+                }
+            } );
+        }
     }
 
     private IndexDescriptor processUpdateIfIndexExists(  IndexUpdaterMap updaterMap, NodePropertyUpdate update, IndexDescriptor descriptor )
@@ -33,6 +33,7 @@ public class UpdateCountingIndexUpdater implements IndexUpdater
     private final IndexDescriptor descriptor;
     private final IndexUpdater delegate;
     private long updates;
+    private long sizeDelta;
 
     public UpdateCountingIndexUpdater( IndexStoreView storeView, IndexDescriptor descriptor, IndexUpdater delegate )
     {
@@ -40,6 +41,7 @@ public class UpdateCountingIndexUpdater implements IndexUpdater
         this.descriptor = descriptor;
         this.delegate = delegate;
         updates = 0l;
+        sizeDelta = 0l;
     }
 
     @Override
@@ -47,13 +49,24 @@ public class UpdateCountingIndexUpdater implements IndexUpdater
     {
         delegate.process( update );
         updates++;
+        switch ( update.getUpdateMode() )
+        {
+            case ADDED:
+                sizeDelta++;
+                break;
+            case REMOVED:
+                sizeDelta--;
+                break;
+            default:
+                break;
+        }
     }
 
     @Override
     public void close() throws IOException, IndexEntryConflictException
     {
         delegate.close();
-        storeView.incrementIndexUpdates( descriptor, updates );
+        storeView.incrementIndexUpdates( descriptor, updates, sizeDelta );
     }
 
     @Override
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+/**
+ * A HyperLogLog sketch for estimating the number of distinct values in an index without keeping the values around.
+ * Uses 2^{@link #PRECISION} one byte registers, which gives a standard error of roughly 1.6%.
+ * <p>
+ * Values can be added but not removed, so the estimate for an index that sees removals will drift upwards until the
+ * sketch is rebuilt. This class is not thread safe.
+ */
+public class HyperLogLog
+{
+    static final int PRECISION = 12;
+    private static final int REGISTER_COUNT = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTER_COUNT);
+
+    private final byte[] registers = new byte[REGISTER_COUNT];
+
+    public void offer( String value )
+    {
+        offerHash( hash( value ) );
+    }
+
+    void offerHash( long hash )
+    {
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        // the extra bit caps the rank for hashes where all the remaining bits are zero
+        byte rank = (byte) (Long.numberOfLeadingZeros( (hash << PRECISION) | (1l << (PRECISION - 1)) ) + 1);
+        if ( rank > registers[index] )
+        {
+            registers[index] = rank;
+        }
+    }
+
+    public long estimate()
+    {
+        double sum = 0;
+        int zeroRegisters = 0;
+        for ( byte register : registers )
+        {
+            sum += 1.0d / (1l << register);
+            if ( register == 0 )
+            {
+                zeroRegisters++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTER_COUNT * REGISTER_COUNT / sum;
+        if ( estimate <= 2.5d * REGISTER_COUNT && zeroRegisters > 0 )
+        {
+            // small range correction, linear counting is more accurate here
+            estimate = REGISTER_COUNT * Math.log( (double) REGISTER_COUNT / zeroRegisters );
+        }
+        return Math.round( estimate );
+    }
+
+    /**
+     * Adds all the values seen by {@code other} to this sketch.
+     */
+    public void merge( HyperLogLog other )
+    {
+        for ( int i = 0; i < REGISTER_COUNT; i++ )
+        {
+            if ( other.registers[i] > registers[i] )
+            {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    static long hash( String value )
+    {
+        // FNV-1a over the chars, followed by the MurmurHash3 finalizer to spread the bits
+        long hash = 0xcbf29ce484222325l;
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            hash ^= value.charAt( i );
+            hash *= 0x100000001b3l;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdl;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53l;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
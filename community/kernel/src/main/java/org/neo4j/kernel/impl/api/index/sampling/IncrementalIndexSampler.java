@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import static org.neo4j.register.Register.DoubleLong;
+
+/**
+ * Keeps an estimate of the number of distinct values in an online index up to date from the updates applied to it,
+ * so that the index can be sampled without scanning all of it.
+ * <p>
+ * The {@link HyperLogLog sketch} has to be seeded by a full sample of the index before it can be used. Since values
+ * can't be removed from the sketch its estimate drifts upwards as entries are changed or removed, which is why a
+ * full sample is asked for again after every {@code fullSampleInterval} incremental samples.
+ */
+public class IncrementalIndexSampler
+{
+    private final int fullSampleInterval;
+
+    private HyperLogLog sketch;
+    private HyperLogLog includedDuringFullSample;
+    private int samplesSinceFullSample;
+
+    public IncrementalIndexSampler( int fullSampleInterval )
+    {
+        this.fullSampleInterval = fullSampleInterval;
+    }
+
+    public synchronized void include( String value )
+    {
+        if ( sketch != null )
+        {
+            sketch.offer( value );
+        }
+        if ( includedDuringFullSample != null )
+        {
+            includedDuringFullSample.offer( value );
+        }
+    }
+
+    public synchronized boolean needsFullSample()
+    {
+        return sketch == null || samplesSinceFullSample >= fullSampleInterval;
+    }
+
+    /**
+     * @return a new sketch that the caller should offer all the values in the index to, and then hand back
+     * to {@link #fullSampleCompleted(HyperLogLog)}.
+     */
+    public synchronized HyperLogLog fullSampleStarted()
+    {
+        if ( includedDuringFullSample == null )
+        {
+            includedDuringFullSample = new HyperLogLog();
+        }
+        return new HyperLogLog();
+    }
+
+    public synchronized void fullSampleCompleted( HyperLogLog fullSample )
+    {
+        if ( includedDuringFullSample != null )
+        {
+            // values may have been added after the full sample passed them by, so don't lose those
+            fullSample.merge( includedDuringFullSample );
+            includedDuringFullSample = null;
+        }
+        sketch = fullSample;
+        samplesSinceFullSample = 0;
+    }
+
+    public synchronized void fullSampleAborted()
+    {
+        includedDuringFullSample = null;
+    }
+
+    /**
+     * Only valid if {@link #needsFullSample()} returned {@code false}.
+     *
+     * @param indexSize the number of entries currently in the index
+     * @param register contains the estimated unique values and the sampled size
+     * @return the index size
+     */
+    public synchronized long result( long indexSize, DoubleLong.Out register )
+    {
+        assert sketch != null : "Incremental sample taken before the index had been fully sampled";
+        long uniqueValues = Math.min( sketch.estimate(), indexSize );
+        register.write( uniqueValues, indexSize );
+        samplesSinceFullSample++;
+        return indexSize;
+    }
+}
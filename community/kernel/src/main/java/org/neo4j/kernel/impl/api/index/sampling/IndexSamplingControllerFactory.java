@@ -92,6 +92,11 @@ public class IndexSamplingControllerFactory
             @Override
             public boolean accept( IndexDescriptor descriptor )
             {
+                if ( descriptor.isComposite() )
+                {
+                    // composite indexes keep no samples, so there is nothing to recover
+                    return false;
+                }
                 boolean result = storeView.indexSample( descriptor, register ).readSecond() == 0;
                 if ( result )
                 {
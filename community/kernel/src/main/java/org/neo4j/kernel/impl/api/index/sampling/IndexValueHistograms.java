@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
+import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+
+/**
+ * The value histograms of the sampled indexes, kept in a file of their own next to the counts store.
+ * <p/>
+ * Histograms only change when an index is sampled, which is rare enough for the whole file to be rewritten every
+ * time. They can always be rebuilt by sampling again, so a file that cannot be read is treated as empty.
+ */
+public class IndexValueHistograms
+{
+    private static final int FORMAT_VERSION = 1;
+
+    private final FileSystemAbstraction fs;
+    private final File file;
+    private final Map<Long, IndexValueHistogram> histograms = new ConcurrentHashMap<>();
+
+    private IndexValueHistograms( FileSystemAbstraction fs, File file )
+    {
+        this.fs = fs;
+        this.file = file;
+    }
+
+    /** Histograms that are read from and written to the given file. */
+    public static IndexValueHistograms load( FileSystemAbstraction fs, File file )
+    {
+        IndexValueHistograms histograms = new IndexValueHistograms( fs, file );
+        histograms.read();
+        return histograms;
+    }
+
+    /** Histograms that only live as long as this instance, for when there is no store to keep them next to. */
+    public static IndexValueHistograms inMemory()
+    {
+        return new IndexValueHistograms( null, null );
+    }
+
+    /** @return the histogram of the index, or {@link IndexValueHistogram#EMPTY} if it has not been sampled. */
+    public IndexValueHistogram get( int labelId, int propertyKeyId )
+    {
+        IndexValueHistogram histogram = histograms.get( key( labelId, propertyKeyId ) );
+        return histogram == null ? IndexValueHistogram.EMPTY : histogram;
+    }
+
+    public synchronized void replace( int labelId, int propertyKeyId, IndexValueHistogram histogram )
+    {
+        IndexValueHistogram previous = histogram.isEmpty()
+                ? histograms.remove( key( labelId, propertyKeyId ) )
+                : histograms.put( key( labelId, propertyKeyId ), histogram );
+        if ( !histogram.equals( previous == null ? IndexValueHistogram.EMPTY : previous ) )
+        {
+            write();
+        }
+    }
+
+    private static long key( int labelId, int propertyKeyId )
+    {
+        return ((long) labelId << 32) | (propertyKeyId & 0xFFFFFFFFL);
+    }
+
+    private void read()
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            return;
+        }
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( fs.openAsInputStream( file ) ) ) )
+        {
+            if ( in.readInt() != FORMAT_VERSION )
+            {
+                return;
+            }
+            int count = in.readInt();
+            for ( int i = 0; i < count; i++ )
+            {
+                long key = in.readLong();
+                histograms.put( key, IndexValueHistogram.readFrom( in ) );
+            }
+        }
+        catch ( IOException e )
+        {
+            // a half written or otherwise unreadable file; the indexes will be sampled again
+            histograms.clear();
+        }
+    }
+
+    private void write()
+    {
+        if ( file == null )
+        {
+            return;
+        }
+        File temporary = new File( file.getPath() + ".tmp" );
+        try
+        {
+            try ( DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream( fs.openAsOutputStream( temporary, false ) ) ) )
+            {
+                out.writeInt( FORMAT_VERSION );
+                out.writeInt( histograms.size() );
+                for ( Map.Entry<Long, IndexValueHistogram> entry : histograms.entrySet() )
+                {
+                    out.writeLong( entry.getKey() );
+                    entry.getValue().writeTo( out );
+                }
+            }
+            fs.deleteFile( file );
+            if ( !fs.renameFile( temporary, file ) )
+            {
+                throw new IOException( "Unable to rename " + temporary + " to " + file );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UnderlyingStorageException( "Unable to write index value histograms to " + file, e );
+        }
+    }
+}
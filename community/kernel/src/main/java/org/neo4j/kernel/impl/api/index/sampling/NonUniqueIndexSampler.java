@@ -46,12 +46,18 @@ public class NonUniqueIndexSampler
 
     public void include( String value )
     {
+        include( value, 1 );
+    }
+
+    public void include( String value, int increment )
+    {
+        assert increment > 0;
         if ( bufferSize >= bufferSizeLimit )
         {
             nextStep();
         }
 
-        if ( values.add( value ) == 1 )
+        if ( values.increment( value, increment ) == increment )
         {
             bufferSize += value.length();
         }
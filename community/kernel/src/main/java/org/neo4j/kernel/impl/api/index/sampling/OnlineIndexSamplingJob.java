@@ -23,6 +23,7 @@ import org.neo4j.helpers.logging.DurationLogger;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.impl.api.index.IndexProxy;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.kernel.impl.util.StringLogger;
@@ -70,6 +71,7 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
                 {
                     Register.DoubleLongRegister sample = Registers.newDoubleLongRegister();
                     final long indexSize = reader.sampleIndex( sample );
+                    IndexValueHistogram histogram = reader.valueHistogram();
 
                     // check again if the index is online before saving the counts in the store
                     if ( indexProxy.getState() == ONLINE )
@@ -77,6 +79,7 @@ class OnlineIndexSamplingJob implements IndexSamplingJob
                         long unique = sample.readFirst();
                         long sampleSize = sample.readSecond();
                         storeView.replaceIndexCounts( indexDescriptor, unique, sampleSize, indexSize );
+                        storeView.replaceIndexHistogram( indexDescriptor, histogram );
                         durationLogger.markAsFinished();
                         logger.info(
                             format( "Sampled index %s with %d unique values in sample of avg size %d taken from " +
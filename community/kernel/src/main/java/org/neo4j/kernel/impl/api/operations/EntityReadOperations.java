@@ -57,6 +57,14 @@ public interface EntityReadOperations
     PrimitiveLongIterator nodesGetFromIndexLookup( KernelStatement state, IndexDescriptor index, Object value )
             throws IndexNotFoundKernelException;
 
+    /**
+     * Returns all nodes in the index, ordered by their indexed value.
+     *
+     * @throws IndexNotFoundKernelException if no such index found.
+     */
+    PrimitiveLongIterator nodesGetFromIndexScan( KernelStatement state, IndexDescriptor index, boolean ascending )
+            throws IndexNotFoundKernelException;
+
     /**
      * Returns an iterable with the matched node.
      *
@@ -38,6 +38,7 @@
  */
 package org.neo4j.kernel.impl.api.store;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 import org.neo4j.collection.primitive.PrimitiveIntIterator;
@@ -56,6 +57,7 @@ import org.neo4j.kernel.api.exceptions.schema.IndexBrokenKernelException;
 import org.neo4j.kernel.api.exceptions.schema.SchemaRuleNotFoundException;
 import org.neo4j.kernel.api.exceptions.schema.TooManyLabelsException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.api.index.InternalIndexState;
 import org.neo4j.kernel.api.properties.DefinedProperty;
 import org.neo4j.kernel.api.properties.Property;
@@ -95,7 +97,7 @@ public class CacheLayer implements StoreReadLayer
         {
             IndexRule rule = (IndexRule) from;
             // We know that we only have int range of property key ids.
-            return new IndexDescriptor( rule.getLabel(), rule.getPropertyKey() );
+            return new IndexDescriptor( rule.getLabel(), rule.getPropertyKeys() );
         }
     };
 
@@ -241,7 +243,8 @@ public class CacheLayer implements StoreReadLayer
             if ( rule instanceof IndexRule )
             {
                 IndexRule indexRule = (IndexRule) rule;
-                if ( kind.isOfKind( indexRule ) && indexRule.getPropertyKey() == index.getPropertyKeyId() )
+                if ( kind.isOfKind( indexRule ) &&
+                     Arrays.equals( indexRule.getPropertyKeys(), index.getPropertyKeyIds() ) )
                 {
                     return indexRule;
                 }
@@ -349,6 +352,14 @@ public class CacheLayer implements StoreReadLayer
         return diskLayer.nodesGetFromIndexLookup( state, schemaCache.indexId( index ), value );
     }
 
+    @Override
+    public PrimitiveLongResourceIterator nodesGetFromIndexScan( KernelStatement state, IndexDescriptor index,
+                                                               boolean ascending )
+            throws IndexNotFoundKernelException
+    {
+        return diskLayer.nodesGetFromIndexScan( state, schemaCache.indexId( index ), ascending );
+    }
+
     @Override
     public IndexDescriptor indexesGetForLabelAndPropertyKey( int labelId, int propertyKey )
     {
@@ -368,6 +379,12 @@ public class CacheLayer implements StoreReadLayer
         return indexingService.indexUniqueValuesPercentage( schemaCache.indexId( descriptor ) );
     }
 
+    @Override
+    public IndexValueHistogram indexValueHistogram( IndexDescriptor descriptor ) throws IndexNotFoundKernelException
+    {
+        return indexingService.indexValueHistogram( schemaCache.indexId( descriptor ) );
+    }
+
     @Override
     public String indexGetFailure( IndexDescriptor descriptor ) throws IndexNotFoundKernelException
     {
@@ -20,6 +20,7 @@
 package org.neo4j.kernel.impl.coreapi.schema;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
@@ -67,7 +68,7 @@ import static org.neo4j.graphdb.schema.Schema.IndexState.POPULATING;
 import static org.neo4j.helpers.collection.Iterables.map;
 import static org.neo4j.helpers.collection.IteratorUtil.addToCollection;
 import static org.neo4j.helpers.collection.IteratorUtil.asCollection;
-import static org.neo4j.helpers.collection.IteratorUtil.single;
+import static org.neo4j.helpers.collection.IteratorUtil.asList;
 
 public class SchemaImpl implements Schema
 {
@@ -132,8 +133,13 @@ public class SchemaImpl implements Schema
                 try
                 {
                     Label label = label( statement.labelGetName( rule.getLabelId() ) );
-                    String propertyKey = statement.propertyKeyGetName( rule.getPropertyKeyId() );
-                    return new IndexDefinitionImpl( actions, label, propertyKey, constraintIndex );
+                    int[] propertyKeyIds = rule.getPropertyKeyIds();
+                    String[] propertyKeys = new String[propertyKeyIds.length];
+                    for ( int i = 0; i < propertyKeyIds.length; i++ )
+                    {
+                        propertyKeys[i] = statement.propertyKeyGetName( propertyKeyIds[i] );
+                    }
+                    return new IndexDefinitionImpl( actions, label, propertyKeys, constraintIndex );
                 }
                 catch ( LabelNotFoundKernelException | PropertyKeyIdNotFoundKernelException e )
                 {
@@ -203,23 +209,9 @@ public class SchemaImpl implements Schema
     {
         assertInUnterminatedTransaction();
 
-        String propertyKey = single( index.getPropertyKeys() );
         try ( Statement statement = statementContextProvider.instance() )
         {
-            int labelId = statement.readOperations().labelGetForName( index.getLabel().name() );
-            int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
-
-            if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
-            {
-                throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
-            }
-
-            if ( propertyKeyId == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
-            {
-                throw new NotFoundException( format( "Property key %s not found", propertyKey ) );
-            }
-
-            IndexDescriptor descriptor = statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId );
+            IndexDescriptor descriptor = getIndexDescriptor( statement.readOperations(), index );
             InternalIndexState indexState = statement.readOperations().indexGetState( descriptor );
             switch ( indexState )
             {
@@ -236,7 +228,7 @@ public class SchemaImpl implements Schema
         catch ( SchemaRuleNotFoundException | IndexNotFoundKernelException e )
         {
             throw new NotFoundException( format( "No index for label %s on property %s",
-                    index.getLabel().name(), propertyKey ) );
+                    index.getLabel().name(), propertyKeysDescription( index ) ) );
         }
     }
 
@@ -245,30 +237,68 @@ public class SchemaImpl implements Schema
     {
         assertInUnterminatedTransaction();
 
-        String propertyKey = single( index.getPropertyKeys() );
         try ( Statement statement = statementContextProvider.instance() )
         {
-            int labelId = statement.readOperations().labelGetForName( index.getLabel().name() );
-            int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
+            IndexDescriptor indexId = getIndexDescriptor( statement.readOperations(), index );
+            return statement.readOperations().indexGetFailure( indexId );
+        }
+        catch ( SchemaRuleNotFoundException | IndexNotFoundKernelException e )
+        {
+            throw new NotFoundException( format( "No index for label %s on property %s",
+                    index.getLabel().name(), propertyKeysDescription( index ) ) );
+        }
+    }
 
-            if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
-            {
-                throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
-            }
+    private IndexDescriptor getIndexDescriptor( ReadOperations readOperations, IndexDefinition index )
+            throws SchemaRuleNotFoundException, IndexNotFoundKernelException
+    {
+        int labelId = readOperations.labelGetForName( index.getLabel().name() );
+        List<String> propertyKeys = asList( index.getPropertyKeys() );
+        int[] propertyKeyIds = new int[propertyKeys.size()];
+        for ( int i = 0; i < propertyKeyIds.length; i++ )
+        {
+            propertyKeyIds[i] = readOperations.propertyKeyGetForName( propertyKeys.get( i ) );
+        }
 
-            if ( propertyKeyId == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
+        if ( labelId == KeyReadOperations.NO_SUCH_LABEL )
+        {
+            throw new NotFoundException( format( "Label %s not found", index.getLabel().name() ) );
+        }
+
+        for ( int i = 0; i < propertyKeyIds.length; i++ )
+        {
+            if ( propertyKeyIds[i] == KeyReadOperations.NO_SUCH_PROPERTY_KEY )
             {
-                throw new NotFoundException( format( "Property key %s not found", propertyKey ) );
+                throw new NotFoundException( format( "Property key %s not found", propertyKeys.get( i ) ) );
             }
+        }
 
-            IndexDescriptor indexId = statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId );
-            return statement.readOperations().indexGetFailure( indexId );
+        if ( propertyKeyIds.length == 1 )
+        {
+            return readOperations.indexesGetForLabelAndPropertyKey( labelId, propertyKeyIds[0] );
         }
-        catch ( SchemaRuleNotFoundException | IndexNotFoundKernelException e )
+        return compositeIndexDescriptor( readOperations, labelId, propertyKeyIds );
+    }
+
+    private static IndexDescriptor compositeIndexDescriptor( ReadOperations readOperations, int labelId,
+            int[] propertyKeyIds ) throws IndexNotFoundKernelException
+    {
+        IndexDescriptor descriptor = new IndexDescriptor( labelId, propertyKeyIds );
+        Iterator<IndexDescriptor> indexes = readOperations.indexesGetForLabel( labelId );
+        while ( indexes.hasNext() )
         {
-            throw new NotFoundException( format( "No index for label %s on property %s",
-                    index.getLabel().name(), propertyKey ) );
+            if ( indexes.next().equals( descriptor ) )
+            {
+                return descriptor;
+            }
         }
+        throw new IndexNotFoundKernelException( "No index found for " + descriptor );
+    }
+
+    private static String propertyKeysDescription( IndexDefinition index )
+    {
+        List<String> propertyKeys = asList( index.getPropertyKeys() );
+        return propertyKeys.size() == 1 ? propertyKeys.get( 0 ) : propertyKeys.toString();
     }
 
     @Override
@@ -352,16 +382,30 @@ public class SchemaImpl implements Schema
         }
 
         @Override
-        public IndexDefinition createIndexDefinition( Label label, String propertyKey )
+        public IndexDefinition createIndexDefinition( Label label, String... propertyKeys )
         {
+            String propertyKey = propertyKeys.length == 1 ? propertyKeys[0] : Arrays.toString( propertyKeys );
             try ( Statement statement = ctxProvider.instance() )
             {
                 try
                 {
                     int labelId = statement.schemaWriteOperations().labelGetOrCreateForName( label.name() );
-                    int propertyKeyId = statement.schemaWriteOperations().propertyKeyGetOrCreateForName( propertyKey );
-                    statement.schemaWriteOperations().indexCreate( labelId, propertyKeyId );
-                    return new IndexDefinitionImpl( this, label, propertyKey, false );
+                    if ( propertyKeys.length == 1 )
+                    {
+                        int propertyKeyId = statement.schemaWriteOperations().propertyKeyGetOrCreateForName( propertyKey );
+                        statement.schemaWriteOperations().indexCreate( labelId, propertyKeyId );
+                    }
+                    else
+                    {
+                        int[] propertyKeyIds = new int[propertyKeys.length];
+                        for ( int i = 0; i < propertyKeys.length; i++ )
+                        {
+                            propertyKeyIds[i] =
+                                    statement.schemaWriteOperations().propertyKeyGetOrCreateForName( propertyKeys[i] );
+                        }
+                        statement.schemaWriteOperations().indexCreate( labelId, propertyKeyIds );
+                    }
+                    return new IndexDefinitionImpl( this, label, propertyKeys, false );
                 }
                 catch ( AlreadyIndexedException e )
                 {
@@ -396,23 +440,32 @@ public class SchemaImpl implements Schema
         }
 
         @Override
-        public void dropIndexDefinitions( Label label, String propertyKey )
+        public void dropIndexDefinitions( Label label, String... propertyKeys )
         {
             try ( Statement statement = ctxProvider.instance() )
             {
                 int labelId = statement.readOperations().labelGetForName( label.name() );
-                int propertyKeyId = statement.readOperations().propertyKeyGetForName( propertyKey );
+                int[] propertyKeyIds = new int[propertyKeys.length];
+                boolean allPropertyKeysExist = true;
+                for ( int i = 0; i < propertyKeys.length; i++ )
+                {
+                    propertyKeyIds[i] = statement.readOperations().propertyKeyGetForName( propertyKeys[i] );
+                    allPropertyKeysExist &= propertyKeyIds[i] != KeyReadOperations.NO_SUCH_PROPERTY_KEY;
+                }
 
-                if ( labelId != KeyReadOperations.NO_SUCH_LABEL && propertyKeyId != KeyReadOperations
-                        .NO_SUCH_PROPERTY_KEY )
+                if ( labelId != KeyReadOperations.NO_SUCH_LABEL && allPropertyKeysExist )
                 {
-                    statement.schemaWriteOperations().indexDrop( statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyId ) );
+                    IndexDescriptor descriptor = propertyKeyIds.length == 1
+                            ? statement.readOperations().indexesGetForLabelAndPropertyKey( labelId, propertyKeyIds[0] )
+                            : compositeIndexDescriptor( statement.readOperations(), labelId, propertyKeyIds );
+                    statement.schemaWriteOperations().indexDrop( descriptor );
                 }
             }
-            catch ( SchemaRuleNotFoundException | DropIndexFailureException e )
+            catch ( SchemaRuleNotFoundException | IndexNotFoundKernelException | DropIndexFailureException e )
             {
                 throw new ConstraintViolationException( String.format(
-                        "Unable to drop index on label `%s` for property %s.", label.name(), propertyKey ), e );
+                        "Unable to drop index on label `%s` for property %s.", label.name(),
+                        propertyKeys.length == 1 ? propertyKeys[0] : Arrays.toString( propertyKeys ) ), e );
             }
             catch ( InvalidTransactionTypeKernelException e )
             {
@@ -51,6 +51,12 @@ enum NoQueryEngine implements QueryExecutionEngine
         throw noQueryEngine();
     }
 
+    @Override
+    public void prepareQuery( String query )
+    {
+        throw noQueryEngine();
+    }
+
     private RuntimeException noQueryEngine()
     {
         return new UnsupportedOperationException( "No query engine installed." );
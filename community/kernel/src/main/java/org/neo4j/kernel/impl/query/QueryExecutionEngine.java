@@ -29,6 +29,12 @@ public interface QueryExecutionEngine
 
     boolean isPeriodicCommit( String query );
 
+    /**
+     * Plans the query without executing it, so that executing it later does not have to. The query is planned in a
+     * transaction of its own, so this should be called from a thread that is not in a transaction.
+     */
+    void prepareQuery( String query ) throws QueryExecutionKernelException;
+
     String prettify( String query );
 
     Result profileQuery( String query, Map<String, Object> parameters ) throws QueryExecutionKernelException;
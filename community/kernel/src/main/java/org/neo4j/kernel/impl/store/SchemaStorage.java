@@ -19,6 +19,7 @@
  */
 package org.neo4j.kernel.impl.store;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 
@@ -91,6 +92,22 @@ public class SchemaStorage implements SchemaRuleAccess
      * Otherwise throw if there are not exactly one matching candidate rule.
      */
     public IndexRule indexRule( int labelId, final int propertyKeyId, IndexRuleKind kind )
+    {
+        return indexRule( labelId, new int[]{propertyKeyId}, kind );
+    }
+
+    /**
+     * Find the IndexRule, of any kind, for the given label and property keys, where more than one
+     * property key means a composite index.
+     *
+     * Otherwise throw if there are not exactly one matching candidate rule.
+     */
+    public IndexRule indexRule( int labelId, int[] propertyKeyIds )
+    {
+        return indexRule( labelId, propertyKeyIds, IndexRuleKind.ALL );
+    }
+
+    public IndexRule indexRule( int labelId, final int[] propertyKeyIds, IndexRuleKind kind )
     {
         Iterator<IndexRule> rules = schemaRules(
                 IndexRule.class, labelId,
@@ -99,7 +116,7 @@ public class SchemaStorage implements SchemaRuleAccess
                     @Override
                     public boolean accept( IndexRule item )
                     {
-                        return item.getPropertyKey() == propertyKeyId;
+                        return Arrays.equals( item.getPropertyKeys(), propertyKeyIds );
                     }
                 } );
 
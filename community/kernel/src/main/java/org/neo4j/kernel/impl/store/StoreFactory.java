@@ -74,6 +74,7 @@ public class StoreFactory
     public static final String SCHEMA_STORE_NAME = ".schemastore.db";
     public static final String RELATIONSHIP_GROUP_STORE_NAME = ".relationshipgroupstore.db";
     public static final String COUNTS_STORE = ".counts.db";
+    public static final String INDEX_HISTOGRAMS_STORE = ".indexhistograms.db";
     private final Config config;
     @SuppressWarnings( "deprecation" )
     private final IdGeneratorFactory idGeneratorFactory;
@@ -21,12 +21,15 @@ package org.neo4j.kernel.impl.store.counts;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.ConcurrentModificationException;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.neo4j.function.Function2;
 import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
@@ -36,36 +39,104 @@ import org.neo4j.kernel.impl.store.counts.keys.NodeKey;
 import org.neo4j.kernel.impl.store.counts.keys.RelationshipKey;
 import org.neo4j.kernel.impl.store.kvstore.KeyValueRecordVisitor;
 import org.neo4j.kernel.impl.store.kvstore.SortedKeyValueStore;
-import org.neo4j.register.ConcurrentRegisters;
 import org.neo4j.register.Register.CopyableDoubleLongRegister;
 import org.neo4j.register.Register.DoubleLong;
 import org.neo4j.register.Register.DoubleLongRegister;
 
 import static org.neo4j.register.Registers.newDoubleLongRegister;
 
+/**
+ * Keeps the changes made since the counts were last written to a store file as {@link CountsDelta deltas} on top of
+ * the store, so that updates never have to read from the store, and never block each other.
+ * <p>
+ * While a state is being rotated out, its successor is layered on top of it rather than on top of the store, and
+ * takes all new updates. The state being rotated out is left unchanged once the updates that were already in flight
+ * have completed, so that it can be written to the new store file while the successor keeps accepting updates. Once
+ * the new store file has been written the successor is moved over onto it.
+ */
 class ConcurrentCountsTrackerState implements CountsTrackerState
 {
     private static final int INITIAL_CHANGES_CAPACITY = 1024;
 
-    private final SortedKeyValueStore<CountsKey, CopyableDoubleLongRegister> store;
+    private volatile SortedKeyValueStore<CountsKey, CopyableDoubleLongRegister> store;
+    private volatile ConcurrentCountsTrackerState previous;
 
-    private final ConcurrentMap<CountsKey,CopyableDoubleLongRegister> changes =
+    private final ConcurrentMap<CountsKey,CountsDelta> changes =
         new ConcurrentHashMap<>( INITIAL_CHANGES_CAPACITY );
+    private final AtomicInteger updatesInFlight = new AtomicInteger();
+    private volatile boolean rotatedOut;
 
     ConcurrentCountsTrackerState( SortedKeyValueStore<CountsKey, CopyableDoubleLongRegister> store )
+    {
+        this( store, null );
+    }
+
+    private ConcurrentCountsTrackerState( SortedKeyValueStore<CountsKey, CopyableDoubleLongRegister> store,
+                                          ConcurrentCountsTrackerState previous )
     {
         this.store = store;
+        this.previous = previous;
     }
 
     @Override
     public String toString()
     {
-        return String.format( "ConcurrentTrackerState[store=%s - %s]", store, changes.toString() );
+        return String.format( "ConcurrentTrackerState[store=%s, previous=%s - %s]", store, previous, changes );
     }
 
     public boolean hasChanges()
     {
-        return !changes.isEmpty();
+        return !changes.isEmpty() || previous != null;
+    }
+
+    /**
+     * @return the state that takes over all updates from this one, layered on top of it until
+     * {@link #rotatedOnto(SortedKeyValueStore)} is called on it.
+     */
+    ConcurrentCountsTrackerState successor()
+    {
+        return new ConcurrentCountsTrackerState( store, this );
+    }
+
+    /**
+     * Stops this state from accepting any more updates, and waits for the updates in flight to complete. After this
+     * call the state does not change anymore.
+     */
+    void awaitUpdatesCompleted()
+    {
+        rotatedOut = true;
+        while ( updatesInFlight.get() > 0 )
+        {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Moves this state from on top of the state that was rotated out onto the store the rotated out state was
+     * written to.
+     */
+    void rotatedOnto( SortedKeyValueStore<CountsKey, CopyableDoubleLongRegister> store )
+    {
+        this.store = store;
+        this.previous = null;
+    }
+
+    @Override
+    public boolean beginUpdate()
+    {
+        updatesInFlight.incrementAndGet();
+        if ( rotatedOut )
+        {
+            updatesInFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void endUpdate()
+    {
+        updatesInFlight.decrementAndGet();
     }
 
     @Override
@@ -82,10 +153,10 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
             // this prevent to load in memory data that don't need to be modified
             return;
         }
-        CopyableDoubleLongRegister register = writeRegister( key );
-        register.increment( 0, delta );
-        assert register.satisfies( NON_NEGATIVE ) :
-                String.format( "incrementNodeCount(key=%s, delta=%d) -> %s", key, delta, register );
+        delta( key ).increment( 0, delta );
+        assert readIntoRegister( key, newDoubleLongRegister() ).satisfies( NON_NEGATIVE ) :
+                String.format( "incrementNodeCount(key=%s, delta=%d) -> %s", key, delta,
+                        readIntoRegister( key, newDoubleLongRegister() ) );
     }
 
     @Override
@@ -102,10 +173,10 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
             // this prevent to load in memory data that don't need to be modified
             return;
         }
-        CopyableDoubleLongRegister register = writeRegister( key );
-        register.increment( 0, delta );
-        assert register.satisfies( NON_NEGATIVE ) :
-                String.format( "incrementRelationshipCount(key=%s, delta=%d) -> %s", key, delta, register );
+        delta( key ).increment( 0, delta );
+        assert readIntoRegister( key, newDoubleLongRegister() ).satisfies( NON_NEGATIVE ) :
+                String.format( "incrementRelationshipCount(key=%s, delta=%d) -> %s", key, delta,
+                        readIntoRegister( key, newDoubleLongRegister() ) );
     }
 
     @Override
@@ -113,7 +184,8 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
     {
         assert updates >= 0 && size >= 0 :
                 String.format( "replaceIndexSize(key=%s, updates=%d, size=%d)", key, updates, size );
-        writeRegister( key ).write( updates, size );
+        // increments racing with this replacement may be lost, which is fine for these approximate values
+        changes.put( key, CountsDelta.replacement( updates, size ) );
     }
 
     @Override
@@ -123,15 +195,18 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
     }
 
     @Override
-    public void incrementIndexUpdates( IndexCountsKey key, long delta )
+    public void incrementIndexUpdates( IndexCountsKey key, long updatesDelta, long sizeDelta )
     {
-        if ( delta == 0 )
+        if ( updatesDelta == 0 && sizeDelta == 0 )
         {
             // this prevent to load in memory data that don't need to be modified
             return;
         }
-        assert delta > 0 : String.format( "incrementIndexUpdates(key=%s, delta=%d)", key, delta );
-        writeRegister( key ).increment( delta, 0l );
+        assert updatesDelta >= 0 :
+                String.format( "incrementIndexUpdates(key=%s, updatesDelta=%d, sizeDelta=%d)", key, updatesDelta,
+                        sizeDelta );
+        // the size is only kept approximately up to date between samples, the next sample will correct it
+        delta( key ).increment( updatesDelta, sizeDelta );
     }
 
     @Override
@@ -145,34 +220,57 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
     {
         assert unique >= 0 && size >= 0 && unique <= size :
                 String.format( "replaceIndexSample(key=%s, unique=%d, size=%d)", key, unique, size );
-        writeRegister( key ).write( unique, size );
+        changes.put( key, CountsDelta.replacement( unique, size ) );
     }
 
-    private DoubleLongRegister readIntoRegister( CountsKey key, DoubleLongRegister target )
+    DoubleLongRegister readIntoRegister( CountsKey key, DoubleLongRegister target )
     {
-        CopyableDoubleLongRegister sample = changes.get( key );
-        if ( sample == null )
+        CountsDelta delta = changes.get( key );
+        if ( delta != null && delta.isReplacement() )
+        {
+            delta.applyTo( 0, 0, target );
+            return target;
+        }
+        ConcurrentCountsTrackerState previous = this.previous;
+        if ( previous == null )
         {
             store.get( key, target );
         }
         else
         {
-            sample.copyTo( target );
+            previous.readIntoRegister( key, target );
+        }
+        if ( delta != null )
+        {
+            delta.applyTo( target.readFirst(), target.readSecond(), target );
         }
         return target;
     }
 
-    private CopyableDoubleLongRegister writeRegister( CountsKey key )
+    private CountsDelta delta( CountsKey key )
     {
-        CopyableDoubleLongRegister sample = changes.get( key );
-        if ( sample == null )
+        CountsDelta delta = changes.get( key );
+        if ( delta == null )
         {
-            sample = ConcurrentRegisters.OptimisticRead.newDoubleLongRegister();
-            store.get( key, sample );
-            CopyableDoubleLongRegister previous = changes.putIfAbsent( key, sample );
-            return previous == null ? sample : previous;
+            delta = CountsDelta.relative();
+            CountsDelta previous = changes.putIfAbsent( key, delta );
+            return previous == null ? delta : previous;
         }
-        return sample;
+        return delta;
+    }
+
+    SortedKeyValueStore<CountsKey, CopyableDoubleLongRegister> store()
+    {
+        return store;
+    }
+
+    /**
+     * @return the keys changed on top of the store, or {@code null} if they are not known since this state is still
+     * layered on top of a state that was being rotated out.
+     */
+    Set<CountsKey> changedKeys()
+    {
+        return previous == null ? new HashSet<>( changes.keySet() ) : null;
     }
 
     @Override
@@ -199,7 +297,15 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
     {
         try ( Merger<CountsKey> merger = new Merger<>( visitor, sortedUpdates( changes ) ) )
         {
-            store.accept( merger, newDoubleLongRegister() );
+            ConcurrentCountsTrackerState previous = this.previous;
+            if ( previous == null )
+            {
+                store.accept( merger, newDoubleLongRegister() );
+            }
+            else
+            {
+                previous.accept( merger );
+            }
         }
     }
 
@@ -209,34 +315,25 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
         store.close();
     }
 
-    private static Update<CountsKey>[] sortedUpdates( ConcurrentMap<CountsKey,CopyableDoubleLongRegister> updates )
+    private static Update<CountsKey>[] sortedUpdates( ConcurrentMap<CountsKey,CountsDelta> updates )
     {
-        @SuppressWarnings( "unchecked" )
-        Update<CountsKey>[] result = new Update[updates.size()];
+        List<Update<CountsKey>> result = new ArrayList<>( updates.size() );
         DoubleLongRegister tmp = newDoubleLongRegister();
-        Iterator<Map.Entry<CountsKey,CopyableDoubleLongRegister>> entries = updates.entrySet().iterator();
-        for ( int i = 0; i < result.length; i++ )
+        for ( Map.Entry<CountsKey,CountsDelta> entry : updates.entrySet() )
         {
-            if ( !entries.hasNext() )
-            {
-                throw new ConcurrentModificationException( "fewer entries than expected" );
-            }
-            result[i] = Update.from( entries.next(), tmp );
+            result.add( Update.from( entry, tmp ) );
         }
-        if ( entries.hasNext() )
-        {
-            throw new ConcurrentModificationException( "more entries than expected" );
-        }
-
-        Arrays.sort( result );
-        return result;
+        @SuppressWarnings( "unchecked" )
+        Update<CountsKey>[] sorted = result.toArray( new Update[result.size()] );
+        Arrays.sort( sorted );
+        return sorted;
     }
 
     private static final class Merger<K extends Comparable<K>>
             implements KeyValueRecordVisitor<K, CopyableDoubleLongRegister>, AutoCloseable
     {
         private final KeyValueRecordVisitor<K, CopyableDoubleLongRegister> target;
-        private final CopyableDoubleLongRegister tmp = newDoubleLongRegister();
+        private final DoubleLongRegister tmp = newDoubleLongRegister();
         private final Update<K>[] updates;
         private int next;
 
@@ -254,17 +351,16 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
                 Update<K> nextUpdate = updates[next];
                 int cmp = key.compareTo( nextUpdate.key );
                 if ( cmp == 0 )
-                { // overwrite the value in the store
+                { // apply the change to the value in the store
                     next++;
-                    nextUpdate.writeTo( register );
+                    register.copyTo( tmp );
+                    nextUpdate.applyTo( tmp.readFirst(), tmp.readSecond(), register );
                 }
                 else if ( cmp > 0 )
                 { // write this before writing the entry from the store
                     next++;
-                    register.copyTo( tmp );
-                    nextUpdate.writeTo( register );
-                    target.visit( nextUpdate.key, register );
-                    tmp.copyTo( register );
+                    nextUpdate.applyTo( 0, 0, tmp );
+                    target.visit( nextUpdate.key, tmp );
                     continue; // then see if there are more entries to consider from the updates...
                 }
                 break;
@@ -279,7 +375,7 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
                 for ( int i = next; i < updates.length; i++ )
                 {
                     Update<K> update = updates[i];
-                    update.writeTo( tmp );
+                    update.applyTo( 0, 0, tmp );
                     target.visit( update.key, tmp );
                 }
             }
@@ -289,32 +385,43 @@ class ConcurrentCountsTrackerState implements CountsTrackerState
     private static final class Update<K extends Comparable<K>> implements Comparable<Update<K>>
     {
         final K key;
+        final boolean replacement;
         final long first;
         final long second;
 
-        static <K extends Comparable<K>> Update<K> from( Map.Entry<K,CopyableDoubleLongRegister> entry,
+        static <K extends Comparable<K>> Update<K> from( Map.Entry<K,CountsDelta> entry,
                                                          DoubleLongRegister register )
         {
-            entry.getValue().copyTo( register );
-            return new Update<>( entry.getKey(), register.readFirst(), register.readSecond() );
+            CountsDelta delta = entry.getValue();
+            delta.applyTo( 0, 0, register );
+            return new Update<>( entry.getKey(), delta.isReplacement(), register.readFirst(), register.readSecond() );
         }
 
-        Update( K key, long first, long second )
+        Update( K key, boolean replacement, long first, long second )
         {
             this.key = key;
+            this.replacement = replacement;
             this.first = first;
             this.second = second;
         }
 
-        void writeTo( DoubleLong.Out target )
+        void applyTo( long baseFirst, long baseSecond, DoubleLong.Out target )
         {
-            target.write( first, second );
+            if ( replacement )
+            {
+                target.write( first, second );
+            }
+            else
+            {
+                target.write( baseFirst + first, baseSecond + second );
+            }
         }
 
         @Override
         public String toString()
         {
-            return String.format( "Update{key=%s, first=%d, second=%d}", key, first, second );
+            return String.format( "Update{key=%s, %s first=%d, second=%d}", key, replacement ? "replace" : "add",
+                    first, second );
         }
 
         @Override
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.neo4j.register.Register.DoubleLong;
+
+/**
+ * The change to a single counts entry since the layer below it, i.e. the store file or a state that is being rotated
+ * out. A delta is either relative, in which case it is added to the value below it when read, or a replacement,
+ * in which case the value below it is ignored. Increments never lock: they are applied to a shared cell, and once
+ * that cell is contended each thread adds to its own stripe instead. The stripes are summed up when read.
+ */
+final class CountsDelta
+{
+    private static final int STRIPES = stripes( Runtime.getRuntime().availableProcessors() );
+    // each stripe occupies its own cache line, to not have threads invalidate each others stripes
+    private static final int STRIPE_SIZE = 8;
+
+    private final boolean replacement;
+    private final AtomicLongArray base = new AtomicLongArray( 2 );
+    private final AtomicReference<AtomicLongArray> stripes = new AtomicReference<>();
+
+    static CountsDelta relative()
+    {
+        return new CountsDelta( false, 0, 0 );
+    }
+
+    static CountsDelta replacement( long first, long second )
+    {
+        return new CountsDelta( true, first, second );
+    }
+
+    private CountsDelta( boolean replacement, long first, long second )
+    {
+        this.replacement = replacement;
+        this.base.set( 0, first );
+        this.base.set( 1, second );
+    }
+
+    boolean isReplacement()
+    {
+        return replacement;
+    }
+
+    void increment( long firstDelta, long secondDelta )
+    {
+        AtomicLongArray cells = stripes.get();
+        if ( cells == null )
+        {
+            long first = base.get( 0 );
+            if ( base.compareAndSet( 0, first, first + firstDelta ) )
+            {
+                base.addAndGet( 1, secondDelta );
+                return;
+            }
+            // contended, from now on every thread goes to its own stripe
+            stripes.compareAndSet( null, new AtomicLongArray( STRIPES * STRIPE_SIZE ) );
+            cells = stripes.get();
+        }
+        int offset = stripe() * STRIPE_SIZE;
+        cells.addAndGet( offset, firstDelta );
+        cells.addAndGet( offset + 1, secondDelta );
+    }
+
+    /**
+     * Writes the value this delta gives the entry, when the layer below has the given value for it, into the target.
+     */
+    void applyTo( long baseFirst, long baseSecond, DoubleLong.Out target )
+    {
+        long first = base.get( 0 ), second = base.get( 1 );
+        AtomicLongArray cells = stripes.get();
+        if ( cells != null )
+        {
+            for ( int offset = 0; offset < cells.length(); offset += STRIPE_SIZE )
+            {
+                first += cells.get( offset );
+                second += cells.get( offset + 1 );
+            }
+        }
+        if ( replacement )
+        {
+            target.write( first, second );
+        }
+        else
+        {
+            target.write( baseFirst + first, baseSecond + second );
+        }
+    }
+
+    private static int stripe()
+    {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static int stripes( int processors )
+    {
+        int stripes = Integer.highestOneBit( Math.max( 1, Math.min( processors, 64 ) ) );
+        return stripes < processors && stripes < 64 ? stripes << 1 : stripes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "CountsDelta[%s %s, stripes=%s]", replacement ? "replace" : "add", base, stripes.get() );
+    }
+}
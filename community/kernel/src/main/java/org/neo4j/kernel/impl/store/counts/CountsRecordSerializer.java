@@ -28,6 +28,8 @@ import org.neo4j.kernel.impl.store.counts.keys.CountsKeyType;
 import org.neo4j.kernel.impl.store.kvstore.KeyValueRecordSerializer;
 import org.neo4j.kernel.impl.store.kvstore.KeyValueRecordVisitor;
 import org.neo4j.register.Register.CopyableDoubleLongRegister;
+import org.neo4j.register.Register.DoubleLongRegister;
+import org.neo4j.register.Registers;
 
 import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexCountsKey;
 import static org.neo4j.kernel.impl.store.counts.keys.CountsKeyFactory.indexSampleKey;
@@ -223,6 +225,25 @@ public final class CountsRecordSerializer implements KeyValueRecordSerializer<Co
         return key;
     }
 
+    @Override
+    public CountsKey readKey( PageCursor cursor, int offset ) throws IOException
+    {
+        return readRecord( cursor, offset, Registers.newDoubleLongRegister() );
+    }
+
+    @Override
+    public void writeValue( PageCursor cursor, int offset, CopyableDoubleLongRegister value ) throws IOException
+    {
+        DoubleLongRegister register = Registers.newDoubleLongRegister();
+        value.copyTo( register );
+        do
+        {
+            cursor.setOffset( offset + 16 /*key*/ );
+            cursor.putLong( register.readFirst() );
+            cursor.putLong( register.readSecond() );
+        } while ( cursor.shouldRetry() );
+    }
+
     @Override
     public void writeDefaultValue( CopyableDoubleLongRegister valueRegister )
     {
@@ -21,14 +21,15 @@ package org.neo4j.kernel.impl.store.counts;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.kernel.impl.api.CountsAccessor;
 import org.neo4j.kernel.impl.api.CountsVisitor;
-import org.neo4j.kernel.impl.locking.LockWrapper;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
 import org.neo4j.kernel.impl.store.counts.keys.CountsKey;
 import org.neo4j.kernel.impl.store.kvstore.KeyValueRecordVisitor;
@@ -49,9 +50,13 @@ import static org.neo4j.kernel.impl.transaction.log.TransactionIdStore.BASE_TX_I
 
 /**
  * {@link CountsTracker} maintains two files, the {@link #alphaFile} and the {@link #betaFile} that it rotates between.
- * {@link #updateLock} is used to ensure that no updates happen while we rotate from one file to another. Reads are
- * still ok though, they just read whatever the current state is. The state is assigned atomically at the end of
- * rotation.
+ * Rotation never blocks updates: a new state is layered on top of the one being rotated out and takes all updates
+ * while the old state, which no longer changes, is written to the other file. Reads see the sum of both layers. Only
+ * one rotation happens at a time.
+ * <p>
+ * The store rotated out is kept open, along with the keys that changed since. As long as no keys have to be added or
+ * removed, the next rotation brings that store up to date by overwriting the values of those keys in place, rather
+ * than by writing the whole other file anew.
  */
 public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, CountsAccessor
 {
@@ -59,9 +64,12 @@ public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, Co
 
     public static final String ALPHA = ".a", BETA = ".b";
     private final File alphaFile, betaFile;
-    private final ReadWriteLock updateLock = new ReentrantReadWriteLock( /*fair=*/true );
+    private final Object rotationLock = new Object();
     private final StringLogger logger;
-    private volatile CountsTrackerState state;
+    private volatile ConcurrentCountsTrackerState state;
+    // the store rotated out last, and the keys changed since it was current, null when not known
+    private SortedKeyValueStore<CountsKey,CopyableDoubleLongRegister> standby;
+    private Set<CountsKey> standbyChanges;
 
     public CountsTracker( StringLogger logger, FileSystemAbstraction fs, PageCache pageCache, File storeFileBase )
     {
@@ -207,10 +215,15 @@ public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, Co
     @Override
     public void incrementNodeCount( int labelId, long delta )
     {
-        try ( @SuppressWarnings( "UnusedDeclaration" ) LockWrapper _ = new LockWrapper( updateLock.readLock() ) )
+        CountsTrackerState state = updateState();
+        try
         {
             state.incrementNodeCount( nodeKey( labelId ), delta );
         }
+        finally
+        {
+            state.endUpdate();
+        }
     }
 
     @Override
@@ -223,10 +236,15 @@ public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, Co
     @Override
     public void incrementRelationshipCount( int startLabelId, int typeId, int endLabelId, long delta )
     {
-            try ( @SuppressWarnings( "UnusedDeclaration" ) LockWrapper _ = new LockWrapper( updateLock.readLock() ) )
-            {
-                state.incrementRelationshipCount( relationshipKey( startLabelId, typeId, endLabelId ), delta );
-            }
+        CountsTrackerState state = updateState();
+        try
+        {
+            state.incrementRelationshipCount( relationshipKey( startLabelId, typeId, endLabelId ), delta );
+        }
+        finally
+        {
+            state.endUpdate();
+        }
     }
 
     @Override
@@ -244,28 +262,61 @@ public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, Co
     @Override
     public void replaceIndexUpdateAndSize( int labelId, int propertyKeyId, long updates, long size )
     {
-        try ( @SuppressWarnings( "UnusedDeclaration" ) LockWrapper _ = new LockWrapper( updateLock.readLock() ) )
+        CountsTrackerState state = updateState();
+        try
         {
             state.replaceIndexUpdatesAndSize( indexCountsKey( labelId, propertyKeyId ), updates, size );
         }
+        finally
+        {
+            state.endUpdate();
+        }
     }
 
     @Override
-    public void incrementIndexUpdates( int labelId, int propertyKeyId, long delta )
+    public void incrementIndexUpdates( int labelId, int propertyKeyId, long updatesDelta, long sizeDelta )
     {
-        try ( @SuppressWarnings( "UnusedDeclaration" ) LockWrapper _ = new LockWrapper( updateLock.readLock() ) )
+        CountsTrackerState state = updateState();
+        try
         {
-            state.incrementIndexUpdates( indexCountsKey( labelId, propertyKeyId ), delta );
+            state.incrementIndexUpdates( indexCountsKey( labelId, propertyKeyId ), updatesDelta, sizeDelta );
+        }
+        finally
+        {
+            state.endUpdate();
         }
     }
 
     @Override
     public void replaceIndexSample( int labelId, int propertyKeyId, long unique, long size )
     {
-        try ( @SuppressWarnings( "UnusedDeclaration" ) LockWrapper _ = new LockWrapper( updateLock.readLock() ) )
+        CountsTrackerState state = updateState();
+        try
         {
             state.replaceIndexSample( indexSampleKey( labelId, propertyKeyId ), unique, size );
         }
+        finally
+        {
+            state.endUpdate();
+        }
+    }
+
+    /**
+     * @return the current state, registered for an update that must be ended with
+     * {@link CountsTrackerState#endUpdate()}.
+     */
+    private CountsTrackerState updateState()
+    {
+        while ( true )
+        {
+            CountsTrackerState state = this.state;
+            if ( state.beginUpdate() )
+            {
+                return state;
+            }
+            // rotated out just now, the state replacing it is about to be published
+            Thread.yield();
+        }
     }
 
     @Override
@@ -293,6 +344,14 @@ public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, Co
                 throw new IllegalStateException( "Cannot close with memory-state!" );
             }
             state.close();
+            synchronized ( rotationLock )
+            {
+                if ( standby != null )
+                {
+                    standby.close();
+                    standby = null;
+                }
+            }
         }
         catch ( IOException e )
         {
@@ -302,9 +361,9 @@ public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, Co
 
     public void rotate( long lastCommittedTxId ) throws IOException
     {
-        try ( @SuppressWarnings( "UnusedDeclaration" ) LockWrapper _ = new LockWrapper( updateLock.writeLock() ) )
+        synchronized ( rotationLock )
         {
-            CountsTrackerState state = this.state;
+            ConcurrentCountsTrackerState state = this.state;
             long stateTxId = state.lastTxId();
             if ( stateTxId > lastCommittedTxId )
             {
@@ -315,18 +374,91 @@ public class CountsTracker implements CountsVisitor.Visitable, AutoCloseable, Co
             if ( state.hasChanges() || stateTxId < lastCommittedTxId )
             {
                 logger.debug( "Start writing new counts store with txId=" + lastCommittedTxId );
-                // select the next file, and create a writer for it
-                try ( CountsStore.Writer<CountsKey,CopyableDoubleLongRegister> writer =
-                              nextWriter( state, lastCommittedTxId ) )
+                // let updates go to a new state on top of this one, which stays unchanged while we write it out
+                ConcurrentCountsTrackerState next = state.successor();
+                this.state = next;
+                state.awaitUpdatesCompleted();
+                SortedKeyValueStore<CountsKey,CopyableDoubleLongRegister> rotated = updateStandby( state,
+                        lastCommittedTxId );
+                if ( rotated == null )
                 {
-                    state.accept( writer );
-                    // replaceSecond the old store with the
-                    this.state = new ConcurrentCountsTrackerState( writer.openForReading() );
+                    rotated = rewrite( state, lastCommittedTxId );
                 }
+                // move the new state over from the old one onto the new store
+                next.rotatedOnto( rotated );
                 logger.debug( "Completed writing of counts store with txId=" + lastCommittedTxId );
-                // close the old store
-                state.close();
+                // keep the old store around, to bring it up to date in place on the next rotation
+                standby = state.store();
+                standbyChanges = state.changedKeys();
+            }
+        }
+    }
+
+    /**
+     * Brings the store that was rotated out the last time up to date with the state, by updating the values that
+     * changed since then in place.
+     *
+     * @return the updated store, or {@code null} if it could not be updated in place since keys would have to be
+     * added to or removed from it.
+     */
+    private SortedKeyValueStore<CountsKey,CopyableDoubleLongRegister> updateStandby(
+            ConcurrentCountsTrackerState state, long lastCommittedTxId ) throws IOException
+    {
+        Set<CountsKey> changedKeys = state.changedKeys();
+        if ( standby == null || standbyChanges == null || changedKeys == null )
+        {
+            return null;
+        }
+        // sorted, to visit the pages of the store in order
+        Set<CountsKey> keys = new TreeSet<>( standbyChanges );
+        keys.addAll( changedKeys );
+        // read all values up front, since the updater holds on to a page cursor of its own
+        Map<CountsKey,DoubleLongRegister> values = new LinkedHashMap<>();
+        for ( CountsKey key : keys )
+        {
+            DoubleLongRegister value = state.readIntoRegister( key, Registers.newDoubleLongRegister() );
+            if ( value.hasValues( 0, 0 ) )
+            {
+                logger.debug( "Cannot update counts store " + standby.file() + " in place, since " + key +
+                              " needs to be removed" );
+                return null;
             }
+            values.put( key, value );
+        }
+        standbyChanges = null; // the standby store is not known to be valid until the update has been committed
+        try ( SortedKeyValueStore.Updater<CountsKey,CopyableDoubleLongRegister> updater =
+                      standby.newUpdater( state.store(), lastCommittedTxId ) )
+        {
+            for ( Map.Entry<CountsKey,DoubleLongRegister> entry : values.entrySet() )
+            {
+                if ( !updater.update( entry.getKey(), entry.getValue() ) )
+                {
+                    logger.debug( "Cannot update counts store " + standby.file() + " in place, since " +
+                                  entry.getKey() + " needs to be added" );
+                    return null;
+                }
+            }
+            updater.commit();
+        }
+        logger.debug( "Updated " + keys.size() + " counts in place in " + standby.file() );
+        return standby;
+    }
+
+    private SortedKeyValueStore<CountsKey,CopyableDoubleLongRegister> rewrite(
+            ConcurrentCountsTrackerState state, long lastCommittedTxId ) throws IOException
+    {
+        if ( standby != null )
+        {
+            // we are about to overwrite its file
+            standby.close();
+            standby = null;
+        }
+        // select the next file, and create a writer for it
+        try ( CountsStore.Writer<CountsKey,CopyableDoubleLongRegister> writer =
+                      nextWriter( state, lastCommittedTxId ) )
+        {
+            state.accept( writer );
+            return writer.openForReading();
         }
     }
 
@@ -39,6 +39,17 @@ interface CountsTrackerState extends Closeable
 
     boolean hasChanges();
 
+    /**
+     * Registers an update about to be made to this state, which must be followed by a call to {@link #endUpdate()}
+     * once the update has been made.
+     *
+     * @return {@code false} if this state has been rotated out and no longer accepts updates, in which case the
+     * update should be made to the state that replaced it.
+     */
+    boolean beginUpdate();
+
+    void endUpdate();
+
     /**
      * @param target a register to store the read values in
      * @return the input register for convenience
@@ -69,7 +80,7 @@ interface CountsTrackerState extends Closeable
 
     void replaceIndexUpdatesAndSize( IndexCountsKey indexCountsKey, long updates, long size );
 
-    void incrementIndexUpdates( IndexCountsKey indexCountsKey, long delta );
+    void incrementIndexUpdates( IndexCountsKey indexCountsKey, long updatesDelta, long sizeDelta );
 
     void replaceIndexSample( IndexSampleKey indexSampleKey, long unique, long size );
 
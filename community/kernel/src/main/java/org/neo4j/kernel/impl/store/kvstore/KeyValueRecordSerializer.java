@@ -30,5 +30,12 @@ public interface KeyValueRecordSerializer<K extends Comparable<K>, VR>
 
     K readRecord( PageCursor cursor, int offset, VR valueRegister ) throws IOException;
 
+    K readKey( PageCursor cursor, int offset ) throws IOException;
+
+    /**
+     * Overwrites the value of the record at the given offset, leaving its key as it is.
+     */
+    void writeValue( PageCursor cursor, int offset, VR valueRegister ) throws IOException;
+
     void writeDefaultValue( VR valueRegister );
 }
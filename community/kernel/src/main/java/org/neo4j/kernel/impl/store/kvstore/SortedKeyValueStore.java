@@ -30,11 +30,14 @@ import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.kernel.impl.store.UnderlyingStorageException;
+import static org.neo4j.io.pagecache.PagedFile.PF_EXCLUSIVE_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_LOCK;
 
 /*
  * Implementation of  a key value store based on storing a sequence of records sorted
- * by key. To update, the store typically is recreated completely. It's main use
+ * by key. To update, the store is either recreated completely through a Writer, or, as long
+ * as no keys are added or removed, has the values of the changed keys overwritten in place
+ * through an Updater, at a cost proportional to the number of changes. It's main use
  * currently is CountsStore and CountsTracker which keep an in-mem map of updates
  * that is merged into a new store file on log rotation.
  *
@@ -48,6 +51,23 @@ public abstract class SortedKeyValueStore<K extends Comparable<K>, VR> implement
         SortedKeyValueStore<K, VR> openForReading() throws IOException;
     }
 
+    /**
+     * Overwrites values of keys already in the store. Until {@link #commit()} is called the store file is marked as
+     * invalid, so that a store file that was only partially updated is never opened.
+     */
+    public interface Updater<K extends Comparable<K>, VR> extends Closeable
+    {
+        /**
+         * @return {@code false} if the key is not in the store, in which case it cannot be updated in place.
+         */
+        boolean update( K key, VR value ) throws IOException;
+
+        /**
+         * Makes the updates durable and marks the store as reflecting the transaction the updater was created for.
+         */
+        void commit() throws IOException;
+    }
+
     public interface WriterFactory<K extends Comparable<K>, VR>
     {
         Writer<K, VR> create( FileSystemAbstraction fs, PageCache pageCache, SortedKeyValueStoreHeader header,
@@ -58,7 +78,7 @@ public abstract class SortedKeyValueStore<K extends Comparable<K>, VR> implement
     private final PageCache pageCache;
     private final File file;
     private final PagedFile pages;
-    private final SortedKeyValueStoreHeader header;
+    private volatile SortedKeyValueStoreHeader header;
     private final int totalRecords;
     private final KeyValueRecordSerializer<K, VR> recordSerializer;
     private final int recordSize;
@@ -117,6 +137,40 @@ public abstract class SortedKeyValueStore<K extends Comparable<K>, VR> implement
         recordSerializer.writeDefaultValue( value );
     }
 
+    private int findRecord( PageCursor cursor, K key ) throws IOException
+    {
+        int min = header.headerRecords();
+        int max = min + totalRecords - 1;
+        while ( min <= max )
+        {
+            int mid = min + (max - min) / 2;
+            int cmp = key.compareTo( recordSerializer.readKey( cursor, recordOffset( cursor, mid ) ) );
+            if ( cmp == 0 )
+            {
+                return mid;
+            }
+            else if ( cmp < 0 )
+            {
+                max = mid - 1;
+            }
+            else
+            {
+                min = mid + 1;
+            }
+        }
+        return -1;
+    }
+
+    private int recordOffset( PageCursor cursor, int record ) throws IOException
+    {
+        int pageId = (record * recordSize) / pages.pageSize();
+        if ( pageId == cursor.getCurrentPageId() || cursor.next( pageId ) )
+        {
+            return (record * recordSize) % pages.pageSize();
+        }
+        throw new IllegalStateException( "Could not fetch page: " + pageId );
+    }
+
     private int compareKeyAndReadValue( PageCursor cursor, K target, int record, VR count ) throws IOException
     {
         int pageId = (record * recordSize) / pages.pageSize();
@@ -193,6 +247,62 @@ public abstract class SortedKeyValueStore<K extends Comparable<K>, VR> implement
         return writerFactory.create( fs, pageCache, header, targetFile, lastCommittedTxId );
     }
 
+    /**
+     * Creates an updater that brings this store, which must not be in use for reading, up to date with another
+     * store by overwriting the values that differ between the two.
+     *
+     * @param current the store whose state this store is brought up to, once the values that differ have been
+     * updated.
+     */
+    public Updater<K, VR> newUpdater( SortedKeyValueStore<K, VR> current, long lastCommittedTxId ) throws IOException
+    {
+        long minorVersion = lastCommittedTxId == current.header.lastTxId()
+                            ? current.header.minorVersion() + 1
+                            : SortedKeyValueStoreHeader.BASE_MINOR_VERSION;
+        final SortedKeyValueStoreHeader newHeader = header.update( totalRecords, lastCommittedTxId, minorVersion );
+        // a record count that never matches the records in the file, for the file to be seen as corrupt until
+        // the update has been committed
+        header.update( -1, header.lastTxId(), header.minorVersion() ).write( pages );
+        pages.flush();
+        final PageCursor cursor = pages.io( 0, PF_EXCLUSIVE_LOCK );
+        return new Updater<K, VR>()
+        {
+            private boolean closed;
+
+            @Override
+            public boolean update( K key, VR value ) throws IOException
+            {
+                int record = findRecord( cursor, key );
+                if ( record == -1 )
+                {
+                    return false;
+                }
+                recordSerializer.writeValue( cursor, recordOffset( cursor, record ), value );
+                return true;
+            }
+
+            @Override
+            public void commit() throws IOException
+            {
+                close();
+                pages.flush();
+                newHeader.write( pages );
+                pages.flush();
+                header = newHeader;
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                if ( !closed )
+                {
+                    closed = true;
+                    cursor.close();
+                }
+            }
+        };
+    }
+
     public void close() throws IOException
     {
         pageCache.unmap( file );
@@ -32,11 +32,13 @@ import org.neo4j.kernel.api.EntityType;
 import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.PropertyNotFoundException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.api.index.NodePropertyUpdate;
 import org.neo4j.kernel.api.labelscan.NodeLabelUpdate;
 import org.neo4j.kernel.api.properties.Property;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.kernel.impl.api.index.StoreScan;
+import org.neo4j.kernel.impl.api.index.sampling.IndexValueHistograms;
 import org.neo4j.kernel.impl.locking.Lock;
 import org.neo4j.kernel.impl.locking.LockService;
 import org.neo4j.kernel.impl.store.NeoStore;
@@ -62,24 +64,51 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     private final LockService locks;
     private final CountsTracker counts;
     private final TransactionIdStore txIdStore;
+    private final IndexValueHistograms histograms;
 
     public NeoStoreIndexStoreView( LockService locks, NeoStore neoStore )
     {
-        this( locks, neoStore.getNodeStore(), neoStore.getPropertyStore(), neoStore.getCounts(), neoStore  );
+        this( locks, neoStore, IndexValueHistograms.inMemory() );
+    }
+
+    public NeoStoreIndexStoreView( LockService locks, NeoStore neoStore, IndexValueHistograms histograms )
+    {
+        this( locks, neoStore.getNodeStore(), neoStore.getPropertyStore(), neoStore.getCounts(), neoStore,
+                histograms );
     }
 
     public NeoStoreIndexStoreView( LockService locks, NodeStore nodeStore, PropertyStore propertyStore, CountsTracker counts, TransactionIdStore txIdStore )
+    {
+        this( locks, nodeStore, propertyStore, counts, txIdStore, IndexValueHistograms.inMemory() );
+    }
+
+    public NeoStoreIndexStoreView( LockService locks, NodeStore nodeStore, PropertyStore propertyStore,
+                                   CountsTracker counts, TransactionIdStore txIdStore,
+                                   IndexValueHistograms histograms )
     {
         this.locks = locks;
         this.propertyStore = propertyStore;
         this.nodeStore = nodeStore;
         this.counts = counts;
         this.txIdStore = txIdStore;
+        this.histograms = histograms;
     }
 
+    /*
+     * The counts store keys index statistics by label and a single property key, so composite indexes have
+     * no statistics of their own. Their counts read as empty, and updates to them are dropped rather than
+     * being mixed into the statistics of the single property index on their first property key. The same
+     * goes for value histograms.
+     */
+
     @Override
     public DoubleLongRegister indexUpdatesAndSize( IndexDescriptor descriptor, DoubleLongRegister output )
     {
+        if ( descriptor.isComposite() )
+        {
+            output.write( 0l, 0l );
+            return output;
+        }
         return counts.indexUpdatesAndSize( descriptor.getLabelId(), descriptor.getPropertyKeyId(), output );
     }
 
@@ -87,6 +116,10 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     public void replaceIndexCounts( IndexDescriptor descriptor,
                                     long uniqueElements, long maxUniqueElements, long indexSize )
     {
+        if ( descriptor.isComposite() )
+        {
+            return;
+        }
         int labelId = descriptor.getLabelId();
         int propertyKeyId = descriptor.getPropertyKeyId();
         counts.replaceIndexSample( labelId, propertyKeyId, uniqueElements, maxUniqueElements );
@@ -94,23 +127,55 @@ public class NeoStoreIndexStoreView implements IndexStoreView
     }
 
     @Override
-    public void incrementIndexUpdates( IndexDescriptor descriptor, long updatesDelta )
+    public void incrementIndexUpdates( IndexDescriptor descriptor, long updatesDelta, long sizeDelta )
     {
-        counts.incrementIndexUpdates( descriptor.getLabelId(), descriptor.getPropertyKeyId(), updatesDelta );
+        if ( descriptor.isComposite() )
+        {
+            return;
+        }
+        counts.incrementIndexUpdates( descriptor.getLabelId(), descriptor.getPropertyKeyId(), updatesDelta,
+                sizeDelta );
     }
 
     @Override
     public DoubleLongRegister indexSample( IndexDescriptor descriptor, DoubleLongRegister output )
     {
+        if ( descriptor.isComposite() )
+        {
+            output.write( 0l, 0l );
+            return output;
+        }
         return counts.indexSample( descriptor.getLabelId(), descriptor.getPropertyKeyId(), output );
     }
 
+    @Override
+    public IndexValueHistogram indexHistogram( IndexDescriptor descriptor )
+    {
+        if ( descriptor.isComposite() )
+        {
+            return IndexValueHistogram.EMPTY;
+        }
+        return histograms.get( descriptor.getLabelId(), descriptor.getPropertyKeyId() );
+    }
+
+    @Override
+    public void replaceIndexHistogram( IndexDescriptor descriptor, IndexValueHistogram histogram )
+    {
+        if ( descriptor.isComposite() )
+        {
+            return;
+        }
+        histograms.replace( descriptor.getLabelId(), descriptor.getPropertyKeyId(), histogram );
+    }
+
     @Override
     public <FAILURE extends Exception> StoreScan<FAILURE> visitNodesWithPropertyAndLabel(
             IndexDescriptor descriptor, final Visitor<NodePropertyUpdate, FAILURE> visitor )
     {
         final int soughtLabelId = descriptor.getLabelId();
         final int soughtPropertyKeyId = descriptor.getPropertyKeyId();
+        final int[] soughtPropertyKeyIds = descriptor.getPropertyKeyIds();
+        final boolean composite = descriptor.isComposite();
         return new NodeStoreScan<NodePropertyUpdate, FAILURE>()
         {
             @Override
@@ -121,6 +186,12 @@ public class NeoStoreIndexStoreView implements IndexStoreView
                 {
                     return null;
                 }
+                if ( composite )
+                {
+                    Object[] values = compositeValueOf( node, soughtPropertyKeyIds );
+                    return values == null ? null :
+                           NodePropertyUpdate.add( node.getId(), soughtPropertyKeyId, values, labels );
+                }
                 for ( PropertyBlock property : properties( node ) )
                 {
                     int propertyKeyId = property.getKeyIndexId();
@@ -246,6 +317,29 @@ public class NeoStoreIndexStoreView implements IndexStoreView
         return property.getType().getValue( property, propertyStore );
     }
 
+    /**
+     * @return the values of the given properties, in the same order as the keys, or {@code null} if the node
+     * lacks any of them.
+     */
+    private Object[] compositeValueOf( NodeRecord node, int[] propertyKeyIds )
+    {
+        Object[] values = new Object[propertyKeyIds.length];
+        int found = 0;
+        for ( PropertyBlock property : properties( node ) )
+        {
+            int propertyKeyId = property.getKeyIndexId();
+            for ( int i = 0; i < propertyKeyIds.length; i++ )
+            {
+                if ( propertyKeyIds[i] == propertyKeyId )
+                {
+                    values[i] = valueOf( property );
+                    found++;
+                }
+            }
+        }
+        return found == propertyKeyIds.length ? values : null;
+    }
+
     private Iterable<PropertyBlock> properties( final NodeRecord node )
     {
         return new Iterable<PropertyBlock>()
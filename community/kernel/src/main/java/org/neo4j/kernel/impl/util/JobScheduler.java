@@ -61,6 +61,23 @@ public interface JobScheduler extends Lifecycle
         indexSamplingController,
         indexSampling,
         pageCacheEviction,
+
+        /**
+         * Parses LOAD CSV files ahead of the queries that read them, and writes the batches of PERIODIC COMMIT
+         * LOAD CSV queries concurrently.
+         */
+        loadCsv,
+
+        /**
+         * Writes down the queries Cypher plans, and plans them again after a restart to warm up the plan cache.
+         */
+        plannedQueries,
+
+        /**
+         * Runs parts of Cypher queries next to the thread of the query, such as the partial aggregations of parallel
+         * queries.
+         */
+        cypherWorkers,
     }
 
     interface JobHandle
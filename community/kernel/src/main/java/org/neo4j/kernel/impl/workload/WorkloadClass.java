@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.workload;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import org.neo4j.kernel.info.WorkloadClassInfo;
+
+/**
+ * A named class of work, such as latency sensitive transactions or analytical queries, with its own limit on how
+ * much of it may run at the same time, its own queue for the work that has to wait, and a priority that decides
+ * which class is let in first when several are waiting for the same free slot.
+ * <p>
+ * The admission state is guarded by the {@link WorkloadManager} the class belongs to.
+ */
+public class WorkloadClass
+{
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutMillis;
+    private final int priority;
+    private final List<String> users;
+
+    final Deque<Runnable> queue = new ArrayDeque<>();
+    int active;
+    int peakQueued;
+    long admitted;
+    long rejected;
+    long abandoned;
+
+    public WorkloadClass( String name, int maxConcurrent, int maxQueued, long queueTimeoutMillis, int priority,
+                          List<String> users )
+    {
+        if ( maxConcurrent < 1 )
+        {
+            throw new IllegalArgumentException( "Workload class '" + name + "' must allow at least one concurrent " +
+                    "unit of work, got " + maxConcurrent );
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMillis = queueTimeoutMillis;
+        this.priority = priority;
+        this.users = Collections.unmodifiableList( users );
+    }
+
+    public String name()
+    {
+        return name;
+    }
+
+    public int maxConcurrent()
+    {
+        return maxConcurrent;
+    }
+
+    public int maxQueued()
+    {
+        return maxQueued;
+    }
+
+    /**
+     * How long work of this class may wait for its turn before it gives up.
+     */
+    public long queueTimeoutMillis()
+    {
+        return queueTimeoutMillis;
+    }
+
+    /**
+     * Classes with a higher priority are let in before classes with a lower one.
+     */
+    public int priority()
+    {
+        return priority;
+    }
+
+    /**
+     * The users whose work belongs to this class. When there are any, no one else can put work in the class.
+     */
+    public List<String> users()
+    {
+        return users;
+    }
+
+    boolean isOpenTo( String user )
+    {
+        return users.isEmpty() || users.contains( user );
+    }
+
+    WorkloadClassInfo info()
+    {
+        return new WorkloadClassInfo( name, priority, maxConcurrent, maxQueued, active, queue.size(), peakQueued,
+                admitted, rejected, abandoned );
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+}
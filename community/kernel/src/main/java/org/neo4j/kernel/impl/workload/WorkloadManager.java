@@ -0,0 +1,442 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.workload;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.info.WorkloadClassInfo;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.neo4j.helpers.Settings.DURATION;
+import static org.neo4j.helpers.Settings.EMPTY;
+import static org.neo4j.helpers.Settings.INTEGER;
+import static org.neo4j.helpers.Settings.NO_DEFAULT;
+import static org.neo4j.helpers.Settings.STRING_LIST;
+import static org.neo4j.helpers.Settings.min;
+import static org.neo4j.helpers.Settings.setting;
+
+/**
+ * Lets work into the database by {@link WorkloadClass workload class}, so that a burst of one kind of work, such as
+ * analytical queries, cannot crowd out another, such as latency sensitive transactions.
+ * <p>
+ * Every class limits how much of its work runs at the same time, and all classes together are limited by
+ * {@link GraphDatabaseSettings#workload_max_concurrent}. Work that finds no free slot waits in the queue of its
+ * class, and whenever a slot is given up it is handed to the work that has waited the longest in the class with the
+ * highest priority that is allowed to use it.
+ * <p>
+ * There are two ways to let work in:
+ * <ul>
+ * <li>{@link #admit(WorkloadClass)} blocks the calling thread until it is let in. {@code KernelTransactions} uses
+ * it, through {@link #admitCurrentThread()}, for the transactions of threads that have been {@link #assign(String)
+ * assigned} a class.</li>
+ * <li>{@link #tryEnter(WorkloadClass)} and {@link #enter(WorkloadClass, Runnable)} never block, but leave a callback
+ * to be run when the work is let in. This is for callers, like the server, that do not want to hold a thread while
+ * the work waits.</li>
+ * </ul>
+ * A thread that runs {@link Admission admitted} work does not take another slot for the transactions it begins.
+ * <p>
+ * The server lets the requests of its transactional endpoint in, and the shell assigns the threads that run its
+ * commands to {@code remote_shell_workload_class} when that is set. The threads of embedded applications are only
+ * held back once the application assigns them a class.
+ *
+ * @see org.neo4j.kernel.impl.api.KernelTransactions
+ */
+public class WorkloadManager
+{
+    public static final String DEFAULT_CLASS = "default";
+
+    private static final Comparator<WorkloadClass> HIGHEST_PRIORITY_FIRST = new Comparator<WorkloadClass>()
+    {
+        @Override
+        public int compare( WorkloadClass o1, WorkloadClass o2 )
+        {
+            return Integer.compare( o2.priority(), o1.priority() );
+        }
+    };
+
+    private final int maxConcurrent;
+    private final Map<String, WorkloadClass> classes = new LinkedHashMap<>();
+    private final Map<String, WorkloadClass> classesByUser = new HashMap<>();
+    private final List<WorkloadClass> byPriority;
+    private final ThreadLocal<WorkloadClass> assigned = new ThreadLocal<>();
+    private final ThreadLocal<Admission> running = new ThreadLocal<>();
+    private int active;
+
+    public WorkloadManager( Config config )
+    {
+        this( maxConcurrent( config ), classesFrom( config ) );
+    }
+
+    public WorkloadManager( int maxConcurrent, Iterable<WorkloadClass> workloadClasses )
+    {
+        this.maxConcurrent = maxConcurrent;
+        for ( WorkloadClass workloadClass : workloadClasses )
+        {
+            classes.put( workloadClass.name(), workloadClass );
+            for ( String user : workloadClass.users() )
+            {
+                classesByUser.put( user, workloadClass );
+            }
+        }
+        if ( !classes.containsKey( DEFAULT_CLASS ) )
+        {
+            classes.put( DEFAULT_CLASS, new WorkloadClass( DEFAULT_CLASS, Integer.MAX_VALUE, 0, 0, 0,
+                    Collections.<String>emptyList() ) );
+        }
+        byPriority = new ArrayList<>( classes.values() );
+        Collections.sort( byPriority, HIGHEST_PRIORITY_FIRST );
+    }
+
+    /**
+     * @return the class that work goes in unless it is put in another one.
+     */
+    public WorkloadClass defaultClass()
+    {
+        return classes.get( DEFAULT_CLASS );
+    }
+
+    /**
+     * @return the class with the given name, or the default class if there is no such class.
+     */
+    public WorkloadClass workloadClass( String name )
+    {
+        WorkloadClass workloadClass = name == null ? null : classes.get( name );
+        return workloadClass == null ? classes.get( DEFAULT_CLASS ) : workloadClass;
+    }
+
+    /**
+     * @return the class that lists the given user, so that users cannot move their work out of the class they have
+     * been put in, or else the class with the requested name if it is open to the user, or else the default class.
+     * A class that lists users is only open to those users, so that others cannot take its slots by asking for it.
+     */
+    public WorkloadClass workloadClass( String user, String requestedClassName )
+    {
+        WorkloadClass workloadClass = user == null ? null : classesByUser.get( user );
+        if ( workloadClass != null )
+        {
+            return workloadClass;
+        }
+        workloadClass = workloadClass( requestedClassName );
+        return workloadClass.isOpenTo( user ) ? workloadClass : classes.get( DEFAULT_CLASS );
+    }
+
+    public Collection<WorkloadClass> workloadClasses()
+    {
+        return Collections.unmodifiableCollection( classes.values() );
+    }
+
+    /**
+     * Puts the transactions the current thread begins into the given class, until the returned resource is closed.
+     * Threads that have not been assigned a class are not held back when they begin transactions.
+     */
+    public Resource assign( String workloadClassName )
+    {
+        final WorkloadClass previous = assigned.get();
+        assigned.set( workloadClass( workloadClassName ) );
+        return new Resource()
+        {
+            @Override
+            public void close()
+            {
+                if ( previous == null )
+                {
+                    assigned.remove();
+                }
+                else
+                {
+                    assigned.set( previous );
+                }
+            }
+        };
+    }
+
+    /**
+     * Lets in the transaction the current thread is about to begin, if the thread has been {@link #assign(String)
+     * assigned} a class and is not already running admitted work.
+     *
+     * @return the admission, to be closed when the transaction is done, or {@code null} if there was nothing to let
+     * in.
+     * @throws WorkloadAdmissionException if the transaction could not be let in.
+     */
+    public Admission admitCurrentThread()
+    {
+        WorkloadClass workloadClass = assigned.get();
+        if ( workloadClass == null || isRunningAdmittedWork() )
+        {
+            return null;
+        }
+        return admit( workloadClass );
+    }
+
+    /**
+     * Waits until work of the given class is let in, for at most the queue timeout of the class.
+     *
+     * @throws WorkloadAdmissionException if the queue was full or the wait timed out.
+     */
+    public Admission admit( WorkloadClass workloadClass )
+    {
+        final CountDownLatch latch = new CountDownLatch( 1 );
+        Runnable whenAdmitted = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                latch.countDown();
+            }
+        };
+        if ( !enter( workloadClass, whenAdmitted ) )
+        {
+            throw new WorkloadAdmissionException( format( "Too much work of workload class '%s' is waiting.",
+                    workloadClass ) );
+        }
+        try
+        {
+            if ( !latch.await( workloadClass.queueTimeoutMillis(), MILLISECONDS ) &&
+                 withdraw( workloadClass, whenAdmitted ) )
+            {
+                throw new WorkloadAdmissionException( format( "Timed out after %dms waiting for workload class " +
+                        "'%s' to let the transaction in.", workloadClass.queueTimeoutMillis(), workloadClass ) );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            if ( withdraw( workloadClass, whenAdmitted ) )
+            {
+                throw new WorkloadAdmissionException( format( "Interrupted while waiting for workload class '%s' " +
+                        "to let the transaction in.", workloadClass ) );
+            }
+        }
+        return admitted( workloadClass );
+    }
+
+    /**
+     * Takes a slot for work of the given class if one is free, without queueing.
+     *
+     * @return {@code true} if the caller holds a slot, which it must give up with {@link #exit(WorkloadClass)} or
+     * through {@link #admitted(WorkloadClass)}.
+     */
+    public synchronized boolean tryEnter( WorkloadClass workloadClass )
+    {
+        if ( hasRoomFor( workloadClass ) )
+        {
+            take( workloadClass );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Takes a slot for {@code whenAdmitted}, queueing it if none is free. {@code whenAdmitted} is run once it holds a
+     * slot, which may be right away on the calling thread or later on the thread of work that gives its slot up.
+     *
+     * @return {@code false} if the queue of the class was full, in which case {@code whenAdmitted} will never run.
+     */
+    public boolean enter( WorkloadClass workloadClass, Runnable whenAdmitted )
+    {
+        synchronized ( this )
+        {
+            if ( !hasRoomFor( workloadClass ) )
+            {
+                if ( workloadClass.queue.size() >= workloadClass.maxQueued() )
+                {
+                    workloadClass.rejected++;
+                    return false;
+                }
+                workloadClass.queue.addLast( whenAdmitted );
+                workloadClass.peakQueued = Math.max( workloadClass.peakQueued, workloadClass.queue.size() );
+                return true;
+            }
+            take( workloadClass );
+        }
+        whenAdmitted.run();
+        return true;
+    }
+
+    /**
+     * Removes a callback from the queue, for work that stopped waiting.
+     *
+     * @return {@code true} if it was still waiting, {@code false} if it has already been handed a slot.
+     */
+    public synchronized boolean withdraw( WorkloadClass workloadClass, Runnable whenAdmitted )
+    {
+        if ( workloadClass.queue.remove( whenAdmitted ) )
+        {
+            workloadClass.abandoned++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gives up a slot, handing it to the waiting work that is next in line, if any.
+     */
+    public void exit( WorkloadClass workloadClass )
+    {
+        Runnable next;
+        synchronized ( this )
+        {
+            workloadClass.active--;
+            active--;
+            next = admitNext();
+        }
+        if ( next != null )
+        {
+            next.run();
+        }
+    }
+
+    /**
+     * Marks the current thread as running the work that has been let in through a slot taken with
+     * {@link #tryEnter(WorkloadClass)} or {@link #enter(WorkloadClass, Runnable)}, so that the transactions it begins
+     * do not take slots of their own. Closing the returned admission gives the slot up.
+     */
+    public Admission admitted( WorkloadClass workloadClass )
+    {
+        Admission admission = new Admission( workloadClass );
+        running.set( admission );
+        return admission;
+    }
+
+    /**
+     * @return the class of the {@link #admitted(WorkloadClass) admitted} work the current thread runs, or
+     * {@code null} if it runs none. Work the thread hands off to other threads can be let in under the same class.
+     */
+    public WorkloadClass runningWorkloadClass()
+    {
+        Admission admission = running.get();
+        return admission == null || admission.closed ? null : admission.workloadClass;
+    }
+
+    public synchronized List<WorkloadClassInfo> workloadClassInfo()
+    {
+        List<WorkloadClassInfo> info = new ArrayList<>( classes.size() );
+        for ( WorkloadClass workloadClass : classes.values() )
+        {
+            info.add( workloadClass.info() );
+        }
+        return info;
+    }
+
+    private boolean isRunningAdmittedWork()
+    {
+        return runningWorkloadClass() != null;
+    }
+
+    private boolean hasRoomFor( WorkloadClass workloadClass )
+    {
+        return active < maxConcurrent && workloadClass.active < workloadClass.maxConcurrent();
+    }
+
+    private void take( WorkloadClass workloadClass )
+    {
+        workloadClass.active++;
+        workloadClass.admitted++;
+        active++;
+    }
+
+    private Runnable admitNext()
+    {
+        for ( WorkloadClass candidate : byPriority )
+        {
+            if ( !candidate.queue.isEmpty() && hasRoomFor( candidate ) )
+            {
+                take( candidate );
+                return candidate.queue.pollFirst();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A slot held by admitted work. Closing it gives the slot up.
+     */
+    public final class Admission implements Resource
+    {
+        private final WorkloadClass workloadClass;
+        private volatile boolean closed;
+
+        private Admission( WorkloadClass workloadClass )
+        {
+            this.workloadClass = workloadClass;
+        }
+
+        public WorkloadClass workloadClass()
+        {
+            return workloadClass;
+        }
+
+        @Override
+        public void close()
+        {
+            if ( closed )
+            {
+                return;
+            }
+            closed = true;
+            if ( running.get() == this )
+            {
+                running.remove();
+            }
+            exit( workloadClass );
+        }
+    }
+
+    private static int maxConcurrent( Config config )
+    {
+        Integer maxConcurrent = config.get( GraphDatabaseSettings.workload_max_concurrent );
+        return maxConcurrent == null ? Integer.MAX_VALUE : maxConcurrent;
+    }
+
+    private static List<WorkloadClass> classesFrom( Config config )
+    {
+        List<String> names = new ArrayList<>( config.get( GraphDatabaseSettings.workload_classes ) );
+        if ( !names.contains( DEFAULT_CLASS ) )
+        {
+            names.add( DEFAULT_CLASS );
+        }
+        List<WorkloadClass> classes = new ArrayList<>( names.size() );
+        for ( String name : names )
+        {
+            String prefix = "dbms.workload." + name + ".";
+            Integer classMaxConcurrent = config.get( setting( prefix + "max_concurrent", INTEGER, NO_DEFAULT,
+                    min( 1 ) ) );
+            classes.add( new WorkloadClass( name,
+                    classMaxConcurrent == null ? Integer.MAX_VALUE : classMaxConcurrent,
+                    config.get( setting( prefix + "max_queued", INTEGER, "10000", min( 0 ) ) ),
+                    config.get( setting( prefix + "queue_timeout", DURATION, "30s" ) ),
+                    config.get( setting( prefix + "priority", INTEGER, "0" ) ),
+                    config.get( setting( prefix + "users", STRING_LIST, EMPTY ) ) ) );
+        }
+        return classes;
+    }
+}
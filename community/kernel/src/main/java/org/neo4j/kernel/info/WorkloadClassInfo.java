@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.info;
+
+import java.beans.ConstructorProperties;
+import java.io.Serializable;
+
+/**
+ * A snapshot of the admission statistics of a workload class.
+ */
+public final class WorkloadClassInfo implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final int priority;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final int active;
+    private final int queued;
+    private final int peakQueued;
+    private final long admitted;
+    private final long rejected;
+    private final long abandoned;
+
+    @ConstructorProperties( { "name", "priority", "maxConcurrent", "maxQueued", "active", "queued", "peakQueued",
+                              "admitted", "rejected", "abandoned" } )
+    public WorkloadClassInfo( String name, int priority, int maxConcurrent, int maxQueued, int active, int queued,
+                              int peakQueued, long admitted, long rejected, long abandoned )
+    {
+        this.name = name;
+        this.priority = priority;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.active = active;
+        this.queued = queued;
+        this.peakQueued = peakQueued;
+        this.admitted = admitted;
+        this.rejected = rejected;
+        this.abandoned = abandoned;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getPriority()
+    {
+        return priority;
+    }
+
+    /** The number of units of work of the class allowed to run at the same time. */
+    public int getMaxConcurrent()
+    {
+        return maxConcurrent;
+    }
+
+    /** The number of units of work of the class allowed to wait for their turn. */
+    public int getMaxQueued()
+    {
+        return maxQueued;
+    }
+
+    /** The number of units of work of the class currently running. */
+    public int getActive()
+    {
+        return active;
+    }
+
+    /** The number of units of work of the class currently waiting for their turn. */
+    public int getQueued()
+    {
+        return queued;
+    }
+
+    /** The largest number of units of work of the class that have been waiting at the same time. */
+    public int getPeakQueued()
+    {
+        return peakQueued;
+    }
+
+    /** The total number of units of work of the class that have been let in. */
+    public long getAdmitted()
+    {
+        return admitted;
+    }
+
+    /** The total number of units of work of the class turned away because the queue was full. */
+    public long getRejected()
+    {
+        return rejected;
+    }
+
+    /** The total number of units of work of the class that stopped waiting, e.g. on timing out. */
+    public long getAbandoned()
+    {
+        return abandoned;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%s[priority=%d, active=%d/%d, queued=%d/%d]", name, priority, active, maxConcurrent,
+                queued, maxQueued );
+    }
+}
@@ -348,13 +348,18 @@ public class BatchInserterImpl implements BatchInserter
         return new IndexCreatorImpl( actions, label );
     }
 
-    private void createIndexRule( Label label, String propertyKey )
+    private void createIndexRule( Label label, String... propertyKeys )
     {
         // TODO: Do not create duplicate index
 
+        int[] propertyKeyIds = new int[propertyKeys.length];
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            propertyKeyIds[i] = getOrCreatePropertyKeyId( propertyKeys[i] );
+        }
         SchemaStore schemaStore = getSchemaStore();
         IndexRule schemaRule = IndexRule.indexRule( schemaStore.nextId(), getOrCreateLabelId( label.name() ),
-                                                    getOrCreatePropertyKeyId( propertyKey ),
+                                                    propertyKeyIds,
                                                     this.schemaIndexProviders.getDefaultProvider()
                                                                              .getProviderDescriptor() );
         for ( DynamicRecord record : schemaStore.allocateFrom( schemaRule ) )
@@ -386,11 +391,12 @@ public class BatchInserterImpl implements BatchInserter
         {
             IndexRule rule = rules[i];
             int labelId = rule.getLabel();
-            int propertyKeyId = rule.getPropertyKey();
             labelIds[i] = labelId;
-            propertyKeyIds[i] = propertyKeyId;
+            // composite indexes need all their values at once and are populated by their own scans below,
+            // an unknown property key keeps them out of the combined scan
+            propertyKeyIds[i] = rule.isComposite() ? -1 : rule.getPropertyKey();
 
-            IndexDescriptor descriptor = new IndexDescriptor( labelId, propertyKeyId );
+            IndexDescriptor descriptor = new IndexDescriptor( labelId, rule.getPropertyKeys() );
             boolean isConstraint = rule.isConstraintIndex();
             populators[i] = schemaIndexProviders.apply( rule.getProviderDescriptor() )
                                                 .getPopulator( rule.getId(),
@@ -433,6 +439,14 @@ public class BatchInserterImpl implements BatchInserter
                 propertyUpdateVisitor, labelUpdateVisitor );
         storeScan.run();
 
+        for ( int i = 0; i < rules.length; i++ )
+        {
+            if ( rules[i].isComposite() )
+            {
+                populateCompositeIndex( storeView, rules[i], populators[i] );
+            }
+        }
+
         for ( IndexPopulator populator : populators )
         {
             populator.close( true );
@@ -440,6 +454,28 @@ public class BatchInserterImpl implements BatchInserter
         labelUpdateVisitor.close();
     }
 
+    private void populateCompositeIndex( IndexStoreView storeView, final IndexRule rule, final IndexPopulator populator )
+            throws IOException
+    {
+        IndexDescriptor descriptor = new IndexDescriptor( rule.getLabel(), rule.getPropertyKeys() );
+        storeView.visitNodesWithPropertyAndLabel( descriptor, new Visitor<NodePropertyUpdate, IOException>()
+        {
+            @Override
+            public boolean visit( NodePropertyUpdate update ) throws IOException
+            {
+                try
+                {
+                    populator.add( update.getNodeId(), update.getValueAfter() );
+                }
+                catch ( IndexEntryConflictException conflict )
+                {
+                    throw conflict.notAllowed( rule.getLabel(), rule.getPropertyKey() );
+                }
+                return true;
+            }
+        } ).run();
+    }
+
     private void rebuildCounts()
     {
         CountsComputer.computeCounts( neoStore ).accept( new CountsAccessor.Initializer( neoStore.getCounts() ) );
@@ -996,14 +1032,14 @@ public class BatchInserterImpl implements BatchInserter
     private class BatchSchemaActions implements InternalSchemaActions
     {
         @Override
-        public IndexDefinition createIndexDefinition( Label label, String propertyKey )
+        public IndexDefinition createIndexDefinition( Label label, String... propertyKeys )
         {
-            createIndexRule( label, propertyKey );
-            return new IndexDefinitionImpl( this, label, propertyKey, false );
+            createIndexRule( label, propertyKeys );
+            return new IndexDefinitionImpl( this, label, propertyKeys, false );
         }
 
         @Override
-        public void dropIndexDefinitions( Label label, String propertyKey )
+        public void dropIndexDefinitions( Label label, String... propertyKeys )
         {
             throw unsupportedException();
         }
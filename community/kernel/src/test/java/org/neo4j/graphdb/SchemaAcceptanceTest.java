@@ -31,6 +31,7 @@ import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.test.ImpermanentDatabaseRule;
 
 import static java.lang.String.format;
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
@@ -165,22 +166,43 @@ public class SchemaAcceptanceTest
     }
 
     @Test
-    public void shouldThrowConstraintViolationIfAskedToCreateCompoundIndex() throws Exception
+    public void shouldCreateCompoundIndexOnMultiplePropertyKeys() throws Exception
+    {
+        // WHEN
+        IndexDefinition index;
+        try ( Transaction tx = db.beginTx() )
+        {
+            index = db.schema().indexFor( label )
+                    .on( "my_property_key" )
+                    .on( "other_property" ).create();
+            tx.success();
+        }
+
+        // THEN
+        assertThat( getIndexes( db, label ), containsOnly( index ) );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( asList( "my_property_key", "other_property" ), index.getPropertyKeys() );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldThrowConstraintViolationIfAskedToIndexTheSamePropertyKeyTwice() throws Exception
     {
         // WHEN
         Transaction tx = db.beginTx();
         try
         {
-            Schema schema = db.schema();
-            schema.indexFor( label )
+            db.schema().indexFor( label )
                     .on( "my_property_key" )
-                    .on( "other_property" ).create();
+                    .on( "my_property_key" ).create();
             tx.success();
-            fail( "Should not be able to create index on multiple propertyKey keys" );
+            fail( "Should not be able to create index on the same propertyKey twice" );
         }
-        catch ( UnsupportedOperationException e )
+        catch ( ConstraintViolationException e )
         {
-            assertThat( e.getMessage(), containsString( "Compound indexes" ) );
+            assertThat( e.getMessage(), containsString( "my_property_key" ) );
         }
         finally
         {
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IndexValueHistogramTest
+{
+    private static final double DELTA = 0.0001;
+
+    @Test
+    public void shouldEstimateNothingForAnEmptyHistogram()
+    {
+        // given
+        IndexValueHistogram histogram = IndexValueHistogram.EMPTY;
+
+        // then
+        assertTrue( histogram.isEmpty() );
+        assertEquals( 0.0, histogram.equalitySelectivity( 42 ), DELTA );
+        assertEquals( 0.0, histogram.expectedEqualitySelectivity(), DELTA );
+        assertEquals( 0.0, histogram.rangeSelectivity( 0, true, 100, true ), DELTA );
+    }
+
+    @Test
+    public void shouldUseTheMostCommonValuesForEquality()
+    {
+        // given
+        IndexValueHistogram histogram = skewedNumbers();
+
+        // then
+        assertEquals( 1001.0 / 2000, histogram.equalitySelectivity( 500 ), DELTA );
+        assertEquals( 1001.0 / 2000, histogram.equalitySelectivity( 500.0d ), DELTA );
+        assertEquals( 1.0 / 2000, histogram.equalitySelectivity( 10 ), DELTA );
+    }
+
+    @Test
+    public void shouldAssumeValuesItHasNotSeenOccurOnce()
+    {
+        // given
+        IndexValueHistogram histogram = skewedNumbers();
+
+        // then
+        assertEquals( 1.0 / 2000, histogram.equalitySelectivity( 5000 ), DELTA );
+        assertEquals( 1.0 / 2000, histogram.equalitySelectivity( "500" ), DELTA );
+    }
+
+    @Test
+    public void shouldEstimateRangesOfEvenlySpreadNumbers()
+    {
+        // given
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 32, 16, 1000 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            builder.include( i, 1 );
+        }
+        IndexValueHistogram histogram = builder.build();
+
+        // then
+        assertEquals( 0.25, histogram.rangeSelectivity( 0, true, 250, false ), 0.02 );
+        assertEquals( 0.1, histogram.rangeSelectivity( 900, true, null, false ), 0.02 );
+        assertEquals( 0.0, histogram.rangeSelectivity( 1000, false, null, false ), DELTA );
+        assertEquals( 1.0, histogram.rangeSelectivity( null, false, 5000, true ), DELTA );
+    }
+
+    @Test
+    public void shouldEstimateRangesOverSkewedNumbers()
+    {
+        // given
+        IndexValueHistogram histogram = skewedNumbers();
+
+        // then
+        assertEquals( 1500.0 / 2000, histogram.rangeSelectivity( 499.5, false, null, false ), 0.02 );
+        assertEquals( 499.0 / 2000, histogram.rangeSelectivity( null, false, 499.5, false ), 0.02 );
+    }
+
+    @Test
+    public void shouldNotMixNumbersAndStringsInRanges()
+    {
+        // given
+        IndexValueHistogram histogram = new IndexValueHistogram.Builder( 4, 4, 8 )
+                .include( 1, 2 ).include( 2, 2 ).include( "a", 2 ).include( "b", 2 ).build();
+
+        // then
+        assertEquals( 0.5, histogram.rangeSelectivity( 0, true, null, false ), DELTA );
+        assertEquals( 0.5, histogram.rangeSelectivity( null, false, "z", true ), DELTA );
+        assertEquals( 0.25, histogram.rangeSelectivity( "b", true, "b", true ), DELTA );
+        assertEquals( 0.0, histogram.rangeSelectivity( 0, true, "z", true ), DELTA );
+    }
+
+    @Test
+    public void shouldOnlyCountValuesWithoutOrder()
+    {
+        // given
+        IndexValueHistogram histogram = new IndexValueHistogram.Builder( 4, 4, 10 )
+                .include( 1, 5 ).include( true, 3 ).include( new long[]{1, 2}, 2 ).build();
+
+        // then
+        assertEquals( 10, histogram.entries() );
+        assertEquals( 3, histogram.distinctValues() );
+        assertEquals( 1.0 / 3, histogram.equalitySelectivity( false ), DELTA );
+        assertEquals( 0.5, histogram.rangeSelectivity( 0, true, 10, true ), DELTA );
+    }
+
+    @Test
+    public void shouldExpectSkewedValuesToBeMoreSelectiveThanAverage()
+    {
+        // given
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 32, 16, 1000 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            builder.include( i, 1 );
+        }
+        IndexValueHistogram uniform = builder.build();
+
+        // then
+        assertEquals( 1.0 / 1000, uniform.expectedEqualitySelectivity(), DELTA );
+        assertTrue( skewedNumbers().expectedEqualitySelectivity() > 0.25 );
+    }
+
+    @Test
+    public void shouldReadWhatItWrites() throws Exception
+    {
+        // given
+        IndexValueHistogram histogram = new IndexValueHistogram.Builder( 3, 2, 12 )
+                .include( -1.5, 3 ).include( 7, 1 ).include( "a", 4 ).include( "åäö", 2 )
+                .include( true, 2 ).build();
+
+        // when
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.writeTo( new DataOutputStream( bytes ) );
+        IndexValueHistogram read = IndexValueHistogram.readFrom(
+                new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) );
+
+        // then
+        assertEquals( histogram, read );
+        assertEquals( histogram.equalitySelectivity( "a" ), read.equalitySelectivity( "a" ), DELTA );
+    }
+
+    /** 0 to 999 once each, except for 500, which 1001 entries have. */
+    private IndexValueHistogram skewedNumbers()
+    {
+        IndexValueHistogram.Builder builder = new IndexValueHistogram.Builder( 32, 16, 2000 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            builder.include( i, i == 500 ? 1001 : 1 );
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingConfig;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.add;
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.change;
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.remove;
+
+@Ignore( "Not a test. This is a compatibility suite that provides test cases for verifying" +
+        " SchemaIndexProvider implementations. Each index provider that is to be tested by this suite" +
+        " must create their own test class extending IndexProviderCompatibilityTestSuite." +
+        " The @Ignore annotation doesn't prevent these tests to run, it rather removes some annoying" +
+        " errors or warnings in some IDEs about test classes needing a public zero-arg constructor." )
+public class NonUniqueIndexAccessorCompatibility extends IndexProviderCompatibilityTestSuite.Compatibility
+{
+    private static final int PROPERTY_KEY_ID = 100;
+    private static final long[] LABELS = new long[]{1000};
+
+    private IndexAccessor accessor;
+
+    public NonUniqueIndexAccessorCompatibility( IndexProviderCompatibilityTestSuite testSuite )
+    {
+        super( testSuite );
+    }
+
+    @Test
+    public void shouldScanNumbersBeforeStringsInValueOrder() throws Exception
+    {
+        // given
+        updateAndCommit( asList(
+                add( 1L, PROPERTY_KEY_ID, "b", LABELS ),
+                add( 2L, PROPERTY_KEY_ID, 10, LABELS ),
+                add( 3L, PROPERTY_KEY_ID, -1.5d, LABELS ),
+                add( 4L, PROPERTY_KEY_ID, "a", LABELS ),
+                add( 5L, PROPERTY_KEY_ID, 3L, LABELS ),
+                add( 6L, PROPERTY_KEY_ID, "ab", LABELS ) ) );
+
+        // when
+        List<Long> ascending = orderedScan( true );
+        List<Long> descending = orderedScan( false );
+
+        // then
+        assertEquals( asList( 3L, 5L, 2L, 4L, 6L, 1L ), ascending );
+        assertEquals( asList( 1L, 6L, 4L, 2L, 5L, 3L ), descending );
+    }
+
+    @Test
+    public void shouldScanValuesOfOtherTypesAfterStrings() throws Exception
+    {
+        // given
+        updateAndCommit( asList(
+                add( 1L, PROPERTY_KEY_ID, true, LABELS ),
+                add( 2L, PROPERTY_KEY_ID, "a", LABELS ),
+                add( 3L, PROPERTY_KEY_ID, new long[]{1, 2}, LABELS ),
+                add( 4L, PROPERTY_KEY_ID, 1, LABELS ) ) );
+
+        // when
+        List<Long> ascending = orderedScan( true );
+
+        // then
+        assertEquals( asList( 4L, 2L ), ascending.subList( 0, 2 ) );
+        assertEquals( 4, ascending.size() );
+    }
+
+    @Test
+    public void shouldScanEntriesAsTheyAreAfterUpdates() throws Exception
+    {
+        // given
+        updateAndCommit( asList(
+                add( 1L, PROPERTY_KEY_ID, 1, LABELS ),
+                add( 2L, PROPERTY_KEY_ID, 2, LABELS ),
+                add( 3L, PROPERTY_KEY_ID, 3, LABELS ) ) );
+
+        // when
+        updateAndCommit( asList(
+                change( 1L, PROPERTY_KEY_ID, 1, LABELS, 4, LABELS ),
+                remove( 2L, PROPERTY_KEY_ID, 2, LABELS ) ) );
+
+        // then
+        assertEquals( asList( 3L, 1L ), orderedScan( true ) );
+    }
+
+    @Before
+    public void before() throws IOException
+    {
+        IndexConfiguration indexConfig = new IndexConfiguration( false );
+        IndexSamplingConfig indexSamplingConfig = new IndexSamplingConfig( new Config() );
+        IndexPopulator populator = indexProvider.getPopulator( 17, descriptor, indexConfig, indexSamplingConfig );
+        populator.create();
+        populator.close( true );
+        accessor = indexProvider.getOnlineAccessor( 17, indexConfig, indexSamplingConfig );
+    }
+
+    @After
+    public void after() throws IOException
+    {
+        accessor.drop();
+        accessor.close();
+    }
+
+    private List<Long> orderedScan( boolean ascending ) throws IOException
+    {
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            List<Long> list = new ArrayList<>();
+            for ( PrimitiveLongIterator iterator = reader.orderedScan( ascending ); iterator.hasNext(); )
+            {
+                list.add( iterator.next() );
+            }
+            return list;
+        }
+    }
+
+    private void updateAndCommit( List<NodePropertyUpdate> updates ) throws IOException, IndexEntryConflictException
+    {
+        try ( IndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+        {
+            for ( NodePropertyUpdate update : updates )
+            {
+                updater.process( update );
+            }
+        }
+    }
+}
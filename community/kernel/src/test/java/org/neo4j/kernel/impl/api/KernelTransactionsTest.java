@@ -19,13 +19,21 @@
  */
 package org.neo4j.kernel.impl.api;
 
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import org.neo4j.graphdb.Resource;
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.kernel.api.KernelTransaction;
 import org.neo4j.kernel.api.exceptions.TransactionFailureException;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.locking.LockGroup;
 import org.neo4j.kernel.impl.locking.Locks;
 import org.neo4j.kernel.impl.store.NeoStore;
@@ -38,13 +46,19 @@ import org.neo4j.kernel.impl.transaction.state.NeoStoreTransactionContext;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreTransactionContextSupplier;
 import org.neo4j.kernel.impl.transaction.state.RecordAccess;
 import org.neo4j.kernel.impl.transaction.state.RecordAccess.RecordProxy;
+import org.neo4j.kernel.impl.workload.WorkloadAdmissionException;
+import org.neo4j.kernel.impl.workload.WorkloadClass;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.RETURNS_MOCKS;
 import static org.mockito.Mockito.mock;
@@ -117,6 +131,54 @@ public class KernelTransactionsTest
         assertTrue( additionalHeader.length > 0 );
     }
 
+    @Test
+    public void shouldNotLetTransactionsOfAWorkloadClassBeginBeyondItsLimit() throws Exception
+    {
+        // Given
+        final WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE,
+                asList( new WorkloadClass( "oltp", 1, 0, 0, 0, Collections.<String>emptyList() ) ) );
+        final KernelTransactions registry = newKernelTransactions( mock( TransactionCommitProcess.class ),
+                new MockContextSupplier(), workloads );
+        Callable<KernelTransaction> beginOnAnotherThread = new Callable<KernelTransaction>()
+        {
+            @Override
+            public KernelTransaction call() throws Exception
+            {
+                try ( Resource ignored = workloads.assign( "oltp" ) )
+                {
+                    return registry.newInstance();
+                }
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try ( Resource ignored = workloads.assign( "oltp" ) )
+        {
+            KernelTransaction first = registry.newInstance();
+
+            // When
+            try
+            {
+                executor.submit( beginOnAnotherThread ).get();
+                fail( "Should not have let a second transaction of the class in" );
+            }
+            catch ( ExecutionException e )
+            {
+                // Then
+                assertThat( e.getCause(), instanceOf( WorkloadAdmissionException.class ) );
+            }
+
+            // When
+            first.close();
+
+            // Then
+            executor.submit( beginOnAnotherThread ).get().close();
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     private static KernelTransactions newKernelTransactions()
     {
         return newKernelTransactions( mock( TransactionCommitProcess.class ), new MockContextSupplier() );
@@ -124,6 +186,13 @@ public class KernelTransactionsTest
 
     private static KernelTransactions newKernelTransactions( TransactionCommitProcess commitProcess,
                                                              NeoStoreTransactionContextSupplier contextSupplier )
+    {
+        return newKernelTransactions( commitProcess, contextSupplier, new WorkloadManager( new Config() ) );
+    }
+
+    private static KernelTransactions newKernelTransactions( TransactionCommitProcess commitProcess,
+                                                             NeoStoreTransactionContextSupplier contextSupplier,
+                                                             WorkloadManager workloads )
     {
         LifeSupport life = new LifeSupport();
         life.start();
@@ -134,7 +203,7 @@ public class KernelTransactionsTest
         return new KernelTransactions( contextSupplier, mock( NeoStore.class ), locks,
                 mock( IntegrityValidator.class ), null, null, null, null, null, null, null,
                 TransactionHeaderInformationFactory.DEFAULT, null, null, commitProcess, null,
-                null, new TransactionHooks(), mock( TransactionMonitor.class ), life);
+                null, new TransactionHooks(), mock( TransactionMonitor.class ), life, workloads );
     }
 
     private static TransactionCommitProcess newRememberingCommitProcess( final TransactionRepresentation[] slot )
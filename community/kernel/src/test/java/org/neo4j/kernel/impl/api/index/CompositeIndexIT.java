@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.graphdb.ConstraintViolationException;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.schema.IndexCreator;
+import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.test.DatabaseRule;
+import org.neo4j.test.ImpermanentDatabaseRule;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.graphdb.DynamicLabel.label;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
+import static org.neo4j.helpers.collection.IteratorUtil.count;
+import static org.neo4j.helpers.collection.IteratorUtil.emptySetOf;
+import static org.neo4j.helpers.collection.IteratorUtil.single;
+
+public class CompositeIndexIT
+{
+    @Rule
+    public final DatabaseRule db = new ImpermanentDatabaseRule();
+
+    private final Label person = label( "Person" );
+
+    @Test
+    public void shouldCreateAndListCompositeIndex() throws Exception
+    {
+        // when
+        createIndex( "name", "age" );
+
+        // then
+        try ( Transaction tx = db.beginTx() )
+        {
+            IndexDefinition index = single( db.schema().getIndexes( person ) );
+            assertEquals( asList( "name", "age" ), index.getPropertyKeys() );
+            assertTrue( descriptor().isComposite() );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldRefuseTheSamePropertyTwice() throws Exception
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().indexFor( person ).on( "name" ).on( "name" );
+            fail( "Should not allow a property to occur twice in an index" );
+        }
+        catch ( ConstraintViolationException e )
+        {
+            // good
+        }
+    }
+
+    @Test
+    public void shouldPopulateCompositeIndexFromExistingNodes() throws Exception
+    {
+        // given
+        long alice = createPerson( "Alice", 42 );
+        createPerson( "Alice", 43 );
+        createPerson( "Bob", 42 );
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.createNode( person ).setProperty( "name", "Alice" );
+            tx.success();
+        }
+
+        // when
+        createIndex( "name", "age" );
+
+        // then
+        assertEquals( asSet( alice ), lookup( "Alice", 42 ) );
+    }
+
+    @Test
+    public void shouldKeepCompositeIndexUpToDateWithChanges() throws Exception
+    {
+        // given
+        createIndex( "name", "age" );
+        long alice = createPerson( "Alice", 42 );
+        assertEquals( asSet( alice ), lookup( "Alice", 42 ) );
+
+        // when
+        try ( Transaction tx = db.beginTx() )
+        {
+            graphDb().getNodeById( alice ).setProperty( "age", 43 );
+            tx.success();
+        }
+
+        // then
+        assertEquals( emptySetOf( Long.class ), lookup( "Alice", 42 ) );
+        assertEquals( asSet( alice ), lookup( "Alice", 43 ) );
+
+        // when
+        try ( Transaction tx = db.beginTx() )
+        {
+            graphDb().getNodeById( alice ).removeLabel( person );
+            tx.success();
+        }
+
+        // then
+        assertEquals( emptySetOf( Long.class ), lookup( "Alice", 43 ) );
+    }
+
+    @Test
+    public void shouldSeeChangesOfTheOwnTransaction() throws Exception
+    {
+        // given
+        createIndex( "name", "age" );
+        long alice = createPerson( "Alice", 42 );
+        long bob = createPerson( "Bob", 42 );
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            // when
+            graphDb().getNodeById( alice ).setProperty( "age", 43 );
+            graphDb().getNodeById( bob ).setProperty( "name", "Alice" );
+            Node carol = db.createNode( person );
+            carol.setProperty( "name", "Alice" );
+            carol.setProperty( "age", 42 );
+
+            // then
+            assertEquals( asSet( bob, carol.getId() ), lookup( "Alice", 42 ) );
+            assertEquals( asSet( alice ), lookup( "Alice", 43 ) );
+        }
+    }
+
+    @Test
+    public void shouldDropCompositeIndex() throws Exception
+    {
+        // given
+        IndexDefinition index = createIndex( "name", "age" );
+
+        // when
+        try ( Transaction tx = db.beginTx() )
+        {
+            index.drop();
+            tx.success();
+        }
+
+        // then
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( 0, count( db.schema().getIndexes( person ) ) );
+            tx.success();
+        }
+    }
+
+    private IndexDefinition createIndex( String... propertyKeys )
+    {
+        IndexDefinition index;
+        try ( Transaction tx = db.beginTx() )
+        {
+            IndexCreator creator = db.schema().indexFor( person );
+            for ( String propertyKey : propertyKeys )
+            {
+                creator = creator.on( propertyKey );
+            }
+            index = creator.create();
+            tx.success();
+        }
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().awaitIndexOnline( index, 10, TimeUnit.SECONDS );
+            tx.success();
+        }
+        return index;
+    }
+
+    private long createPerson( String name, int age )
+    {
+        try ( Transaction tx = db.beginTx() )
+        {
+            Node node = db.createNode( person );
+            node.setProperty( "name", name );
+            node.setProperty( "age", age );
+            tx.success();
+            return node.getId();
+        }
+    }
+
+    private Set<Long> lookup( Object... values ) throws Exception
+    {
+        try ( Transaction tx = db.beginTx();
+              Statement statement = statement() )
+        {
+            Set<Long> nodes = asSet( statement.readOperations().nodesGetFromIndexLookup( descriptor(), values ) );
+            tx.success();
+            return nodes;
+        }
+    }
+
+    private IndexDescriptor descriptor()
+    {
+        try ( Statement statement = statement() )
+        {
+            ReadOperations read = statement.readOperations();
+            return single( read.indexesGetForLabel( read.labelGetForName( person.name() ) ) );
+        }
+    }
+
+    private Statement statement()
+    {
+        return db.resolveDependency( ThreadToStatementContextBridge.class ).instance();
+    }
+
+    private GraphDatabaseService graphDb()
+    {
+        return db.getGraphDatabaseService();
+    }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.neo4j.helpers.BiConsumer;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.NodePropertyUpdate;
+import org.neo4j.kernel.api.properties.Property;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.add;
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.change;
+import static org.neo4j.kernel.api.index.NodePropertyUpdate.remove;
+import static org.neo4j.kernel.impl.api.index.UpdateMode.ADDED;
+import static org.neo4j.kernel.impl.api.index.UpdateMode.CHANGED;
+import static org.neo4j.kernel.impl.api.index.UpdateMode.REMOVED;
+
+public class CompositeIndexUpdatesTest
+{
+    private static final int LABEL = 1;
+    private static final int OTHER_LABEL = 2;
+    private static final int NAME = 10;
+    private static final int AGE = 11;
+    private static final int UNRELATED = 12;
+    private static final long[] LABELS = {LABEL};
+    private static final long[] NO_LABELS = {};
+
+    private final IndexDescriptor index = new IndexDescriptor( LABEL, new int[]{NAME, AGE} );
+    private final IndexStoreView storeView = mock( IndexStoreView.class );
+    private final List<NodePropertyUpdate> emitted = new ArrayList<>();
+    private CompositeIndexUpdates updates;
+
+    @Before
+    public void setup() throws Exception
+    {
+        when( storeView.getProperty( 0, NAME ) ).thenReturn( Property.noNodeProperty( 0, NAME ) );
+        when( storeView.getProperty( 0, AGE ) ).thenReturn( Property.noNodeProperty( 0, AGE ) );
+        updates = new CompositeIndexUpdates( asList( index ), storeView );
+    }
+
+    @Test
+    public void shouldAddTupleWhenAllPropertiesAreAddedInOneTransaction() throws Exception
+    {
+        // given
+        updates.add( add( 0, NAME, "Alice", LABELS ) );
+        updates.add( add( 0, AGE, 42, LABELS ) );
+
+        // when
+        accept();
+
+        // then
+        assertEquals( 1, emitted.size() );
+        assertEquals( ADDED, emitted.get( 0 ).getUpdateMode() );
+        assertArrayEquals( new Object[]{"Alice", 42}, (Object[]) emitted.get( 0 ).getValueAfter() );
+        assertTrue( emitted.get( 0 ).forLabel( LABEL ) );
+    }
+
+    @Test
+    public void shouldCompleteTupleWithValueFromTheStore() throws Exception
+    {
+        // given
+        when( storeView.getProperty( 0, AGE ) ).thenReturn( Property.intProperty( AGE, 42 ) );
+        updates.add( change( 0, NAME, "Alice", LABELS, "Bob", LABELS ) );
+
+        // when
+        accept();
+
+        // then
+        assertEquals( 1, emitted.size() );
+        assertEquals( CHANGED, emitted.get( 0 ).getUpdateMode() );
+        assertArrayEquals( new Object[]{"Alice", 42}, (Object[]) emitted.get( 0 ).getValueBefore() );
+        assertArrayEquals( new Object[]{"Bob", 42}, (Object[]) emitted.get( 0 ).getValueAfter() );
+    }
+
+    @Test
+    public void shouldRemoveTupleWhenOnePropertyIsRemoved() throws Exception
+    {
+        // given
+        when( storeView.getProperty( 0, NAME ) ).thenReturn( Property.stringProperty( NAME, "Alice" ) );
+        updates.add( remove( 0, AGE, 42, LABELS ) );
+
+        // when
+        accept();
+
+        // then
+        assertEquals( 1, emitted.size() );
+        assertEquals( REMOVED, emitted.get( 0 ).getUpdateMode() );
+        assertArrayEquals( new Object[]{"Alice", 42}, (Object[]) emitted.get( 0 ).getValueBefore() );
+    }
+
+    @Test
+    public void shouldRemoveTupleWhenLabelIsRemoved() throws Exception
+    {
+        // given
+        updates.add( change( 0, NAME, "Alice", LABELS, "Alice", NO_LABELS ) );
+        updates.add( change( 0, AGE, 42, LABELS, 42, NO_LABELS ) );
+        updates.add( remove( 0, NAME, "Alice", LABELS ) );
+        updates.add( remove( 0, AGE, 42, LABELS ) );
+
+        // when
+        accept();
+
+        // then
+        assertEquals( 1, emitted.size() );
+        assertEquals( REMOVED, emitted.get( 0 ).getUpdateMode() );
+        assertArrayEquals( new Object[]{"Alice", 42}, (Object[]) emitted.get( 0 ).getValueBefore() );
+    }
+
+    @Test
+    public void shouldIgnoreIncompleteTuples() throws Exception
+    {
+        // given
+        updates.add( add( 0, NAME, "Alice", LABELS ) );
+
+        // when
+        accept();
+
+        // then
+        assertTrue( emitted.isEmpty() );
+    }
+
+    @Test
+    public void shouldIgnoreUpdatesForOtherLabelsAndProperties() throws Exception
+    {
+        // given
+        updates.add( add( 0, NAME, "Alice", new long[]{OTHER_LABEL} ) );
+        updates.add( add( 0, AGE, 42, new long[]{OTHER_LABEL} ) );
+        updates.add( add( 0, UNRELATED, "x", LABELS ) );
+
+        // when
+        accept();
+
+        // then
+        assertTrue( emitted.isEmpty() );
+    }
+
+    @Test
+    public void shouldIgnoreChangesThatLeaveTheTupleUnchanged() throws Exception
+    {
+        // given
+        when( storeView.getProperty( 0, AGE ) ).thenReturn( Property.intProperty( AGE, 42 ) );
+        updates.add( change( 0, NAME, "Alice", LABELS, "Alice", LABELS ) );
+
+        // when
+        accept();
+
+        // then
+        assertTrue( emitted.isEmpty() );
+    }
+
+    private void accept()
+    {
+        updates.accept( new BiConsumer<IndexDescriptor,NodePropertyUpdate>()
+        {
+            @Override
+            public void accept( IndexDescriptor descriptor, NodePropertyUpdate update )
+            {
+                assertEquals( index, descriptor );
+                emitted.add( update );
+            }
+        } );
+    }
+}
@@ -48,7 +48,9 @@ import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.kernel.api.exceptions.KernelException;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.api.properties.Property;
+import org.neo4j.kernel.impl.api.index.sampling.IndexSamplingMode;
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 import org.neo4j.kernel.impl.store.NeoStore;
 import org.neo4j.kernel.impl.store.SchemaStorage;
@@ -90,9 +92,9 @@ public class IndexStatisticsTest
         // when
         createSomePersons();
 
-        // then
+        // then the sample is not updated, but the index size is
         assertEquals( 1.0d, indexSelectivity( index ), DOUBLE_ERROR_TOLERANCE );
-        assertEquals( 0l, indexSize( index ) );
+        assertEquals( 4l, indexSize( index ) );
         assertEquals( 4l, indexUpdates( index ) );
     }
 
@@ -107,9 +109,9 @@ public class IndexStatisticsTest
         // when
         createSomePersons();
 
-        // then
+        // then the sample is not updated, but the index size is
         assertEquals( 0.75d, indexSelectivity( index ), DOUBLE_ERROR_TOLERANCE );
-        assertEquals( 4l, indexSize( index ) );
+        assertEquals( 8l, indexSize( index ) );
         assertEquals( 4l, indexUpdates( index ) );
     }
 
@@ -158,6 +160,26 @@ public class IndexStatisticsTest
         assertEquals( 0l, indexUpdates( index ) );
     }
 
+    @Test
+    public void shouldProvideValueHistogramOnceTheIndexHasBeenSampled() throws KernelException
+    {
+        // given
+        createSomePersons();
+        IndexDescriptor index = awaitOnline( createIndex( "Person", "name" ) );
+
+        // when
+        ((GraphDatabaseAPI) db).getDependencyResolver()
+                               .resolveDependency( IndexingService.class )
+                               .triggerIndexSampling( IndexSamplingMode.TRIGGER_REBUILD_ALL );
+        IndexValueHistogram histogram = awaitHistogram( index );
+
+        // then
+        assertEquals( 4l, histogram.entries() );
+        assertEquals( 3l, histogram.distinctValues() );
+        assertEquals( 0.5d, histogram.equalitySelectivity( "John" ), DOUBLE_ERROR_TOLERANCE );
+        assertEquals( 0.25d, histogram.equalitySelectivity( "Stefan" ), DOUBLE_ERROR_TOLERANCE );
+    }
+
     @Test
     public void shouldProvideIndexStatisticsWhenIndexIsBuiltViaPopulationAndConcurrentAdditions() throws KernelException
     {
@@ -173,7 +195,7 @@ public class IndexStatisticsTest
         int seenWhilePopulating = initialNodes + updatesTracker.createdDuringPopulation();
         double expectedSelectivity = UNIQUE_NAMES / ((double) seenWhilePopulating);
         assertCorrectIndexSelectivity( expectedSelectivity, indexSelectivity( index ) );
-        assertCorrectIndexSize( seenWhilePopulating, indexSize( index ) );
+        assertCorrectIndexSize( seenWhilePopulating + updatesTracker.createdAfterPopulation(), indexSize( index ) );
         assertCorrectIndexUpdates( updatesTracker.createdAfterPopulation(), indexUpdates( index ) );
     }
 
@@ -195,7 +217,9 @@ public class IndexStatisticsTest
                 initialNodes + updatesTracker.createdDuringPopulation() - updatesTracker.deletedDuringPopulation();
         double expectedSelectivity = UNIQUE_NAMES / ((double) seenWhilePopulating);
         assertCorrectIndexSelectivity( expectedSelectivity, indexSelectivity( index ) );
-        assertCorrectIndexSize( seenWhilePopulating, indexSize( index ) );
+        int expectedIndexSize =
+                seenWhilePopulating + updatesTracker.createdAfterPopulation() - updatesTracker.deletedAfterPopulation();
+        assertCorrectIndexSize( expectedIndexSize, indexSize( index ) );
         int expectedIndexUpdates = updatesTracker.deletedAfterPopulation() + updatesTracker.createdAfterPopulation();
         assertCorrectIndexUpdates( expectedIndexUpdates, indexUpdates( index ) );
     }
@@ -217,7 +241,7 @@ public class IndexStatisticsTest
         int seenWhilePopulating = initialNodes + updatesTracker.createdDuringPopulation();
         double expectedSelectivity = UNIQUE_NAMES / ((double) seenWhilePopulating);
         assertCorrectIndexSelectivity( expectedSelectivity, indexSelectivity( index ) );
-        assertCorrectIndexSize( seenWhilePopulating, indexSize( index ) );
+        assertCorrectIndexSize( seenWhilePopulating + updatesTracker.createdAfterPopulation(), indexSize( index ) );
         assertCorrectIndexUpdates( updatesTracker.createdAfterPopulation(), indexUpdates( index ) );
     }
 
@@ -263,7 +287,8 @@ public class IndexStatisticsTest
         int seenWhilePopulating = initialNodes + result.createdDuringPopulation() - result.deletedDuringPopulation();
         double expectedSelectivity = UNIQUE_NAMES / ((double) seenWhilePopulating);
         assertCorrectIndexSelectivity( expectedSelectivity, indexSelectivity( index ), doubleTolerance );
-        assertCorrectIndexSize( "Tracker had " + result, seenWhilePopulating, indexSize( index ), tolerance );
+        int expectedIndexSize = seenWhilePopulating + result.createdAfterPopulation() - result.deletedAfterPopulation();
+        assertCorrectIndexSize( "Tracker had " + result, expectedIndexSize, indexSize( index ), tolerance );
         int expectedIndexUpdates = result.deletedAfterPopulation() + result.createdAfterPopulation();
         assertCorrectIndexUpdates( "Tracker had " + result, expectedIndexUpdates, indexUpdates( index ), tolerance );
     }
@@ -364,6 +389,34 @@ public class IndexStatisticsTest
         }
     }
 
+    private IndexValueHistogram awaitHistogram( IndexDescriptor descriptor ) throws KernelException
+    {
+        long end = System.currentTimeMillis() + 3000;
+        while ( System.currentTimeMillis() < end )
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Statement statement = bridge.instance();
+                IndexValueHistogram histogram = statement.readOperations().indexValueHistogram( descriptor );
+                tx.success();
+                if ( !histogram.isEmpty() )
+                {
+                    return histogram;
+                }
+            }
+
+            try
+            {
+                Thread.sleep( 100 );
+            }
+            catch ( InterruptedException e )
+            {
+                // ignored
+            }
+        }
+        throw new IllegalStateException( "Index was not sampled within reasonable time" );
+    }
+
     private CountsTracker getTracker()
     {
         return ((GraphDatabaseAPI) db).getDependencyResolver().resolveDependency( NeoStore.class ).getCounts();
@@ -19,12 +19,21 @@
  */
 package org.neo4j.kernel.impl.api.index.inmemory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.neo4j.collection.primitive.PrimitiveLongIterator;
 import org.neo4j.kernel.api.direct.BoundedIterable;
 import org.neo4j.kernel.api.index.ArrayEncoder;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
+
+import static org.neo4j.collection.primitive.PrimitiveLongCollections.toPrimitiveIterator;
 
 abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterable<Long>
 {
@@ -38,6 +47,70 @@ abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterab
         return doLookup( encode( value ) );
     }
 
+    @Override
+    public final PrimitiveLongIterator orderedScan( boolean ascending )
+    {
+        Comparator<Object> order = ascending ? VALUE_ORDER : Collections.reverseOrder( VALUE_ORDER );
+        final Map<Object, Set<Long>> sorted = new TreeMap<>( order );
+        try
+        {
+            iterateAll( new IndexEntryIterator()
+            {
+                @Override
+                public void visitEntry( Object key, Set<Long> nodeIds )
+                {
+                    sorted.put( key, nodeIds );
+                }
+            } );
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( e );
+        }
+        List<Long> nodeIds = new ArrayList<>();
+        for ( Set<Long> ids : sorted.values() )
+        {
+            nodeIds.addAll( ids );
+        }
+        return toPrimitiveIterator( nodeIds.iterator() );
+    }
+
+    @Override
+    public final IndexValueHistogram valueHistogram()
+    {
+        final Map<Object, Set<Long>> sorted = new TreeMap<>( VALUE_ORDER );
+        try
+        {
+            iterateAll( new IndexEntryIterator()
+            {
+                @Override
+                public void visitEntry( Object key, Set<Long> nodeIds )
+                {
+                    if ( !nodeIds.isEmpty() )
+                    {
+                        sorted.put( key, nodeIds );
+                    }
+                }
+            } );
+        }
+        catch ( Exception e )
+        {
+            throw new RuntimeException( e );
+        }
+        long entries = 0;
+        for ( Set<Long> ids : sorted.values() )
+        {
+            entries += ids.size();
+        }
+        IndexValueHistogram.Builder histogram = new IndexValueHistogram.Builder(
+                IndexValueHistogram.DEFAULT_BUCKETS, IndexValueHistogram.DEFAULT_MOST_COMMON_VALUES, entries );
+        for ( Map.Entry<Object, Set<Long>> entry : sorted.entrySet() )
+        {
+            histogram.include( entry.getKey(), entry.getValue().size() );
+        }
+        return histogram.build();
+    }
+
     final boolean add( long nodeId, Object propertyValue, boolean applyIdempotently )
     {
         return doAdd( encode( propertyValue ), nodeId, applyIdempotently );
@@ -75,6 +148,17 @@ abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterab
             return propertyValue.toString();
         }
 
+        if ( propertyValue.getClass() == Object[].class )
+        {
+            // a tuple of a composite index, its elements are encoded one by one
+            List<Object> tuple = new ArrayList<>();
+            for ( Object value : (Object[]) propertyValue )
+            {
+                tuple.add( encode( value ) );
+            }
+            return tuple;
+        }
+
         if ( propertyValue.getClass().isArray() )
         {
             return new ArrayKey( ArrayEncoder.encode( propertyValue ) );
@@ -83,6 +167,37 @@ abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterab
         return propertyValue;
     }
 
+    /**
+     * Orders encoded values the way {@link IndexReader#orderedScan(boolean)} specifies, numbers before strings
+     * before anything else, which is only told apart to keep distinct keys distinct.
+     */
+    private static final Comparator<Object> VALUE_ORDER = new Comparator<Object>()
+    {
+        @Override
+        public int compare( Object left, Object right )
+        {
+            int leftGroup = group( left ), rightGroup = group( right );
+            if ( leftGroup != rightGroup )
+            {
+                return leftGroup - rightGroup;
+            }
+            switch ( leftGroup )
+            {
+            case 0:
+                return Double.compare( (Double) left, (Double) right );
+            case 1:
+                return ((String) left).compareTo( (String) right );
+            default:
+                return String.valueOf( left ).compareTo( String.valueOf( right ) );
+            }
+        }
+
+        private int group( Object value )
+        {
+            return value instanceof Double ? 0 : value instanceof String ? 1 : 2;
+        }
+    };
+
     private static class ArrayKey
     {
         private final String arrayValue;
@@ -114,6 +229,12 @@ abstract class InMemoryIndexImplementation implements IndexReader, BoundedIterab
         {
             return arrayValue != null ? arrayValue.hashCode() : 0;
         }
+
+        @Override
+        public String toString()
+        {
+            return arrayValue;
+        }
     }
 
     abstract InMemoryIndexImplementation snapshot();
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HyperLogLogTest
+{
+    @Test
+    public void shouldEstimateNothingForAnEmptySketch()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // then
+        assertEquals( 0, sketch.estimate() );
+    }
+
+    @Test
+    public void shouldNotCountDuplicateValues()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+
+        // when
+        for ( int i = 0; i < 1000; i++ )
+        {
+            sketch.offer( "value" + (i % 10) );
+        }
+
+        // then
+        assertEquals( 10, sketch.estimate() );
+    }
+
+    @Test
+    public void shouldEstimateTheNumberOfDistinctValuesWithinTheExpectedError()
+    {
+        // given
+        HyperLogLog sketch = new HyperLogLog();
+        int distinctValues = 1_000_000;
+
+        // when
+        for ( int i = 0; i < distinctValues; i++ )
+        {
+            sketch.offer( String.valueOf( i ) );
+        }
+
+        // then
+        assertEquals( distinctValues, sketch.estimate(), distinctValues * 0.05 );
+    }
+
+    @Test
+    public void shouldEstimateTheUnionOfMergedSketches()
+    {
+        // given
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for ( int i = 0; i < 20_000; i++ )
+        {
+            first.offer( String.valueOf( i ) );
+            second.offer( String.valueOf( i + 10_000 ) );
+        }
+
+        // when
+        first.merge( second );
+
+        // then
+        assertEquals( 30_000, first.estimate(), 30_000 * 0.05 );
+    }
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.junit.Test;
+
+import org.neo4j.register.Registers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.register.Register.DoubleLongRegister;
+
+public class IncrementalIndexSamplerTest
+{
+    @Test
+    public void shouldNeedAFullSampleBeforeBeingSeeded()
+    {
+        // given
+        IncrementalIndexSampler sampler = new IncrementalIndexSampler( 10 );
+
+        // when
+        sampler.include( "aaa" );
+
+        // then
+        assertTrue( sampler.needsFullSample() );
+    }
+
+    @Test
+    public void shouldEstimateUniqueValuesFromTheFullSampleAndLaterUpdates()
+    {
+        // given
+        IncrementalIndexSampler sampler = new IncrementalIndexSampler( 10 );
+        HyperLogLog fullSample = sampler.fullSampleStarted();
+        fullSample.offer( "aaa" );
+        fullSample.offer( "bbb" );
+        sampler.fullSampleCompleted( fullSample );
+
+        // when
+        sampler.include( "bbb" );
+        sampler.include( "ccc" );
+
+        // then
+        assertFalse( sampler.needsFullSample() );
+        assertSampledValues( sampler, 4, 3, 4 );
+    }
+
+    @Test
+    public void shouldKeepValuesIncludedWhileTheFullSampleWasRunning()
+    {
+        // given
+        IncrementalIndexSampler sampler = new IncrementalIndexSampler( 10 );
+        HyperLogLog fullSample = sampler.fullSampleStarted();
+        fullSample.offer( "aaa" );
+
+        // when
+        sampler.include( "bbb" );
+        sampler.fullSampleCompleted( fullSample );
+
+        // then
+        assertSampledValues( sampler, 2, 2, 2 );
+    }
+
+    @Test
+    public void shouldNotEstimateMoreUniqueValuesThanThereAreEntries()
+    {
+        // given
+        IncrementalIndexSampler sampler = new IncrementalIndexSampler( 10 );
+        HyperLogLog fullSample = sampler.fullSampleStarted();
+        fullSample.offer( "aaa" );
+        fullSample.offer( "bbb" );
+        sampler.fullSampleCompleted( fullSample );
+
+        // when
+        // "bbb" was removed from the index, which the sketch can't know about
+
+        // then
+        assertSampledValues( sampler, 1, 1, 1 );
+    }
+
+    @Test
+    public void shouldAskForAFullSampleAfterTheConfiguredNumberOfIncrementalSamples()
+    {
+        // given
+        IncrementalIndexSampler sampler = new IncrementalIndexSampler( 2 );
+        sampler.fullSampleCompleted( sampler.fullSampleStarted() );
+
+        // when
+        sampler.result( 0, Registers.newDoubleLongRegister() );
+        assertFalse( sampler.needsFullSample() );
+        sampler.result( 0, Registers.newDoubleLongRegister() );
+
+        // then
+        assertTrue( sampler.needsFullSample() );
+    }
+
+    @Test
+    public void shouldStillNeedAFullSampleIfTheFullSampleWasAborted()
+    {
+        // given
+        IncrementalIndexSampler sampler = new IncrementalIndexSampler( 10 );
+        sampler.fullSampleStarted();
+
+        // when
+        sampler.fullSampleAborted();
+
+        // then
+        assertTrue( sampler.needsFullSample() );
+    }
+
+    private void assertSampledValues( IncrementalIndexSampler sampler, long indexSize,
+                                      long expectedUniqueValues, long expectedSampledSize )
+    {
+        final DoubleLongRegister register = Registers.newDoubleLongRegister();
+        assertEquals( indexSize, sampler.result( indexSize, register ) );
+        assertEquals( expectedUniqueValues, register.readFirst() );
+        assertEquals( expectedSampledSize, register.readSecond() );
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index.sampling;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.OutputStream;
+
+import org.neo4j.kernel.api.index.IndexValueHistogram;
+import org.neo4j.test.EphemeralFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+
+public class IndexValueHistogramsTest
+{
+    @Rule
+    public final EphemeralFileSystemRule fsRule = new EphemeralFileSystemRule();
+
+    private final File file = new File( "neostore.indexhistograms.db" );
+    private final IndexValueHistogram histogram =
+            new IndexValueHistogram.Builder( 2, 2, 6 ).include( 1, 3 ).include( 2, 1 ).include( "a", 2 ).build();
+
+    @Test
+    public void shouldKeepHistogramsBetweenRestarts()
+    {
+        // given
+        IndexValueHistograms histograms = IndexValueHistograms.load( fsRule.get(), file );
+
+        // when
+        histograms.replace( 1, 2, histogram );
+
+        // then
+        assertEquals( histogram, histograms.get( 1, 2 ) );
+        assertEquals( histogram, IndexValueHistograms.load( fsRule.get(), file ).get( 1, 2 ) );
+        assertEquals( IndexValueHistogram.EMPTY, IndexValueHistograms.load( fsRule.get(), file ).get( 2, 1 ) );
+    }
+
+    @Test
+    public void shouldForgetHistogramsReplacedByEmptyOnes()
+    {
+        // given
+        IndexValueHistograms histograms = IndexValueHistograms.load( fsRule.get(), file );
+        histograms.replace( 1, 2, histogram );
+
+        // when
+        histograms.replace( 1, 2, IndexValueHistogram.EMPTY );
+
+        // then
+        assertEquals( IndexValueHistogram.EMPTY, histograms.get( 1, 2 ) );
+        assertEquals( IndexValueHistogram.EMPTY, IndexValueHistograms.load( fsRule.get(), file ).get( 1, 2 ) );
+    }
+
+    @Test
+    public void shouldTreatAnUnreadableFileAsHavingNoHistograms() throws Exception
+    {
+        // given
+        IndexValueHistograms.load( fsRule.get(), file ).replace( 1, 2, histogram );
+        long size = fsRule.get().getFileSize( file );
+        try ( OutputStream out = fsRule.get().openAsOutputStream( file, false ) )
+        {
+            out.write( new byte[(int) size / 2] );
+        }
+
+        // when
+        IndexValueHistograms histograms = IndexValueHistograms.load( fsRule.get(), file );
+
+        // then
+        assertEquals( IndexValueHistogram.EMPTY, histograms.get( 1, 2 ) );
+    }
+}
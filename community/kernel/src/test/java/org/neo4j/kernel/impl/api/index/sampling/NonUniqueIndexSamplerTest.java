@@ -73,6 +73,20 @@ public class NonUniqueIndexSamplerTest
         assertSampledValues( sampler, 3, 2, 3 );
     }
 
+    @Test
+    public void shouldSampleValuesIncludedSeveralTimesAtOnce()
+    {
+        // given
+        NonUniqueIndexSampler sampler = new NonUniqueIndexSampler( 10 );
+
+        // when
+        sampler.include( value, 3 );
+        sampler.include( "bbb", 1 );
+
+        // then
+        assertSampledValues( sampler, 4, 2, 4 );
+    }
+
     @Test
     public void shouldDivideTheSamplingInStepsNotBiggerThanBatchSize()
     {
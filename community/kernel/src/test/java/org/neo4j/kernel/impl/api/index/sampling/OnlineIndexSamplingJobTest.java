@@ -28,6 +28,7 @@ import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.index.IndexConfiguration;
 import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
 import org.neo4j.kernel.impl.api.index.IndexProxy;
 import org.neo4j.kernel.impl.api.index.IndexStoreView;
 import org.neo4j.kernel.logging.DevNullLoggingService;
@@ -56,6 +57,7 @@ public class OnlineIndexSamplingJobTest
 
         // then
         verify( indexStoreView ).replaceIndexCounts( indexDescriptor, indexUniqueValues, indexSize, indexSize );
+        verify( indexStoreView ).replaceIndexHistogram( indexDescriptor, histogram );
         verifyNoMoreInteractions( indexStoreView );
     }
 
@@ -81,6 +83,8 @@ public class OnlineIndexSamplingJobTest
 
     private final long indexUniqueValues = 21l;
     private final long indexSize = 23l;
+    private final IndexValueHistogram histogram =
+            new IndexValueHistogram.Builder( 2, 1, indexSize ).include( 1, 3 ).include( "a", 20 ).build();
 
     @Before
     public void setup() throws IndexNotFoundKernelException
@@ -90,6 +94,7 @@ public class OnlineIndexSamplingJobTest
         when( indexProxy.newReader() ).thenReturn( indexReader );
         doAnswer( answerWith( indexUniqueValues, indexSize ) ).when( indexReader )
                                                               .sampleIndex( any( DoubleLong.Out.class ) );
+        when( indexReader.valueHistogram() ).thenReturn( histogram );
 
     }
 
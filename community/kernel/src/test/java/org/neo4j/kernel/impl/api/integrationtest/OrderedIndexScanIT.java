@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.integrationtest;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.collection.primitive.PrimitiveLongIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.kernel.api.DataWriteOperations;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.SchemaWriteOperations;
+import org.neo4j.kernel.api.exceptions.KernelException;
+import org.neo4j.kernel.api.index.IndexDescriptor;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.api.properties.Property;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+
+public class OrderedIndexScanIT extends KernelIntegrationTest
+{
+    private int labelId, propertyKeyId;
+    private IndexDescriptor index;
+
+    @Before
+    public void createIndex() throws Exception
+    {
+        SchemaWriteOperations statement = schemaWriteOperationsInNewTransaction();
+        labelId = statement.labelGetOrCreateForName( "Person" );
+        propertyKeyId = statement.propertyKeyGetOrCreateForName( "age" );
+        index = statement.indexCreate( labelId, propertyKeyId );
+        commit();
+
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.schema().awaitIndexesOnline( 10, SECONDS );
+            tx.success();
+        }
+    }
+
+    @Test
+    public void shouldScanCommittedNodesInValueOrder() throws Exception
+    {
+        // given
+        long thirty = createNode( Property.intProperty( propertyKeyId, 30 ) );
+        long name = createNode( Property.stringProperty( propertyKeyId, "unknown" ) );
+        long ten = createNode( Property.longProperty( propertyKeyId, 10 ) );
+        long twenty = createNode( Property.doubleProperty( propertyKeyId, 20.5 ) );
+
+        // when
+        ReadOperations statement = readOperationsInNewTransaction();
+        List<Long> ascending = scan( statement, true );
+        List<Long> descending = scan( statement, false );
+        commit();
+
+        // then
+        assertEquals( asList( ten, twenty, thirty, name ), ascending );
+        assertEquals( asList( name, thirty, twenty, ten ), descending );
+    }
+
+    @Test
+    public void shouldMergeChangesOfTheTransactionIntoTheScan() throws Exception
+    {
+        // given
+        long ten = createNode( Property.intProperty( propertyKeyId, 10 ) );
+        long twenty = createNode( Property.intProperty( propertyKeyId, 20 ) );
+        long thirty = createNode( Property.intProperty( propertyKeyId, 30 ) );
+        long forty = createNode( Property.intProperty( propertyKeyId, 40 ) );
+
+        // when
+        DataWriteOperations statement = dataWriteOperationsInNewTransaction();
+        long twentyFive = statement.nodeCreate();
+        statement.nodeAddLabel( twentyFive, labelId );
+        statement.nodeSetProperty( twentyFive, Property.intProperty( propertyKeyId, 25 ) );
+        statement.nodeSetProperty( forty, Property.intProperty( propertyKeyId, 5 ) );
+        statement.nodeRemoveLabel( twenty, labelId );
+        statement.nodeDelete( thirty );
+        List<Long> ascending = scan( statement, true );
+        List<Long> descending = scan( statement, false );
+        commit();
+
+        // then
+        assertEquals( asList( forty, ten, twentyFive ), ascending );
+        assertEquals( asList( twentyFive, ten, forty ), descending );
+    }
+
+    private List<Long> scan( ReadOperations statement, boolean ascending ) throws KernelException
+    {
+        List<Long> nodes = new ArrayList<>();
+        for ( PrimitiveLongIterator iterator = statement.nodesGetFromIndexScan( index, ascending ); iterator.hasNext(); )
+        {
+            nodes.add( iterator.next() );
+        }
+        return nodes;
+    }
+
+    private long createNode( DefinedProperty property ) throws KernelException
+    {
+        DataWriteOperations statement = dataWriteOperationsInNewTransaction();
+        long nodeId = statement.nodeCreate();
+        statement.nodeAddLabel( nodeId, labelId );
+        statement.nodeSetProperty( nodeId, property );
+        commit();
+        return nodeId;
+    }
+}
@@ -42,7 +42,9 @@ import org.neo4j.test.PageCacheRule;
 
 import static java.nio.ByteBuffer.wrap;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import static org.neo4j.helpers.collection.IteratorUtil.asCollection;
 import static org.neo4j.helpers.collection.IteratorUtil.first;
@@ -91,46 +93,67 @@ public class SchemaStoreTest
         assertEquals( rules, readRules );
     }
 
-//    ENABLE WHEN MULTIPLE PROPERTY KEYS PER INDEX RULE IS SUPPORTED
-//    @Test
-//    public void storeAndLoadSingleLongRule() throws Exception
-//    {
-//        // GIVEN
-//
-//        Collection<SchemaRule> rules = Arrays.<SchemaRule>asList( createLongIndexRule( 0, 50 ) );
-//        for ( SchemaRule rule : rules )
-//            storeRule( rule );
-//
-//        // WHEN
-//        Collection<SchemaRule> readRules = asCollection( store.loadAll() );
-//
-//        // THEN
-//        assertEquals( rules, readRules );
-//    }
-//
-//    @Test
-//    public void storeAndLoadAllLongRules() throws Exception
-//    {
-//        // GIVEN
-//        Collection<SchemaRule> rules = Arrays.<SchemaRule>asList(
-//                createLongIndexRule( 0, 100 ), createLongIndexRule( 1, 6 ), createLongIndexRule( 2, 50 ) );
-//        for ( SchemaRule rule : rules )
-//            storeRule( rule );
-//
-//        // WHEN
-//        Collection<SchemaRule> readRules = asCollection( store.loadAll() );
-//
-//        // THEN
-//        assertEquals( rules, readRules );
-//    }
-//
-//    private IndexRule createLongIndexRule( long label, int numberOfPropertyKeys )
-//    {
-//        long[] propertyKeys = new long[numberOfPropertyKeys];
-//        for ( int i = 0; i < propertyKeys.length; i++ )
-//            propertyKeys[i] = i;
-//        return new IndexRule( store.nextId(), label, POPULATING, propertyKeys );
-//    }
+    @Test
+    public void storeAndLoadSingleLongRule() throws Exception
+    {
+        // GIVEN
+        Collection<SchemaRule> rules = Arrays.<SchemaRule>asList( createLongIndexRule( 0, 50 ) );
+        for ( SchemaRule rule : rules )
+        {
+            storeRule( rule );
+        }
+
+        // WHEN
+        Collection<SchemaRule> readRules = asCollection( store.loadAllSchemaRules() );
+
+        // THEN
+        assertEquals( rules, readRules );
+    }
+
+    @Test
+    public void storeAndLoadAllLongRules() throws Exception
+    {
+        // GIVEN
+        Collection<SchemaRule> rules = Arrays.<SchemaRule>asList(
+                createLongIndexRule( 0, 100 ), createLongIndexRule( 1, 6 ), createLongIndexRule( 2, 50 ) );
+        for ( SchemaRule rule : rules )
+        {
+            storeRule( rule );
+        }
+
+        // WHEN
+        Collection<SchemaRule> readRules = asCollection( store.loadAllSchemaRules() );
+
+        // THEN
+        assertEquals( rules, readRules );
+    }
+
+    @Test
+    public void serializationAndDeserializationOfCompositeRule() throws Exception
+    {
+        // GIVEN
+        IndexRule indexRule = IndexRule.indexRule( store.nextId(), 1, new int[]{4, 2, 7}, PROVIDER_DESCRIPTOR );
+
+        // WHEN
+        byte[] serialized = new RecordSerializer().append( indexRule ).serialize();
+        IndexRule readIndexRule = (IndexRule) SchemaRule.Kind.deserialize( indexRule.getId(), wrap( serialized ) );
+
+        // THEN
+        assertEquals( indexRule, readIndexRule );
+        assertArrayEquals( new int[]{4, 2, 7}, readIndexRule.getPropertyKeys() );
+        assertEquals( 4, readIndexRule.getPropertyKey() );
+        assertTrue( readIndexRule.isComposite() );
+    }
+
+    private IndexRule createLongIndexRule( int label, int numberOfPropertyKeys )
+    {
+        int[] propertyKeys = new int[numberOfPropertyKeys];
+        for ( int i = 0; i < propertyKeys.length; i++ )
+        {
+            propertyKeys[i] = i;
+        }
+        return IndexRule.indexRule( store.nextId(), label, propertyKeys, PROVIDER_DESCRIPTOR );
+    }
 
     private long storeRule( SchemaRule rule )
     {
@@ -98,6 +98,7 @@ import org.neo4j.kernel.impl.util.ArrayMap;
 import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.RelIdArray.DirectionWrapper;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.kernel.logging.DevNullLoggingService;
 import org.neo4j.kernel.monitoring.Monitors;
 import org.neo4j.test.EphemeralFileSystemRule;
@@ -243,6 +244,7 @@ public class TestNeoStore
         {
             private final LabelScanStoreProvider labelScanStoreProvider =
                     new LabelScanStoreProvider( new InMemoryLabelScanStore(), 10 );
+            private final WorkloadManager workloads = new WorkloadManager( new Config() );
 
             @Override
             public <T> T resolveDependency( Class<T> type, SelectionStrategy selector ) throws IllegalArgumentException
@@ -255,6 +257,10 @@ public class TestNeoStore
                 {
                     return type.cast( labelScanStoreProvider );
                 }
+                else if ( WorkloadManager.class.isAssignableFrom( type ) )
+                {
+                    return type.cast( workloads );
+                }
                 throw new IllegalArgumentException( type.toString() );
             }
         };
@@ -0,0 +1,114 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store.counts;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.neo4j.register.Register.DoubleLongRegister;
+
+import static org.junit.Assert.assertEquals;
+import static org.neo4j.register.Registers.newDoubleLongRegister;
+
+public class CountsDeltaTest
+{
+    @Test
+    public void shouldAddRelativeDeltaToTheValueBelow() throws Exception
+    {
+        // given
+        CountsDelta delta = CountsDelta.relative();
+
+        // when
+        delta.increment( 1, 10 );
+        delta.increment( 2, -3 );
+
+        // then
+        DoubleLongRegister register = newDoubleLongRegister();
+        delta.applyTo( 5, 5, register );
+        assertEquals( 8, register.readFirst() );
+        assertEquals( 12, register.readSecond() );
+    }
+
+    @Test
+    public void shouldIgnoreTheValueBelowForReplacement() throws Exception
+    {
+        // given
+        CountsDelta delta = CountsDelta.replacement( 7, 9 );
+
+        // when
+        delta.increment( 1, 1 );
+
+        // then
+        DoubleLongRegister register = newDoubleLongRegister();
+        delta.applyTo( 100, 100, register );
+        assertEquals( 8, register.readFirst() );
+        assertEquals( 10, register.readSecond() );
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentIncrements() throws Exception
+    {
+        // given
+        final CountsDelta delta = CountsDelta.relative();
+        final int threads = 8, increments = 10_000;
+        final CountDownLatch start = new CountDownLatch( 1 );
+        List<Thread> workers = new ArrayList<>();
+        for ( int i = 0; i < threads; i++ )
+        {
+            Thread worker = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        throw new RuntimeException( e );
+                    }
+                    for ( int j = 0; j < increments; j++ )
+                    {
+                        delta.increment( 1, 2 );
+                    }
+                }
+            };
+            worker.start();
+            workers.add( worker );
+        }
+
+        // when
+        start.countDown();
+        for ( Thread worker : workers )
+        {
+            worker.join();
+        }
+
+        // then
+        DoubleLongRegister register = newDoubleLongRegister();
+        delta.applyTo( 0, 0, register );
+        assertEquals( threads * increments, register.readFirst() );
+        assertEquals( 2 * threads * increments, register.readSecond() );
+    }
+}
@@ -43,6 +43,8 @@ import org.neo4j.test.EphemeralFileSystemRule;
 import org.neo4j.test.PageCacheRule;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
@@ -187,6 +189,71 @@ public class CountsStoreTest
         }
     }
 
+    @Test
+    public void shouldUpdateValuesInPlace() throws IOException
+    {
+        // given
+        CountsStore.createEmpty( pageCache, alpha, header );
+        SortedKeyValueStore.Writer<CountsKey, CopyableDoubleLongRegister> writer;
+        DoubleLongRegister valueRegister = Registers.newDoubleLongRegister();
+        try ( CountsStore counts = CountsStore.open( fs, pageCache, alpha ) )
+        {
+            writer = counts.newWriter( beta, lastCommittedTxId );
+            valueRegister.write( 0, 21 );
+            writer.visit( nodeKey( 0 ), valueRegister );
+            valueRegister.write( 0, 32 );
+            writer.visit( relationshipKey( 1, 2, 3 ), valueRegister );
+            writer.close();
+        }
+        try ( CountsStore updated = (CountsStore) writer.openForReading() )
+        {
+            // when
+            try ( SortedKeyValueStore.Updater<CountsKey, CopyableDoubleLongRegister> updater =
+                          updated.newUpdater( updated, lastCommittedTxId + 1 ) )
+            {
+                valueRegister.write( 0, 42 );
+                assertTrue( updater.update( relationshipKey( 1, 2, 3 ), valueRegister ) );
+                assertFalse( updater.update( nodeKey( 1 ), valueRegister ) );
+                updater.commit();
+            }
+
+            // then
+            assertEquals( 21, get( updated, nodeKey( 0 ) ) );
+            assertEquals( 42, get( updated, relationshipKey( 1, 2, 3 ) ) );
+            assertEquals( lastCommittedTxId + 1, updated.lastTxId() );
+        }
+        try ( CountsStore reopened = CountsStore.open( fs, pageCache, beta ) )
+        {
+            assertEquals( 21, get( reopened, nodeKey( 0 ) ) );
+            assertEquals( 42, get( reopened, relationshipKey( 1, 2, 3 ) ) );
+            assertEquals( lastCommittedTxId + 1, reopened.lastTxId() );
+            assertEquals( 2, reopened.totalRecordsStored() );
+        }
+    }
+
+    @Test
+    public void shouldNotOpenAStoreWhoseUpdateInPlaceWasNotCommitted() throws IOException
+    {
+        // given
+        CountsStore.createEmpty( pageCache, alpha, header );
+        try ( CountsStore counts = CountsStore.open( fs, pageCache, alpha ) )
+        {
+            // when
+            counts.newUpdater( counts, lastCommittedTxId ).close();
+        }
+
+        try
+        {
+            CountsStore.open( fs, pageCache, alpha );
+            fail( "should have thrown" );
+        }
+        catch ( UnderlyingStorageException ex )
+        {
+            // then
+            assertEquals( "Counts store is corrupted", ex.getMessage() );
+        }
+    }
+
     @Test
     public void shouldThrowAnExceptionIfTheStoredEntriesDiffersFromTheDataRecordsSavedInTheHeader() throws IOException
     {
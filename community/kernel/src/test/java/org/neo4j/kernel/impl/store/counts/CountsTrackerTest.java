@@ -182,6 +182,136 @@ public class CountsTrackerTest
         }
     }
 
+    @Test
+    public void shouldAcceptUpdatesWhileAnotherThreadIsPerformingRotation() throws Exception
+    {
+        // given
+        CountsTracker.createEmptyCountsStore( pageCache(), storeFile(), VERSION );
+        CountsOracle oracle = oracle();
+        Barrier.Control barrier = new Barrier.Control();
+        try ( CountsTracker tracker = new InstrumentedCountsTracker( fs.get(), pageCache(), storeFile(), barrier ) )
+        {
+            oracle.update( tracker );
+            @SuppressWarnings( "deprecation" )
+            Future<Void> task = threading.execute( new Function<CountsTracker, Void>()
+            {
+                @Override
+                public Void apply( CountsTracker tracker )
+                {
+                    try
+                    {
+                        tracker.rotate( 2 );
+                    }
+                    catch ( IOException e )
+                    {
+                        throw new AssertionError( e );
+                    }
+                    return null;
+                }
+            }, tracker );
+            barrier.await();
+
+            // when
+            CountsOracle delta = new CountsOracle();
+            {
+                CountsOracle.Node n1 = delta.node( 1 );
+                CountsOracle.Node n2 = delta.node( 1, 4 );
+                delta.relationship( n1, 1, n2 );
+            }
+            delta.update( tracker );
+            delta.update( oracle );
+
+            // then
+            oracle.verify( tracker );
+            barrier.release();
+            task.get();
+            oracle.verify( tracker );
+            tracker.rotate( 3 );
+        }
+        try ( CountsTracker tracker = new CountsTracker( StringLogger.DEV_NULL, fs.get(), pageCache(), storeFile() ) )
+        {
+            oracle.verify( tracker );
+        }
+    }
+
+    @Test
+    public void shouldUpdateTheRotatedOutStoreInPlaceWhenOnlyExistingCountsChange() throws Exception
+    {
+        // given
+        CountsTracker.createEmptyCountsStore( pageCache(), storeFile(), VERSION );
+        CountsOracle oracle = oracle();
+        WriterCountingCountsTracker tracker = new WriterCountingCountsTracker( fs.get(), pageCache(), storeFile() );
+        try
+        {
+            oracle.update( tracker );
+            tracker.rotate( 2 );
+            File firstFile = tracker.storeFile();
+            tracker.rotate( 3 );
+            assertEquals( 2, tracker.writers );
+
+            // when
+            for ( int txId = 4; txId < 7; txId++ )
+            {
+                CountsOracle delta = new CountsOracle();
+                {
+                    CountsOracle.Node n0 = delta.node( 0, 1 );
+                    CountsOracle.Node n2 = delta.node( 2, 3 );
+                    delta.relationship( n0, 1, n2 );
+                }
+                delta.update( tracker );
+                delta.update( oracle );
+                tracker.rotate( txId );
+            }
+
+            // then
+            assertEquals( 2, tracker.writers );
+            assertEquals( firstFile, tracker.storeFile() );
+            oracle.verify( tracker );
+        }
+        finally
+        {
+            tracker.close();
+        }
+        try ( CountsTracker reopened = new CountsTracker( StringLogger.DEV_NULL, fs.get(), pageCache(), storeFile() ) )
+        {
+            oracle.verify( reopened );
+        }
+    }
+
+    @Test
+    public void shouldRewriteTheStoreWhenCountsAreAdded() throws Exception
+    {
+        // given
+        CountsTracker.createEmptyCountsStore( pageCache(), storeFile(), VERSION );
+        CountsOracle oracle = oracle();
+        WriterCountingCountsTracker tracker = new WriterCountingCountsTracker( fs.get(), pageCache(), storeFile() );
+        try
+        {
+            oracle.update( tracker );
+            tracker.rotate( 2 );
+            tracker.rotate( 3 );
+
+            // when
+            CountsOracle delta = new CountsOracle();
+            delta.node( 1, 4 ); // label 4 has not been used before...
+            delta.update( tracker );
+            delta.update( oracle );
+            tracker.rotate( 4 );
+
+            // then
+            assertEquals( 3, tracker.writers );
+            oracle.verify( tracker );
+        }
+        finally
+        {
+            tracker.close();
+        }
+        try ( CountsTracker reopened = new CountsTracker( StringLogger.DEV_NULL, fs.get(), pageCache(), storeFile() ) )
+        {
+            oracle.verify( reopened );
+        }
+    }
+
     @Test
     public void shouldPickStoreFileWithLargerTxId() throws IOException
     {
@@ -309,6 +439,24 @@ public class CountsTrackerTest
         writer.openForReading().close();
     }
 
+    private static class WriterCountingCountsTracker extends CountsTracker
+    {
+        int writers;
+
+        WriterCountingCountsTracker( FileSystemAbstraction fs, PageCache pageCache, File storeFileBase )
+        {
+            super( StringLogger.DEV_NULL, fs, pageCache, storeFileBase );
+        }
+
+        @Override
+        CountsStore.Writer<CountsKey, CopyableDoubleLongRegister> nextWriter( CountsTrackerState state, long lastTxId )
+                throws IOException
+        {
+            writers++;
+            return super.nextWriter( state, lastTxId );
+        }
+    }
+
     private static class InstrumentedCountsTracker extends CountsTracker
     {
         private final Barrier barrier;
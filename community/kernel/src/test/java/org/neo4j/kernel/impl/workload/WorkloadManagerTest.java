@@ -0,0 +1,328 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.workload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.Resource;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.info.WorkloadClassInfo;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.neo4j.helpers.collection.MapUtil.stringMap;
+
+public class WorkloadManagerTest
+{
+    private final List<String> admitted = new ArrayList<>();
+
+    @Test
+    public void shouldLetWorkInUpToTheLimitOfItsClass() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList( workloadClass( "oltp", 2, 10, 0 ) ) );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+
+        // when
+        boolean first = workloads.tryEnter( oltp );
+        boolean second = workloads.enter( oltp, work( "second" ) );
+        boolean third = workloads.tryEnter( oltp );
+
+        // then
+        assertTrue( first );
+        assertTrue( second );
+        assertFalse( third );
+        assertThat( admitted, equalTo( asList( "second" ) ) );
+        assertThat( info( workloads, "oltp" ).getActive(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldHandFreedSlotsToWaitingWorkInArrivalOrder() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList( workloadClass( "oltp", 1, 10, 0 ) ) );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        workloads.tryEnter( oltp );
+        workloads.enter( oltp, work( "first" ) );
+        workloads.enter( oltp, work( "second" ) );
+
+        // when
+        workloads.exit( oltp );
+
+        // then
+        assertThat( admitted, equalTo( asList( "first" ) ) );
+        assertThat( info( workloads, "oltp" ).getQueued(), equalTo( 1 ) );
+
+        // when
+        workloads.exit( oltp );
+        workloads.exit( oltp );
+
+        // then
+        WorkloadClassInfo info = info( workloads, "oltp" );
+        assertThat( admitted, equalTo( asList( "first", "second" ) ) );
+        assertThat( info.getActive(), equalTo( 0 ) );
+        assertThat( info.getAdmitted(), equalTo( 3L ) );
+        assertThat( info.getPeakQueued(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldRejectWorkWhenTheQueueOfItsClassIsFull() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList( workloadClass( "oltp", 1, 1, 0 ) ) );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        workloads.tryEnter( oltp );
+        workloads.enter( oltp, work( "queued" ) );
+
+        // when
+        boolean accepted = workloads.enter( oltp, work( "rejected" ) );
+        workloads.exit( oltp );
+
+        // then
+        assertFalse( accepted );
+        assertThat( admitted, equalTo( asList( "queued" ) ) );
+        assertThat( info( workloads, "oltp" ).getRejected(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldNotLetInWorkThatStoppedWaiting() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList( workloadClass( "oltp", 1, 10, 0 ) ) );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        workloads.tryEnter( oltp );
+        Runnable abandoned = work( "abandoned" );
+        workloads.enter( oltp, abandoned );
+        workloads.enter( oltp, work( "waiting" ) );
+
+        // when
+        boolean withdrawn = workloads.withdraw( oltp, abandoned );
+        workloads.exit( oltp );
+
+        // then
+        assertTrue( withdrawn );
+        assertFalse( workloads.withdraw( oltp, abandoned ) );
+        assertThat( admitted, equalTo( asList( "waiting" ) ) );
+        assertThat( info( workloads, "oltp" ).getAbandoned(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldKeepClassesFromTakingEachOthersSlots() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE,
+                asList( workloadClass( "oltp", 1, 10, 0 ), workloadClass( "analytics", 1, 10, 0 ) ) );
+        WorkloadClass analytics = workloads.workloadClass( "analytics" );
+        workloads.tryEnter( analytics );
+
+        // when
+        boolean queued = workloads.enter( analytics, work( "analytics" ) );
+        boolean oltp = workloads.tryEnter( workloads.workloadClass( "oltp" ) );
+
+        // then
+        assertTrue( queued );
+        assertTrue( oltp );
+        assertThat( admitted, equalTo( Collections.<String>emptyList() ) );
+    }
+
+    @Test
+    public void shouldHandSharedSlotsToTheClassWithTheHighestPriorityFirst() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( 1,
+                asList( workloadClass( "analytics", 10, 10, 0 ), workloadClass( "oltp", 10, 10, 5 ) ) );
+        WorkloadClass analytics = workloads.workloadClass( "analytics" );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        workloads.tryEnter( analytics );
+        workloads.enter( analytics, work( "analytics" ) );
+        workloads.enter( oltp, work( "oltp" ) );
+
+        // when
+        workloads.exit( analytics );
+
+        // then
+        assertThat( admitted, equalTo( asList( "oltp" ) ) );
+
+        // when
+        workloads.exit( oltp );
+
+        // then
+        assertThat( admitted, equalTo( asList( "oltp", "analytics" ) ) );
+    }
+
+    @Test
+    public void shouldOnlyHoldBackTransactionsOfThreadsThatHaveBeenAssignedAClass() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList( workloadClass( "oltp", 1, 0, 0 ) ) );
+
+        // then
+        assertThat( workloads.admitCurrentThread(), nullValue() );
+
+        try ( Resource ignored = workloads.assign( "oltp" ) )
+        {
+            // when
+            WorkloadManager.Admission admission = workloads.admitCurrentThread();
+
+            // then
+            assertThat( admission, notNullValue() );
+            assertThat( admission.workloadClass().name(), equalTo( "oltp" ) );
+            assertThat( "a transaction begun by admitted work", workloads.admitCurrentThread(), nullValue() );
+            admission.close();
+        }
+        assertThat( info( workloads, "oltp" ).getActive(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldTellTheClassOfTheAdmittedWorkTheCurrentThreadRuns() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList( workloadClass( "oltp", 1, 0, 0 ) ) );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        assertThat( workloads.runningWorkloadClass(), nullValue() );
+
+        // when
+        assertTrue( workloads.tryEnter( oltp ) );
+        try ( WorkloadManager.Admission ignored = workloads.admitted( oltp ) )
+        {
+            // then
+            assertThat( workloads.runningWorkloadClass(), equalTo( oltp ) );
+        }
+        assertThat( workloads.runningWorkloadClass(), nullValue() );
+    }
+
+    @Test
+    public void shouldGiveUpWaitingAfterTheQueueTimeoutOfTheClass() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE,
+                asList( new WorkloadClass( "oltp", 1, 10, 10, 0, Collections.<String>emptyList() ) ) );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        workloads.tryEnter( oltp );
+
+        // when
+        try
+        {
+            workloads.admit( oltp );
+            fail( "Should have timed out" );
+        }
+        catch ( WorkloadAdmissionException e )
+        {
+            // then
+            assertThat( info( workloads, "oltp" ).getAbandoned(), equalTo( 1L ) );
+            assertThat( info( workloads, "oltp" ).getQueued(), equalTo( 0 ) );
+        }
+    }
+
+    @Test
+    public void shouldReadWorkloadClassesFromConfiguration() throws Exception
+    {
+        // given
+        Config config = new Config( stringMap(
+                "dbms.workload.classes", "oltp,analytics",
+                "dbms.workload.oltp.priority", "10",
+                "dbms.workload.analytics.max_concurrent", "2",
+                "dbms.workload.analytics.queue_timeout", "5s",
+                "dbms.workload.analytics.users", "reporting,etl" ) );
+
+        // when
+        WorkloadManager workloads = new WorkloadManager( config );
+
+        // then
+        WorkloadClass analytics = workloads.workloadClass( "analytics" );
+        assertThat( analytics.maxConcurrent(), equalTo( 2 ) );
+        assertThat( analytics.queueTimeoutMillis(), equalTo( 5000L ) );
+        assertThat( workloads.workloadClass( "oltp" ).priority(), equalTo( 10 ) );
+        assertThat( workloads.workloadClass( "unknown" ).name(), equalTo( WorkloadManager.DEFAULT_CLASS ) );
+        assertThat( workloads.workloadClass( "etl", "oltp" ), equalTo( analytics ) );
+        assertThat( workloads.workloadClass( "someone", "oltp" ).name(), equalTo( "oltp" ) );
+        assertThat( workloads.workloadClass( "someone", "analytics" ).name(), equalTo( WorkloadManager.DEFAULT_CLASS ) );
+        assertThat( workloads.workloadClass( null, "analytics" ).name(), equalTo( WorkloadManager.DEFAULT_CLASS ) );
+        assertThat( workloads.workloadClass( null, null ).name(), equalTo( WorkloadManager.DEFAULT_CLASS ) );
+    }
+
+    @Test
+    public void shouldReadTheDefaultClassFromConfiguration() throws Exception
+    {
+        // given
+        Config config = new Config( stringMap(
+                "dbms.workload.default.max_concurrent", "4",
+                "dbms.workload.default.max_queued", "20",
+                "dbms.workload.default.queue_timeout", "5s" ) );
+
+        // when
+        WorkloadClass workloadClass = new WorkloadManager( config ).defaultClass();
+
+        // then
+        assertThat( workloadClass.name(), equalTo( WorkloadManager.DEFAULT_CLASS ) );
+        assertThat( workloadClass.maxConcurrent(), equalTo( 4 ) );
+        assertThat( workloadClass.maxQueued(), equalTo( 20 ) );
+        assertThat( workloadClass.queueTimeoutMillis(), equalTo( 5000L ) );
+    }
+
+    @Test
+    public void shouldNotLimitTheDefaultClassUnlessConfiguredTo() throws Exception
+    {
+        // when
+        WorkloadClass workloadClass = new WorkloadManager( new Config() ).defaultClass();
+
+        // then
+        assertThat( workloadClass.maxConcurrent(), equalTo( Integer.MAX_VALUE ) );
+    }
+
+    private WorkloadClass workloadClass( String name, int maxConcurrent, int maxQueued, int priority )
+    {
+        return new WorkloadClass( name, maxConcurrent, maxQueued, 0, priority, Collections.<String>emptyList() );
+    }
+
+    private WorkloadClassInfo info( WorkloadManager workloads, String name )
+    {
+        for ( WorkloadClassInfo info : workloads.workloadClassInfo() )
+        {
+            if ( info.getName().equals( name ) )
+            {
+                return info;
+            }
+        }
+        throw new AssertionError( "No workload class " + name );
+    }
+
+    private Runnable work( final String name )
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                admitted.add( name );
+            }
+        };
+    }
+}
@@ -49,6 +49,49 @@ public class LuceneDocumentStructure
 
     enum ValueEncoding
     {
+        Composite
+        {
+            @Override
+            String key()
+            {
+                return "composite";
+            }
+
+            @Override
+            boolean canEncode( Object value )
+            {
+                // tuples of composite indexes are plain Object[], whereas array properties are always typed
+                return value.getClass() == Object[].class;
+            }
+
+            @Override
+            Fieldable encodeField( Object value )
+            {
+                return field( key(), encodeTuple( (Object[]) value ) );
+            }
+
+            @Override
+            Query encodeQuery( Object value )
+            {
+                return new TermQuery( new Term( key(), encodeTuple( (Object[]) value ) ) );
+            }
+
+            /**
+             * Each element is encoded the way it would be on its own, prefixed by its encoding key, and
+             * every part is length prefixed so that no two distinct tuples end up with the same term.
+             */
+            private String encodeTuple( Object[] values )
+            {
+                StringBuilder builder = new StringBuilder();
+                for ( Object value : values )
+                {
+                    ValueEncoding encoding = encodingFor( value );
+                    String part = encoding.key() + ":" + encoding.encodeField( value ).stringValue();
+                    builder.append( part.length() ).append( ':' ).append( part );
+                }
+                return builder.toString();
+            }
+        },
         Number
         {
             @Override
@@ -162,6 +205,18 @@ public class LuceneDocumentStructure
         abstract boolean canEncode( Object value );
         abstract Fieldable encodeField( Object value );
         abstract Query encodeQuery( Object value );
+
+        static ValueEncoding encodingFor( Object value )
+        {
+            for ( ValueEncoding encoding : values() )
+            {
+                if ( encoding.canEncode( value ) )
+                {
+                    return encoding;
+                }
+            }
+            throw new IllegalStateException( "Unable to encode the value " + value );
+        }
     }
 
     public Document newDocumentRepresentingProperty( long nodeId, Fieldable encodedValue )
@@ -209,6 +264,34 @@ public class LuceneDocumentStructure
         throw new IllegalArgumentException( format( "Unable to create newQuery for %s", value ) );
     }
 
+    /**
+     * The fields values are kept in, in the order an ordered scan visits them. Terms in the number field sort
+     * by their numeric value, those in the string field lexicographically. Composite tuples are left out, as
+     * they have no order of their own.
+     */
+    String[] orderedValueFields()
+    {
+        return new String[]{ValueEncoding.Number.key(), ValueEncoding.String.key(), ValueEncoding.Bool.key(),
+                ValueEncoding.Array.key()};
+    }
+
+    /**
+     * The value a term of the number or the string field stands for, as a {@link Double} or a {@link String}, or
+     * {@code null} if the term belongs to any other field.
+     */
+    Object orderedValue( Term term )
+    {
+        if ( ValueEncoding.Number.key().equals( term.field() ) )
+        {
+            return NumericUtils.prefixCodedToDouble( term.text() );
+        }
+        if ( ValueEncoding.String.key().equals( term.field() ) )
+        {
+            return term.text();
+        }
+        return null;
+    }
+
     public Term newQueryForChangeOrRemove( long nodeId )
     {
         return new Term( NODE_ID_KEY, "" + nodeId );
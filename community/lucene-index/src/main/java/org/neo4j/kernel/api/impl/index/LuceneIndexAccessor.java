@@ -58,7 +58,7 @@ abstract class LuceneIndexAccessor implements IndexAccessor
     private final IndexWriterStatus writerStatus;
     private final Directory dir;
     private final File dirFile;
-    private final int bufferSizeLimit;
+    protected final int bufferSizeLimit;
     private final TaskCoordinator taskCoordinator = new TaskCoordinator( 10, TimeUnit.MILLISECONDS );
 
     LuceneIndexAccessor( LuceneDocumentStructure documentStructure, LuceneIndexWriterFactory indexWriterFactory,
@@ -170,6 +170,7 @@ abstract class LuceneIndexAccessor implements IndexAccessor
                 Fieldable encodedValue = documentStructure.encodeAsFieldable( value );
                 writer.updateDocument( documentStructure.newQueryForChangeOrRemove( nodeId ),
                         documentStructure.newDocumentRepresentingProperty( nodeId, encodedValue ) );
+                indexed( encodedValue );
             }
             else
             {
@@ -186,6 +187,7 @@ abstract class LuceneIndexAccessor implements IndexAccessor
     {
         Fieldable encodedValue = documentStructure.encodeAsFieldable( value );
         writer.addDocument( documentStructure.newDocumentRepresentingProperty( nodeId, encodedValue ) );
+        indexed( encodedValue );
     }
 
     protected void change( long nodeId, Object value ) throws IOException
@@ -193,6 +195,14 @@ abstract class LuceneIndexAccessor implements IndexAccessor
         Fieldable encodedValue = documentStructure.encodeAsFieldable( value );
         writer.updateDocument( documentStructure.newQueryForChangeOrRemove( nodeId ),
                 documentStructure.newDocumentRepresentingProperty( nodeId, encodedValue ) );
+        indexed( encodedValue );
+    }
+
+    /**
+     * Called for every value written to the index, after it has been written.
+     */
+    protected void indexed( Fieldable encodedValue )
+    {
     }
 
     protected void remove( long nodeId ) throws IOException
@@ -35,6 +35,9 @@ import org.neo4j.helpers.CancellationRequest;
 import org.neo4j.index.impl.lucene.Hits;
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
 import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
+import org.neo4j.kernel.impl.api.index.sampling.HyperLogLog;
+import org.neo4j.kernel.impl.api.index.sampling.IncrementalIndexSampler;
 import org.neo4j.kernel.impl.api.index.sampling.NonUniqueIndexSampler;
 
 import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.NODE_ID_KEY;
@@ -47,19 +50,61 @@ class LuceneIndexAccessorReader implements IndexReader
     private final Closeable onClose;
     private final CancellationRequest cancellation;
     private final int bufferSizeLimit;
+    private final IncrementalIndexSampler incrementalSampler;
 
     LuceneIndexAccessorReader( IndexSearcher searcher, LuceneDocumentStructure documentLogic, Closeable onClose,
                                CancellationRequest cancellation, int bufferSizeLimit )
+    {
+        this( searcher, documentLogic, onClose, cancellation, bufferSizeLimit, null );
+    }
+
+    LuceneIndexAccessorReader( IndexSearcher searcher, LuceneDocumentStructure documentLogic, Closeable onClose,
+                               CancellationRequest cancellation, int bufferSizeLimit,
+                               IncrementalIndexSampler incrementalSampler )
     {
         this.searcher = searcher;
         this.documentLogic = documentLogic;
         this.onClose = onClose;
         this.cancellation = cancellation;
         this.bufferSizeLimit = bufferSizeLimit;
+        this.incrementalSampler = incrementalSampler;
     }
 
     @Override
     public long sampleIndex( DoubleLong.Out result ) throws IndexNotFoundKernelException
+    {
+        if ( incrementalSampler == null )
+        {
+            return fullSample( result, null );
+        }
+
+        if ( !incrementalSampler.needsFullSample() )
+        {
+            return incrementalSampler.result( luceneIndexReader().numDocs(), result );
+        }
+
+        HyperLogLog sketch = incrementalSampler.fullSampleStarted();
+        boolean completed = false;
+        try
+        {
+            long indexSize = fullSample( result, sketch );
+            completed = true;
+            return indexSize;
+        }
+        finally
+        {
+            if ( completed )
+            {
+                incrementalSampler.fullSampleCompleted( sketch );
+            }
+            else
+            {
+                incrementalSampler.fullSampleAborted();
+            }
+        }
+    }
+
+    private long fullSample( DoubleLong.Out result, HyperLogLog sketch ) throws IndexNotFoundKernelException
     {
         NonUniqueIndexSampler sampler = new NonUniqueIndexSampler( bufferSizeLimit );
         try ( TermEnum terms = luceneIndexReader().terms() )
@@ -69,8 +114,13 @@ class LuceneIndexAccessorReader implements IndexReader
                 Term term = terms.term();
                 if ( !NODE_ID_KEY.equals( term.field() ))
                 {
+                    // the term enumeration only visits each term once, so count all the documents it is in
                     String value = term.text();
-                    sampler.include( value );
+                    sampler.include( value, terms.docFreq() );
+                    if ( sketch != null )
+                    {
+                        sketch.offer( value );
+                    }
                 }
                 checkCancellation();
             }
@@ -83,6 +133,39 @@ class LuceneIndexAccessorReader implements IndexReader
         return sampler.result( result );
     }
 
+    @Override
+    public IndexValueHistogram valueHistogram() throws IndexNotFoundKernelException
+    {
+        IndexValueHistogram.Builder histogram = new IndexValueHistogram.Builder( IndexValueHistogram.DEFAULT_BUCKETS,
+                IndexValueHistogram.DEFAULT_MOST_COMMON_VALUES, luceneIndexReader().numDocs() );
+        // terms come ordered by field and then by text, which puts numbers before strings, each in their own order
+        try ( TermEnum terms = luceneIndexReader().terms() )
+        {
+            while ( terms.next() )
+            {
+                Term term = terms.term();
+                if ( !NODE_ID_KEY.equals( term.field() ) )
+                {
+                    Object value = documentLogic.orderedValue( term );
+                    if ( value != null )
+                    {
+                        histogram.include( value, terms.docFreq() );
+                    }
+                    else
+                    {
+                        histogram.includeUnordered( terms.docFreq() );
+                    }
+                }
+                checkCancellation();
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+        return histogram.build();
+    }
+
 
     @Override
     public PrimitiveLongIterator lookup( Object value )
@@ -98,6 +181,13 @@ class LuceneIndexAccessorReader implements IndexReader
         }
     }
 
+    @Override
+    public PrimitiveLongIterator orderedScan( boolean ascending )
+    {
+        return new TermOrderedPrimitiveLongIterator( luceneIndexReader(), documentLogic,
+                documentLogic.orderedValueFields(), ascending );
+    }
+
     @Override
     public int getIndexedCount( long nodeId, Object propertyValue )
     {
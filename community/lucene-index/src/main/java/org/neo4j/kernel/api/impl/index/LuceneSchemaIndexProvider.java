@@ -92,7 +92,8 @@ public class LuceneSchemaIndexProvider extends SchemaIndexProvider
         else
         {
             return new NonUniqueLuceneIndexAccessor( documentStructure, standard(), writerStatus, directoryFactory,
-                    folderLayout.getFolder( indexId ), samplingConfig.bufferSize() );
+                    folderLayout.getFolder( indexId ), samplingConfig.bufferSize(),
+                    samplingConfig.fullSampleInterval() );
         }
     }
 
@@ -19,16 +19,40 @@
  */
 package org.neo4j.kernel.api.impl.index;
 
+import org.apache.lucene.document.Fieldable;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 
+import org.neo4j.helpers.CancellationRequest;
+import org.neo4j.kernel.api.index.IndexReader;
+import org.neo4j.kernel.impl.api.index.sampling.IncrementalIndexSampler;
+
 class NonUniqueLuceneIndexAccessor extends LuceneIndexAccessor
 {
+    private final IncrementalIndexSampler incrementalSampler;
+
     NonUniqueLuceneIndexAccessor( LuceneDocumentStructure documentStructure,
                                   LuceneIndexWriterFactory indexWriterFactory, IndexWriterStatus writerStatus,
-                                  DirectoryFactory dirFactory, File dirFile, int bufferSizeLimit ) throws IOException
+                                  DirectoryFactory dirFactory, File dirFile, int bufferSizeLimit,
+                                  int fullSampleInterval ) throws IOException
     {
         super( documentStructure, indexWriterFactory, writerStatus, dirFactory, dirFile, bufferSizeLimit );
+        this.incrementalSampler = new IncrementalIndexSampler( fullSampleInterval );
+    }
+
+    @Override
+    protected void indexed( Fieldable encodedValue )
+    {
+        incrementalSampler.include( encodedValue.stringValue() );
     }
 
+    @Override
+    protected IndexReader makeNewReader( IndexSearcher searcher, Closeable closeable, CancellationRequest cancellation )
+    {
+        return new LuceneIndexAccessorReader( searcher, documentStructure, closeable, cancellation, bufferSizeLimit,
+                incrementalSampler );
+    }
 }
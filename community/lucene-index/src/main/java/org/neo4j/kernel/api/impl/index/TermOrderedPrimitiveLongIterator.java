@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.impl.index;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.neo4j.collection.primitive.PrimitiveLongCollections.PrimitiveLongBaseIterator;
+
+/**
+ * Visits the documents of the given fields in term order, field by field. Lucene can only enumerate terms
+ * forwards, so an ascending scan streams terms as it goes whereas a descending scan has to collect the terms
+ * of each field before it can return them backwards.
+ */
+class TermOrderedPrimitiveLongIterator extends PrimitiveLongBaseIterator
+{
+    private final IndexReader reader;
+    private final LuceneDocumentStructure documentStructure;
+    private final Iterator<String> fields;
+    private final boolean ascending;
+    private Iterator<Term> terms = Collections.emptyIterator();
+    private TermDocs termDocs;
+
+    TermOrderedPrimitiveLongIterator( IndexReader reader, LuceneDocumentStructure documentStructure,
+                                      String[] fields, boolean ascending )
+    {
+        this.reader = reader;
+        this.documentStructure = documentStructure;
+        this.ascending = ascending;
+        List<String> fieldOrder = new ArrayList<>();
+        Collections.addAll( fieldOrder, fields );
+        if ( !ascending )
+        {
+            Collections.reverse( fieldOrder );
+        }
+        this.fields = fieldOrder.iterator();
+    }
+
+    @Override
+    protected boolean fetchNext()
+    {
+        try
+        {
+            while ( true )
+            {
+                if ( termDocs != null )
+                {
+                    if ( termDocs.next() )
+                    {
+                        return next( documentStructure.getNodeId( reader.document( termDocs.doc() ) ) );
+                    }
+                    termDocs.close();
+                    termDocs = null;
+                }
+
+                if ( terms.hasNext() )
+                {
+                    termDocs = reader.termDocs( terms.next() );
+                }
+                else if ( fields.hasNext() )
+                {
+                    String field = fields.next();
+                    terms = ascending ? new FieldTerms( reader.terms( new Term( field, "" ) ), field )
+                                      : reversedTerms( field );
+                }
+                else
+                {
+                    return false;
+                }
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new RuntimeException( e );
+        }
+    }
+
+    private Iterator<Term> reversedTerms( String field ) throws IOException
+    {
+        List<Term> collected = new ArrayList<>();
+        FieldTerms fieldTerms = new FieldTerms( reader.terms( new Term( field, "" ) ), field );
+        while ( fieldTerms.hasNext() )
+        {
+            collected.add( fieldTerms.next() );
+        }
+        Collections.reverse( collected );
+        return collected.iterator();
+    }
+
+    /**
+     * The terms of a single field, from a term enumeration positioned at the first term of that field.
+     */
+    private static class FieldTerms implements Iterator<Term>
+    {
+        private final TermEnum termEnum;
+        private final String field;
+        private Term current;
+
+        FieldTerms( TermEnum termEnum, String field ) throws IOException
+        {
+            this.termEnum = termEnum;
+            this.field = field;
+            this.current = fieldTerm( termEnum.term() );
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return current != null;
+        }
+
+        @Override
+        public Term next()
+        {
+            if ( current == null )
+            {
+                throw new NoSuchElementException();
+            }
+            Term result = current;
+            try
+            {
+                current = termEnum.next() ? fieldTerm( termEnum.term() ) : null;
+            }
+            catch ( IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+            return result;
+        }
+
+        private Term fieldTerm( Term term ) throws IOException
+        {
+            if ( term != null && field.equals( term.field() ) )
+            {
+                return term;
+            }
+            termEnum.close();
+            return null;
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -20,9 +20,11 @@
 package org.neo4j.kernel.api.impl.index;
 
 import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.NODE_ID_KEY;
 import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.ValueEncoding.Array;
 import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.ValueEncoding.Bool;
+import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.ValueEncoding.Composite;
 import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.ValueEncoding.Number;
 import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.ValueEncoding.String;
 
@@ -124,4 +126,43 @@ public class LuceneDocumentStructureTest
         // then
         assertEquals( "D1.0|2.0|3.0|", query.getTerm().text() );
     }
+
+    @Test
+    public void shouldBuildDocumentRepresentingCompositeValue() throws Exception
+    {
+        // given
+        Fieldable fieldable = documentStructure.encodeAsFieldable( new Object[]{"hello", 12} );
+        Document document = documentStructure.newDocumentRepresentingProperty( 123, fieldable );
+
+        // then
+        assertEquals( "123", document.get( NODE_ID_KEY ) );
+        String number = "number:" + NumericUtils.doubleToPrefixCoded( 12.0 );
+        assertEquals( "12:string:hello" + number.length() + ":" + number, document.get( Composite.key() ) );
+    }
+
+    @Test
+    public void shouldBuildQueryRepresentingCompositeValue() throws Exception
+    {
+        // given
+        Object[] tuple = {"hello", new int[]{1, 2}};
+        Fieldable fieldable = documentStructure.encodeAsFieldable( tuple );
+
+        // when
+        TermQuery query = (TermQuery) documentStructure.newQuery( tuple );
+
+        // then
+        assertEquals( Composite.key(), query.getTerm().field() );
+        assertEquals( fieldable.stringValue(), query.getTerm().text() );
+    }
+
+    @Test
+    public void shouldNotConfuseCompositeValuesWhoseConcatenationsAreEqual() throws Exception
+    {
+        // when
+        TermQuery first = (TermQuery) documentStructure.newQuery( new Object[]{"a:b", "c"} );
+        TermQuery second = (TermQuery) documentStructure.newQuery( new Object[]{"a", "b:c"} );
+
+        // then
+        assertNotEquals( first.getTerm().text(), second.getTerm().text() );
+    }
 }
@@ -23,6 +23,7 @@ import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.util.NumericUtils;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -30,6 +31,8 @@ import java.io.Closeable;
 import java.io.IOException;
 
 import org.neo4j.kernel.api.exceptions.index.IndexNotFoundKernelException;
+import org.neo4j.kernel.api.index.IndexValueHistogram;
+import org.neo4j.kernel.impl.api.index.sampling.IncrementalIndexSampler;
 import org.neo4j.register.Register.DoubleLongRegister;
 import org.neo4j.register.Registers;
 
@@ -37,6 +40,8 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.neo4j.helpers.CancellationRequest.NEVER_CANCELLED;
 import static org.neo4j.kernel.api.impl.index.LuceneDocumentStructure.NODE_ID_KEY;
@@ -56,6 +61,7 @@ public class LuceneIndexAccessorReaderTest
     {
         when( searcher.getIndexReader() ).thenReturn( reader );
         when( reader.terms() ).thenReturn( terms );
+        when( terms.docFreq() ).thenReturn( 1 );
     }
 
     @Test
@@ -124,6 +130,57 @@ public class LuceneIndexAccessorReaderTest
         assertEquals( 1, output.readSecond() );
     }
 
+    @Test
+    public void shouldCountAllDocumentsContainingATerm() throws Exception
+    {
+        // Given
+        when( terms.next() ).thenReturn( true, true, false );
+        when( terms.term() ).thenReturn(
+                new Term( "string", "aaa" ),
+                new Term( "string", "bbb" )
+        );
+        when( terms.docFreq() ).thenReturn( 3, 1 );
+
+        final LuceneIndexAccessorReader accessor =
+                new LuceneIndexAccessorReader( searcher, documentLogic, closeable, NEVER_CANCELLED, BUFFER_SIZE_LIMIT );
+
+        // When
+        final DoubleLongRegister output = Registers.newDoubleLongRegister();
+        long indexSize = sampleAccessor( accessor, output );
+
+        // Then
+        assertEquals( 4, indexSize );
+        assertEquals( 2, output.readFirst() );
+        assertEquals( 4, output.readSecond() );
+    }
+
+    @Test
+    public void shouldSampleIncrementallyOnceTheIndexHasBeenFullySampled() throws Exception
+    {
+        // Given
+        when( terms.next() ).thenReturn( true, true, false );
+        when( terms.term() ).thenReturn(
+                new Term( "string", "aaa" ),
+                new Term( "string", "bbb" )
+        );
+        when( reader.numDocs() ).thenReturn( 3 );
+        IncrementalIndexSampler incrementalSampler = new IncrementalIndexSampler( 10 );
+        final LuceneIndexAccessorReader accessor = new LuceneIndexAccessorReader(
+                searcher, documentLogic, closeable, NEVER_CANCELLED, BUFFER_SIZE_LIMIT, incrementalSampler );
+        sampleAccessor( accessor, Registers.newDoubleLongRegister() );
+
+        // When
+        incrementalSampler.include( "ccc" );
+        final DoubleLongRegister output = Registers.newDoubleLongRegister();
+        long indexSize = sampleAccessor( accessor, output );
+
+        // Then
+        assertEquals( 3, indexSize );
+        assertEquals( 3, output.readFirst() );
+        assertEquals( 3, output.readSecond() );
+        verify( reader, times( 1 ) ).terms();
+    }
+
     @Test
     public void shouldWrapAnIOExceptionIntoARuntimeExceptionWhenCalculatingIndexUniqueValues() throws Exception
     {
@@ -146,6 +203,33 @@ public class LuceneIndexAccessorReaderTest
         }
     }
 
+    @Test
+    public void shouldBuildAHistogramOfTheIndexedValues() throws Exception
+    {
+        // Given
+        when( terms.next() ).thenReturn( true, true, true, true, false );
+        when( terms.term() ).thenReturn(
+                new Term( NODE_ID_KEY, "1" ), // <- this should be ignored
+                new Term( "bool", "true" ),
+                new Term( "number", NumericUtils.doubleToPrefixCoded( 4.0 ) ),
+                new Term( "string", "aaa" )
+        );
+        when( terms.docFreq() ).thenReturn( 2, 3, 5 );
+        when( reader.numDocs() ).thenReturn( 10 );
+        final LuceneIndexAccessorReader accessor = new LuceneIndexAccessorReader(
+                searcher, new LuceneDocumentStructure(), closeable, NEVER_CANCELLED, BUFFER_SIZE_LIMIT );
+
+        // When
+        IndexValueHistogram histogram = accessor.valueHistogram();
+
+        // Then
+        assertEquals( 10, histogram.entries() );
+        assertEquals( 3, histogram.distinctValues() );
+        assertEquals( 0.3, histogram.equalitySelectivity( 4 ), 0.0001 );
+        assertEquals( 0.5, histogram.equalitySelectivity( "aaa" ), 0.0001 );
+        assertEquals( 0.3, histogram.rangeSelectivity( 0, true, null, false ), 0.0001 );
+    }
+
     private long sampleAccessor( LuceneIndexAccessorReader reader, DoubleLongRegister output )
             throws IndexNotFoundKernelException
     {
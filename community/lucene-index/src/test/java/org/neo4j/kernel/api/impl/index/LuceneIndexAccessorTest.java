@@ -197,7 +197,7 @@ public class LuceneIndexAccessorTest
                     {
                         return new NonUniqueLuceneIndexAccessor( documentLogic, standard(), writerLogic, dirFactory,
                                 dir,
-                                100_000 );
+                                100_000, 10 );
                     }
 
                     @Override
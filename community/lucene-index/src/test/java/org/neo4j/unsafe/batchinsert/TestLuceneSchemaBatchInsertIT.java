@@ -28,14 +28,19 @@ import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 import org.neo4j.graphdb.schema.IndexDefinition;
 import org.neo4j.graphdb.schema.Schema;
 import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
 import org.neo4j.kernel.api.impl.index.LuceneSchemaIndexProvider;
+import org.neo4j.kernel.api.index.IndexDescriptor;
 import org.neo4j.kernel.api.index.SchemaIndexProvider;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 import static org.neo4j.graphdb.DynamicLabel.label;
+import static org.neo4j.helpers.collection.IteratorUtil.asSet;
 import static org.neo4j.helpers.collection.IteratorUtil.single;
 import static org.neo4j.helpers.collection.MapUtil.map;
 import static org.neo4j.test.TargetDirectory.forTest;
@@ -75,5 +80,38 @@ public class TestLuceneSchemaBatchInsertIT
         db.shutdown();
     }
     
+    @Test
+    public void shouldPopulateCompositeIndex() throws Exception
+    {
+        // GIVEN
+        String storeDir = forTest( getClass() ).makeGraphDbDir().getAbsolutePath();
+        BatchInserter inserter = inserter( storeDir );
+        inserter.createDeferredSchemaIndex( LABEL ).on( "name" ).on( "age" ).create();
+
+        // WHEN
+        long mattias = inserter.createNode( map( "name", "Mattias", "age", 42 ), LABEL );
+        inserter.createNode( map( "name", "Mattias", "age", 43 ), LABEL );
+        inserter.createNode( map( "name", "Mattias" ), LABEL );
+        inserter.shutdown();
+
+        // THEN
+        GraphDatabaseAPI db = (GraphDatabaseAPI) new GraphDatabaseFactory().newEmbeddedDatabase( storeDir );
+        try ( Transaction ignore = db.beginTx();
+              Statement statement = db.getDependencyResolver()
+                      .resolveDependency( ThreadToStatementContextBridge.class ).instance() )
+        {
+            IndexDefinition indexDefinition = single( db.schema().getIndexes( LABEL ) );
+            assertThat( db.schema().getIndexState( indexDefinition ), is( Schema.IndexState.ONLINE ) );
+
+            ReadOperations read = statement.readOperations();
+            IndexDescriptor index = single( read.indexesGetForLabel( read.labelGetForName( LABEL.name() ) ) );
+            assertThat( asSet( read.nodesGetFromIndexLookup( index, new Object[]{"Mattias", 42} ) ),
+                    is( asSet( mattias ) ) );
+        }
+
+        // CLEANUP
+        db.shutdown();
+    }
+
     private static final Label LABEL = label( "Person" );
 }
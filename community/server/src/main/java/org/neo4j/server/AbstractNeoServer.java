@@ -29,12 +29,16 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import javax.servlet.Filter;
 
 import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.Clock;
 import org.neo4j.helpers.Function;
+import org.neo4j.helpers.NamedThreadFactory;
 import org.neo4j.helpers.Provider;
 import org.neo4j.helpers.RunCarefully;
 import org.neo4j.helpers.Settings;
@@ -46,6 +50,7 @@ import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.util.Dependencies;
 import org.neo4j.kernel.impl.util.JobScheduler;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.kernel.info.DiagnosticsManager;
 import org.neo4j.kernel.lifecycle.LifeSupport;
 import org.neo4j.kernel.logging.ConsoleLogger;
@@ -74,6 +79,7 @@ import org.neo4j.server.rest.paging.LeaseManager;
 import org.neo4j.server.rest.repr.InputFormatProvider;
 import org.neo4j.server.rest.repr.OutputFormatProvider;
 import org.neo4j.server.rest.repr.RepresentationFormatRepository;
+import org.neo4j.server.rest.transactional.AdmissionControlFilter;
 import org.neo4j.server.rest.transactional.TransactionFacade;
 import org.neo4j.server.rest.transactional.TransactionFilter;
 import org.neo4j.server.rest.transactional.TransactionHandleRegistry;
@@ -87,6 +93,7 @@ import org.neo4j.server.security.auth.SecurityCentral;
 import org.neo4j.server.security.ssl.KeyStoreFactory;
 import org.neo4j.server.security.ssl.KeyStoreInformation;
 import org.neo4j.server.security.ssl.SslCertificateFactory;
+import org.neo4j.server.web.JettyThreadCalculator;
 import org.neo4j.server.web.ServerInternalSettings;
 import org.neo4j.server.web.SimpleUriBuilder;
 import org.neo4j.server.web.WebServer;
@@ -116,6 +123,11 @@ public abstract class AbstractNeoServer implements NeoServer
      * This ensures the expiry time displayed to the user is always at least 1 second, even after it is rounded down.
      */
     private static final long ROUNDING_SECOND = 1000L;
+    /**
+     * The number of statements waiting to be planned ahead, beyond which more are not planned ahead.
+     */
+    private static final int PLANNING_QUEUE_SIZE = 1000;
+    private static final String TRANSACTION_PATH_SPEC = "/transaction/*";
 
     protected final InternalAbstractGraphDatabase.Dependencies dependencies;
     protected Database database;
@@ -141,6 +153,8 @@ public abstract class AbstractNeoServer implements NeoServer
 
     private TransactionFacade transactionFacade;
     private TransactionHandleRegistry transactionRegistry;
+    private ExecutorService statementPlanners;
+    private Filter admissionControlFilter;
 
     protected abstract PreFlightTasks createPreflightTasks();
 
@@ -264,6 +278,9 @@ public abstract class AbstractNeoServer implements NeoServer
                 .get( ServerInternalSettings.legacy_db_location ).getAbsolutePath() );
 
         putIfAbsent( result, ShellSettings.remote_shell_enabled.name(), Settings.TRUE );
+        // Unless told otherwise, let in as many transactional requests as there are threads to serve them
+        putIfAbsent( result, GraphDatabaseSettings.workload_default_max_concurrent.name(),
+                String.valueOf( new JettyThreadCalculator( getMaxThreads() ).getRequestThreads() ) );
 
         dbConfig.applyChanges( result );
     }
@@ -309,14 +326,34 @@ public abstract class AbstractNeoServer implements NeoServer
             }
         }, runEvery, MILLISECONDS );
 
+        int planningThreads = configurator.configuration().get( ServerSettings.transaction_planning_threads );
+        if ( planningThreads > 0 )
+        {
+            // planning ahead is only a hint, so statements are rather dropped than queued up without bound
+            statementPlanners = new ThreadPoolExecutor( planningThreads, planningThreads, 0, MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>( PLANNING_QUEUE_SIZE ),
+                    new NamedThreadFactory( "transaction-statement-planner" ), new ThreadPoolExecutor.DiscardPolicy() );
+        }
+
         return new TransactionFacade(
                 new TransitionalPeriodTransactionMessContainer( database.getGraph() ),
                 database.getGraph().getDependencyResolver().resolveDependency( QueryExecutionEngine.class ),
                 transactionRegistry,
-                dependencies.logging().getMessagesLog(TransactionFacade.class)
+                dependencies.logging().getMessagesLog(TransactionFacade.class),
+                configurator.configuration().get( ServerSettings.transaction_rows_per_flush ),
+                statementPlanners,
+                resolveDependency( WorkloadManager.class )
         );
     }
 
+    private void stopStatementPlanners()
+    {
+        if ( statementPlanners != null )
+        {
+            statementPlanners.shutdownNow();
+        }
+    }
+
     /**
      * We are going to ensure the minimum timeout is 2 seconds. The timeout value is communicated to the user in
      * seconds rounded down, meaning if a user set a 1 second timeout, he would be told there was less than 1 second
@@ -432,6 +469,8 @@ public abstract class AbstractNeoServer implements NeoServer
         webServer.setWadlEnabled( configurator.configuration().get( ServerInternalSettings.wadl_enabled ) );
         webServer.setDefaultInjectables( createDefaultInjectables() );
 
+        setUpAdmissionControl();
+
         if ( sslEnabled )
         {
             log.log( "Enabling HTTPS on port :%s", sslPort );
@@ -439,6 +478,22 @@ public abstract class AbstractNeoServer implements NeoServer
         }
     }
 
+    private void setUpAdmissionControl()
+    {
+        // An async filter, so that the filters modules add do not run for requests until they are let in
+        admissionControlFilter = new AdmissionControlFilter( resolveDependency( WorkloadManager.class ), security );
+        webServer.addAsyncFilter( admissionControlFilter, TRANSACTION_PATH_SPEC );
+    }
+
+    private void stopAdmissionControl()
+    {
+        if ( admissionControlFilter != null )
+        {
+            webServer.removeFilter( admissionControlFilter, TRANSACTION_PATH_SPEC );
+            admissionControlFilter = null;
+        }
+    }
+
     private int getMaxThreads()
     {
         return configurator.configuration()
@@ -598,6 +653,20 @@ public abstract class AbstractNeoServer implements NeoServer
                     stopRrdDb();
                 }
             },
+            new Runnable() {
+                @Override
+                public void run()
+                {
+                    stopStatementPlanners();
+                }
+            },
+            new Runnable() {
+                @Override
+                public void run()
+                {
+                    stopAdmissionControl();
+                }
+            },
             new Runnable() {
                 @Override
                 public void run()
@@ -154,6 +154,18 @@ public interface ServerSettings
     @Description( "Timeout for idle transactions." )
     public static final Setting<Long> transaction_timeout = setting( "org.neo4j.server.transaction.timeout", DURATION, "60s" );
 
+    @Description( "The number of result rows the transactional endpoint writes before flushing them to the client. " +
+                  "Results are streamed as the query produces them, and a client that reads slowly holds back the " +
+                  "query instead of having its results buffered on the server." )
+    public static final Setting<Integer> transaction_rows_per_flush = setting(
+            "org.neo4j.server.transaction.rows_per_flush", INTEGER, "1000", min( 1 ) );
+
+    @Description( "The number of threads that plan the statements of a transactional endpoint request ahead of " +
+                  "executing them, so that the statements of a request are not planned one after the other. " +
+                  "Set to 0 to plan each statement only when it is executed." )
+    public static final Setting<Integer> transaction_planning_threads = setting(
+            "org.neo4j.server.transaction.planning_threads", INTEGER, "4", min( 0 ) );
+
     @Description( "Enable authorization requirement to access Neo4j." )
     public static final Setting<Boolean> authorization_enabled = setting("dbms.security.authorization_enabled",
             BOOLEAN, TRUE);
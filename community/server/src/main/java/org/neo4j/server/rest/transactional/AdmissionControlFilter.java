@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.neo4j.kernel.api.exceptions.Status;
+import org.neo4j.kernel.impl.util.Charsets;
+import org.neo4j.kernel.impl.workload.WorkloadClass;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
+import org.neo4j.server.rest.dbms.AuthenticateHeaders;
+import org.neo4j.server.rest.domain.JsonHelper;
+import org.neo4j.server.security.auth.SecurityCentral;
+import org.neo4j.server.security.auth.User;
+
+import static java.util.Arrays.asList;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.neo4j.helpers.collection.MapUtil.map;
+
+/**
+ * Lets requests to the transactional endpoint in through the {@link WorkloadManager}.
+ * <p>
+ * A request belongs to the workload class that lists its user, or else to the class named by its
+ * {@value #WORKLOAD_CLASS_HEADER} header, or else to the default class. The header cannot name a class that lists
+ * users other than the user of the request.
+ * <p>
+ * Jetty reads and writes connections on its selector threads, so what ties the number of clients the server can
+ * serve to its thread count is a request holding a thread while it waits for the database. Requests that find no
+ * free slot in their class are therefore suspended with servlet async support: the connection stays open but no
+ * thread is held, and the request is dispatched again, this time straight through to the database, once a slot is
+ * handed to it. While the request executes, the transactions it begins do not take slots of their own. Requests
+ * that find the queue of their class full, or that wait for longer than its queue timeout, are answered with
+ * {@code 503 Service Unavailable}.
+ * <p>
+ * Requests that roll a transaction back are let through right away, since they only end work that has already been
+ * let in and may have to reach a transaction whose request holds the very slot they would wait for.
+ * <p>
+ * The filter must be added with {@link org.neo4j.server.web.WebServer#addAsyncFilter(Filter, String)}, so that it
+ * runs ahead of the other filters. Those then run only once for a suspended request, when it is dispatched again.
+ */
+public class AdmissionControlFilter implements Filter
+{
+    public static final String WORKLOAD_CLASS_HEADER = "X-Workload-Class";
+
+    private static final String ADMITTED = AdmissionControlFilter.class.getName() + ".admitted";
+
+    private final WorkloadManager workloads;
+    private final SecurityCentral security;
+
+    public AdmissionControlFilter( WorkloadManager workloads, SecurityCentral security )
+    {
+        this.workloads = workloads;
+        this.security = security;
+    }
+
+    @Override
+    public void init( FilterConfig filterConfig ) throws ServletException
+    {
+    }
+
+    @Override
+    public void doFilter( ServletRequest request, ServletResponse response, FilterChain chain )
+            throws IOException, ServletException
+    {
+        if ( !(request instanceof HttpServletRequest) || "DELETE".equals( ((HttpServletRequest) request).getMethod() ) )
+        {
+            chain.doFilter( request, response );
+            return;
+        }
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        Object admittedTo = request.getAttribute( ADMITTED );
+        if ( request.getDispatcherType() == DispatcherType.ASYNC && admittedTo instanceof WorkloadClass )
+        {
+            // Dispatched again after waiting in the queue, with a slot already reserved for us
+            request.removeAttribute( ADMITTED );
+            execute( (WorkloadClass) admittedTo, request, response, chain );
+            return;
+        }
+
+        WorkloadClass workloadClass = workloads.workloadClass( user( httpRequest ),
+                httpRequest.getHeader( WORKLOAD_CLASS_HEADER ) );
+        if ( workloads.tryEnter( workloadClass ) )
+        {
+            execute( workloadClass, request, response, chain );
+        }
+        else
+        {
+            suspend( workloadClass, request, (HttpServletResponse) response );
+        }
+    }
+
+    private void execute( WorkloadClass workloadClass, ServletRequest request, ServletResponse response,
+                          FilterChain chain ) throws IOException, ServletException
+    {
+        try ( WorkloadManager.Admission ignored = workloads.admitted( workloadClass ) )
+        {
+            chain.doFilter( request, response );
+        }
+    }
+
+    private void suspend( final WorkloadClass workloadClass, final ServletRequest request,
+                          final HttpServletResponse response ) throws IOException
+    {
+        final AsyncContext async = request.startAsync();
+        async.setTimeout( workloadClass.queueTimeoutMillis() );
+
+        final Runnable resume = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    request.setAttribute( ADMITTED, workloadClass );
+                    async.dispatch();
+                }
+                catch ( IllegalStateException e )
+                {
+                    // The request was completed while it waited, so pass the slot on to the next one
+                    workloads.exit( workloadClass );
+                }
+            }
+        };
+
+        async.addListener( new AsyncListener()
+        {
+            @Override
+            public void onTimeout( AsyncEvent event ) throws IOException
+            {
+                if ( workloads.withdraw( workloadClass, resume ) )
+                {
+                    reject( response, String.format( "Timed out waiting for workload class '%s' to let the request " +
+                            "in.", workloadClass ) );
+                    async.complete();
+                }
+            }
+
+            @Override
+            public void onError( AsyncEvent event ) throws IOException
+            {
+                if ( workloads.withdraw( workloadClass, resume ) )
+                {
+                    async.complete();
+                }
+            }
+
+            @Override
+            public void onComplete( AsyncEvent event ) throws IOException
+            {
+            }
+
+            @Override
+            public void onStartAsync( AsyncEvent event ) throws IOException
+            {
+            }
+        } );
+
+        if ( !workloads.enter( workloadClass, resume ) )
+        {
+            reject( response, String.format( "Too many requests of workload class '%s' are waiting.",
+                    workloadClass ) );
+            async.complete();
+        }
+    }
+
+    private String user( HttpServletRequest request )
+    {
+        String authorization = request.getHeader( HttpHeaders.AUTHORIZATION );
+        if ( security == null || authorization == null )
+        {
+            return null;
+        }
+        User user = security.userForToken( AuthenticateHeaders.extractToken( authorization ) );
+        return user == SecurityCentral.UNAUTHENTICATED ? null : user.name();
+    }
+
+    private void reject( HttpServletResponse response, String message ) throws IOException
+    {
+        // Answered the way the transactional endpoint answers errors, since Jersey is not involved yet
+        response.setStatus( SC_SERVICE_UNAVAILABLE );
+        response.setContentType( "application/json" );
+        response.getOutputStream().write( JsonHelper.createJsonFrom( map(
+                "results", Collections.emptyList(),
+                "errors", asList( map(
+                        "code", Status.Transaction.WorkloadLimitReached.code().serialize(),
+                        "message", message ) ) ) ).getBytes( Charsets.UTF_8 ) );
+    }
+
+    @Override
+    public void destroy()
+    {
+    }
+}
@@ -19,7 +19,6 @@
  */
 package org.neo4j.server.rest.transactional;
 
-import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
 
 import java.io.IOException;
@@ -53,17 +52,36 @@ import static org.neo4j.server.rest.domain.JsonHelper.writeValue;
  * </ul>
  * <p/>
  * Where {@code ?} means invoke at most once, and {@code *} means invoke zero or more times.
+ * <p/>
+ * Rows are written as they are pulled from the result, and the output is flushed after the first row and then after
+ * every {@code rowsPerFlush} rows, so clients see results as soon as the query produces them. A client that reads
+ * slowly makes those flushes block, which holds back pulling more rows from the result rather than buffering them.
  */
 public class ExecutionResultSerializer
 {
+    public static final int DEFAULT_ROWS_PER_FLUSH = 1000;
+
     public ExecutionResultSerializer( OutputStream output, URI baseUri, StringLogger log )
     {
+        this( output, baseUri, log, DEFAULT_ROWS_PER_FLUSH );
+    }
+
+    public ExecutionResultSerializer( OutputStream output, URI baseUri, StringLogger log, int rowsPerFlush )
+    {
+        this( output, baseUri, log, rowsPerFlush, WireFormat.json );
+    }
+
+    public ExecutionResultSerializer( OutputStream output, URI baseUri, StringLogger log, int rowsPerFlush,
+                                      WireFormat format )
+    {
+        this.output = output;
         this.baseUri = baseUri;
         this.log = log;
+        this.rowsPerFlush = rowsPerFlush;
         JsonGenerator generator = null;
         try
         {
-            generator = JSON_FACTORY.createJsonGenerator( output );
+            generator = format.factory().createJsonGenerator( output );
         }
         catch ( IOException e )
         {
@@ -329,8 +347,9 @@ public class ExecutionResultSerializer
 
     private State currentState = State.EMPTY;
 
-    private static final JsonFactory JSON_FACTORY = new JsonFactory( new Neo4jJsonCodec() ).disable( JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM );
     private final JsonGenerator out;
+    private final OutputStream output;
+    private final int rowsPerFlush;
     private final URI baseUri;
     private final StringLogger log;
 
@@ -369,6 +388,7 @@ public class ExecutionResultSerializer
         out.writeArrayFieldStart( "data" );
         try
         {
+            long rows = 0;
             while ( data.hasNext() )
             {
                 Map<String, Object> row = data.next();
@@ -381,6 +401,10 @@ public class ExecutionResultSerializer
                 {
                     out.writeEndObject();
                 }
+                if ( ++rows == 1 || rows % rowsPerFlush == 0 )
+                {
+                    flush();
+                }
             }
         }
         finally
@@ -390,6 +414,16 @@ public class ExecutionResultSerializer
         }
     }
 
+    /**
+     * The generator does not pass flushes on to the stream, so that ending the document does not flush it, hence
+     * flushing the stream explicitly here. This blocks while the client is not keeping up.
+     */
+    private void flush() throws IOException
+    {
+        out.flush();
+        output.flush();
+    }
+
     private void writeColumns( Iterable<String> columns ) throws IOException
     {
         try
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import org.neo4j.helpers.collection.PrefetchingIterator;
+import org.neo4j.kernel.impl.query.QueryExecutionEngine;
+import org.neo4j.kernel.impl.workload.WorkloadClass;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
+
+/**
+ * Hands out the statements of a request one at a time and in order, while reading up to {@code lookahead} statements
+ * ahead of the one handed out last and having {@code planners} plan those in the meantime. By the time a statement is
+ * executed its plan is then usually in the plan cache already, so a request with many statements does not wait for
+ * them to be planned one after the other.
+ * <p/>
+ * Planning ahead is only a hint. Statements that fail to plan, or that the planners have no room for, are planned
+ * when they are executed, in their turn, and fail there if they fail.
+ * <p/>
+ * Planning opens a transaction of its own, so the planners let it in under the workload class of the request, or the
+ * default class if the request runs outside of one. They take a slot only if one is free, and otherwise leave the
+ * statement to be planned when it is executed.
+ */
+class PlanningAheadStatements extends PrefetchingIterator<Statement>
+{
+    private final Iterator<Statement> statements;
+    private final QueryExecutionEngine engine;
+    private final Executor planners;
+    private final WorkloadManager workloads;
+    private final WorkloadClass workloadClass;
+    private final int lookahead;
+    private final Queue<Statement> readAhead = new LinkedList<>();
+    private final Set<String> planned = new HashSet<>();
+
+    PlanningAheadStatements( Iterator<Statement> statements, QueryExecutionEngine engine, Executor planners,
+                             WorkloadManager workloads, int lookahead )
+    {
+        this.statements = statements;
+        this.engine = engine;
+        this.planners = planners;
+        this.workloads = workloads;
+        this.lookahead = lookahead;
+        // created on the thread of the request, so this is the class the request has been let in under
+        WorkloadClass running = workloads.runningWorkloadClass();
+        this.workloadClass = running != null ? running : workloads.defaultClass();
+    }
+
+    @Override
+    protected Statement fetchNextOrNull()
+    {
+        if ( readAhead.isEmpty() && statements.hasNext() )
+        {
+            // the statement about to be executed is planned by the executing thread itself
+            readAhead.add( statements.next() );
+        }
+        Statement next = readAhead.poll();
+        while ( readAhead.size() < lookahead && statements.hasNext() )
+        {
+            Statement statement = statements.next();
+            readAhead.add( statement );
+            planAhead( statement.statement() );
+        }
+        return next;
+    }
+
+    private void planAhead( final String query )
+    {
+        if ( !planned.add( query ) )
+        {
+            return;
+        }
+        planners.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if ( !workloads.tryEnter( workloadClass ) )
+                {
+                    return;
+                }
+                try ( WorkloadManager.Admission ignored = workloads.admitted( workloadClass ) )
+                {
+                    engine.prepareQuery( query );
+                }
+                catch ( Exception e )
+                {
+                    // the statement fails again, and is reported, when it is executed
+                }
+            }
+        } );
+    }
+}
@@ -48,7 +48,6 @@ import static org.neo4j.helpers.collection.MapUtil.map;
 
 public class StatementDeserializer extends PrefetchingIterator<Statement>
 {
-    private static final JsonFactory JSON_FACTORY = new JsonFactory().setCodec( new Neo4jJsonCodec() ).disable( JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM );
     private static final Map<String, Object> NO_PARAMETERS = unmodifiableMap( map() );
     private static final Iterator<Neo4jError> NO_ERRORS = emptyIterator();
 
@@ -64,10 +63,15 @@ public class StatementDeserializer extends PrefetchingIterator<Statement>
     }
 
     public StatementDeserializer( InputStream input )
+    {
+        this( input, WireFormat.json );
+    }
+
+    public StatementDeserializer( InputStream input, WireFormat format )
     {
         try
         {
-            this.input = JSON_FACTORY.createJsonParser( input );
+            this.input = format.factory().createJsonParser( input );
             this.state = State.BEFORE_OUTER_ARRAY;
         }
         catch ( IOException e )
@@ -115,8 +119,16 @@ public class StatementDeserializer extends PrefetchingIterator<Statement>
                             return null;
                         }
 
-                        input.nextValue();
+                        if ( tok == START_OBJECT )
+                        {
+                            // The statement itself, its fields follow
+                            continue;
+                        }
+
+                        // Take the name from the field rather than from its value, since the binary parser does not
+                        // know the name of a field once it has entered an object or array value
                         String currentName = input.getCurrentName();
+                        input.nextToken();
                         switch ( currentName )
                         {
                         case "statement":
@@ -23,9 +23,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.concurrent.Executor;
 
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
 import org.neo4j.server.rest.web.TransactionUriScheme;
 
@@ -55,19 +57,26 @@ public class TransactionFacade
     private final QueryExecutionEngine engine;
     private final TransactionRegistry registry;
     private final StringLogger log;
+    private final int rowsPerFlush;
+    private final Executor planners;
+    private final WorkloadManager workloads;
 
     public TransactionFacade( TransitionalPeriodTransactionMessContainer kernel, QueryExecutionEngine engine,
-                              TransactionRegistry registry, StringLogger log )
+                              TransactionRegistry registry, StringLogger log, int rowsPerFlush, Executor planners,
+                              WorkloadManager workloads )
     {
         this.kernel = kernel;
         this.engine = engine;
         this.registry = registry;
         this.log = log;
+        this.rowsPerFlush = rowsPerFlush;
+        this.planners = planners;
+        this.workloads = workloads;
     }
 
     public TransactionHandle newTransactionHandle( TransactionUriScheme uriScheme ) throws TransactionLifecycleException
     {
-        return new TransactionHandle( kernel, engine, registry, uriScheme, log );
+        return new TransactionHandle( kernel, engine, registry, uriScheme, log, planners, workloads );
     }
 
     public TransactionHandle findTransactionHandle( long txId ) throws TransactionLifecycleException
@@ -80,14 +89,14 @@ public class TransactionFacade
         return registry.terminate( txId );
     }
 
-    public StatementDeserializer deserializer( InputStream input )
+    public StatementDeserializer deserializer( InputStream input, WireFormat format )
     {
-        return new StatementDeserializer( input );
+        return new StatementDeserializer( input, format );
     }
 
-    public ExecutionResultSerializer serializer( OutputStream output, URI requestUri )
+    public ExecutionResultSerializer serializer( OutputStream output, URI requestUri, WireFormat format )
     {
-        return new ExecutionResultSerializer( output, baseUri( requestUri ), log );
+        return new ExecutionResultSerializer( output, baseUri( requestUri ), log, rowsPerFlush, format );
     }
 
     static URI baseUri( URI requestUri )
@@ -21,8 +21,10 @@ package org.neo4j.server.rest.transactional;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 import org.neo4j.cypher.CypherException;
 import org.neo4j.cypher.InvalidSemanticsException;
@@ -34,6 +36,7 @@ import org.neo4j.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.query.QueryExecutionKernelException;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.server.rest.transactional.error.InternalBeginTransactionError;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
 import org.neo4j.server.rest.web.TransactionUriScheme;
@@ -59,25 +62,42 @@ import static org.neo4j.server.rest.transactional.TransactionHandle.StatementExe
  *
  * All of the public methods on this class are "single-shot"; once you have called one method, the handle returns itself
  * to the registry. If you want to use it again, you'll need to acquire it back from the registry to ensure exclusive use.
+ *
+ * When given planners, the statements of a request are planned ahead on those, under the workload class of the
+ * request, while the statements before them execute, see {@link PlanningAheadStatements}. They are still executed one
+ * at a time and in order.
  */
 public class TransactionHandle implements TransactionTerminationHandle
 {
+    static final int PLANNING_LOOKAHEAD = 16;
+
     private final TransitionalPeriodTransactionMessContainer txManagerFacade;
     private final QueryExecutionEngine engine;
     private final TransactionRegistry registry;
     private final TransactionUriScheme uriScheme;
     private final StringLogger log;
+    private final Executor planners;
+    private final WorkloadManager workloads;
     private final long id;
     private TransitionalTxManagementKernelTransaction context;
 
     public TransactionHandle( TransitionalPeriodTransactionMessContainer txManagerFacade, QueryExecutionEngine engine,
                               TransactionRegistry registry, TransactionUriScheme uriScheme, StringLogger log )
+    {
+        this( txManagerFacade, engine, registry, uriScheme, log, null, null );
+    }
+
+    public TransactionHandle( TransitionalPeriodTransactionMessContainer txManagerFacade, QueryExecutionEngine engine,
+                              TransactionRegistry registry, TransactionUriScheme uriScheme, StringLogger log,
+                              Executor planners, WorkloadManager workloads )
     {
         this.txManagerFacade = txManagerFacade;
         this.engine = engine;
         this.registry = registry;
         this.uriScheme = uriScheme;
         this.log = log;
+        this.planners = planners;
+        this.workloads = workloads;
         this.id = registry.begin( this );
     }
 
@@ -312,9 +332,11 @@ public class TransactionHandle implements TransactionTerminationHandle
     {
         try
         {
-            while ( statements.hasNext() )
+            Iterator<Statement> pending = planners == null ? statements :
+                    new PlanningAheadStatements( statements, engine, planners, workloads, PLANNING_LOOKAHEAD );
+            while ( pending.hasNext() )
             {
-                Statement statement = statements.next();
+                Statement statement = pending.next();
                 try
                 {
                     Result result = engine.executeQuery( statement.statement(), statement.parameters() );
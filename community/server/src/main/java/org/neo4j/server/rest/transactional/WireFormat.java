@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.util.List;
+import javax.ws.rs.core.MediaType;
+
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.smile.SmileFactory;
+import org.codehaus.jackson.smile.SmileGenerator;
+
+/**
+ * The encodings the transactional endpoint reads statements in and writes results in. Both carry the same document,
+ * so everything that writes to or reads from a {@link org.codehaus.jackson.JsonGenerator} or
+ * {@link org.codehaus.jackson.JsonParser} works with either.
+ * <p/>
+ * The binary encoding is Smile, which tags every value with its type, packs numbers in as few bytes as they need and
+ * refers back to field names and short strings it has already written rather than repeating them. That makes rows of
+ * nodes and relationships, which repeat the same property keys over and over, both smaller and cheaper to produce.
+ */
+public enum WireFormat
+{
+    json( MediaType.APPLICATION_JSON_TYPE,
+            new JsonFactory( new Neo4jJsonCodec() ) ),
+    binary( new MediaType( "application", "x-jackson-smile" ),
+            new SmileFactory( new Neo4jJsonCodec() ).configure( SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true ) );
+
+    public static final String BINARY_MEDIA_TYPE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+    private final JsonFactory factory;
+
+    WireFormat( MediaType mediaType, JsonFactory factory )
+    {
+        this.mediaType = mediaType;
+        this.factory = factory.disable( JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM );
+    }
+
+    public MediaType mediaType()
+    {
+        return mediaType;
+    }
+
+    JsonFactory factory()
+    {
+        return factory;
+    }
+
+    /**
+     * The format of a request body of the given content type, JSON unless it is the binary format.
+     */
+    public static WireFormat ofContent( MediaType contentType )
+    {
+        return contentType != null && binary.is( contentType ) ? binary : json;
+    }
+
+    /**
+     * The format of the response, the first of the acceptable media types, in order of preference, that is one of the
+     * formats. JSON when the client accepts anything, or none of them.
+     */
+    public static WireFormat forResponse( List<MediaType> acceptable )
+    {
+        for ( MediaType mediaType : acceptable )
+        {
+            for ( WireFormat format : values() )
+            {
+                if ( format.is( mediaType ) )
+                {
+                    return format;
+                }
+            }
+            if ( mediaType.isWildcardSubtype() )
+            {
+                return json;
+            }
+        }
+        return json;
+    }
+
+    private boolean is( MediaType other )
+    {
+        return mediaType.getType().equalsIgnoreCase( other.getType() ) &&
+               mediaType.getSubtype().equalsIgnoreCase( other.getSubtype() );
+    }
+}
@@ -31,6 +31,7 @@ import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
@@ -41,6 +42,7 @@ import org.neo4j.server.rest.transactional.ExecutionResultSerializer;
 import org.neo4j.server.rest.transactional.TransactionFacade;
 import org.neo4j.server.rest.transactional.TransactionHandle;
 import org.neo4j.server.rest.transactional.TransactionTerminationHandle;
+import org.neo4j.server.rest.transactional.WireFormat;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
 import org.neo4j.server.rest.transactional.error.TransactionLifecycleException;
 
@@ -56,16 +58,21 @@ public class TransactionalService
 {
     private final TransactionFacade facade;
     private final TransactionUriScheme uriScheme;
+    private final WireFormat requestFormat;
+    private final WireFormat responseFormat;
 
-    public TransactionalService( @Context TransactionFacade facade, @Context UriInfo uriInfo )
+    public TransactionalService( @Context TransactionFacade facade, @Context UriInfo uriInfo,
+                                 @Context HttpHeaders headers )
     {
         this.facade = facade;
         this.uriScheme = new TransactionUriBuilder( uriInfo );
+        this.requestFormat = WireFormat.ofContent( headers.getMediaType() );
+        this.responseFormat = WireFormat.forResponse( headers.getAcceptableMediaTypes() );
     }
 
     @POST
-    @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
+    @Consumes({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
+    @Produces({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
     public Response executeStatementsInNewTransaction( final InputStream input, @Context final UriInfo uriInfo )
     {
         try
@@ -81,8 +88,8 @@ public class TransactionalService
 
     @POST
     @Path("/{id}")
-    @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
+    @Consumes({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
+    @Produces({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
     public Response executeStatements( @PathParam("id") final long id, final InputStream input,
                                        @Context final UriInfo uriInfo )
     {
@@ -100,8 +107,8 @@ public class TransactionalService
 
     @POST
     @Path("/{id}/commit")
-    @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
+    @Consumes({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
+    @Produces({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
     public Response commitTransaction( @PathParam("id") final long id, final InputStream input, @Context final UriInfo uriInfo )
     {
         final TransactionHandle transactionHandle;
@@ -118,8 +125,8 @@ public class TransactionalService
 
     @POST
     @Path("/commit")
-    @Consumes({MediaType.APPLICATION_JSON})
-    @Produces({MediaType.APPLICATION_JSON})
+    @Consumes({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
+    @Produces({MediaType.APPLICATION_JSON, WireFormat.BINARY_MEDIA_TYPE})
     public Response commitNewTransaction( final InputStream input, @Context final UriInfo uriInfo )
     {
         final TransactionHandle transactionHandle;
@@ -158,6 +165,7 @@ public class TransactionalService
     private Response invalidTransaction( final TransactionLifecycleException e, final URI requestUri )
     {
         return Response.status( Response.Status.NOT_FOUND )
+                .type( responseFormat.mediaType() )
                 .entity( serializeError( e.toNeo4jError(), requestUri ) )
                 .build();
     }
@@ -165,6 +173,7 @@ public class TransactionalService
     private Response createdResponse( TransactionHandle transactionHandle, StreamingOutput streamingResults )
     {
         return Response.created( transactionHandle.uri() )
+                .type( responseFormat.mediaType() )
                 .entity( streamingResults )
                 .build();
     }
@@ -172,6 +181,7 @@ public class TransactionalService
     private Response okResponse( StreamingOutput streamingResults )
     {
         return Response.ok()
+                .type( responseFormat.mediaType() )
                 .entity( streamingResults )
                 .build();
     }
@@ -184,7 +194,8 @@ public class TransactionalService
             @Override
             public void write( OutputStream output ) throws IOException, WebApplicationException
             {
-                transactionHandle.execute( facade.deserializer( input ), facade.serializer( output, requestUri ) );
+                transactionHandle.execute( facade.deserializer( input, requestFormat ),
+                        facade.serializer( output, requestUri, responseFormat ) );
             }
         };
     }
@@ -201,8 +212,8 @@ public class TransactionalService
             {
                 OutputStream wrappedOutput = pristine ? new InterruptingOutputStream( output,
                         transactionHandle ) : output;
-                transactionHandle.commit( facade.deserializer( input ), facade.serializer( wrappedOutput,
-                        requestUri ), pristine );
+                transactionHandle.commit( facade.deserializer( input, requestFormat ),
+                        facade.serializer( wrappedOutput, requestUri, responseFormat ), pristine );
             }
         };
     }
@@ -216,7 +227,7 @@ public class TransactionalService
             {
                 if ( transactionHandle != null )
                 {
-                    transactionHandle.rollback( facade.serializer( output, requestUri ) );
+                    transactionHandle.rollback( facade.serializer( output, requestUri, responseFormat ) );
                 }
             }
         };
@@ -229,7 +240,7 @@ public class TransactionalService
             @Override
             public void write( OutputStream output ) throws IOException, WebApplicationException
             {
-                ExecutionResultSerializer serializer = facade.serializer( output, requestUri );
+                ExecutionResultSerializer serializer = facade.serializer( output, requestUri, responseFormat );
                 serializer.errors( asList( neo4jError ) );
                 serializer.finish();
             }
@@ -55,6 +55,7 @@ import org.eclipse.jetty.server.session.HashSessionManager;
 import org.eclipse.jetty.server.session.SessionHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
 import org.eclipse.jetty.util.BlockingArrayQueue;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
@@ -78,11 +79,13 @@ public class Jetty9WebServer implements WebServer
     {
         private final Filter filter;
         private final String pathSpec;
+        private final boolean asyncSupported;
 
-        public FilterDefinition( Filter filter, String pathSpec )
+        public FilterDefinition( Filter filter, String pathSpec, boolean asyncSupported )
         {
             this.filter = filter;
             this.pathSpec = pathSpec;
+            this.asyncSupported = asyncSupported;
         }
 
         public boolean matches( Filter filter, String pathSpec )
@@ -99,6 +102,11 @@ public class Jetty9WebServer implements WebServer
         {
             return pathSpec;
         }
+
+        public boolean isAsyncSupported()
+        {
+            return asyncSupported;
+        }
     }
 
     private static final int DEFAULT_HTTPS_PORT = 7473;
@@ -300,7 +308,13 @@ public class Jetty9WebServer implements WebServer
     @Override
     public void addFilter( Filter filter, String pathSpec )
     {
-        filters.add( new FilterDefinition( filter, pathSpec ) );
+        filters.add( new FilterDefinition( filter, pathSpec, false ) );
+    }
+
+    @Override
+    public void addAsyncFilter( Filter filter, String pathSpec )
+    {
+        filters.add( new FilterDefinition( filter, pathSpec, true ) );
     }
 
     @Override
@@ -559,18 +573,35 @@ public class Jetty9WebServer implements WebServer
         jerseyContext.setErrorHandler( new NeoJettyErrorHandler() );
         jerseyContext.setContextPath( mountPoint );
         jerseyContext.setSessionHandler( sessionHandler );
-        jerseyContext.addServlet( jaxRsServletHolderFactory.create( defaultInjectables, wadlEnabled ), "/*" );
+        ServletHolder servletHolder = jaxRsServletHolderFactory.create( defaultInjectables, wadlEnabled );
+        // Lets async filters suspend the requests they are about to pass on to Jersey
+        servletHolder.setAsyncSupported( true );
+        jerseyContext.addServlet( servletHolder, "/*" );
         addFiltersTo( jerseyContext );
         handlers.addHandler( jerseyContext );
     }
 
     private void addFiltersTo( ServletContextHandler context )
     {
+        // Async filters go first, since a request can only be suspended until it has passed through a filter that
+        // does not support it
         for ( FilterDefinition filterDef : filters )
         {
-            context.addFilter( new FilterHolder( filterDef.getFilter() ),
-                    filterDef.getPathSpec(), EnumSet.allOf( DispatcherType.class )
-            );
+            if ( filterDef.isAsyncSupported() )
+            {
+                FilterHolder holder = new FilterHolder( filterDef.getFilter() );
+                holder.setAsyncSupported( true );
+                context.addFilter( holder, filterDef.getPathSpec(), EnumSet.allOf( DispatcherType.class ) );
+            }
+        }
+        for ( FilterDefinition filterDef : filters )
+        {
+            if ( !filterDef.isAsyncSupported() )
+            {
+                context.addFilter( new FilterHolder( filterDef.getFilter() ),
+                        filterDef.getPathSpec(), EnumSet.allOf( DispatcherType.class )
+                );
+            }
         }
     }
 
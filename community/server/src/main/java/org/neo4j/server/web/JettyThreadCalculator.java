@@ -82,4 +82,12 @@ public class JettyThreadCalculator
     {
         return maxCapacity;
     }
+
+    /**
+     * The number of threads left to serve requests once the acceptors and selectors have taken theirs.
+     */
+    public int getRequestThreads()
+    {
+        return maxThreads - (selectors + acceptors) * 2;
+    }
 }
@@ -61,6 +61,13 @@ public interface WebServer
     void removeJAXRSClasses( List<String> classNames, String serverMountPoint );
 
     void addFilter(Filter filter, String pathSpec);
+
+    /**
+     * Adds a filter that may suspend requests with servlet async support. Such filters run ahead of all others, so
+     * that the others run only once for a suspended request, when it is dispatched again.
+     */
+    void addAsyncFilter(Filter filter, String pathSpec);
+
     void removeFilter(Filter filter, String pathSpec);
 
     void addStaticContent( String contentLocation, String serverMountPoint );
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional;
+
+import java.util.Arrays;
+import java.util.Collections;
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+
+import com.sun.jersey.core.util.Base64;
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.util.Charsets;
+import org.neo4j.kernel.impl.workload.WorkloadClass;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
+import org.neo4j.kernel.info.WorkloadClassInfo;
+import org.neo4j.server.security.auth.Privileges;
+import org.neo4j.server.security.auth.SecurityCentral;
+import org.neo4j.server.security.auth.User;
+
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class AdmissionControlFilterTest
+{
+    @Test
+    public void shouldExecuteRequestsRightAwayWhileThereAreFreeSlots() throws Exception
+    {
+        // given
+        WorkloadManager workloads = workloads( 1, 10 );
+        AdmissionControlFilter filter = new AdmissionControlFilter( workloads, null );
+        HttpServletRequest request = request( DispatcherType.REQUEST );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+        FilterChain chain = mock( FilterChain.class );
+
+        // when
+        filter.doFilter( request, response, chain );
+
+        // then
+        verify( chain ).doFilter( request, response );
+        verify( request, never() ).startAsync();
+        assertThat( info( workloads, "reporting" ).getActive(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldSuspendRequestsUntilASlotIsFreed() throws Exception
+    {
+        // given
+        WorkloadManager workloads = workloads( 1, 10 );
+        WorkloadClass reporting = workloads.workloadClass( "reporting" );
+        AdmissionControlFilter filter = new AdmissionControlFilter( workloads, null );
+        workloads.tryEnter( reporting );
+        HttpServletRequest request = request( DispatcherType.REQUEST );
+        AsyncContext async = mock( AsyncContext.class );
+        when( request.startAsync() ).thenReturn( async );
+        FilterChain chain = mock( FilterChain.class );
+
+        // when
+        filter.doFilter( request, mock( HttpServletResponse.class ), chain );
+
+        // then
+        verifyZeroInteractions( chain );
+        verify( async, never() ).dispatch();
+        verify( async ).setTimeout( 1000 );
+        assertThat( info( workloads, "reporting" ).getQueued(), equalTo( 1 ) );
+
+        // when
+        workloads.exit( reporting );
+
+        // then
+        verify( request ).setAttribute( AdmissionControlFilter.class.getName() + ".admitted", reporting );
+        verify( async ).dispatch();
+        assertThat( info( workloads, "reporting" ).getActive(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldExecuteSuspendedRequestsWhenTheyAreDispatchedAgain() throws Exception
+    {
+        // given
+        WorkloadManager workloads = workloads( 1, 10 );
+        WorkloadClass reporting = workloads.workloadClass( "reporting" );
+        AdmissionControlFilter filter = new AdmissionControlFilter( workloads, null );
+        workloads.tryEnter( reporting ); // the slot handed to the suspended request
+        HttpServletRequest request = request( DispatcherType.ASYNC );
+        when( request.getAttribute( AdmissionControlFilter.class.getName() + ".admitted" ) ).thenReturn( reporting );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+        FilterChain chain = mock( FilterChain.class );
+
+        // when
+        filter.doFilter( request, response, chain );
+
+        // then
+        verify( chain ).doFilter( request, response );
+        assertThat( info( workloads, "reporting" ).getActive(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldRejectRequestsWhenTheQueueIsFull() throws Exception
+    {
+        // given
+        WorkloadManager workloads = workloads( 1, 0 );
+        AdmissionControlFilter filter = new AdmissionControlFilter( workloads, null );
+        workloads.tryEnter( workloads.workloadClass( "reporting" ) );
+        HttpServletRequest request = request( DispatcherType.REQUEST );
+        AsyncContext async = mock( AsyncContext.class );
+        when( request.startAsync() ).thenReturn( async );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+        ServletOutputStream out = mock( ServletOutputStream.class );
+        when( response.getOutputStream() ).thenReturn( out );
+
+        // when
+        filter.doFilter( request, response, mock( FilterChain.class ) );
+
+        // then
+        verify( response ).setStatus( SC_SERVICE_UNAVAILABLE );
+        verify( out ).write( any( byte[].class ) );
+        verify( async ).complete();
+        assertThat( info( workloads, "reporting" ).getRejected(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldLetRollbacksThroughRightAway() throws Exception
+    {
+        // given
+        WorkloadManager workloads = workloads( 1, 0 );
+        AdmissionControlFilter filter = new AdmissionControlFilter( workloads, null );
+        workloads.tryEnter( workloads.workloadClass( "reporting" ) );
+        HttpServletRequest request = request( DispatcherType.REQUEST );
+        when( request.getMethod() ).thenReturn( "DELETE" );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+        FilterChain chain = mock( FilterChain.class );
+
+        // when
+        filter.doFilter( request, response, chain );
+
+        // then
+        verify( chain ).doFilter( request, response );
+        verify( request, never() ).startAsync();
+    }
+
+    @Test
+    public void shouldLeaveRequestsOfOtherWorkloadClassesAlone() throws Exception
+    {
+        // given
+        WorkloadManager workloads = workloads( 1, 0 );
+        AdmissionControlFilter filter = new AdmissionControlFilter( workloads, null );
+        workloads.tryEnter( workloads.workloadClass( "reporting" ) );
+        HttpServletRequest request = request( DispatcherType.REQUEST );
+        when( request.getHeader( AdmissionControlFilter.WORKLOAD_CLASS_HEADER ) ).thenReturn( "default" );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+        FilterChain chain = mock( FilterChain.class );
+
+        // when
+        filter.doFilter( request, response, chain );
+
+        // then
+        verify( chain ).doFilter( request, response );
+        verify( request, never() ).startAsync();
+    }
+
+    @Test
+    public void shouldNotLetUsersIntoWorkloadClassesThatDoNotListThem() throws Exception
+    {
+        // given
+        WorkloadManager workloads = new WorkloadManager( 100, Arrays.asList( new WorkloadClass( "reporting", 1, 10,
+                1000, 0, Arrays.asList( "alice" ) ) ) );
+        SecurityCentral security = mock( SecurityCentral.class );
+        when( security.userForToken( "bobs-token" ) ).thenReturn( new User( "bob", Privileges.ADMIN ) );
+        AdmissionControlFilter filter = new AdmissionControlFilter( workloads, security );
+        HttpServletRequest request = request( DispatcherType.REQUEST );
+        when( request.getHeader( HttpHeaders.AUTHORIZATION ) ).thenReturn( "Basic realm=\"Neo4j\" " +
+                new String( Base64.encode( ":bobs-token" ), Charsets.UTF_8 ) );
+        HttpServletResponse response = mock( HttpServletResponse.class );
+        FilterChain chain = mock( FilterChain.class );
+
+        // when
+        filter.doFilter( request, response, chain );
+
+        // then
+        verify( chain ).doFilter( request, response );
+        assertThat( info( workloads, "reporting" ).getAdmitted(), equalTo( 0L ) );
+        assertThat( info( workloads, WorkloadManager.DEFAULT_CLASS ).getAdmitted(), equalTo( 1L ) );
+    }
+
+    private HttpServletRequest request( DispatcherType type )
+    {
+        HttpServletRequest request = mock( HttpServletRequest.class );
+        when( request.getDispatcherType() ).thenReturn( type );
+        when( request.getMethod() ).thenReturn( "POST" );
+        when( request.getHeader( AdmissionControlFilter.WORKLOAD_CLASS_HEADER ) ).thenReturn( "reporting" );
+        return request;
+    }
+
+    private WorkloadManager workloads( int maxConcurrent, int maxQueued )
+    {
+        return new WorkloadManager( 100, Arrays.asList( new WorkloadClass( "reporting", maxConcurrent, maxQueued,
+                1000, 0, Collections.<String>emptyList() ) ) );
+    }
+
+    private WorkloadClassInfo info( WorkloadManager workloads, String name )
+    {
+        for ( WorkloadClassInfo info : workloads.workloadClassInfo() )
+        {
+            if ( info.getName().equals( name ) )
+            {
+                return info;
+            }
+        }
+        throw new AssertionError( "No workload class " + name );
+    }
+}
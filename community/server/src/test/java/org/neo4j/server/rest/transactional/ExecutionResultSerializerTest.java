@@ -20,11 +20,14 @@
 package org.neo4j.server.rest.transactional;
 
 import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.smile.SmileFactory;
 import org.junit.Test;
 import org.mockito.internal.stubbing.answers.ThrowsException;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -262,6 +265,64 @@ public class ExecutionResultSerializerTest
                       "\"errors\":[]}", result );
     }
 
+    @Test
+    public void shouldFlushRowsToTheClientWhileTheResultIsStillBeingRead() throws Exception
+    {
+        // given
+        final List<String> flushed = new ArrayList<>();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream()
+        {
+            @Override
+            public void flush()
+            {
+                flushed.add( toString() );
+            }
+        };
+        ExecutionResultSerializer serializer = new ExecutionResultSerializer( output, null, DEV_NULL, 2 );
+
+        Result executionResult = mockExecutionResult(
+                map( "column1", "value1" ),
+                map( "column1", "value2" ),
+                map( "column1", "value3" ),
+                map( "column1", "value4" ),
+                map( "column1", "value5" ) );
+
+        // when
+        serializer.statementResult( executionResult, false );
+
+        // then
+        assertEquals( 3, flushed.size() );
+        assertTrue( flushed.get( 0 ).endsWith( "{\"row\":[\"value1\"]}" ) );
+        assertTrue( flushed.get( 1 ).endsWith( "{\"row\":[\"value2\"]}" ) );
+        assertTrue( flushed.get( 2 ).endsWith( "{\"row\":[\"value4\"]}" ) );
+    }
+
+    @Test
+    public void shouldSerializeTheSameDocumentInTheBinaryFormat() throws Exception
+    {
+        // given
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        Node node = node( 1, properties( property( "name", "Ann" ), property( "scores", new int[]{1, 2, 3} ) ) );
+
+        // when
+        for ( ExecutionResultSerializer serializer : asList(
+                new ExecutionResultSerializer( json, null, DEV_NULL, 1000, WireFormat.json ),
+                new ExecutionResultSerializer( binary, null, DEV_NULL, 1000, WireFormat.binary ) ) )
+        {
+            serializer.transactionCommitUri( URI.create( "commit/uri/1" ) );
+            serializer.statementResult( mockExecutionResult( map( "node", node, "count", 2 ) ), false,
+                    ResultDataContent.row, ResultDataContent.graph );
+            serializer.finish();
+        }
+
+        // then
+        JsonNode fromBinary = new ObjectMapper( new SmileFactory() )
+                .readTree( new ByteArrayInputStream( binary.toByteArray() ) );
+        assertEquals( jsonNode( json.toString( "UTF-8" ) ), fromBinary );
+        assertTrue( binary.size() < json.size() );
+    }
+
     @Test
     public void shouldSerializeResponseWithMultipleResults() throws Exception
     {
@@ -23,6 +23,8 @@ import java.io.ByteArrayInputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.Iterator;
 
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.smile.SmileFactory;
 import org.junit.Test;
 import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
@@ -56,6 +58,26 @@ public class StatementDeserializerTest
         assertThat( de.hasNext(), equalTo( false ) );
     }
 
+    @Test
+    public void shouldDeserializeStatementsInTheBinaryFormat() throws Exception
+    {
+        // Given
+        byte[] smile = new ObjectMapper( new SmileFactory() ).writeValueAsBytes(
+                map( "statements", asList( map( "statement", "Blah blah", "parameters", map( "one", 12 ) ) ) ) );
+
+        // When
+        StatementDeserializer de = new StatementDeserializer( new ByteArrayInputStream( smile ), WireFormat.binary );
+
+        // Then
+        assertThat( de.hasNext(), equalTo( true ) );
+        Statement stmt = de.next();
+
+        assertThat( stmt.statement(), equalTo( "Blah blah" ) );
+        assertThat( stmt.parameters(), equalTo( map( "one", 12 ) ) );
+
+        assertThat( de.hasNext(), equalTo( false ) );
+    }
+
     @Test
     public void shouldRejectMapWithADifferentFieldBeforeStatement() throws Exception
     {
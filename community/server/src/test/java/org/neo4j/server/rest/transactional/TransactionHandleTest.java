@@ -20,8 +20,10 @@
 package org.neo4j.server.rest.transactional;
 
 import java.net.URI;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
@@ -37,18 +39,24 @@ import org.neo4j.kernel.api.exceptions.Status;
 import org.neo4j.kernel.impl.query.QueryExecutionEngine;
 import org.neo4j.kernel.impl.query.QueryExecutionKernelException;
 import org.neo4j.kernel.impl.util.StringLogger;
+import org.neo4j.kernel.impl.workload.WorkloadClass;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.server.rest.transactional.error.Neo4jError;
 import org.neo4j.server.rest.web.TransactionUriScheme;
 
 import static java.util.Arrays.asList;
 
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -91,6 +99,111 @@ public class TransactionHandleTest
         verifyNoMoreInteractions( output );
     }
 
+    @Test
+    public void shouldPlanStatementsAheadAndStillExecuteThemInOrder() throws Exception
+    {
+        // given
+        TransitionalPeriodTransactionMessContainer kernel = mockKernel();
+
+        QueryExecutionEngine executionEngine = mock( QueryExecutionEngine.class );
+        Result executionResult = mock( Result.class );
+        when( executionEngine.executeQuery( any( String.class ), eq( map() ) ) ).thenReturn( executionResult );
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin( any( TransactionHandle.class ) ) ).thenReturn( 1337l );
+        TransactionHandle handle = new TransactionHandle( kernel, executionEngine,
+                registry, uriScheme, StringLogger.DEV_NULL, inline, new WorkloadManager( Integer.MAX_VALUE,
+                Collections.<WorkloadClass>emptyList() ) );
+        ExecutionResultSerializer output = mock( ExecutionResultSerializer.class );
+
+        // when
+        handle.execute( statements(
+                new Statement( "first", map(), false, (ResultDataContent[]) null ),
+                new Statement( "second", map(), false, (ResultDataContent[]) null ),
+                new Statement( "third", map(), false, (ResultDataContent[]) null ),
+                new Statement( "second", map(), false, (ResultDataContent[]) null ) ), output );
+
+        // then
+        InOrder order = inOrder( executionEngine );
+        order.verify( executionEngine ).prepareQuery( "second" );
+        order.verify( executionEngine ).prepareQuery( "third" );
+        order.verify( executionEngine ).executeQuery( "first", map() );
+        order.verify( executionEngine ).executeQuery( "second", map() );
+        order.verify( executionEngine ).executeQuery( "third", map() );
+        order.verify( executionEngine ).executeQuery( "second", map() );
+        verify( executionEngine, times( 0 ) ).prepareQuery( "first" );
+        verify( executionEngine, times( 1 ) ).prepareQuery( "second" );
+        verify( output, times( 4 ) ).statementResult( executionResult, false, (ResultDataContent[]) null );
+    }
+
+    @Test
+    public void shouldPlanStatementsAheadInTheWorkloadClassOfTheRequest() throws Exception
+    {
+        // given
+        TransitionalPeriodTransactionMessContainer kernel = mockKernel();
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin( any( TransactionHandle.class ) ) ).thenReturn( 1337l );
+
+        final WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList(
+                new WorkloadClass( "oltp", 2, 0, 0, 0, Collections.<String>emptyList() ) ) );
+        final WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        final Set<WorkloadClass> plannedIn = new HashSet<>();
+        QueryExecutionEngine executionEngine = mock( QueryExecutionEngine.class );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                plannedIn.add( workloads.runningWorkloadClass() );
+                return null;
+            }
+        } ).when( executionEngine ).prepareQuery( any( String.class ) );
+        TransactionHandle handle = new TransactionHandle( kernel, executionEngine,
+                registry, uriScheme, StringLogger.DEV_NULL, inline, workloads );
+
+        // when
+        workloads.tryEnter( oltp );
+        try ( WorkloadManager.Admission ignored = workloads.admitted( oltp ) )
+        {
+            handle.execute( statements(
+                    new Statement( "first", map(), false, (ResultDataContent[]) null ),
+                    new Statement( "second", map(), false, (ResultDataContent[]) null ) ),
+                    mock( ExecutionResultSerializer.class ) );
+        }
+
+        // then
+        assertThat( plannedIn, equalTo( Collections.singleton( oltp ) ) );
+    }
+
+    @Test
+    public void shouldNotPlanStatementsAheadWhenTheWorkloadClassOfTheRequestIsFull() throws Exception
+    {
+        // given
+        TransitionalPeriodTransactionMessContainer kernel = mockKernel();
+        TransactionRegistry registry = mock( TransactionRegistry.class );
+        when( registry.begin( any( TransactionHandle.class ) ) ).thenReturn( 1337l );
+
+        WorkloadManager workloads = new WorkloadManager( Integer.MAX_VALUE, asList(
+                new WorkloadClass( "oltp", 1, 0, 0, 0, Collections.<String>emptyList() ) ) );
+        WorkloadClass oltp = workloads.workloadClass( "oltp" );
+        QueryExecutionEngine executionEngine = mock( QueryExecutionEngine.class );
+        TransactionHandle handle = new TransactionHandle( kernel, executionEngine,
+                registry, uriScheme, StringLogger.DEV_NULL, inline, workloads );
+
+        // when
+        workloads.tryEnter( oltp );
+        try ( WorkloadManager.Admission ignored = workloads.admitted( oltp ) )
+        {
+            handle.execute( statements(
+                    new Statement( "first", map(), false, (ResultDataContent[]) null ),
+                    new Statement( "second", map(), false, (ResultDataContent[]) null ) ),
+                    mock( ExecutionResultSerializer.class ) );
+        }
+
+        // then
+        verify( executionEngine, never() ).prepareQuery( any( String.class ) );
+        verify( executionEngine ).executeQuery( "second", map() );
+    }
+
     @Test
     public void shouldSuspendTransactionAndReleaseForOtherRequestsAfterExecutingStatements() throws Exception
     {
@@ -440,6 +553,15 @@ public class TransactionHandleTest
         verify( tx, times( 1 ) ).terminate();
     }
 
+    private static final Executor inline = new Executor()
+    {
+        @Override
+        public void execute( Runnable command )
+        {
+            command.run();
+        }
+    };
+
     private static final TransactionUriScheme uriScheme = new TransactionUriScheme()
     {
         @Override
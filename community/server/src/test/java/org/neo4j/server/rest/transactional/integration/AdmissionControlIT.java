@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.server.rest.transactional.integration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+import org.neo4j.kernel.impl.workload.WorkloadClass;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
+import org.neo4j.server.rest.AbstractRestFunctionalTestBase;
+import org.neo4j.test.OtherThreadExecutor;
+import org.neo4j.test.OtherThreadRule;
+import org.neo4j.test.server.HTTP;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.neo4j.server.rest.transactional.integration.TransactionMatchers.containsNoErrors;
+import static org.neo4j.test.server.HTTP.RawPayload.quotedJson;
+
+public class AdmissionControlIT extends AbstractRestFunctionalTestBase
+{
+    private final HTTP.Builder http = HTTP.withBaseUri( "http://localhost:7474" );
+    private final List<WorkloadClass> takenSlots = new ArrayList<>();
+
+    @Rule
+    public OtherThreadRule<Object> otherThread = new OtherThreadRule<>();
+
+    @After
+    public void giveUpSlots()
+    {
+        for ( WorkloadClass workloadClass : takenSlots )
+        {
+            workloads().exit( workloadClass );
+        }
+        takenSlots.clear();
+    }
+
+    @Test
+    public void shouldExecuteRequestsThatWaitedForASlot() throws Exception
+    {
+        // given
+        takeAllSlots();
+
+        // when
+        Future<HTTP.Response> queued = otherThread.execute( post( "/db/data/transaction/commit",
+                "{ 'statements': [ { 'statement': 'RETURN 1' } ] }" ) );
+        awaitQueued( 1 );
+        assertFalse( queued.isDone() );
+        giveUpSlot();
+
+        // then
+        HTTP.Response response = queued.get();
+        assertThat( response.status(), equalTo( 200 ) );
+        assertThat( response, containsNoErrors() );
+    }
+
+    @Test
+    public void shouldRollBackTransactionsWhileAllSlotsAreTaken() throws Exception
+    {
+        // given
+        HTTP.Response begin = http.POST( "/db/data/transaction" );
+        takeAllSlots();
+
+        // when
+        HTTP.Response rollback = http.DELETE( begin.location() );
+
+        // then
+        assertThat( rollback.status(), equalTo( 200 ) );
+        assertThat( rollback, containsNoErrors() );
+    }
+
+    private void takeAllSlots()
+    {
+        WorkloadClass workloadClass = workloads().defaultClass();
+        while ( workloads().tryEnter( workloadClass ) )
+        {
+            takenSlots.add( workloadClass );
+        }
+    }
+
+    private void giveUpSlot()
+    {
+        workloads().exit( takenSlots.remove( takenSlots.size() - 1 ) );
+    }
+
+    private void awaitQueued( int queued ) throws InterruptedException
+    {
+        while ( workloads().workloadClassInfo().get( 0 ).getQueued() < queued )
+        {
+            Thread.sleep( 10 );
+        }
+    }
+
+    private WorkloadManager workloads()
+    {
+        return server().getDatabase().getGraph().getDependencyResolver().resolveDependency( WorkloadManager.class );
+    }
+
+    private OtherThreadExecutor.WorkerCommand<Object, HTTP.Response> post( final String path, final String json )
+    {
+        return new OtherThreadExecutor.WorkerCommand<Object, HTTP.Response>()
+        {
+            @Override
+            public HTTP.Response doWork( Object state ) throws Exception
+            {
+                return http.POST( path, quotedJson( json ) );
+            }
+        };
+    }
+}
@@ -33,6 +33,7 @@ public class JettyThreadCalculatorTest
         assertEquals("Wrong maxThreads value for 1 core", 12, jtc.getMaxThreads());
         assertEquals("Wrong minThreads value for 1 core", 6, jtc.getMinThreads());
         assertEquals("Wrong capacity value for 1 core", 480000, jtc.getMaxCapacity());
+        assertEquals("Wrong request threads value for 1 core", 8, jtc.getRequestThreads());
 
         jtc = new JettyThreadCalculator(4);
         assertEquals("Wrong acceptor value for 4 cores", 1, jtc.getAcceptors());
@@ -40,6 +41,7 @@ public class JettyThreadCalculatorTest
         assertEquals("Wrong maxThreads value for 4 cores", 14, jtc.getMaxThreads());
         assertEquals("Wrong minThreads value for 4 cores", 8, jtc.getMinThreads());
         assertEquals("Wrong capacity value for 4 cores", 480000, jtc.getMaxCapacity());
+        assertEquals("Wrong request threads value for 4 cores", 8, jtc.getRequestThreads());
 
         jtc = new JettyThreadCalculator(16);
         assertEquals("Wrong acceptor value for 16 cores", 2, jtc.getAcceptors());
@@ -47,6 +49,7 @@ public class JettyThreadCalculatorTest
         assertEquals("Wrong maxThreads value for 16 cores", 21, jtc.getMaxThreads());
         assertEquals("Wrong minThreads value for 16 cores", 14, jtc.getMinThreads());
         assertEquals("Wrong capacity value for 16 cores", 660000, jtc.getMaxCapacity());
+        assertEquals("Wrong request threads value for 16 cores", 11, jtc.getRequestThreads());
 
         jtc = new JettyThreadCalculator(64);
         assertEquals("Wrong acceptor value for 64 cores", 4, jtc.getAcceptors());
@@ -54,5 +57,6 @@ public class JettyThreadCalculatorTest
         assertEquals("Wrong maxThreads value for 64 cores", 76, jtc.getMaxThreads());
         assertEquals("Wrong minThreads value for 64 cores", 36, jtc.getMinThreads());
         assertEquals("Wrong capacity value for 64 cores", 3120000, jtc.getMaxCapacity());
+        assertEquals("Wrong request threads value for 64 cores", 52, jtc.getRequestThreads());
     }
 }
\ No newline at end of file
@@ -19,9 +19,21 @@
  */
 package org.neo4j.server.web;
 
+import com.sun.jersey.api.client.Client;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.core.Response;
@@ -33,10 +45,15 @@ import org.neo4j.server.WrappingNeoServer;
 import org.neo4j.server.WrappingNeoServerBootstrapper;
 import org.neo4j.server.configuration.Configurator;
 import org.neo4j.server.configuration.ServerConfigurator;
+import org.neo4j.server.database.InjectableProvider;
+import org.neo4j.server.plugins.Injectable;
 import org.neo4j.test.ImpermanentDatabaseRule;
 import org.neo4j.test.ImpermanentGraphDatabase;
 import org.neo4j.test.Mute;
 
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
 import static org.neo4j.test.Mute.muteAll;
 
@@ -112,6 +129,99 @@ public class TestJetty9WebServer
         new Jetty9WebServer( DevNullLoggingService.DEV_NULL ).stop();
     }
 
+    @Test
+    public void shouldRunOtherFiltersOnlyOnceForRequestsThatAnAsyncFilterSuspends() throws Throwable
+    {
+        // given
+        Jetty9WebServer server = new Jetty9WebServer( DevNullLoggingService.DEV_NULL );
+        server.setAddress( "127.0.0.1" );
+        server.setPort( 7879 );
+        server.setDefaultInjectables( Collections.<InjectableProvider<?>>emptyList() );
+        server.addJAXRSClasses( asList( HelloWorldWebResource.class.getName() ), "/",
+                Collections.<Injectable<?>>emptyList() );
+        CountingFilter counting = new CountingFilter();
+        server.addFilter( counting, "/*" );
+        server.addAsyncFilter( new SuspendingFilter(), "/*" );
+
+        try
+        {
+            server.start();
+
+            // when
+            String greeting = Client.create().resource( "http://127.0.0.1:7879" + HelloWorldWebResource.ROOT_PATH )
+                    .type( "text/plain" ).post( String.class, "world" );
+
+            // then
+            assertThat( greeting, equalTo( "hello, world" ) );
+            assertThat( counting.requests.get(), equalTo( 1 ) );
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
+    /**
+     * Suspends every request it sees for the first time, and lets it through when it is dispatched again.
+     */
+    private static class SuspendingFilter implements Filter
+    {
+        @Override
+        public void init( FilterConfig filterConfig ) throws ServletException
+        {
+        }
+
+        @Override
+        public void doFilter( ServletRequest request, ServletResponse response, FilterChain chain )
+                throws IOException, ServletException
+        {
+            if ( request.getDispatcherType() == DispatcherType.REQUEST )
+            {
+                final AsyncContext async = request.startAsync();
+                new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        async.dispatch();
+                    }
+                }.start();
+            }
+            else
+            {
+                chain.doFilter( request, response );
+            }
+        }
+
+        @Override
+        public void destroy()
+        {
+        }
+    }
+
+    private static class CountingFilter implements Filter
+    {
+        private final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public void init( FilterConfig filterConfig ) throws ServletException
+        {
+        }
+
+        @Override
+        public void doFilter( ServletRequest request, ServletResponse response, FilterChain chain )
+                throws IOException, ServletException
+        {
+            requests.incrementAndGet();
+            chain.doFilter( request, response );
+        }
+
+        @Override
+        public void destroy()
+        {
+        }
+    }
+
     @Rule
     public Mute mute = muteAll();
 
@@ -26,6 +26,7 @@ import static org.neo4j.helpers.Settings.ANY;
 import static org.neo4j.helpers.Settings.BOOLEAN;
 import static org.neo4j.helpers.Settings.FALSE;
 import static org.neo4j.helpers.Settings.INTEGER;
+import static org.neo4j.helpers.Settings.NO_DEFAULT;
 import static org.neo4j.helpers.Settings.STRING;
 import static org.neo4j.helpers.Settings.illegalValueMessage;
 import static org.neo4j.helpers.Settings.matches;
@@ -54,4 +55,9 @@ public class ShellSettings
     @Description( "The name of the shell." )
     public static final Setting<String> remote_shell_name = setting( "remote_shell_name", STRING, "shell",
             illegalValueMessage( "must be a valid name", matches( ANY ) ) );
+
+    @Description( "The workload class that shell commands are let into the database as, see `dbms.workload.classes`. "
+                  + "When not set, shell commands are not held back." )
+    public static final Setting<String> remote_shell_workload_class = setting( "remote_shell_workload_class", STRING,
+            NO_DEFAULT );
 }
@@ -24,18 +24,23 @@ import java.rmi.RemoteException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.neo4j.graphdb.Resource;
 import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
 import org.neo4j.graphdb.factory.GraphDatabaseFactory;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.kernel.GraphDatabaseAPI;
 import org.neo4j.kernel.TopLevelTransaction;
 import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+import org.neo4j.kernel.impl.workload.WorkloadAdmissionException;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
 import org.neo4j.shell.Output;
 import org.neo4j.shell.Response;
 import org.neo4j.shell.Session;
 import org.neo4j.shell.ShellException;
 import org.neo4j.shell.ShellServer;
+import org.neo4j.shell.ShellSettings;
 import org.neo4j.shell.Variables;
 import org.neo4j.shell.Welcome;
 import org.neo4j.shell.impl.AbstractAppServer;
@@ -88,16 +93,36 @@ public class GraphDatabaseShellServer extends AbstractAppServer
     public Response interpretLine( Serializable clientId, String line, Output out ) throws ShellException
     {
         bindTransaction( clientId );
-        try
+        try ( Resource admission = admitCommand() )
         {
             return super.interpretLine( clientId, line, out );
         }
+        catch ( WorkloadAdmissionException e )
+        {
+            throw ShellException.wrapCause( e );
+        }
         finally
         {
             unbindAndRegisterTransaction( clientId );
         }
     }
 
+    /*
+    * Commands are let in as work of the configured workload class for as long as they run, so the transactions
+    * they begin do not take slots of their own, not even those left open for later commands.
+    */
+    private Resource admitCommand()
+    {
+        String workloadClassName = getDb().getDependencyResolver().resolveDependency( Config.class )
+                .get( ShellSettings.remote_shell_workload_class );
+        if ( workloadClassName == null )
+        {
+            return Resource.EMPTY;
+        }
+        WorkloadManager workloads = getDb().getDependencyResolver().resolveDependency( WorkloadManager.class );
+        return workloads.admit( workloads.workloadClass( workloadClassName ) );
+    }
+
     @Override
     public void terminate( Serializable clientId )
     {
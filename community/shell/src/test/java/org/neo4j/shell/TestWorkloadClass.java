@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2002-2014 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Neo4j is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.shell;
+
+import org.junit.Test;
+
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.workload.WorkloadClass;
+import org.neo4j.kernel.impl.workload.WorkloadManager;
+import org.neo4j.kernel.info.WorkloadClassInfo;
+import org.neo4j.test.TestGraphDatabaseFactory;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestWorkloadClass extends AbstractShellTest
+{
+    @Override
+    protected GraphDatabaseAPI newDb()
+    {
+        return (GraphDatabaseAPI) new TestGraphDatabaseFactory().setFileSystem( fs.get() )
+                .newImpermanentDatabaseBuilder()
+                .setConfig( GraphDatabaseSettings.workload_classes, "shell" )
+                .setConfig( "dbms.workload.shell.max_concurrent", "1" )
+                .setConfig( "dbms.workload.shell.max_queued", "0" )
+                .setConfig( ShellSettings.remote_shell_workload_class, "shell" )
+                .newGraphDatabase();
+    }
+
+    @Test
+    public void shouldNotTakeASecondSlotForTheTransactionsOfACommand() throws Exception
+    {
+        executeCommand( "begin transaction" );
+        executeCommand( "mknode" );
+        executeCommand( "commit" );
+
+        assertThat( info().getActive(), equalTo( 0 ) );
+        assertThat( info().getRejected(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldTurnCommandsAwayWhenTheirWorkloadClassIsFull() throws Exception
+    {
+        WorkloadManager workloads = workloads();
+        WorkloadClass shell = workloads.workloadClass( "shell" );
+        workloads.tryEnter( shell );
+        try
+        {
+            executeCommandExpectingException( "mknode", "workload class 'shell'" );
+        }
+        finally
+        {
+            workloads.exit( shell );
+        }
+
+        executeCommand( "mknode" );
+        assertThat( info().getRejected(), equalTo( 1L ) );
+    }
+
+    private WorkloadClassInfo info()
+    {
+        for ( WorkloadClassInfo info : workloads().workloadClassInfo() )
+        {
+            if ( info.getName().equals( "shell" ) )
+            {
+                return info;
+            }
+        }
+        throw new AssertionError( "No workload class shell" );
+    }
+
+    private WorkloadManager workloads()
+    {
+        return db.getDependencyResolver().resolveDependency( WorkloadManager.class );
+    }
+}